@@ -0,0 +1,16 @@
+package com.adamo.vrspfab.common;
+
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AuthorizeHttpRequestsConfigurer;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ActuatorSecurityRules implements SecurityRules {
+    @Override
+    public void configure(AuthorizeHttpRequestsConfigurer<HttpSecurity>.AuthorizationManagerRequestMatcherRegistry registry) {
+        registry
+                .requestMatchers("/actuator/health").permitAll()
+                // Metrics and other management endpoints are admin-only
+                .requestMatchers("/actuator/**").hasRole("ADMIN");
+    }
+}
@@ -0,0 +1,24 @@
+package com.adamo.vrspfab.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of a keyset-paginated listing. Unlike {@code Page}, it carries no total count;
+ * {@code next} is passed back as {@code after} to fetch the following page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    /** Cursor of the last row, or null on the last page. */
+    private String next;
+}
@@ -415,6 +415,26 @@ public class GlobalExceptionHandler {
         );
     }
 
+    /**
+     * Handles VehicleFacetsUnavailableException, returning a 503 Service Unavailable status.
+     *
+     * @param ex The VehicleFacetsUnavailableException.
+     * @param request The WebRequest.
+     * @return ResponseEntity containing the error details.
+     */
+    @ExceptionHandler(VehicleFacetsUnavailableException.class)
+    public ResponseEntity<ErrorDto> handleVehicleFacetsUnavailableException(
+            VehicleFacetsUnavailableException ex, WebRequest request
+    ) {
+        log.warn("Vehicle facets unavailable: {}", ex.getMessage());
+        return buildErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                "Service Unavailable",
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+    }
+
     /**
      * Handles InvalidVehicleDataException, returning a 400 Bad Request status.
      *
@@ -617,6 +637,22 @@ public class GlobalExceptionHandler {
         );
     }
 
+    /**
+     * Handles InvalidCursorException, returning a 400 Bad Request status.
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorDto> handleInvalidCursorException(
+            InvalidCursorException ex, WebRequest request
+    ) {
+        log.warn("Invalid pagination cursor: {}", ex.getMessage());
+        return buildErrorResponse(
+                HttpStatus.BAD_REQUEST,
+                "Bad Request",
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+    }
+
 
     /**
      * Builds an error response entity with the provided details.
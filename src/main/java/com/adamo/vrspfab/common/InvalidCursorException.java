@@ -0,0 +1,10 @@
+package com.adamo.vrspfab.common;
+
+/**
+ * Thrown when a keyset pagination cursor cannot be parsed.
+ */
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
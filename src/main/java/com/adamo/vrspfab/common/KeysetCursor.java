@@ -0,0 +1,42 @@
+package com.adamo.vrspfab.common;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position in a listing ordered by {@code createdAt DESC, id DESC}, written as {@code <createdAt>,<id>}
+ * with an ISO-8601 date-time, e.g. {@code 2025-03-01T10:15:30.123456,42}.
+ *
+ * @param createdAt The creation time of the last row of the previous page.
+ * @param id The ID of the last row of the previous page.
+ */
+public record KeysetCursor(LocalDateTime createdAt, Long id) {
+
+    /**
+     * Parses a cursor. A blank value means the start of the listing.
+     *
+     * @param value The cursor as sent by the client.
+     * @return The cursor, or null for the first page.
+     * @throws InvalidCursorException if the value is not a valid cursor.
+     */
+    public static KeysetCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        int comma = value.lastIndexOf(',');
+        if (comma < 0) {
+            throw new InvalidCursorException("Cursor must be of the form <createdAt>,<id>: " + value);
+        }
+        try {
+            return new KeysetCursor(LocalDateTime.parse(value.substring(0, comma).trim()),
+                    Long.valueOf(value.substring(comma + 1).trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidCursorException("Cursor must be of the form <createdAt>,<id>: " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return createdAt + "," + id;
+    }
+}
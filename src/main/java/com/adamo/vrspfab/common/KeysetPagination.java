@@ -0,0 +1,85 @@
+package com.adamo.vrspfab.common;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helpers for keyset (seek) pagination over entities with {@code createdAt} and {@code id} attributes.
+ * <p>
+ * Rows are ordered by {@code createdAt DESC, id DESC} and a page starts right after the cursor, so
+ * fetching any page costs one index range scan of {@code size + 1} rows, however deep it is, and no
+ * count query is issued. Page sizes are clamped to {@code [1, }{@value #MAX_PAGE_SIZE}{@code ]}.
+ */
+public final class KeysetPagination {
+
+    /** The order of every keyset-paginated listing. */
+    public static final Sort ORDER = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+
+    /** The largest page a keyset-paginated listing returns. */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private KeysetPagination() {
+    }
+
+    /**
+     * Clamps a requested page size to {@code [1, }{@value #MAX_PAGE_SIZE}{@code ]}.
+     *
+     * @param size The requested page size.
+     * @return The page size to fetch.
+     */
+    public static int pageSize(int size) {
+        return Math.clamp(size, 1, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Restricts a specification to the rows after the cursor.
+     *
+     * @param spec The filter specification, may be null.
+     * @param cursor The cursor, or null for the first page.
+     * @return The combined specification, null when both are absent.
+     */
+    public static <T> Specification<T> after(Specification<T> spec, KeysetCursor cursor) {
+        if (cursor == null) {
+            return spec;
+        }
+        Specification<T> seek = (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), cursor.createdAt()),
+                cb.and(cb.equal(root.get("createdAt"), cursor.createdAt()), cb.lessThan(root.get("id"), cursor.id())));
+        return spec != null ? spec.and(seek) : seek;
+    }
+
+    /**
+     * Builds a page from up to {@code size + 1} rows fetched in {@link #ORDER}; the extra row only tells
+     * whether another page follows.
+     *
+     * @param rows The fetched rows.
+     * @param size The page size, as returned by {@link #pageSize(int)}.
+     * @param createdAt Accessor of a row's creation time.
+     * @param id Accessor of a row's ID.
+     * @param mapper Maps a row to its DTO.
+     * @return The page.
+     */
+    public static <T, R> CursorPageDto<R> toPage(List<T> rows, int size,
+                                                 Function<T, LocalDateTime> createdAt,
+                                                 Function<T, Long> id,
+                                                 Function<T, R> mapper) {
+        size = pageSize(size);
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String next = null;
+        if (hasNext) {
+            T last = content.get(content.size() - 1);
+            next = new KeysetCursor(createdAt.apply(last), id.apply(last)).toString();
+        }
+        return CursorPageDto.<R>builder()
+                .content(content.stream().map(mapper).toList())
+                .size(size)
+                .hasNext(hasNext)
+                .next(next)
+                .build();
+    }
+}
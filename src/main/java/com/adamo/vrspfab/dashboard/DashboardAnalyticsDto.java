@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -24,6 +25,12 @@ public class DashboardAnalyticsDto {
     // Monthly performance data
     private List<MonthlyPerformanceData> monthlyPerformance;
     
+    // Series that could not be loaded in time and are left empty
+    private List<String> unavailable;
+    
+    // When the series were computed; they may be served until the next recomputation
+    private LocalDateTime generatedAt;
+    
     @Data
     @Builder
     @NoArgsConstructor
@@ -0,0 +1,97 @@
+package com.adamo.vrspfab.dashboard;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the admin dashboard payloads from memory, recomputing them in the background.
+ * <p>
+ * The first request for a payload computes it. Later requests get the last computed payload at once; the
+ * first one arriving {@code dashboard.cache.refresh-interval-ms} after it was computed also starts a
+ * recomputation in the background, and requests arriving meanwhile keep getting the previous payload, so a
+ * payload is recomputed at most once per interval however many admins poll it. If the recomputation fails,
+ * the previous payload is kept. Payloads nobody asked for in {@code dashboard.cache.expire-after-ms} are
+ * dropped. Analytics are cached per number of days.
+ * <p>
+ * Each payload carries the time it was computed in {@code generatedAt}.
+ */
+@Component
+public class DashboardCache {
+
+    private enum Payload {
+        STATS, VEHICLE_BREAKDOWN
+    }
+
+    private final DashboardService dashboardService;
+    private final LoadingCache<Payload, Object> payloads;
+    private final LoadingCache<Integer, DashboardAnalyticsDto> analytics;
+
+    @Autowired
+    public DashboardCache(DashboardService dashboardService,
+                          @Value("${dashboard.cache.refresh-interval-ms:10000}") long refreshIntervalMs,
+                          @Value("${dashboard.cache.expire-after-ms:300000}") long expireAfterMs,
+                          @Value("${dashboard.cache.max-analytics-ranges:32}") long maxAnalyticsRanges) {
+        this(dashboardService, refreshIntervalMs, expireAfterMs, maxAnalyticsRanges,
+                Ticker.systemTicker(), Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    DashboardCache(DashboardService dashboardService, long refreshIntervalMs, long expireAfterMs,
+                   long maxAnalyticsRanges, Ticker ticker, Executor executor) {
+        this.dashboardService = dashboardService;
+        this.payloads = builder(refreshIntervalMs, expireAfterMs, ticker, executor)
+                .build(this::compute);
+        this.analytics = builder(refreshIntervalMs, expireAfterMs, ticker, executor)
+                .maximumSize(maxAnalyticsRanges)
+                .build(this::computeAnalytics);
+    }
+
+    public DashboardStatsDto getDashboardStats() {
+        return (DashboardStatsDto) payloads.get(Payload.STATS);
+    }
+
+    public DashboardAnalyticsDto getDashboardAnalytics(int days) {
+        return analytics.get(days);
+    }
+
+    public VehicleBreakdownDto getVehicleBreakdown() {
+        return (VehicleBreakdownDto) payloads.get(Payload.VEHICLE_BREAKDOWN);
+    }
+
+    private Object compute(Payload payload) {
+        return switch (payload) {
+            case STATS -> {
+                DashboardStatsDto stats = dashboardService.getDashboardStats();
+                stats.setGeneratedAt(LocalDateTime.now());
+                yield stats;
+            }
+            case VEHICLE_BREAKDOWN -> {
+                VehicleBreakdownDto breakdown = dashboardService.getVehicleBreakdown();
+                breakdown.setGeneratedAt(LocalDateTime.now());
+                yield breakdown;
+            }
+        };
+    }
+
+    private DashboardAnalyticsDto computeAnalytics(int days) {
+        DashboardAnalyticsDto analytics = dashboardService.getDashboardAnalytics(days);
+        analytics.setGeneratedAt(LocalDateTime.now());
+        return analytics;
+    }
+
+    private static Caffeine<Object, Object> builder(long refreshIntervalMs, long expireAfterMs, Ticker ticker, Executor executor) {
+        return Caffeine.newBuilder()
+                .refreshAfterWrite(Duration.ofMillis(refreshIntervalMs))
+                .expireAfterAccess(Duration.ofMillis(expireAfterMs))
+                .ticker(ticker)
+                .executor(executor);
+    }
+}
@@ -1,15 +1,18 @@
 package com.adamo.vrspfab.dashboard;
 
+import com.adamo.vrspfab.reservations.OccupancyTimelineDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +23,7 @@ import java.util.Map;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardCache dashboardCache;
     private final ActivityService activityService;
 
     @Operation(summary = "Get dashboard statistics",
@@ -30,7 +34,7 @@ public class DashboardController {
                })
     @GetMapping("/stats")
     public ResponseEntity<DashboardStatsDto> getDashboardStats() {
-        return ResponseEntity.ok(dashboardService.getDashboardStats());
+        return ResponseEntity.ok(dashboardCache.getDashboardStats());
     }
 
     @Operation(summary = "Get dashboard analytics",
@@ -42,7 +46,7 @@ public class DashboardController {
     @GetMapping("/analytics")
     public ResponseEntity<DashboardAnalyticsDto> getDashboardAnalytics(
             @RequestParam(defaultValue = "30") int days) {
-        return ResponseEntity.ok(dashboardService.getDashboardAnalytics(days));
+        return ResponseEntity.ok(dashboardCache.getDashboardAnalytics(days));
     }
 
     @Operation(summary = "Get recent activities",
@@ -70,6 +74,31 @@ public class DashboardController {
         return ResponseEntity.ok(dashboardService.getActivityStats(days));
     }
 
+    @Operation(summary = "Get fleet status counts",
+               description = "Retrieves live vehicle counts per status for the fleet and per category and brand. Changes are also pushed to the /topic/admin/fleet-status WebSocket topic.",
+               responses = {
+                       @ApiResponse(responseCode = "200", description = "Successfully retrieved fleet status counts")
+               })
+    @GetMapping("/fleet-status")
+    public ResponseEntity<FleetStatusDto> getFleetStatus() {
+        return ResponseEntity.ok(dashboardService.getFleetStatus());
+    }
+
+    @Operation(summary = "Get fleet occupancy timeline",
+               description = "Retrieves the reserved vehicle-hours of the fleet and of each category per hour or day, with the fleet's utilization rate. Partial hours count for their share of an hour.",
+               responses = {
+                       @ApiResponse(responseCode = "200", description = "Successfully retrieved the occupancy timeline"),
+                       @ApiResponse(responseCode = "400", description = "Invalid timeline range")
+               })
+    @GetMapping("/occupancy-timeline")
+    public ResponseEntity<OccupancyTimelineDto> getOccupancyTimeline(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "HOUR") OccupancyTimelineDto.Resolution resolution) {
+        LocalDate start = from != null ? from : LocalDate.now().minusDays(days - 1L);
+        return ResponseEntity.ok(dashboardService.getOccupancyTimeline(start, days, resolution));
+    }
+
     @Operation(summary = "Get vehicle breakdown data",
                description = "Retrieves vehicle breakdown statistics by categories, brands, and statuses for dashboard analytics.",
                responses = {
@@ -78,6 +107,6 @@ public class DashboardController {
                })
     @GetMapping("/vehicle-breakdown")
     public ResponseEntity<VehicleBreakdownDto> getVehicleBreakdown() {
-        return ResponseEntity.ok(dashboardService.getVehicleBreakdown());
+        return ResponseEntity.ok(dashboardCache.getVehicleBreakdown());
     }
 }
@@ -0,0 +1,158 @@
+package com.adamo.vrspfab.dashboard;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent dashboard queries concurrently, so a dashboard takes as long as its slowest query rather
+ * than the sum of them.
+ * <p>
+ * Each query runs on its own virtual thread in its own read-only transaction. At most
+ * {@code dashboard.queries.max-concurrency} run at once, which keeps a dashboard from taking every pooled
+ * connection. A query that has not finished {@code dashboard.queries.timeout-ms} after it was submitted, or
+ * that fails, yields its fallback value instead; the transaction timeout stops it on the database side.
+ * <p>
+ * Query durations are recorded in the {@code dashboard.query.duration} timer and fallbacks in the
+ * {@code dashboard.query.fallbacks} counter, both tagged with the query name.
+ */
+@Component
+@Slf4j
+public class DashboardQueryExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore permits;
+    private final long timeoutMs;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dashboard-query-", 0).factory());
+
+    public DashboardQueryExecutor(PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${dashboard.queries.max-concurrency:6}") int maxConcurrency,
+                                  @Value("${dashboard.queries.timeout-ms:3000}") long timeoutMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMs + 999)));
+        this.meterRegistry = meterRegistry;
+        this.permits = new Semaphore(maxConcurrency);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Starts a query.
+     *
+     * @param name The name of the query, used in metrics and logs.
+     * @param query The query.
+     * @param fallback The value to use if the query fails or times out.
+     * @return The pending query.
+     */
+    public <T> PendingQuery<T> submit(String name, Supplier<T> query, T fallback) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Future<T> future = executor.submit(() -> {
+            permits.acquire();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = "error";
+            try {
+                T result = transactionTemplate.execute(status -> query.get());
+                outcome = "success";
+                return result;
+            } finally {
+                permits.release();
+                sample.stop(Timer.builder("dashboard.query.duration")
+                        .description("Duration of a dashboard query")
+                        .tag("query", name)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+            }
+        });
+        return new PendingQuery<>(name, future, deadline, fallback);
+    }
+
+    /**
+     * Returns the names of the queries that yielded their fallback value.
+     */
+    public static List<String> fallbacks(PendingQuery<?>... queries) {
+        List<String> names = new ArrayList<>();
+        for (PendingQuery<?> query : queries) {
+            if (query.fellBack) {
+                names.add(query.name);
+            }
+        }
+        return names;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A submitted query.
+     */
+    public final class PendingQuery<T> {
+
+        private final String name;
+        private final Future<T> future;
+        private final long deadline;
+        private final T fallback;
+        private boolean fellBack;
+
+        private PendingQuery(String name, Future<T> future, long deadline, T fallback) {
+            this.name = name;
+            this.future = future;
+            this.deadline = deadline;
+            this.fallback = fallback;
+        }
+
+        /**
+         * Waits for the result until the query's deadline.
+         *
+         * @return The result, or the fallback value if the query failed or did not finish in time.
+         */
+        public T get() {
+            try {
+                return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("Dashboard query {} did not finish within {} ms", name, timeoutMs);
+                return fallBack("timeout");
+            } catch (ExecutionException e) {
+                log.warn("Dashboard query {} failed: {}", name, e.getCause().getMessage());
+                return fallBack("error");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                return fallBack("interrupted");
+            }
+        }
+
+        private T fallBack(String reason) {
+            fellBack = true;
+            Counter.builder("dashboard.query.fallbacks")
+                    .description("Dashboard queries answered with their fallback value")
+                    .tag("query", name)
+                    .tag("reason", reason)
+                    .register(meterRegistry)
+                    .increment();
+            return fallback;
+        }
+    }
+}
@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -20,4 +22,8 @@ public class DashboardStatsDto {
     private Long pendingReservations;
     private Long completedReservations;
     private Long cancelledReservations;
+    /** Names of the figures that could not be loaded in time and hold a fallback value. */
+    private List<String> unavailable;
+    /** When the figures were computed; they may be served until the next recomputation. */
+    private LocalDateTime generatedAt;
 }
@@ -0,0 +1,215 @@
+package com.adamo.vrspfab.dashboard;
+
+import com.adamo.vrspfab.vehicles.VehicleCatalogChangedEvent;
+import com.adamo.vrspfab.vehicles.VehicleRepository;
+import com.adamo.vrspfab.vehicles.VehicleStatus;
+import com.adamo.vrspfab.vehicles.VehicleStatusChangedEvent;
+import com.adamo.vrspfab.vehicles.VehicleStatusCount;
+import com.adamo.vrspfab.vehicles.VehiclesDeletedEvent;
+import com.adamo.vrspfab.vehicles.VehiclesImportedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory vehicle counts per status, for the whole fleet and per category and brand, so the dashboard
+ * does not count vehicles on every load.
+ * <p>
+ * The counts are loaded with one grouped query on startup and reconciled against the database on
+ * {@code dashboard.fleet-status.reconcile-cron}. In between, {@link VehicleStatusChangedEvent}s move a
+ * vehicle between counters once their transaction has committed. Creations and deletions, single or bulk,
+ * carry no placement, so they mark the counts stale and the next push reconciles them. A change racing
+ * with a reconcile may be counted twice or missed until the next reconcile.
+ * <p>
+ * Changes are pushed to {@value #TOPIC} at most once per {@code dashboard.fleet-status.push-interval-ms}.
+ */
+@Component
+@Slf4j
+public class FleetStatusCounters {
+
+    static final String TOPIC = "/topic/admin/fleet-status";
+
+    private static final VehicleStatus[] STATUSES = VehicleStatus.values();
+
+    private final VehicleRepository vehicleRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    /** Null until the first reconcile succeeds. */
+    private volatile Counts counts;
+    private final AtomicBoolean stale = new AtomicBoolean();
+    private final AtomicBoolean changed = new AtomicBoolean();
+
+    public FleetStatusCounters(VehicleRepository vehicleRepository, SimpMessagingTemplate messagingTemplate) {
+        this.vehicleRepository = vehicleRepository;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    /**
+     * Replaces the counts with a fresh grouped count from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${dashboard.fleet-status.reconcile-cron:0 */10 * * * ?}")
+    public synchronized void reconcile() {
+        List<VehicleStatusCount> rows;
+        try {
+            rows = vehicleRepository.countByCategoryBrandAndStatus();
+        } catch (Exception e) {
+            log.warn("Could not reconcile the fleet status counters: {}", e.getMessage());
+            return;
+        }
+        Counts fresh = new Counts(LocalDateTime.now());
+        for (VehicleStatusCount row : rows) {
+            fresh.add(new VehicleStatusChangedEvent.Placement(row.getStatus(), row.getCategoryId(), row.getBrandId()), row.getCount());
+        }
+        Counts previous = counts;
+        counts = fresh;
+        if (previous == null || !previous.sameCountsAs(fresh)) {
+            changed.set(true);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(VehicleStatusChangedEvent event) {
+        Counts current = counts;
+        if (current == null) {
+            return;
+        }
+        current.add(event.getPrevious(), -1);
+        current.add(event.getCurrent(), 1);
+        changed.set(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(VehicleCatalogChangedEvent event) {
+        if (event.getKind() == VehicleCatalogChangedEvent.Kind.VEHICLE && (event.isCreated() || event.isRemoved())) {
+            stale.set(true);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVehiclesImported(VehiclesImportedEvent event) {
+        stale.set(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVehiclesDeleted(VehiclesDeletedEvent event) {
+        stale.set(true);
+    }
+
+    /**
+     * Reconciles stale counts and pushes the counts to the dashboard if they changed since the last push.
+     */
+    @Scheduled(fixedDelayString = "${dashboard.fleet-status.push-interval-ms:1000}")
+    public void publishChanges() {
+        if (stale.getAndSet(false)) {
+            reconcile();
+        }
+        if (changed.getAndSet(false)) {
+            try {
+                messagingTemplate.convertAndSend(TOPIC, snapshot());
+            } catch (Exception e) {
+                log.warn("Could not push the fleet status counters: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the current counts, loading them first if they have not been loaded yet.
+     *
+     * @return The counts; empty if they could not be loaded.
+     */
+    public FleetStatusDto snapshot() {
+        if (counts == null) {
+            reconcile();
+        }
+        Counts current = counts;
+        return current != null ? current.toDto() : new Counts(null).toDto();
+    }
+
+    private static final class Counts {
+
+        final LocalDateTime reconciledAt;
+        final LongAdder[] fleet = adders();
+        final ConcurrentMap<Long, LongAdder[]> byCategory = new ConcurrentHashMap<>();
+        final ConcurrentMap<Long, LongAdder[]> byBrand = new ConcurrentHashMap<>();
+
+        Counts(LocalDateTime reconciledAt) {
+            this.reconciledAt = reconciledAt;
+        }
+
+        void add(VehicleStatusChangedEvent.Placement placement, long delta) {
+            if (placement.status() == null) {
+                return;
+            }
+            int status = placement.status().ordinal();
+            fleet[status].add(delta);
+            if (placement.categoryId() != null) {
+                byCategory.computeIfAbsent(placement.categoryId(), id -> adders())[status].add(delta);
+            }
+            if (placement.brandId() != null) {
+                byBrand.computeIfAbsent(placement.brandId(), id -> adders())[status].add(delta);
+            }
+        }
+
+        boolean sameCountsAs(Counts other) {
+            return statuses(fleet).equals(statuses(other.fleet))
+                    && byId(byCategory).equals(byId(other.byCategory))
+                    && byId(byBrand).equals(byId(other.byBrand));
+        }
+
+        FleetStatusDto toDto() {
+            Map<VehicleStatus, Long> statuses = statuses(fleet);
+            return FleetStatusDto.builder()
+                    .totalVehicles(statuses.values().stream().mapToLong(Long::longValue).sum())
+                    .statuses(statuses)
+                    .categories(byId(byCategory))
+                    .brands(byId(byBrand))
+                    .reconciledAt(reconciledAt)
+                    .build();
+        }
+
+        private static Map<Long, Map<VehicleStatus, Long>> byId(Map<Long, LongAdder[]> counters) {
+            Map<Long, Map<VehicleStatus, Long>> byId = new TreeMap<>();
+            counters.forEach((id, adders) -> {
+                Map<VehicleStatus, Long> statuses = statuses(adders);
+                if (!statuses.isEmpty()) {
+                    byId.put(id, statuses);
+                }
+            });
+            return byId;
+        }
+
+        private static Map<VehicleStatus, Long> statuses(LongAdder[] adders) {
+            Map<VehicleStatus, Long> statuses = new EnumMap<>(VehicleStatus.class);
+            for (VehicleStatus status : STATUSES) {
+                long count = adders[status.ordinal()].sum();
+                if (count != 0) {
+                    statuses.put(status, count);
+                }
+            }
+            return statuses;
+        }
+
+        private static LongAdder[] adders() {
+            LongAdder[] adders = new LongAdder[STATUSES.length];
+            for (int i = 0; i < adders.length; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.adamo.vrspfab.dashboard;
+
+import com.adamo.vrspfab.vehicles.VehicleStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Live vehicle counts per status, for the whole fleet and per category and brand ID.
+ * Statuses without vehicles are omitted from the maps.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetStatusDto {
+    private long totalVehicles;
+    private Map<VehicleStatus, Long> statuses;
+    private Map<Long, Map<VehicleStatus, Long>> categories;
+    private Map<Long, Map<VehicleStatus, Long>> brands;
+    /** When the counts were last reconciled against the database. */
+    private LocalDateTime reconciledAt;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -20,6 +21,8 @@ public class VehicleBreakdownDto {
     private List<ModelAnalytics> topModels;
     private UtilizationMetrics utilization;
     private RevenueMetrics revenue;
+    /** When the figures were computed; they may be served until the next recomputation. */
+    private LocalDateTime generatedAt;
 
     @Data
     @Builder
@@ -1,6 +1,8 @@
 package com.adamo.vrspfab.notifications;
 
 
+import com.adamo.vrspfab.common.CursorPageDto;
+import com.adamo.vrspfab.common.KeysetCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -168,4 +170,35 @@ public class NotificationController {
                 .build();
         return ResponseEntity.ok(notificationService.getAllNotificationsAdmin(filter, pageable));
     }
+
+    @Operation(summary = "[ADMIN] Get all notifications after a cursor",
+            description = "Keyset-paginated variant of the admin listing, selected by the 'after' parameter: pass it empty for the first page, " +
+                    "then the returned 'next' cursor. Newest first, without a total count; 'size' is clamped between 1 and 100. Requires ADMIN role.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully retrieved notifications"),
+                    @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden, insufficient privileges (requires ADMIN role)"),
+                    @ApiResponse(responseCode = "500", description = "Internal server error")
+            })
+    @GetMapping(value = "/admin", params = "after")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageDto<NotificationDto>> getAllNotificationsAdminAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Boolean read,
+            @RequestParam(required = false) NotificationType type,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate
+    ) {
+        NotificationFilter filter = NotificationFilter.builder()
+                .userId(userId)
+                .read(read)
+                .type(type)
+                .startDate(startDate)
+                .endDate(endDate)
+                .build();
+        return ResponseEntity.ok(notificationService.getAllNotificationsAdminAfter(filter, KeysetCursor.parse(after), size));
+    }
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package com.adamo.vrspfab.notifications;
 
+import com.adamo.vrspfab.common.CursorPageDto;
+import com.adamo.vrspfab.common.KeysetCursor;
+import com.adamo.vrspfab.common.KeysetPagination;
 import com.adamo.vrspfab.common.SecurityUtilsService;
 import com.adamo.vrspfab.dashboard.ActivityEventListener;
 import com.adamo.vrspfab.users.User;
@@ -351,4 +354,18 @@ public class NotificationService {
         NotificationSpecification spec = new NotificationSpecification(filter);
         return notificationRepository.findAll(spec, pageable).map(notificationMapper::toDto);
     }
+
+    /**
+     * Retrieves the notifications after a cursor, newest first, without counting the total.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<NotificationDto> getAllNotificationsAdminAfter(NotificationFilter filter, KeysetCursor cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        NotificationSpecification spec = new NotificationSpecification(filter);
+        List<Notification> rows = notificationRepository.findBy(KeysetPagination.after(spec, cursor), query -> query
+                .sortBy(KeysetPagination.ORDER)
+                .limit(pageSize + 1)
+                .all());
+        return KeysetPagination.toPage(rows, pageSize, Notification::getCreatedAt, Notification::getId, notificationMapper::toDto);
+    }
 }
\ No newline at end of file
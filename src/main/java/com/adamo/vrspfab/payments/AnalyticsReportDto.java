@@ -3,6 +3,11 @@ package com.adamo.vrspfab.payments;
 import lombok.Data;
 import java.math.BigDecimal;
 
+/**
+ * Payment figures over a range that includes its start and excludes its end.
+ * Whole days in the range come from the daily rollups and lag by at most {@code rollups.refresh-interval-ms};
+ * the partial days at either end are counted live.
+ */
 @Data
 public class AnalyticsReportDto {
     private long totalPayments;
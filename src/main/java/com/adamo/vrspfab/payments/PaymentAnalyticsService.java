@@ -1,5 +1,6 @@
 package com.adamo.vrspfab.payments;
 
+import com.adamo.vrspfab.rollups.DailyRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -12,19 +13,20 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class PaymentAnalyticsService {
 
-    private final PaymentRepository paymentRepository;
-    private final RefundRepository refundRepository;
+    private final DailyRollupService dailyRollupService;
 
+    /**
+     * Builds the payment report of {@code [startDate, endDate)} from {@link DailyRollupService#getPaymentTotals}.
+     */
     @Transactional(readOnly = true)
     public AnalyticsReportDto getPaymentAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
         AnalyticsReportDto report = new AnalyticsReportDto();
 
-        long totalPayments = paymentRepository.countByCreatedAtBetween(startDate, endDate);
-        long successfulPayments = paymentRepository.countByStatusAndCreatedAtBetween(
-                PaymentStatus.COMPLETED, startDate, endDate);
-        BigDecimal totalAmount = paymentRepository.sumAmountByStatusAndCreatedAtBetween(
-                PaymentStatus.COMPLETED, startDate, endDate).orElse(BigDecimal.ZERO);
-        long totalRefunds = refundRepository.countByProcessedAtBetween(startDate, endDate);
+        DailyRollupService.PaymentTotals totals = dailyRollupService.getPaymentTotals(startDate, endDate);
+        long totalPayments = totals.payments();
+        long successfulPayments = totals.completedPayments();
+        BigDecimal totalAmount = totals.completedAmount();
+        long totalRefunds = totals.refunds();
 
         report.setTotalPayments(totalPayments);
         report.setSuccessfulPayments(successfulPayments);
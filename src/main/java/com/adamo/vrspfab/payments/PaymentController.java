@@ -1,5 +1,7 @@
 package com.adamo.vrspfab.payments;
 
+import com.adamo.vrspfab.common.CursorPageDto;
+import com.adamo.vrspfab.common.KeysetCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -310,7 +312,10 @@ public class PaymentController {
     }
 
     @Operation(summary = "Get payment analytics",
-               description = "Retrieves payment analytics and statistics for a given date range. If no dates are provided, defaults to the last 30 days.",
+               description = "Retrieves payment analytics and statistics for a given date range. If no dates are provided, defaults to the last 30 days. " +
+                           "The range includes startDate and excludes endDate. Whole days inside it are read from daily rollups " +
+                           "refreshed every rollups.refresh-interval-ms (one minute by default), so they may lag recent payments and " +
+                           "refunds by up to that interval; the partial days at either end are counted live.",
                responses = {
                        @ApiResponse(responseCode = "200", description = "Analytics report retrieved successfully"),
                        @ApiResponse(responseCode = "400", description = "Invalid date format"),
@@ -410,7 +415,41 @@ public class PaymentController {
             @RequestParam(required = false) String searchTerm
     ) {
         Pageable pageable = org.springframework.data.domain.PageRequest.of(page, size, org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.fromString(sortDirection), sortBy));
-        PaymentFilter filter = PaymentFilter.builder()
+        PaymentFilter filter = adminFilter(userId, reservationId, status, minAmount, maxAmount, startDate, endDate, searchTerm);
+        return ResponseEntity.ok(paymentService.getAllPaymentsAdmin(filter, pageable));
+    }
+
+    @Operation(summary = "Get all payments after a cursor (Admin only)",
+            description = "Keyset-paginated variant of the admin listing, selected by the 'after' parameter: pass it empty for the first page, " +
+                    "then the returned 'next' cursor. Newest first, without a total count; 'size' is clamped between 1 and 100. Requires admin privileges.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully retrieved payments"),
+                    @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden, insufficient privileges"),
+                    @ApiResponse(responseCode = "500", description = "Internal server error")
+            })
+    @GetMapping(value = "/admin", params = "after")
+    public ResponseEntity<CursorPageDto<PaymentDto>> getAllPaymentsAdminAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long reservationId,
+            @RequestParam(required = false) PaymentStatus status,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String searchTerm
+    ) {
+        PaymentFilter filter = adminFilter(userId, reservationId, status, minAmount, maxAmount, startDate, endDate, searchTerm);
+        return ResponseEntity.ok(paymentService.getAllPaymentsAdminAfter(filter, KeysetCursor.parse(after), size));
+    }
+
+    private static PaymentFilter adminFilter(Long userId, Long reservationId, PaymentStatus status,
+                                             BigDecimal minAmount, BigDecimal maxAmount,
+                                             LocalDateTime startDate, LocalDateTime endDate, String searchTerm) {
+        return PaymentFilter.builder()
                 .userId(userId)
                 .reservationId(reservationId)
                 .status(status)
@@ -420,7 +459,6 @@ public class PaymentController {
                 .endDate(endDate)
                 .searchTerm(searchTerm)
                 .build();
-        return ResponseEntity.ok(paymentService.getAllPaymentsAdmin(filter, pageable));
     }
 
     @Operation(summary = "Delete a payment (Admin only)",
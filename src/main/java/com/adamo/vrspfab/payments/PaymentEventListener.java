@@ -2,7 +2,9 @@ package com.adamo.vrspfab.payments;
 
 import com.adamo.vrspfab.notifications.NotificationService;
 import com.adamo.vrspfab.notifications.NotificationType;
+import com.adamo.vrspfab.pricing.PricingEngine;
 import com.adamo.vrspfab.reservations.Reservation;
+import com.adamo.vrspfab.reservations.ReservationChangedEvent;
 import com.adamo.vrspfab.reservations.ReservationRepository;
 import com.adamo.vrspfab.reservations.ReservationStatus;
 import com.adamo.vrspfab.slots.Slot;
@@ -11,12 +13,12 @@ import com.adamo.vrspfab.slots.SlotType;
 import com.adamo.vrspfab.vehicles.Vehicle;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -34,6 +36,8 @@ public class PaymentEventListener {
     private final ReservationRepository reservationRepository;
     private final SlotRepository slotRepository;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PricingEngine pricingEngine;
 
     /**
      * Handles payment completion events.
@@ -55,6 +59,7 @@ public class PaymentEventListener {
             if (reservation.getStatus() == ReservationStatus.PENDING) {
                 reservation.setStatus(ReservationStatus.CONFIRMED);
                 reservationRepository.save(reservation);
+                eventPublisher.publishEvent(new ReservationChangedEvent(this, reservation, ReservationStatus.PENDING));
                 log.info("Updated reservation {} status from PENDING to CONFIRMED", reservation.getId());
 
                 // Create and associate slots with the reservation
@@ -109,7 +114,7 @@ public class PaymentEventListener {
             slot.setEndTime(endTime);
             slot.setAvailable(false); // Slot is not available as it's reserved
             slot.setSlotType(determineSlotType(startTime, endTime));
-            slot.setPrice(calculateSlotPrice(vehicle, startTime, endTime));
+            slot.setPrice(pricingEngine.quote(vehicle, startTime, endTime));
             slot.setReservation(reservation);
 
             // Save the slot first
@@ -154,27 +159,6 @@ public class PaymentEventListener {
         }
     }
 
-    /**
-     * Calculates the price for the slot based on vehicle price and duration.
-     */
-    private BigDecimal calculateSlotPrice(Vehicle vehicle, LocalDateTime startTime, LocalDateTime endTime) {
-        Duration duration = Duration.between(startTime, endTime);
-        long hours = duration.toHours();
-        
-        // Default price if vehicle doesn't have a price set
-        double dailyRate = vehicle.getPricePerDay() != null ? vehicle.getPricePerDay() : 100.0;
-        
-        if (hours <= 23) {
-            // Hourly pricing (assuming hourly rate is 1/24 of daily rate)
-            double hourlyRate = dailyRate / 24.0;
-            return BigDecimal.valueOf(hourlyRate * hours);
-        } else {
-            // Daily pricing with hourly rounding
-            long days = (hours + 23) / 24; // Round up to next day
-            return BigDecimal.valueOf(dailyRate * days);
-        }
-    }
-
     /**
      * Sends confirmation notification to the user.
      */
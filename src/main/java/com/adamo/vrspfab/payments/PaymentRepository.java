@@ -80,6 +80,20 @@ public interface PaymentRepository extends JpaRepository<Payment, Long>, JpaSpec
            "WHERE p.status = 'COMPLETED' AND p.reservation.vehicle.brand.id = :brandId")
     BigDecimal getTotalRevenueByBrandId(@Param("brandId") Long brandId);
 
+    /**
+     * Completed payment revenue of every category with at least one, in one grouped query.
+     */
+    @Query("SELECT new com.adamo.vrspfab.payments.RevenueByGroup(v.category.id, SUM(p.amount)) FROM Payment p " +
+           "JOIN p.reservation r JOIN r.vehicle v WHERE p.status = 'COMPLETED' GROUP BY v.category.id")
+    List<RevenueByGroup> getTotalRevenuePerCategory();
+
+    /**
+     * Completed payment revenue of every brand with at least one, in one grouped query.
+     */
+    @Query("SELECT new com.adamo.vrspfab.payments.RevenueByGroup(v.brand.id, SUM(p.amount)) FROM Payment p " +
+           "JOIN p.reservation r JOIN r.vehicle v WHERE p.status = 'COMPLETED' GROUP BY v.brand.id")
+    List<RevenueByGroup> getTotalRevenuePerBrand();
+
     /**
      * Get total fleet revenue
      */
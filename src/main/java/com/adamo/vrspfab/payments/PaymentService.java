@@ -1,5 +1,8 @@
 package com.adamo.vrspfab.payments;
 
+import com.adamo.vrspfab.common.CursorPageDto;
+import com.adamo.vrspfab.common.KeysetCursor;
+import com.adamo.vrspfab.common.KeysetPagination;
 import com.adamo.vrspfab.common.SecurityUtilsService;
 import com.adamo.vrspfab.reservations.Reservation;
 import com.adamo.vrspfab.reservations.ReservationNotFoundException;
@@ -312,6 +315,30 @@ public class PaymentService {
         return payments.map(paymentMapper::toPaymentDto);
     }
 
+    /**
+     * Retrieves the payments after a cursor, newest first, without counting the total.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<PaymentDto> getAllPaymentsAdminAfter(PaymentFilter filter, KeysetCursor cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        PaymentSpecification spec = new PaymentSpecification(
+                filter.getUserId(),
+                filter.getReservationId(),
+                filter.getStatus(),
+                filter.getMinAmount(),
+                filter.getMaxAmount(),
+                filter.getStartDate(),
+                filter.getEndDate(),
+                filter.getSearchTerm()
+        );
+        List<Payment> rows = paymentRepository.findBy(KeysetPagination.after(spec, cursor), query -> query
+                .project("reservation", "reservation.user")
+                .sortBy(KeysetPagination.ORDER)
+                .limit(pageSize + 1)
+                .all());
+        return KeysetPagination.toPage(rows, pageSize, Payment::getCreatedAt, Payment::getId, paymentMapper::toPaymentDto);
+    }
+
     @Transactional
     public void cancelPayment(Long paymentId) {
         Payment payment = paymentRepository.findById(paymentId)
@@ -0,0 +1,15 @@
+package com.adamo.vrspfab.payments;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Completed payment revenue of the vehicles of a category or brand, as grouped by
+ * {@link PaymentRepository#getTotalRevenuePerCategory()} and {@link PaymentRepository#getTotalRevenuePerBrand()}.
+ */
+@Value
+public class RevenueByGroup {
+    Long groupId;
+    BigDecimal revenue;
+}
@@ -0,0 +1,42 @@
+package com.adamo.vrspfab.pricing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Discounts long rentals by tier: a rental of at least {@code minDays[i]} days is priced at
+ * {@code factors[i]}, the longest matching tier winning.
+ */
+@Component
+public class LongRentalDiscountRule implements PricingRule {
+
+    private static final int HOURS_PER_DAY = 24;
+
+    private final long[] minHours;
+    private final double[] factors;
+
+    public LongRentalDiscountRule(@Value("${pricing.long-rental.min-days:}") int[] minDays,
+                                  @Value("${pricing.long-rental.factors:}") double[] factors) {
+        if (minDays.length != factors.length) {
+            throw new IllegalArgumentException("pricing.long-rental.min-days and factors differ in length");
+        }
+        this.minHours = new long[minDays.length];
+        for (int i = 0; i < minDays.length; i++) {
+            if (i > 0 && minDays[i] <= minDays[i - 1]) {
+                throw new IllegalArgumentException("pricing.long-rental.min-days must be increasing");
+            }
+            this.minHours[i] = (long) minDays[i] * HOURS_PER_DAY;
+        }
+        this.factors = factors.clone();
+    }
+
+    @Override
+    public double durationFactor(long hours) {
+        for (int i = minHours.length - 1; i >= 0; i--) {
+            if (hours >= minHours[i]) {
+                return factors[i];
+            }
+        }
+        return 1.0;
+    }
+}
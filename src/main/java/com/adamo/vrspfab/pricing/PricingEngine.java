@@ -0,0 +1,109 @@
+package com.adamo.vrspfab.pricing;
+
+import com.adamo.vrspfab.vehicles.Vehicle;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Prices rentals from the {@link PricingRule} beans compiled into rate tables.
+ * <p>
+ * The rules are compiled over a horizon of whole days starting today into a {@link RateProfile}, on startup
+ * and then on {@code pricing.refresh-cron} so the horizon rolls forward and utilization surge follows new
+ * bookings. Rate tables are built on the current profile per daily rate and cached with it, so vehicles
+ * sharing a daily rate share a table and a refresh drops every table at once. Ranges outside the horizon
+ * get a table compiled for them on the fly. Each refresh fires a {@link PricingRefreshedEvent}.
+ */
+@Component
+@Slf4j
+public class PricingEngine {
+
+    /** Daily rate of vehicles without a price. */
+    static final double DEFAULT_DAILY_RATE = 100.0;
+
+    private record Horizon(RateProfile profile, Cache<Long, RateTable> tables) {
+    }
+
+    private final List<PricingRule> rules;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int horizonDays;
+    private final long maxTables;
+
+    /** Null until the first refresh. */
+    private volatile Horizon horizon;
+
+    public PricingEngine(List<PricingRule> rules,
+                         ApplicationEventPublisher eventPublisher,
+                         @Value("${pricing.horizon-days:180}") int horizonDays,
+                         @Value("${pricing.max-tables:1000}") long maxTables) {
+        this.rules = List.copyOf(rules);
+        this.eventPublisher = eventPublisher;
+        this.horizonDays = horizonDays;
+        this.maxTables = maxTables;
+    }
+
+    /**
+     * Recompiles the rules for the horizon starting today.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${pricing.refresh-cron:0 */15 * * * ?}")
+    public void refresh() {
+        refresh(LocalDate.now());
+    }
+
+    synchronized void refresh(LocalDate origin) {
+        RateProfile profile = RateProfile.compile(rules, origin.atStartOfDay(), horizonDays);
+        horizon = new Horizon(profile, Caffeine.newBuilder().maximumSize(maxTables).build());
+        log.debug("Compiled {} pricing rules for {} days from {}", rules.size(), horizonDays, origin);
+        eventPublisher.publishEvent(new PricingRefreshedEvent(this));
+    }
+
+    /**
+     * Returns the price of renting a vehicle.
+     *
+     * @param vehicle The vehicle.
+     * @param start The start of the rental.
+     * @param end The end of the rental.
+     * @return The price, rounded to the cent.
+     */
+    public BigDecimal quote(Vehicle vehicle, LocalDateTime start, LocalDateTime end) {
+        return rateTable(vehicle, start, end).price(start, end);
+    }
+
+    /**
+     * Returns a vehicle's rate table covering at least the given range, for pricing many rentals in it.
+     *
+     * @param vehicle The vehicle.
+     * @param from The earliest start of the rentals to price.
+     * @param to The latest end of the rentals to price.
+     * @return The rate table.
+     */
+    public RateTable rateTable(Vehicle vehicle, LocalDateTime from, LocalDateTime to) {
+        double dailyRate = vehicle.getPricePerDay() != null ? vehicle.getPricePerDay() : DEFAULT_DAILY_RATE;
+        return rateTable(Math.round(dailyRate * 100), from, to);
+    }
+
+    RateTable rateTable(long dailyCents, LocalDateTime from, LocalDateTime to) {
+        if (horizon == null) {
+            refresh();
+        }
+        Horizon current = horizon;
+        if (current.profile().covers(from, to)) {
+            return current.tables().get(dailyCents, cents -> new RateTable(this, current.profile(), cents));
+        }
+        int days = (int) Math.max(0, ChronoUnit.DAYS.between(from.toLocalDate(), to.toLocalDate())) + 2;
+        return new RateTable(this, RateProfile.compile(rules, from, days), dailyCents);
+    }
+}
@@ -0,0 +1,14 @@
+package com.adamo.vrspfab.pricing;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event fired when {@link PricingEngine} has recompiled its rules, which may change the price of any slot.
+ * Listeners caching prices drop them.
+ */
+public class PricingRefreshedEvent extends ApplicationEvent {
+
+    public PricingRefreshedEvent(Object source) {
+        super(source);
+    }
+}
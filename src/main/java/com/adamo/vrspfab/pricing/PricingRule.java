@@ -0,0 +1,32 @@
+package com.adamo.vrspfab.pricing;
+
+import java.time.LocalDateTime;
+
+/**
+ * A rule adjusting rental prices, picked up by the {@link PricingEngine} as a Spring bean.
+ * <p>
+ * Time-based rules multiply the factor of each hour of the engine's horizon once, when the engine compiles
+ * its rate tables; duration-based rules are evaluated per rental length. Both default to neutral so a rule
+ * only overrides the part it adjusts.
+ */
+public interface PricingRule {
+
+    /**
+     * Multiplies the factors of the hours this rule applies to.
+     *
+     * @param origin The start of the first hour.
+     * @param factors The factor of each consecutive hour from {@code origin}, a whole number of days.
+     */
+    default void applyHourly(LocalDateTime origin, double[] factors) {
+    }
+
+    /**
+     * Returns the factor applied to the whole price of a rental.
+     *
+     * @param hours The length of the rental in whole hours.
+     * @return The factor, 1 when the rule does not apply.
+     */
+    default double durationFactor(long hours) {
+        return 1.0;
+    }
+}
@@ -0,0 +1,73 @@
+package com.adamo.vrspfab.pricing;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The pricing rules compiled over a range of whole days: the combined factor of every hour, its prefix sums,
+ * and the duration factor of every rental length up to the range.
+ * <p>
+ * A profile does not depend on the vehicle, so it is compiled once per range and shared by every
+ * {@link RateTable} built on it.
+ */
+final class RateProfile {
+
+    static final int HOURS_PER_DAY = 24;
+
+    final LocalDateTime origin;
+    final long originSecond;
+    final int hours;
+    final double[] factors;
+    /** {@code factorPrefix[i]} is the sum of the factors of the hours before hour {@code i}. */
+    final double[] factorPrefix;
+    /** {@code durationFactors[h]} is the duration factor of an {@code h}-hour rental. */
+    private final double[] durationFactors;
+    private final PricingRule[] rules;
+
+    private RateProfile(LocalDateTime origin, double[] factors, PricingRule[] rules) {
+        this.origin = origin;
+        this.originSecond = origin.toEpochSecond(ZoneOffset.UTC);
+        this.hours = factors.length;
+        this.factors = factors;
+        this.rules = rules;
+        this.factorPrefix = new double[hours + 1];
+        this.durationFactors = new double[hours + 1];
+        for (int hour = 0; hour < hours; hour++) {
+            factorPrefix[hour + 1] = factorPrefix[hour] + factors[hour];
+        }
+        for (int length = 0; length <= hours; length++) {
+            durationFactors[length] = combinedDurationFactor(length);
+        }
+    }
+
+    /**
+     * Compiles the rules over {@code days} days starting at midnight of {@code origin}'s day.
+     */
+    static RateProfile compile(List<PricingRule> rules, LocalDateTime origin, int days) {
+        LocalDateTime start = origin.toLocalDate().atStartOfDay();
+        double[] factors = new double[days * HOURS_PER_DAY];
+        Arrays.fill(factors, 1.0);
+        for (PricingRule rule : rules) {
+            rule.applyHourly(start, factors);
+        }
+        return new RateProfile(start, factors, rules.toArray(PricingRule[]::new));
+    }
+
+    boolean covers(LocalDateTime from, LocalDateTime to) {
+        return !from.isBefore(origin) && !to.plusDays(1).isAfter(origin.plusHours(hours));
+    }
+
+    double durationFactor(long hours) {
+        return hours < durationFactors.length ? durationFactors[(int) hours] : combinedDurationFactor(hours);
+    }
+
+    private double combinedDurationFactor(long length) {
+        double factor = 1.0;
+        for (PricingRule rule : rules) {
+            factor *= rule.durationFactor(length);
+        }
+        return factor;
+    }
+}
@@ -0,0 +1,69 @@
+package com.adamo.vrspfab.pricing;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * The hourly rates of one daily rate over a {@link RateProfile}, as prefix sums of cents, so the price of
+ * any rental in the profile's range costs two array reads instead of decimal arithmetic.
+ * <p>
+ * Rentals of up to 23 hours are priced per hour, each hour at the daily rate divided by 24, rounded to the
+ * cent and multiplied by the hour's factor. Longer rentals are rounded up to whole days and priced at the
+ * daily rate times the mean factor of each day. The duration factor then applies to the total.
+ */
+public final class RateTable {
+
+    private static final long SECONDS_PER_HOUR = 3600;
+
+    private final PricingEngine engine;
+    private final RateProfile profile;
+    private final long dailyCents;
+    /** {@code hourlyCentsPrefix[i]} is the sum of the rates of the hours before hour {@code i}, in cents. */
+    private final long[] hourlyCentsPrefix;
+
+    RateTable(PricingEngine engine, RateProfile profile, long dailyCents) {
+        this.engine = engine;
+        this.profile = profile;
+        this.dailyCents = dailyCents;
+        this.hourlyCentsPrefix = new long[profile.hours + 1];
+        for (int hour = 0; hour < profile.hours; hour++) {
+            hourlyCentsPrefix[hour + 1] = hourlyCentsPrefix[hour]
+                    + Math.round(dailyCents * profile.factors[hour] / RateProfile.HOURS_PER_DAY);
+        }
+    }
+
+    /**
+     * Returns the price of a rental, rounded to the cent.
+     *
+     * @param start The start of the rental.
+     * @param end The end of the rental.
+     * @return The price, zero for an empty or inverted range.
+     */
+    public BigDecimal price(LocalDateTime start, LocalDateTime end) {
+        long startSecond = start.toEpochSecond(ZoneOffset.UTC);
+        long hours = (end.toEpochSecond(ZoneOffset.UTC) - startSecond) / SECONDS_PER_HOUR;
+        if (hours <= 0) {
+            return BigDecimal.valueOf(0, 2);
+        }
+        long first = Math.floorDiv(startSecond - profile.originSecond, SECONDS_PER_HOUR);
+        long span = hours < RateProfile.HOURS_PER_DAY ? hours : ceilDays(hours) * RateProfile.HOURS_PER_DAY;
+        if (first < 0 || first + span > profile.hours) {
+            return engine.rateTable(dailyCents, start, end).price(start, end);
+        }
+
+        int from = (int) first;
+        int to = (int) (first + span);
+        double cents;
+        if (hours < RateProfile.HOURS_PER_DAY) {
+            cents = hourlyCentsPrefix[to] - hourlyCentsPrefix[from];
+        } else {
+            cents = dailyCents * (profile.factorPrefix[to] - profile.factorPrefix[from]) / RateProfile.HOURS_PER_DAY;
+        }
+        return BigDecimal.valueOf(Math.round(cents * profile.durationFactor(hours)), 2);
+    }
+
+    private static long ceilDays(long hours) {
+        return (hours + RateProfile.HOURS_PER_DAY - 1) / RateProfile.HOURS_PER_DAY;
+    }
+}
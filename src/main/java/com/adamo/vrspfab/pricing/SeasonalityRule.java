@@ -0,0 +1,34 @@
+package com.adamo.vrspfab.pricing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Scales prices by a factor per calendar month.
+ */
+@Component
+public class SeasonalityRule implements PricingRule {
+
+    private static final int HOURS_PER_DAY = 24;
+
+    private final double[] monthFactors;
+
+    public SeasonalityRule(@Value("${pricing.seasonality.month-factors:1,1,1,1,1,1,1,1,1,1,1,1}") double[] monthFactors) {
+        if (monthFactors.length != 12) {
+            throw new IllegalArgumentException("pricing.seasonality.month-factors needs 12 values, got " + monthFactors.length);
+        }
+        this.monthFactors = monthFactors.clone();
+    }
+
+    @Override
+    public void applyHourly(LocalDateTime origin, double[] factors) {
+        for (int day = 0; day * HOURS_PER_DAY < factors.length; day++) {
+            double factor = monthFactors[origin.plusDays(day).getMonthValue() - 1];
+            for (int hour = day * HOURS_PER_DAY; hour < (day + 1) * HOURS_PER_DAY; hour++) {
+                factors[hour] *= factor;
+            }
+        }
+    }
+}
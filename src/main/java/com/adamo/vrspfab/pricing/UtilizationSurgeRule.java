@@ -0,0 +1,61 @@
+package com.adamo.vrspfab.pricing;
+
+import com.adamo.vrspfab.reservations.OccupancyCalendar;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Raises the prices of busy days. Above {@code threshold} of the fleet's vehicle-hours reserved on a day,
+ * the factor grows linearly up to {@code maxFactor} at full utilization.
+ * <p>
+ * Utilization is read from the {@link OccupancyCalendar} when the engine compiles its tables, so surge
+ * follows new bookings at the engine's refresh interval.
+ */
+@Component
+@Slf4j
+public class UtilizationSurgeRule implements PricingRule {
+
+    private static final int HOURS_PER_DAY = 24;
+
+    private final OccupancyCalendar occupancyCalendar;
+    private final double threshold;
+    private final double maxFactor;
+
+    public UtilizationSurgeRule(OccupancyCalendar occupancyCalendar,
+                                @Value("${pricing.surge.threshold:0.8}") double threshold,
+                                @Value("${pricing.surge.max-factor:1.0}") double maxFactor) {
+        if (threshold < 0 || threshold >= 1) {
+            throw new IllegalArgumentException("pricing.surge.threshold must be in [0, 1), got " + threshold);
+        }
+        this.occupancyCalendar = occupancyCalendar;
+        this.threshold = threshold;
+        this.maxFactor = maxFactor;
+    }
+
+    @Override
+    public void applyHourly(LocalDateTime origin, double[] factors) {
+        if (maxFactor == 1.0) {
+            return;
+        }
+        int days = factors.length / HOURS_PER_DAY;
+        double[] utilization;
+        try {
+            utilization = occupancyCalendar.getFleetUtilization(origin.toLocalDate(), days);
+        } catch (Exception e) {
+            log.warn("Could not read fleet utilization, pricing without surge: {}", e.getMessage());
+            return;
+        }
+        for (int day = 0; day < days; day++) {
+            if (utilization[day] <= threshold) {
+                continue;
+            }
+            double factor = 1 + (utilization[day] - threshold) / (1 - threshold) * (maxFactor - 1);
+            for (int hour = day * HOURS_PER_DAY; hour < (day + 1) * HOURS_PER_DAY; hour++) {
+                factors[hour] *= factor;
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.adamo.vrspfab.pricing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+
+/**
+ * Scales the prices of Saturday and Sunday hours.
+ */
+@Component
+public class WeekendRule implements PricingRule {
+
+    private static final int HOURS_PER_DAY = 24;
+
+    private final double weekendFactor;
+
+    public WeekendRule(@Value("${pricing.weekend.factor:1.0}") double weekendFactor) {
+        this.weekendFactor = weekendFactor;
+    }
+
+    @Override
+    public void applyHourly(LocalDateTime origin, double[] factors) {
+        for (int day = 0; day * HOURS_PER_DAY < factors.length; day++) {
+            DayOfWeek dayOfWeek = origin.plusDays(day).getDayOfWeek();
+            if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
+                for (int hour = day * HOURS_PER_DAY; hour < (day + 1) * HOURS_PER_DAY; hour++) {
+                    factors[hour] *= weekendFactor;
+                }
+            }
+        }
+    }
+}
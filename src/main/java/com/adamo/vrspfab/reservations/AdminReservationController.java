@@ -1,5 +1,7 @@
 package com.adamo.vrspfab.reservations;
 
+import com.adamo.vrspfab.common.CursorPageDto;
+import com.adamo.vrspfab.common.KeysetCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -7,9 +9,12 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+
 /**
  * REST controller for administrators to manage all reservations in the system.
  * Path: /admin/reservations
@@ -42,6 +47,56 @@ public class AdminReservationController {
         return ResponseEntity.ok(adminReservationService.getAllReservations(filter, pageable));
     }
 
+    /**
+     * GET /admin/reservations?after= : Gets all reservations keyset-paginated, newest first, without a
+     * total count. An empty cursor starts from the newest reservation.
+     *
+     * @param filter The filter criteria (userId, vehicleId, status).
+     * @param after  The cursor {@code <createdAt>,<id>} returned as {@code next} by the previous page.
+     * @param size   The page size, clamped between 1 and 100.
+     * @return A page of reservation summaries with the cursor of the next page.
+     */
+    @Operation(summary = "Get all reservations after a cursor (Admin only)",
+               description = "Keyset-paginated variant of the admin listing, selected by the 'after' parameter: pass it empty for the first page, " +
+                       "then the returned 'next' cursor. Newest first, without a total count; 'size' is clamped between 1 and 100. Requires admin privileges.",
+               responses = {
+                       @ApiResponse(responseCode = "200", description = "Successfully retrieved reservations"),
+                       @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+                       @ApiResponse(responseCode = "401", description = "Unauthorized, authentication required"),
+                       @ApiResponse(responseCode = "403", description = "Forbidden, insufficient privileges"),
+                       @ApiResponse(responseCode = "500", description = "Internal server error")
+               })
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPageDto<ReservationSummaryDto>> getAllReservationsAfter(ReservationFilter filter,
+                                                                                        @RequestParam String after,
+                                                                                        @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(adminReservationService.getAllReservationsAfter(filter, KeysetCursor.parse(after), size));
+    }
+
+    /**
+     * GET /admin/reservations/calendar : Gets the occupancy heatmap of the whole fleet.
+     *
+     * @param from The first day, defaults to today.
+     * @param days The number of days.
+     * @return Per-day occupied vehicle counts and per-vehicle reserved hours.
+     */
+    @Operation(summary = "Get fleet occupancy calendar (Admin only)",
+               description = "Retrieves a calendar heatmap of the fleet: per day, how many vehicles are reserved and, per vehicle, how many hours. Requires admin privileges.",
+               responses = {
+                       @ApiResponse(responseCode = "200", description = "Successfully retrieved fleet calendar"),
+                       @ApiResponse(responseCode = "400", description = "Invalid calendar range"),
+                       @ApiResponse(responseCode = "401", description = "Unauthorized, authentication required"),
+                       @ApiResponse(responseCode = "403", description = "Forbidden, insufficient privileges"),
+                       @ApiResponse(responseCode = "500", description = "Internal server error")
+               })
+    @GetMapping("/calendar")
+    public ResponseEntity<FleetOccupancyCalendarDto> getFleetCalendar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "90") int days) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        return ResponseEntity.ok(adminReservationService.getFleetCalendar(start, days));
+    }
+
     /**
      * GET /admin/reservations/{id} : Gets any reservation by its ID.
      *
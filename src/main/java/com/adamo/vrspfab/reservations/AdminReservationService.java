@@ -1,9 +1,13 @@
 package com.adamo.vrspfab.reservations;
 
+import com.adamo.vrspfab.common.CursorPageDto;
+import com.adamo.vrspfab.common.KeysetCursor;
+import com.adamo.vrspfab.common.KeysetPagination;
 import com.adamo.vrspfab.notifications.NotificationService;
 import com.adamo.vrspfab.notifications.NotificationType;
 import com.adamo.vrspfab.slots.SlotRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
@@ -11,6 +15,9 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.List;
+
 /**
  * Service class for handling reservation-related operations for administrators.
  * This service provides unrestricted access to reservation data for management purposes.
@@ -25,6 +32,8 @@ public class AdminReservationService {
     private final NotificationService notificationService;
     private final ReservationMapper reservationMapper;
     private final SlotRepository slotRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OccupancyCalendar occupancyCalendar;
 
     /**
      * Retrieves a paginated list of all reservations, with optional filters.
@@ -39,6 +48,26 @@ public class AdminReservationService {
         return reservationRepository.findAll(spec, pageable).map(reservationMapper::toSummaryDto);
     }
 
+    /**
+     * Retrieves the reservations after a cursor, newest first, without counting the total.
+     *
+     * @param filter The filter criteria (e.g., by userId, vehicleId, status).
+     * @param cursor The position after which to start, or null for the first page.
+     * @param size The page size.
+     * @return A page of reservation summary DTOs with the cursor of the next page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ReservationSummaryDto> getAllReservationsAfter(ReservationFilter filter, KeysetCursor cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        Specification<Reservation> spec = KeysetPagination.after(ReservationSpecification.withFilter(filter, null), cursor);
+        List<Reservation> rows = reservationRepository.findBy(spec, query -> query
+                .project("user", "vehicle")
+                .sortBy(KeysetPagination.ORDER)
+                .limit(pageSize + 1)
+                .all());
+        return KeysetPagination.toPage(rows, pageSize, Reservation::getCreatedAt, Reservation::getId, reservationMapper::toSummaryDto);
+    }
+
     /**
      * Retrieves any single reservation by its ID.
      *
@@ -83,6 +112,9 @@ public class AdminReservationService {
         if (oldStatus != newStatus || request.getComment() != null) {
             reservation.setStatus(newStatus);
             reservation = reservationRepository.save(reservation);
+            if (oldStatus != newStatus) {
+                eventPublisher.publishEvent(new ReservationChangedEvent(this, reservation, oldStatus));
+            }
         }
 
         // Log admin notes if provided (without saving to reservation)
@@ -149,15 +181,32 @@ public class AdminReservationService {
     }
 
 
+    /**
+     * Gets the occupancy heatmap of the whole fleet.
+     *
+     * @param from The first day of the calendar.
+     * @param days The number of days.
+     * @return The fleet occupancy calendar.
+     */
+    @Transactional(readOnly = true)
+    public FleetOccupancyCalendarDto getFleetCalendar(LocalDate from, int days) {
+        if (days < 1 || days > ReservationService.MAX_CALENDAR_DAYS) {
+            throw new InvalidReservationDateException("Calendar range must be between 1 and " + ReservationService.MAX_CALENDAR_DAYS + " days.");
+        }
+        return occupancyCalendar.getFleetCalendar(from, days);
+    }
+
+
     /**
      * Deletes a reservation from the system.
      *
      * @param id The ID of the reservation to delete.
      */
     public void deleteReservation(Long id) {
-        if (!reservationRepository.existsById(id)) {
-            throw new ReservationNotFoundException(id);
-        }
-        reservationRepository.deleteById(id);
+        Reservation reservation = reservationRepository.findById(id)
+                .orElseThrow(() -> new ReservationNotFoundException(id));
+        reservationRepository.delete(reservation);
+        eventPublisher.publishEvent(new ReservationChangedEvent(this, reservation.getId(), reservation.getVehicle().getId(),
+                reservation.getStartDate(), reservation.getEndDate(), reservation.getStatus(), null));
     }
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+package com.adamo.vrspfab.reservations;
+
+import com.adamo.vrspfab.pricing.PricingRefreshedEvent;
+import com.adamo.vrspfab.slots.SlotDto;
+import com.adamo.vrspfab.vehicles.VehicleCatalogChangedEvent;
+import com.adamo.vrspfab.vehicles.VehiclesDeletedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+
+/**
+ * Cache of slot availability results, grouped per vehicle so that a reservation change evicts exactly
+ * the entries of the affected vehicle.
+ * <p>
+ * Requested ranges are widened to whole hours before they are used as keys and computed, so that ranges
+ * built from the current time map to a bounded set of entries; callers narrow the results back to the
+ * requested range. Available slots are bucketed from the start they are computed for, so that start is
+ * kept as given and only their end is widened; callers pass the origin of their buckets. Eviction is driven by events once their transaction has committed:
+ * {@link ReservationChangedEvent}s, which cover creation, cancellation, deletion, completion and payment
+ * confirmation, and {@link VehicleCatalogChangedEvent}s evict the affected vehicle, a brand, model or
+ * category change or a {@link PricingRefreshedEvent} clears the cache, and a {@link VehiclesDeletedEvent}
+ * evicts the deleted vehicles. The TTL is only a safety net.
+ */
+@Component
+@Slf4j
+public class AvailabilityCache {
+
+    /** The kind of availability result cached. */
+    public enum Kind {
+        AVAILABLE,
+        UNAVAILABLE
+    }
+
+    private record Key(Kind kind, String bookingType, LocalDateTime start, LocalDateTime end) {
+    }
+
+    private final Cache<Long, ConcurrentMap<Key, List<SlotDto>>> cache;
+    private final int maxEntriesPerVehicle;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public AvailabilityCache(MeterRegistry meterRegistry,
+                             @Value("${reservations.availability-cache.ttl-minutes:120}") long ttlMinutes,
+                             @Value("${reservations.availability-cache.max-vehicles:5000}") long maxVehicles,
+                             @Value("${reservations.availability-cache.max-entries-per-vehicle:64}") int maxEntriesPerVehicle) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxVehicles)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+        this.maxEntriesPerVehicle = maxEntriesPerVehicle;
+        this.hits = Counter.builder("reservations.availability.cache.requests")
+                .description("Availability lookups answered by the cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("reservations.availability.cache.requests")
+                .description("Availability lookups answered by the cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("reservations.availability.cache.evictions")
+                .description("Vehicles whose cached availability was evicted by a reservation, vehicle or pricing change")
+                .register(meterRegistry);
+        Gauge.builder("reservations.availability.cache.vehicles", cache, Cache::estimatedSize)
+                .description("Vehicles with cached availability")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached result for the vehicle and the range containing {@code [start, end)} widened to
+     * whole hours, computing it with {@code loader} on a miss. The start of {@link Kind#AVAILABLE} results
+     * is not widened, as their slots are bucketed from it.
+     *
+     * @param vehicleId The ID of the vehicle.
+     * @param kind The kind of result.
+     * @param bookingType The booking type the result was computed for.
+     * @param start The start of the requested range; for available slots, the origin of their buckets.
+     * @param end The end of the requested range.
+     * @param loader Computes the result for a normalized range.
+     * @return The result for the normalized range.
+     */
+    public List<SlotDto> get(Long vehicleId, Kind kind, String bookingType, LocalDateTime start, LocalDateTime end,
+                             BiFunction<LocalDateTime, LocalDateTime, List<SlotDto>> loader) {
+        Key key = new Key(kind, bookingType != null ? bookingType.toUpperCase() : null,
+                kind == Kind.AVAILABLE ? start : floor(start), ceil(end));
+        // Taken before loading: if the vehicle is evicted meanwhile, the result lands in the discarded map
+        ConcurrentMap<Key, List<SlotDto>> entries = cache.get(vehicleId, id -> new ConcurrentHashMap<>());
+        List<SlotDto> cached = entries.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        List<SlotDto> loaded = List.copyOf(loader.apply(key.start(), key.end()));
+        if (entries.size() >= maxEntriesPerVehicle) {
+            entries.clear();
+        }
+        entries.put(key, loaded);
+        return loaded;
+    }
+
+    /**
+     * Evicts every cached result of a vehicle.
+     *
+     * @param vehicleId The ID of the vehicle.
+     */
+    public void evict(Long vehicleId) {
+        if (cache.asMap().remove(vehicleId) != null) {
+            evictions.increment();
+            log.debug("Evicted cached availability of vehicle {}", vehicleId);
+        }
+    }
+
+    /**
+     * Evicts the affected vehicle once a reservation change has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        evict(event.getVehicleId());
+    }
+
+    /**
+     * Evicts a changed vehicle, whose price or details appear in its slots, once the change has committed.
+     * Brand, model and category names also appear in slots, so changing one clears the cache.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(VehicleCatalogChangedEvent event) {
+        if (event.getKind() != VehicleCatalogChangedEvent.Kind.VEHICLE) {
+            evictAll();
+        } else if (event.getId() != null) {
+            evict(event.getId());
+        }
+    }
+
+    /**
+     * Evicts the vehicles of a committed deletion chunk.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVehiclesDeleted(VehiclesDeletedEvent event) {
+        event.getVehicleIds().forEach(this::evict);
+    }
+
+    /**
+     * Clears the cache once the pricing rules have been recompiled, as every slot price may have changed.
+     */
+    @EventListener
+    public void onPricingRefreshed(PricingRefreshedEvent event) {
+        evictAll();
+    }
+
+    private void evictAll() {
+        long vehicles = cache.estimatedSize();
+        cache.invalidateAll();
+        evictions.increment(vehicles);
+        log.debug("Evicted cached availability of every vehicle");
+    }
+
+    static LocalDateTime floor(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    static LocalDateTime ceil(LocalDateTime time) {
+        LocalDateTime floor = floor(time);
+        return floor.equals(time) ? floor : floor.plusHours(1);
+    }
+}
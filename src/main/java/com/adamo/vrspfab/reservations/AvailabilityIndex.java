@@ -0,0 +1,303 @@
+package com.adamo.vrspfab.reservations;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the non-cancelled reservation windows of every vehicle, used to answer
+ * overlap probes without a database round trip.
+ * <p>
+ * Each vehicle maps to an immutable snapshot of its windows sorted by start time (encoded as epoch
+ * microseconds) together with a running maximum of their end times, so an overlap check is a single
+ * binary search with no allocation. Writers replace a vehicle's snapshot copy-on-write; readers never lock.
+ * <p>
+ * The index is warmed on startup, retried periodically if that fails, and kept current from
+ * {@link ReservationChangedEvent}s once the owning transaction has committed. It only answers for ranges starting at or after {@link #getCoveredFrom()};
+ * callers fall back to the database otherwise. Booking still re-checks against the database inside
+ * its transaction, which stays the source of truth.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityIndex {
+
+    private final ReservationRepository reservationRepository;
+
+    private final Map<Long, Intervals> byVehicle = new ConcurrentHashMap<>();
+    private final Object warmUpLock = new Object();
+
+    /**
+     * Changes observed while warming up, replayed once the snapshot is loaded. Null once warm, and while
+     * cold after a failed warm-up, when changes are dropped until the next attempt.
+     */
+    private List<ReservationChangedEvent> pendingChanges = new ArrayList<>();
+    /** Windows ending before this instant are not indexed. Null until the index is warm. */
+    private volatile LocalDateTime coveredFrom;
+    /** Whether the last warm-up failed and should be retried. */
+    private volatile boolean warmUpFailed;
+
+    /**
+     * Loads every non-cancelled reservation that has not ended yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        synchronized (warmUpLock) {
+            if (pendingChanges == null) {
+                // Retrying after a failure: buffer the changes racing with this attempt
+                pendingChanges = new ArrayList<>();
+            }
+        }
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        List<ReservationWindow> windows;
+        try {
+            windows = reservationRepository.findActiveWindowsEndingAfter(from);
+        } catch (Exception e) {
+            // Stay cold until the retry: every probe falls back to the database, and changes are not buffered
+            log.warn("Could not warm the availability index: {}", e.getMessage());
+            synchronized (warmUpLock) {
+                pendingChanges = null;
+            }
+            warmUpFailed = true;
+            return;
+        }
+
+        Map<Long, List<ReservationWindow>> grouped = new HashMap<>();
+        for (ReservationWindow window : windows) {
+            grouped.computeIfAbsent(window.getVehicleId(), id -> new ArrayList<>()).add(window);
+        }
+
+        synchronized (warmUpLock) {
+            byVehicle.clear();
+            grouped.forEach((vehicleId, vehicleWindows) -> byVehicle.put(vehicleId, Intervals.of(vehicleWindows)));
+            if (pendingChanges != null) {
+                pendingChanges.forEach(this::apply);
+                pendingChanges = null;
+            }
+            coveredFrom = from;
+        }
+        warmUpFailed = false;
+        log.info("Availability index warmed with {} reservation windows across {} vehicles", windows.size(), grouped.size());
+    }
+
+    /**
+     * Retries a failed warm-up.
+     */
+    @Scheduled(fixedDelayString = "${reservations.availability-index.retry-interval-ms:60000}",
+               initialDelayString = "${reservations.availability-index.retry-interval-ms:60000}")
+    public void retryWarmUp() {
+        if (warmUpFailed) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Applies a reservation change once its transaction has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (coveredFrom == null) {
+            synchronized (warmUpLock) {
+                if (pendingChanges != null) {
+                    pendingChanges.add(event);
+                    return;
+                }
+                if (coveredFrom == null) {
+                    // Cold after a failed warm-up; the next attempt loads the change from the database
+                    return;
+                }
+            }
+        }
+        apply(event);
+    }
+
+    /**
+     * Drops windows that ended before today and advances the covered range accordingly.
+     * Runs nightly so the index only holds current and future reservations.
+     */
+    @Scheduled(cron = "0 15 3 * * ?")
+    public void evictExpired() {
+        if (coveredFrom == null) {
+            return;
+        }
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        long cutoff = toMicros(from);
+        coveredFrom = from;
+        byVehicle.replaceAll((vehicleId, intervals) -> intervals.endingAfter(cutoff));
+        byVehicle.values().removeIf(Intervals::isEmpty);
+    }
+
+    /**
+     * Whether the index can answer probes for ranges starting at the given time.
+     */
+    public boolean covers(LocalDateTime startDate) {
+        LocalDateTime from = coveredFrom;
+        return from != null && !startDate.isBefore(from);
+    }
+
+    /**
+     * Checks whether a non-cancelled reservation of the vehicle overlaps {@code [startDate, endDate)}.
+     * Only meaningful when {@link #covers(LocalDateTime)} is true for {@code startDate}.
+     */
+    public boolean hasOverlap(Long vehicleId, LocalDateTime startDate, LocalDateTime endDate) {
+        Intervals intervals = byVehicle.get(vehicleId);
+        return intervals != null && intervals.overlaps(toMicros(startDate), toMicros(endDate));
+    }
+
+    public LocalDateTime getCoveredFrom() {
+        return coveredFrom;
+    }
+
+    private void apply(ReservationChangedEvent event) {
+        if (event.isOccupying()) {
+            long start = toMicros(event.getStartDate());
+            long end = toMicros(event.getEndDate());
+            byVehicle.compute(event.getVehicleId(), (vehicleId, intervals) ->
+                    (intervals != null ? intervals : Intervals.EMPTY).with(event.getReservationId(), start, end));
+        } else {
+            byVehicle.computeIfPresent(event.getVehicleId(), (vehicleId, intervals) -> {
+                Intervals remaining = intervals.without(event.getReservationId());
+                return remaining.isEmpty() ? null : remaining;
+            });
+        }
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    /**
+     * Immutable, start-sorted reservation windows of one vehicle.
+     */
+    private static final class Intervals {
+
+        static final Intervals EMPTY = new Intervals(new long[0], new long[0], new long[0]);
+
+        private final long[] ids;
+        private final long[] starts;
+        private final long[] ends;
+        /** maxEnds[i] is the latest end among windows 0..i. */
+        private final long[] maxEnds;
+
+        private Intervals(long[] ids, long[] starts, long[] ends) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+
+        /**
+         * Builds the snapshot from windows already sorted by start date.
+         */
+        static Intervals of(List<ReservationWindow> windows) {
+            int size = windows.size();
+            long[] ids = new long[size];
+            long[] starts = new long[size];
+            long[] ends = new long[size];
+            for (int i = 0; i < size; i++) {
+                ReservationWindow window = windows.get(i);
+                ids[i] = window.getId();
+                starts[i] = toMicros(window.getStartDate());
+                ends[i] = toMicros(window.getEndDate());
+            }
+            return new Intervals(ids, starts, ends);
+        }
+
+        boolean isEmpty() {
+            return ids.length == 0;
+        }
+
+        boolean overlaps(long start, long end) {
+            // Windows [0, n) start before the probe ends; one of them overlaps iff the latest end is after the probe start
+            int n = countStartingBefore(end);
+            return n > 0 && maxEnds[n - 1] > start;
+        }
+
+        Intervals with(long id, long start, long end) {
+            Intervals base = without(id);
+            int at = base.countStartingBefore(start + 1);
+            int size = base.ids.length;
+            long[] newIds = new long[size + 1];
+            long[] newStarts = new long[size + 1];
+            long[] newEnds = new long[size + 1];
+            System.arraycopy(base.ids, 0, newIds, 0, at);
+            System.arraycopy(base.starts, 0, newStarts, 0, at);
+            System.arraycopy(base.ends, 0, newEnds, 0, at);
+            newIds[at] = id;
+            newStarts[at] = start;
+            newEnds[at] = end;
+            System.arraycopy(base.ids, at, newIds, at + 1, size - at);
+            System.arraycopy(base.starts, at, newStarts, at + 1, size - at);
+            System.arraycopy(base.ends, at, newEnds, at + 1, size - at);
+            return new Intervals(newIds, newStarts, newEnds);
+        }
+
+        Intervals without(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    return new Intervals(remove(ids, i), remove(starts, i), remove(ends, i));
+                }
+            }
+            return this;
+        }
+
+        Intervals endingAfter(long cutoff) {
+            int kept = 0;
+            long[] newIds = new long[ids.length];
+            long[] newStarts = new long[ids.length];
+            long[] newEnds = new long[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                if (ends[i] > cutoff) {
+                    newIds[kept] = ids[i];
+                    newStarts[kept] = starts[i];
+                    newEnds[kept] = ends[i];
+                    kept++;
+                }
+            }
+            return kept == ids.length ? this
+                    : new Intervals(Arrays.copyOf(newIds, kept), Arrays.copyOf(newStarts, kept), Arrays.copyOf(newEnds, kept));
+        }
+
+        private int countStartingBefore(long time) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static long[] remove(long[] values, int index) {
+            long[] result = new long[values.length - 1];
+            System.arraycopy(values, 0, result, 0, index);
+            System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.adamo.vrspfab.reservations;
+
+import com.adamo.vrspfab.vehicles.VehicleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes booking attempts per vehicle so the overlap check and the insert of a reservation
+ * cannot interleave with another booking of the same vehicle.
+ * <p>
+ * Two guards are taken, both held until the surrounding transaction completes:
+ * <ul>
+ *     <li>an in-process lock picked from a fixed set of stripes by vehicle ID, so concurrent bookings
+ *     of the same vehicle queue up in memory while bookings of other vehicles proceed in parallel;</li>
+ *     <li>a {@code SELECT ... FOR UPDATE} on the vehicle row, which extends the guarantee across
+ *     application instances.</li>
+ * </ul>
+ * Because the in-process lock already serializes local contenders, the row lock is normally uncontended.
+ */
+@Component
+@Slf4j
+public class BookingAdmission {
+
+    private final VehicleRepository vehicleRepository;
+    private final ReentrantLock[] stripes;
+    private final long lockTimeoutMillis;
+
+    public BookingAdmission(VehicleRepository vehicleRepository,
+                            @Value("${reservations.booking.lock-stripes:64}") int stripeCount,
+                            @Value("${reservations.booking.lock-timeout-ms:5000}") long lockTimeoutMillis) {
+        this.vehicleRepository = vehicleRepository;
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.lockTimeoutMillis = lockTimeoutMillis;
+    }
+
+    /**
+     * Acquires the booking guards of a vehicle for the current transaction. They are released once the
+     * transaction commits or rolls back, so the caller's availability check and insert are atomic
+     * with respect to other bookings of the same vehicle.
+     *
+     * @param vehicleId The ID of the vehicle being booked.
+     * @throws IllegalStateException if no transaction is active.
+     * @throws ReservationConflictException if the vehicle stays locked by other bookings for too long.
+     */
+    public void admit(Long vehicleId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Booking admission requires an active transaction");
+        }
+
+        ReentrantLock lock = stripeFor(vehicleId);
+        try {
+            if (!lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("Timed out waiting for booking lock of vehicle {}", vehicleId);
+                throw new ReservationConflictException("The vehicle is being booked by other users, please try again.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReservationConflictException("Booking was interrupted, please try again.");
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+
+        vehicleRepository.findByIdForUpdate(vehicleId);
+    }
+
+    private ReentrantLock stripeFor(Long vehicleId) {
+        return stripes[Math.floorMod(Long.hashCode(vehicleId), stripes.length)];
+    }
+}
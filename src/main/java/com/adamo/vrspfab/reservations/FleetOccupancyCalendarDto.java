@@ -0,0 +1,26 @@
+package com.adamo.vrspfab.reservations;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Calendar heatmap of the whole fleet. {@code occupiedVehicles} holds, for each day, how many vehicles
+ * are reserved for at least one hour; {@code vehicles} holds the per-vehicle calendars of every vehicle
+ * with at least one reserved hour in the range.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetOccupancyCalendarDto {
+    private LocalDate from;
+    private int days;
+    private long fleetSize;
+    private int[] occupiedVehicles;
+    private List<OccupancyCalendarDto> vehicles;
+}
@@ -0,0 +1,392 @@
+package com.adamo.vrspfab.reservations;
+
+import com.adamo.vrspfab.vehicles.VehicleCatalogChangedEvent;
+import com.adamo.vrspfab.vehicles.VehiclesDeletedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reserved vehicle-hours of the fleet per hour and category, over a window from
+ * {@code reservations.occupancy-timeline.past-days} before today to {@code future-days} after it.
+ * <p>
+ * Each vehicle's non-cancelled reservations are clipped to the window and merged, so a vehicle never counts
+ * for more than one vehicle-hour per hour. The merged intervals of each category are then swept in start
+ * and end order, adding the number of vehicles reserved between two consecutive endpoints to the hours
+ * between them, to the second. The window is built with one query on startup and every night when it
+ * rolls forward. A {@link ReservationChangedEvent} or an update of a vehicle, which may have moved it to
+ * another category, reloads the windows of the vehicle once its transaction has committed, and deleted
+ * vehicles are dropped. The difference between a vehicle's previous and current intervals is applied to
+ * copies of the affected categories' hourly totals, which are published together in a new snapshot so
+ * readers never lock and never see half of a change.
+ * <p>
+ * Ranges outside the window are swept from the database on the fly.
+ */
+@Component
+@Slf4j
+public class FleetOccupancyTimeline {
+
+    private static final int HOURS_PER_DAY = 24;
+    private static final long SECONDS_PER_HOUR = 3600;
+
+    /** Category key of vehicles without a category. */
+    private static final long UNCATEGORIZED = 0L;
+
+    /** A vehicle's merged reserved intervals, as pairs of seconds from the start of the window. */
+    private record Occupancy(long categoryKey, long[] intervals) {
+    }
+
+    private final ReservationRepository reservationRepository;
+    private final int pastDays;
+    private final int futureDays;
+
+    /** Null until the first build succeeds. */
+    private volatile Snapshot snapshot;
+
+    public FleetOccupancyTimeline(ReservationRepository reservationRepository,
+                                  @Value("${reservations.occupancy-timeline.past-days:35}") int pastDays,
+                                  @Value("${reservations.occupancy-timeline.future-days:35}") int futureDays) {
+        this.reservationRepository = reservationRepository;
+        this.pastDays = pastDays;
+        this.futureDays = futureDays;
+    }
+
+    /**
+     * Rebuilds the window around today.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 10 0 * * ?")
+    public synchronized void rebuild() {
+        LocalDate origin = LocalDate.now().minusDays(pastDays);
+        int days = pastDays + futureDays;
+        LocalDateTime start = origin.atStartOfDay();
+        List<OccupancyWindow> windows;
+        try {
+            windows = reservationRepository.findOccupancyWindowsOverlapping(start, start.plusDays(days));
+        } catch (Exception e) {
+            log.warn("Could not build the fleet occupancy timeline: {}", e.getMessage());
+            return;
+        }
+        Map<Long, Occupancy> vehicles = occupancies(windows, start, days);
+        snapshot = new Snapshot(origin, days, new ConcurrentHashMap<>(vehicles),
+                Map.copyOf(sweep(vehicles.values(), days * HOURS_PER_DAY)));
+        log.info("Fleet occupancy timeline built from {} reservation windows for {} days from {}", windows.size(), days, origin);
+    }
+
+    /**
+     * Applies a reservation change once its transaction has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onReservationChanged(ReservationChangedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null || outside(event, current)) {
+            return;
+        }
+        reload(current, event.getVehicleId());
+    }
+
+    /**
+     * Reloads an updated vehicle, whose category may have changed, and drops a deleted one.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(VehicleCatalogChangedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null || event.getKind() != VehicleCatalogChangedEvent.Kind.VEHICLE
+                || event.getId() == null || event.isCreated()) {
+            return;
+        }
+        if (event.isRemoved()) {
+            Map<Long, Occupancy> removed = new HashMap<>();
+            removed.put(event.getId(), null);
+            replace(current, removed);
+        } else {
+            reload(current, event.getId());
+        }
+    }
+
+    /**
+     * Drops the vehicles of a committed deletion chunk, whose reservations were deleted with them.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVehiclesDeleted(VehiclesDeletedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        Map<Long, Occupancy> removed = new HashMap<>();
+        event.getVehicleIds().forEach(vehicleId -> removed.put(vehicleId, null));
+        replace(current, removed);
+    }
+
+    private void reload(Snapshot current, Long vehicleId) {
+        Occupancy fresh = occupancy(reservationRepository.findOccupancyWindows(vehicleId, current.start(), current.end()),
+                current.start(), current.days());
+        Map<Long, Occupancy> changes = new HashMap<>();
+        changes.put(vehicleId, fresh);
+        replace(current, changes);
+    }
+
+    /**
+     * Replaces the occupancy of vehicles, a null occupancy removing the vehicle, and publishes the hourly
+     * totals with both the removal of their previous intervals and the addition of their current ones.
+     */
+    private void replace(Snapshot current, Map<Long, Occupancy> changes) {
+        Map<Long, long[]> categories = new HashMap<>(current.categories());
+        Set<Long> copied = new HashSet<>();
+        changes.forEach((vehicleId, fresh) -> {
+            Occupancy previous = fresh != null ? current.vehicles().put(vehicleId, fresh) : current.vehicles().remove(vehicleId);
+            if (previous != null) {
+                apply(categories, copied, current.hours(), previous, -1);
+            }
+            if (fresh != null) {
+                apply(categories, copied, current.hours(), fresh, 1);
+            }
+        });
+        if (!copied.isEmpty()) {
+            snapshot = new Snapshot(current.origin(), current.days(), current.vehicles(), Map.copyOf(categories));
+        }
+    }
+
+    /**
+     * Returns the reserved vehicle-hours of the fleet and of each category per hour or day.
+     *
+     * @param from The first day.
+     * @param days The number of days.
+     * @param resolution Whether to total per hour or per day.
+     * @param fleetSize The number of vehicles, to compute utilization rates against.
+     * @return The timeline.
+     * @throws InvalidReservationDateException if the range is empty or too long.
+     */
+    public OccupancyTimelineDto getTimeline(LocalDate from, int days, OccupancyTimelineDto.Resolution resolution, long fleetSize) {
+        if (days < 1 || days > ReservationService.MAX_CALENDAR_DAYS) {
+            throw new InvalidReservationDateException("Timeline range must be between 1 and " + ReservationService.MAX_CALENDAR_DAYS + " days.");
+        }
+        Snapshot current = snapshot;
+        Map<Long, long[]> categories;
+        int hourOffset;
+        if (current != null && current.covers(from, days)) {
+            categories = current.categories();
+            hourOffset = current.dayOffset(from) * HOURS_PER_DAY;
+        } else {
+            LocalDateTime start = from.atStartOfDay();
+            List<OccupancyWindow> windows = reservationRepository.findOccupancyWindowsOverlapping(start, start.plusDays(days));
+            categories = sweep(occupancies(windows, start, days).values(), days * HOURS_PER_DAY);
+            hourOffset = 0;
+        }
+
+        int periodHours = resolution == OccupancyTimelineDto.Resolution.DAY ? HOURS_PER_DAY : 1;
+        int periods = days * HOURS_PER_DAY / periodHours;
+        double[] vehicleHours = new double[periods];
+        Map<Long, double[]> categoryVehicleHours = new TreeMap<>();
+        categories.forEach((categoryKey, seconds) -> {
+            double[] series = new double[periods];
+            for (int period = 0; period < periods; period++) {
+                long reserved = 0;
+                int hour = hourOffset + period * periodHours;
+                for (int i = 0; i < periodHours; i++) {
+                    reserved += seconds[hour + i];
+                }
+                series[period] = reserved / (double) SECONDS_PER_HOUR;
+                vehicleHours[period] += series[period];
+            }
+            if (categoryKey != UNCATEGORIZED) {
+                categoryVehicleHours.put(categoryKey, series);
+            }
+        });
+        double[] utilizationRate = new double[periods];
+        if (fleetSize > 0) {
+            for (int period = 0; period < periods; period++) {
+                utilizationRate[period] = Math.min(100.0, vehicleHours[period] / (fleetSize * periodHours) * 100);
+            }
+        }
+
+        return OccupancyTimelineDto.builder()
+                .from(from)
+                .days(days)
+                .resolution(resolution)
+                .fleetSize(fleetSize)
+                .vehicleHours(vehicleHours)
+                .utilizationRate(utilizationRate)
+                .categories(categoryVehicleHours)
+                .build();
+    }
+
+    private static Map<Long, Occupancy> occupancies(List<OccupancyWindow> windows, LocalDateTime start, int days) {
+        Map<Long, List<OccupancyWindow>> byVehicle = new LinkedHashMap<>();
+        for (OccupancyWindow window : windows) {
+            byVehicle.computeIfAbsent(window.getVehicleId(), id -> new ArrayList<>()).add(window);
+        }
+        Map<Long, Occupancy> occupancies = new HashMap<>();
+        byVehicle.forEach((vehicleId, vehicleWindows) -> {
+            Occupancy occupancy = occupancy(vehicleWindows, start, days);
+            if (occupancy != null) {
+                occupancies.put(vehicleId, occupancy);
+            }
+        });
+        return occupancies;
+    }
+
+    /**
+     * Clips a vehicle's windows, sorted by start date, to the range and merges the overlapping ones.
+     *
+     * @return The vehicle's occupancy, or null if it has no reserved second in the range.
+     */
+    private static Occupancy occupancy(List<OccupancyWindow> windows, LocalDateTime start, int days) {
+        long limit = days * HOURS_PER_DAY * SECONDS_PER_HOUR;
+        long[] intervals = new long[windows.size() * 2];
+        int length = 0;
+        for (OccupancyWindow window : windows) {
+            long from = seconds(start, window.getStartDate(), limit);
+            long to = seconds(start, window.getEndDate(), limit);
+            if (from >= to) {
+                continue;
+            }
+            if (length > 0 && from <= intervals[length - 1]) {
+                intervals[length - 1] = Math.max(intervals[length - 1], to);
+            } else {
+                intervals[length++] = from;
+                intervals[length++] = to;
+            }
+        }
+        if (length == 0) {
+            return null;
+        }
+        Long categoryId = windows.get(0).getCategoryId();
+        return new Occupancy(categoryId != null ? categoryId : UNCATEGORIZED, Arrays.copyOf(intervals, length));
+    }
+
+    /**
+     * Sweeps the intervals of each category in endpoint order into reserved seconds per hour.
+     */
+    private static Map<Long, long[]> sweep(Collection<Occupancy> occupancies, int hours) {
+        Map<Long, List<Occupancy>> byCategory = new HashMap<>();
+        for (Occupancy occupancy : occupancies) {
+            byCategory.computeIfAbsent(occupancy.categoryKey(), key -> new ArrayList<>()).add(occupancy);
+        }
+        Map<Long, long[]> categories = new HashMap<>();
+        byCategory.forEach((categoryKey, categoryOccupancies) -> {
+            int count = categoryOccupancies.stream().mapToInt(occupancy -> occupancy.intervals().length / 2).sum();
+            long[] starts = new long[count];
+            long[] ends = new long[count];
+            int n = 0;
+            for (Occupancy occupancy : categoryOccupancies) {
+                long[] intervals = occupancy.intervals();
+                for (int i = 0; i < intervals.length; i += 2) {
+                    starts[n] = intervals[i];
+                    ends[n++] = intervals[i + 1];
+                }
+            }
+            Arrays.sort(starts);
+            Arrays.sort(ends);
+
+            long[] seconds = new long[hours];
+            long time = 0;
+            int reserved = 0;
+            int i = 0;
+            int j = 0;
+            while (j < count) {
+                if (i < count && starts[i] < ends[j]) {
+                    accumulate(seconds, time, starts[i], reserved);
+                    time = starts[i++];
+                    reserved++;
+                } else {
+                    accumulate(seconds, time, ends[j], reserved);
+                    time = ends[j++];
+                    reserved--;
+                }
+            }
+            categories.put(categoryKey, seconds);
+        });
+        return categories;
+    }
+
+    /**
+     * Adds or removes a vehicle's intervals, copying its category's totals the first time they change.
+     */
+    private static void apply(Map<Long, long[]> categories, Set<Long> copied, int hours, Occupancy occupancy, int sign) {
+        long[] seconds = categories.get(occupancy.categoryKey());
+        if (copied.add(occupancy.categoryKey())) {
+            seconds = seconds != null ? seconds.clone() : new long[hours];
+            categories.put(occupancy.categoryKey(), seconds);
+        }
+        long[] intervals = occupancy.intervals();
+        for (int i = 0; i < intervals.length; i += 2) {
+            accumulate(seconds, intervals[i], intervals[i + 1], sign);
+        }
+    }
+
+    /**
+     * Adds {@code vehicles} reserved vehicles over {@code [from, to)}, in seconds, to the hours it spans.
+     */
+    private static void accumulate(long[] seconds, long from, long to, int vehicles) {
+        if (vehicles == 0) {
+            return;
+        }
+        int hour = (int) (from / SECONDS_PER_HOUR);
+        while (from < to) {
+            long end = Math.min(to, (hour + 1) * SECONDS_PER_HOUR);
+            seconds[hour++] += (end - from) * vehicles;
+            from = end;
+        }
+    }
+
+    /**
+     * Seconds from {@code start} to {@code time}, clamped to {@code [0, limit]}.
+     */
+    private static long seconds(LocalDateTime start, LocalDateTime time, long limit) {
+        if (!time.isAfter(start)) {
+            return 0;
+        }
+        return Math.min(Duration.between(start, time).getSeconds(), limit);
+    }
+
+    private static boolean outside(ReservationChangedEvent event, Snapshot snapshot) {
+        return event.getStartDate() != null && event.getEndDate() != null
+                && (!event.getEndDate().isAfter(snapshot.start()) || !event.getStartDate().isBefore(snapshot.end()));
+    }
+
+    /** The totals of a snapshot are never modified once published; the vehicles are only used under the lock. */
+    private record Snapshot(LocalDate origin, int days, ConcurrentMap<Long, Occupancy> vehicles,
+                            Map<Long, long[]> categories) {
+
+        LocalDateTime start() {
+            return origin.atStartOfDay();
+        }
+
+        LocalDateTime end() {
+            return start().plusDays(days);
+        }
+
+        int hours() {
+            return days * HOURS_PER_DAY;
+        }
+
+        boolean covers(LocalDate from, int length) {
+            return !from.isBefore(origin) && !from.plusDays(length).isAfter(origin.plusDays(days));
+        }
+
+        int dayOffset(LocalDate from) {
+            return (int) Duration.between(origin.atStartOfDay(), from.atStartOfDay()).toDays();
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.adamo.vrspfab.reservations;
+
+import com.adamo.vrspfab.dashboard.FleetStatusCounters;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-vehicle occupancy bitmaps with one bit per hour over a rolling horizon starting today,
+ * used to serve reservation calendars and heatmaps from memory.
+ * <p>
+ * An hour's bit is set when any non-cancelled reservation overlaps it. The bitmaps are built from a
+ * single query on startup and every night when the horizon rolls forward, and kept current from
+ * {@link ReservationChangedEvent}s: a new or still-occupying reservation ORs its hours in, a cancelled or
+ * deleted one reloads that vehicle's bitmap from the database. The reload runs outside the lock, and is
+ * repeated if another change to the vehicle or a rebuild was applied while it ran. Each vehicle's bitmap
+ * is replaced copy-on-write so readers never lock. Fleet sizes come from {@link FleetStatusCounters}.
+ * <p>
+ * Ranges outside the horizon are computed from the database on the fly.
+ */
+@Component
+@Slf4j
+public class OccupancyCalendar {
+
+    private static final int HOURS_PER_DAY = 24;
+
+    private final ReservationRepository reservationRepository;
+    private final FleetStatusCounters fleetStatusCounters;
+    private final int horizonDays;
+
+    /** Number of changes applied to each vehicle, so a reload can tell whether it was overtaken. */
+    private final Map<Long, Long> changes = new ConcurrentHashMap<>();
+
+    /** Null until the first build succeeds. */
+    private volatile Snapshot snapshot;
+
+    public OccupancyCalendar(ReservationRepository reservationRepository,
+                             FleetStatusCounters fleetStatusCounters,
+                             @Value("${reservations.calendar.horizon-days:180}") int horizonDays) {
+        this.reservationRepository = reservationRepository;
+        this.fleetStatusCounters = fleetStatusCounters;
+        this.horizonDays = horizonDays;
+    }
+
+    /**
+     * Rebuilds every bitmap for the horizon starting today.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 5 0 * * ?")
+    public synchronized void rebuild() {
+        LocalDate origin = LocalDate.now();
+        LocalDateTime start = origin.atStartOfDay();
+        List<ReservationWindow> windows;
+        try {
+            windows = reservationRepository.findWindowsOverlapping(start, start.plusDays(horizonDays));
+        } catch (Exception e) {
+            log.warn("Could not build the occupancy calendar: {}", e.getMessage());
+            return;
+        }
+        snapshot = new Snapshot(origin, horizonDays, new ConcurrentHashMap<>(toBitmaps(windows, start, horizonDays)));
+        log.info("Occupancy calendar built from {} reservation windows for {} days from {}", windows.size(), horizonDays, origin);
+    }
+
+    /**
+     * Applies a reservation change once its transaction has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        Long vehicleId = event.getVehicleId();
+        if (event.isOccupying()) {
+            synchronized (this) {
+                Snapshot current = snapshot;
+                if (current == null) {
+                    return;
+                }
+                changes.merge(vehicleId, 1L, Long::sum);
+                LocalDateTime start = current.origin().atStartOfDay();
+                int from = hourIndex(start, event.getStartDate(), current.hours(), false);
+                int to = hourIndex(start, event.getEndDate(), current.hours(), true);
+                if (from < to) {
+                    current.bitmaps().compute(vehicleId, (id, bits) -> {
+                        long[] updated = bits != null ? bits.clone() : new long[words(current.hours())];
+                        setRange(updated, from, to);
+                        return updated;
+                    });
+                }
+            }
+            return;
+        }
+
+        // Other reservations may share the freed hours, so rebuild the vehicle from its remaining windows
+        long change = changes.merge(vehicleId, 1L, Long::sum);
+        while (true) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            LocalDateTime start = current.origin().atStartOfDay();
+            List<ReservationWindow> windows = reservationRepository.findReservationWindows(
+                    vehicleId, start, start.plusDays(current.days()));
+            long[] rebuilt = toBitmaps(windows, start, current.days()).get(vehicleId);
+            synchronized (this) {
+                if (snapshot == current && changes.get(vehicleId) == change) {
+                    if (rebuilt == null) {
+                        current.bitmaps().remove(vehicleId);
+                    } else {
+                        current.bitmaps().put(vehicleId, rebuilt);
+                    }
+                    return;
+                }
+                change = changes.get(vehicleId);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of reserved hours of each day of a vehicle's calendar.
+     *
+     * @param vehicleId The ID of the vehicle.
+     * @param from The first day.
+     * @param days The number of days.
+     * @return The vehicle's calendar heatmap.
+     */
+    public OccupancyCalendarDto getVehicleCalendar(Long vehicleId, LocalDate from, int days) {
+        Snapshot current = snapshot;
+        int[] occupiedHours;
+        if (current != null && current.covers(from, days)) {
+            occupiedHours = hoursPerDay(current.bitmaps().get(vehicleId), current.dayOffset(from), days);
+        } else {
+            LocalDateTime start = from.atStartOfDay();
+            List<ReservationWindow> windows = reservationRepository.findReservationWindows(vehicleId, start, start.plusDays(days));
+            occupiedHours = hoursPerDay(toBitmaps(windows, start, days).get(vehicleId), 0, days);
+        }
+        return OccupancyCalendarDto.builder()
+                .vehicleId(vehicleId)
+                .from(from)
+                .days(days)
+                .occupiedHours(occupiedHours)
+                .build();
+    }
+
+    /**
+     * Returns the calendar heatmap of the whole fleet.
+     *
+     * @param from The first day.
+     * @param days The number of days.
+     * @return Per-day occupied vehicle counts and the calendars of every vehicle reserved in the range.
+     */
+    public FleetOccupancyCalendarDto getFleetCalendar(LocalDate from, int days) {
+        Snapshot current = snapshot;
+        Map<Long, long[]> bitmaps;
+        int dayOffset;
+        if (current != null && current.covers(from, days)) {
+            bitmaps = current.bitmaps();
+            dayOffset = current.dayOffset(from);
+        } else {
+            LocalDateTime start = from.atStartOfDay();
+            bitmaps = toBitmaps(reservationRepository.findWindowsOverlapping(start, start.plusDays(days)), start, days);
+            dayOffset = 0;
+        }
+
+        int[] occupiedVehicles = new int[days];
+        List<OccupancyCalendarDto> vehicles = new ArrayList<>();
+        bitmaps.forEach((vehicleId, bits) -> {
+            int[] occupiedHours = hoursPerDay(bits, dayOffset, days);
+            boolean occupied = false;
+            for (int day = 0; day < days; day++) {
+                if (occupiedHours[day] > 0) {
+                    occupiedVehicles[day]++;
+                    occupied = true;
+                }
+            }
+            if (occupied) {
+                vehicles.add(new OccupancyCalendarDto(vehicleId, from, days, occupiedHours));
+            }
+        });
+        vehicles.sort(Comparator.comparing(OccupancyCalendarDto::getVehicleId));
+
+        return FleetOccupancyCalendarDto.builder()
+                .from(from)
+                .days(days)
+                .fleetSize(fleetStatusCounters.snapshot().getTotalVehicles())
+                .occupiedVehicles(occupiedVehicles)
+                .vehicles(vehicles)
+                .build();
+    }
+
+    /**
+     * Returns the share of the fleet's vehicle-hours reserved on each day.
+     *
+     * @param from The first day.
+     * @param days The number of days.
+     * @return For each day, reserved vehicle-hours divided by fleet size times 24, between 0 and 1.
+     */
+    public double[] getFleetUtilization(LocalDate from, int days) {
+        Snapshot current = snapshot;
+        Map<Long, long[]> bitmaps;
+        int dayOffset;
+        if (current != null && current.covers(from, days)) {
+            bitmaps = current.bitmaps();
+            dayOffset = current.dayOffset(from);
+        } else {
+            LocalDateTime start = from.atStartOfDay();
+            bitmaps = toBitmaps(reservationRepository.findWindowsOverlapping(start, start.plusDays(days)), start, days);
+            dayOffset = 0;
+        }
+
+        double[] utilization = new double[days];
+        long fleetSize = fleetStatusCounters.snapshot().getTotalVehicles();
+        if (fleetSize == 0) {
+            return utilization;
+        }
+        long[] reservedHours = new long[days];
+        bitmaps.values().forEach(bits -> {
+            int[] occupiedHours = hoursPerDay(bits, dayOffset, days);
+            for (int day = 0; day < days; day++) {
+                reservedHours[day] += occupiedHours[day];
+            }
+        });
+        for (int day = 0; day < days; day++) {
+            utilization[day] = Math.min(1.0, reservedHours[day] / (double) (fleetSize * HOURS_PER_DAY));
+        }
+        return utilization;
+    }
+
+    private static Map<Long, long[]> toBitmaps(List<ReservationWindow> windows, LocalDateTime start, int days) {
+        int hours = days * HOURS_PER_DAY;
+        Map<Long, long[]> bitmaps = new HashMap<>();
+        for (ReservationWindow window : windows) {
+            int from = hourIndex(start, window.getStartDate(), hours, false);
+            int to = hourIndex(start, window.getEndDate(), hours, true);
+            if (from < to) {
+                setRange(bitmaps.computeIfAbsent(window.getVehicleId(), id -> new long[words(hours)]), from, to);
+            }
+        }
+        return bitmaps;
+    }
+
+    private static int[] hoursPerDay(long[] bits, int dayOffset, int days) {
+        int[] hoursPerDay = new int[days];
+        if (bits == null) {
+            return hoursPerDay;
+        }
+        for (int day = 0; day < days; day++) {
+            int from = (dayOffset + day) * HOURS_PER_DAY;
+            hoursPerDay[day] = countRange(bits, from, from + HOURS_PER_DAY);
+        }
+        return hoursPerDay;
+    }
+
+    /**
+     * Index of the hour containing {@code time} (or, when {@code roundUp}, of the first hour not before it),
+     * clamped to {@code [0, hours]}.
+     */
+    private static int hourIndex(LocalDateTime start, LocalDateTime time, int hours, boolean roundUp) {
+        if (!time.isAfter(start)) {
+            return 0;
+        }
+        Duration offset = Duration.between(start, time);
+        long index = offset.toHours();
+        if (roundUp && offset.compareTo(Duration.ofHours(index)) > 0) {
+            index++;
+        }
+        return (int) Math.min(index, hours);
+    }
+
+    private static int words(int bits) {
+        return (bits + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static void setRange(long[] bits, int from, int to) {
+        for (int i = from; i < to; i++) {
+            bits[i >>> 6] |= 1L << i;
+        }
+    }
+
+    private static int countRange(long[] bits, int from, int to) {
+        int count = 0;
+        int i = from;
+        while (i < to) {
+            int word = i >>> 6;
+            int offset = i & 63;
+            int length = Math.min(Long.SIZE - offset, to - i);
+            long mask = length == Long.SIZE ? -1L : ((1L << length) - 1) << offset;
+            count += Long.bitCount(bits[word] & mask);
+            i += length;
+        }
+        return count;
+    }
+
+    private record Snapshot(LocalDate origin, int days, Map<Long, long[]> bitmaps) {
+
+        int hours() {
+            return days * HOURS_PER_DAY;
+        }
+
+        boolean covers(LocalDate from, int length) {
+            return !from.isBefore(origin) && !from.plusDays(length).isAfter(origin.plusDays(days));
+        }
+
+        int dayOffset(LocalDate from) {
+            return (int) Duration.between(origin.atStartOfDay(), from.atStartOfDay()).toDays();
+        }
+    }
+}
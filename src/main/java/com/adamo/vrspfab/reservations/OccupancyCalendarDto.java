@@ -0,0 +1,23 @@
+package com.adamo.vrspfab.reservations;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Calendar heatmap of one vehicle: the number of reserved hours (0-24) of each day,
+ * starting at {@code from}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyCalendarDto {
+    private Long vehicleId;
+    private LocalDate from;
+    private int days;
+    private int[] occupiedHours;
+}
@@ -0,0 +1,35 @@
+package com.adamo.vrspfab.reservations;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Reserved vehicle-hours of the fleet per hour or day, starting at {@code from}. A vehicle reserved for
+ * half of an hour counts for half a vehicle-hour, and overlapping reservations of one vehicle count once.
+ * {@code categories} holds the same series per category ID; vehicles without a category only count in
+ * the fleet totals.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyTimelineDto {
+
+    public enum Resolution {
+        HOUR, DAY
+    }
+
+    private LocalDate from;
+    private int days;
+    private Resolution resolution;
+    private long fleetSize;
+    private double[] vehicleHours;
+    /** Reserved share of the fleet's vehicle-hours in each period, in percent. */
+    private double[] utilizationRate;
+    private Map<Long, double[]> categories;
+}
@@ -0,0 +1,16 @@
+package com.adamo.vrspfab.reservations;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * A reservation's time window with its vehicle's category, as read by the {@link FleetOccupancyTimeline}.
+ */
+@Value
+public class OccupancyWindow {
+    Long vehicleId;
+    Long categoryId;
+    LocalDateTime startDate;
+    LocalDateTime endDate;
+}
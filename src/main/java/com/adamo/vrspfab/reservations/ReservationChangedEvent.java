@@ -0,0 +1,46 @@
+package com.adamo.vrspfab.reservations;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event fired whenever a reservation is created, changes status or is deleted.
+ * Carries the reservation's window so listeners maintaining availability state
+ * don't need to reload the reservation.
+ */
+@Getter
+public class ReservationChangedEvent extends ApplicationEvent {
+
+    private final Long reservationId;
+    private final Long vehicleId;
+    private final LocalDateTime startDate;
+    private final LocalDateTime endDate;
+    private final ReservationStatus oldStatus;
+    /** The new status, or {@code null} when the reservation was deleted. */
+    private final ReservationStatus newStatus;
+
+    public ReservationChangedEvent(Object source, Long reservationId, Long vehicleId, LocalDateTime startDate,
+                                   LocalDateTime endDate, ReservationStatus oldStatus, ReservationStatus newStatus) {
+        super(source);
+        this.reservationId = reservationId;
+        this.vehicleId = vehicleId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.oldStatus = oldStatus;
+        this.newStatus = newStatus;
+    }
+
+    public ReservationChangedEvent(Object source, Reservation reservation, ReservationStatus oldStatus) {
+        this(source, reservation.getId(), reservation.getVehicle().getId(), reservation.getStartDate(),
+                reservation.getEndDate(), oldStatus, reservation.getStatus());
+    }
+
+    /**
+     * Whether the reservation occupies its vehicle after this change.
+     */
+    public boolean isOccupying() {
+        return newStatus != null && newStatus != ReservationStatus.CANCELLED;
+    }
+}
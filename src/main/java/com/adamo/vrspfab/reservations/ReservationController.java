@@ -12,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import com.adamo.vrspfab.slots.SlotDto;
@@ -179,6 +180,26 @@ public class ReservationController {
         return ResponseEntity.ok(blockedDates);
     }
 
+    /**
+     * GET /reservations/vehicles/{vehicleId}/calendar : Gets the occupancy heatmap of a vehicle
+     */
+    @Operation(summary = "Get occupancy calendar for a vehicle",
+               description = "Retrieves, for each day of the range, the number of hours the vehicle is reserved.",
+               responses = {
+                       @ApiResponse(responseCode = "200", description = "Successfully retrieved occupancy calendar"),
+                       @ApiResponse(responseCode = "400", description = "Invalid calendar range"),
+                       @ApiResponse(responseCode = "500", description = "Internal server error")
+               })
+    @GetMapping("/vehicles/{vehicleId}/calendar")
+    public ResponseEntity<OccupancyCalendarDto> getVehicleCalendar(
+            @PathVariable Long vehicleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "90") int days) {
+
+        LocalDate start = from != null ? from : LocalDate.now();
+        return ResponseEntity.ok(reservationService.getVehicleCalendar(vehicleId, start, days));
+    }
+
     /**
      * GET /reservations/vehicles/{vehicleId}/available-slots : Gets available slots for a vehicle
      */
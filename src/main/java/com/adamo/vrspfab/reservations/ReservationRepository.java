@@ -1,22 +1,24 @@
 package com.adamo.vrspfab.reservations;
 
-import org.springframework.data.domain.Page;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ReservationRepository extends JpaRepository<Reservation, Long>, JpaSpecificationExecutor<Reservation> {
+public interface ReservationRepository extends JpaRepository<Reservation, Long>, JpaSpecificationExecutor<Reservation>,
+        ReservationRepositoryCustom {
 
     /**
      * Finds a reservation by its ID, eagerly fetching the associated user and vehicle.
@@ -29,18 +31,6 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>,
     Optional<Reservation> findById(@NonNull Long id);
 
 
-    /**
-     * Finds all reservations matching the given specification, applying pagination and sorting.
-     * Eagerly fetches user and vehicle data to prevent N+1 query issues.
-     *
-     * @param spec The specification to filter by.
-     * @param pageable The pagination and sorting information.
-     * @return A page of reservations.
-     */
-    @NonNull
-    @EntityGraph(attributePaths = {"user", "vehicle", "slots"}, type = EntityGraph.EntityGraphType.LOAD)
-    Page<Reservation> findAll(Specification<Reservation> spec,@NonNull Pageable pageable);
-
     /**
      * Checks for existing reservations that overlap with the given time frame for a specific vehicle.
      * This is crucial for preventing double bookings.
@@ -54,14 +44,103 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>,
     @Query("SELECT r FROM Reservation r WHERE r.vehicle.id = :vehicleId AND r.status <> 'CANCELLED' AND r.startDate < :endDate AND r.endDate > :startDate")
     List<Reservation> findOverlappingReservations(Long vehicleId, LocalDateTime startDate, LocalDateTime endDate);
 
+    /**
+     * Fetches only the time windows of non-cancelled reservations overlapping the given range for a vehicle,
+     * ordered by start date. Used to compute availability for a whole calendar window in a single round trip.
+     *
+     * @param vehicleId The ID of the vehicle to check.
+     * @param startDate The start of the window.
+     * @param endDate The end of the window.
+     * @return The overlapping reservation windows, sorted by start date.
+     */
+    @Query("SELECT new com.adamo.vrspfab.reservations.ReservationWindow(r.id, r.vehicle.id, r.startDate, r.endDate) " +
+            "FROM Reservation r WHERE r.vehicle.id = :vehicleId AND r.status <> 'CANCELLED' " +
+            "AND r.startDate < :endDate AND r.endDate > :startDate " +
+            "ORDER BY r.startDate, r.id")
+    List<ReservationWindow> findReservationWindows(Long vehicleId, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Fetches the time windows of all non-cancelled reservations, across every vehicle, that end after the given time.
+     * Used to warm the in-memory {@link AvailabilityIndex}.
+     *
+     * @param after Only reservations ending after this time are returned.
+     * @return The reservation windows, sorted by vehicle and start date.
+     */
+    @Query("SELECT new com.adamo.vrspfab.reservations.ReservationWindow(r.id, r.vehicle.id, r.startDate, r.endDate) " +
+            "FROM Reservation r WHERE r.status <> 'CANCELLED' AND r.endDate > :after " +
+            "ORDER BY r.vehicle.id, r.startDate")
+    List<ReservationWindow> findActiveWindowsEndingAfter(LocalDateTime after);
+
+    /**
+     * Fetches the time windows of all non-cancelled reservations, across every vehicle, overlapping the given range.
+     * Used to build occupancy calendars in a single round trip.
+     *
+     * @param startDate The start of the range.
+     * @param endDate The end of the range.
+     * @return The reservation windows, sorted by vehicle and start date.
+     */
+    @Query("SELECT new com.adamo.vrspfab.reservations.ReservationWindow(r.id, r.vehicle.id, r.startDate, r.endDate) " +
+            "FROM Reservation r WHERE r.status <> 'CANCELLED' AND r.startDate < :endDate AND r.endDate > :startDate " +
+            "ORDER BY r.vehicle.id, r.startDate")
+    List<ReservationWindow> findWindowsOverlapping(LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Finds the windows of non-cancelled reservations overlapping a range, with their vehicle's category.
+     *
+     * @param startDate The start of the range.
+     * @param endDate The end of the range.
+     * @return The windows, sorted by vehicle and start date.
+     */
+    @Query("SELECT new com.adamo.vrspfab.reservations.OccupancyWindow(v.id, c.id, r.startDate, r.endDate) " +
+            "FROM Reservation r JOIN r.vehicle v LEFT JOIN v.category c WHERE r.status <> 'CANCELLED' AND r.startDate < :endDate AND r.endDate > :startDate " +
+            "ORDER BY v.id, r.startDate")
+    List<OccupancyWindow> findOccupancyWindowsOverlapping(LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Finds the windows of a vehicle's non-cancelled reservations overlapping a range, with its category.
+     *
+     * @param vehicleId The ID of the vehicle.
+     * @param startDate The start of the range.
+     * @param endDate The end of the range.
+     * @return The windows, sorted by start date.
+     */
+    @Query("SELECT new com.adamo.vrspfab.reservations.OccupancyWindow(v.id, c.id, r.startDate, r.endDate) " +
+            "FROM Reservation r JOIN r.vehicle v LEFT JOIN v.category c WHERE v.id = :vehicleId AND r.status <> 'CANCELLED' " +
+            "AND r.startDate < :endDate AND r.endDate > :startDate " +
+            "ORDER BY r.startDate")
+    List<OccupancyWindow> findOccupancyWindows(Long vehicleId, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Finds which of the given vehicles have a non-cancelled reservation overlapping the given time frame,
+     * in one query.
+     *
+     * @param vehicleIds The IDs of the vehicles to check.
+     * @param startDate The start of the proposed period.
+     * @param endDate The end of the proposed period.
+     * @return The IDs of the vehicles that are booked during the period.
+     */
+    @Query("SELECT DISTINCT r.vehicle.id FROM Reservation r WHERE r.vehicle.id IN :vehicleIds " +
+            "AND r.status <> 'CANCELLED' AND r.startDate < :endDate AND r.endDate > :startDate")
+    List<Long> findVehicleIdsWithOverlap(Collection<Long> vehicleIds, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Checks whether any non-cancelled reservation of the vehicle overlaps the given time frame,
+     * without loading the reservations themselves.
+     *
+     * @param vehicleId The ID of the vehicle to check.
+     * @param startDate The start of the proposed period.
+     * @param endDate The end of the proposed period.
+     * @return true if at least one overlapping reservation exists.
+     */
+    @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END FROM Reservation r " +
+            "WHERE r.vehicle.id = :vehicleId AND r.status <> 'CANCELLED' " +
+            "AND r.startDate < :endDate AND r.endDate > :startDate")
+    boolean existsOverlappingReservation(Long vehicleId, LocalDateTime startDate, LocalDateTime endDate);
+
     @EntityGraph(attributePaths = {"user", "vehicle", "slots"}, type = EntityGraph.EntityGraphType.LOAD)
     @Query("SELECT r FROM Reservation r WHERE r.vehicle.id = :vehicleId AND r.status <> 'CANCELLED' AND r.startDate >= :startDate AND r.endDate <= :endDate")
     List<Reservation> findByVehicleIdAndDateRange(Long vehicleId, LocalDateTime startDate, LocalDateTime endDate);
 
-    @EntityGraph(attributePaths = {"user", "vehicle", "slots"}, type = EntityGraph.EntityGraphType.LOAD)
-    @Query("SELECT r FROM Reservation r WHERE r.vehicle.id = :vehicleId")
-    Page<Reservation> findByVehicleId(Long vehicleId, Pageable pageable);
-
 
     /**
      * Finds all reservations with a given status and an end date before a specified time.
@@ -74,6 +153,49 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>,
     @EntityGraph(attributePaths = {"user", "vehicle", "slots"}, type = EntityGraph.EntityGraphType.LOAD)
     List<Reservation> findAllByStatusAndEndDateBefore(ReservationStatus status, LocalDateTime now);
 
+    /**
+     * Finds the IDs of reservations with a given status and an end date before a specified time, in ID order.
+     * Used by the scheduled completion job to process past reservations chunk by chunk.
+     *
+     * @param status The status of the reservations to find.
+     * @param before The timestamp to compare the end date against.
+     * @param pageable The chunk size.
+     * @return The IDs of the first matching reservations.
+     */
+    @Query("SELECT r.id FROM Reservation r WHERE r.status = :status AND r.endDate < :before ORDER BY r.id")
+    List<Long> findIdsByStatusAndEndDateBefore(ReservationStatus status, LocalDateTime before, Pageable pageable);
+
+    /**
+     * Loads the given reservations still in a status while taking a pessimistic write lock on their rows
+     * ({@code SELECT ... FOR UPDATE}), so they cannot change status until the transaction ends.
+     *
+     * @param ids The IDs of the reservations.
+     * @param status The status the reservations must still be in.
+     * @return The locked reservations.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reservation r WHERE r.id IN :ids AND r.status = :status")
+    List<Reservation> findByIdInAndStatusForUpdate(Collection<Long> ids, ReservationStatus status);
+
+    /**
+     * Loads reservations by ID together with their user and the vehicle's brand and model,
+     * which is everything needed to notify their owners.
+     */
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.user JOIN FETCH r.vehicle v " +
+            "LEFT JOIN FETCH v.brand LEFT JOIN FETCH v.model WHERE r.id IN :ids")
+    List<Reservation> findAllWithUserAndVehicleByIdIn(Collection<Long> ids);
+
+    /**
+     * Moves the given reservations from one status to another in a single statement.
+     * Reservations no longer in {@code expected} are left untouched. Bulk updates bypass {@code @PreUpdate},
+     * so the update time is set here.
+     *
+     * @return The number of reservations updated.
+     */
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :status, r.updatedAt = CURRENT_TIMESTAMP WHERE r.id IN :ids AND r.status = :expected")
+    int updateStatusByIdIn(Collection<Long> ids, ReservationStatus expected, ReservationStatus status);
+
     /**
      * Counts the number of reservations with a specific status.
      *
@@ -101,18 +223,4 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>,
      * Count reservations by vehicle ID and status list
      */
     Long countByVehicleIdAndStatusIn(Long vehicleId, List<ReservationStatus> statuses);
-
-    @EntityGraph(attributePaths = {"user", "vehicle", "slots"}, type = EntityGraph.EntityGraphType.LOAD)
-    Page<Reservation> findByUserId(Long id, Pageable pageable);
-
-    /**
-     * Get hourly utilization data for analytics - using JPQL compatible syntax
-     */
-    @Query("SELECT HOUR(r.startDate) as hour, COUNT(r) as reservations, " +
-            "(COUNT(r) * 100.0 / (SELECT COUNT(v) FROM Vehicle v)) as utilizationRate " +
-            "FROM Reservation r " +
-            "WHERE r.status = 'CONFIRMED' AND r.startDate >= :thirtyDaysAgo " +
-            "GROUP BY HOUR(r.startDate) " +
-            "ORDER BY hour")
-    List<Object[]> getHourlyUtilizationData(@Param("thirtyDaysAgo") LocalDateTime thirtyDaysAgo);
 }
\ No newline at end of file
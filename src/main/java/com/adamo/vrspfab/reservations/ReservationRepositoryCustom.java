@@ -0,0 +1,43 @@
+package com.adamo.vrspfab.reservations;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Paged reservation queries that load each page in two phases: a page of IDs limited in SQL,
+ * then the reservations of that page with their user, vehicle and slots in one batch.
+ * <p>
+ * Fetch-joining the {@code slots} collection in a paged query would make Hibernate load every
+ * matching row and paginate in memory (HHH90003004).
+ */
+public interface ReservationRepositoryCustom {
+
+    /**
+     * Finds all reservations matching the given specification, applying pagination and sorting.
+     * Eagerly fetches user, vehicle and slots for the reservations of the page only.
+     *
+     * @param spec The specification to filter by, or null for all reservations.
+     * @param pageable The pagination and sorting information.
+     * @return A page of reservations.
+     */
+    Page<Reservation> findAll(Specification<Reservation> spec, Pageable pageable);
+
+    /**
+     * Finds the reservations of a user, with user, vehicle and slots fetched for the page only.
+     *
+     * @param id The ID of the user.
+     * @param pageable The pagination and sorting information.
+     * @return A page of reservations.
+     */
+    Page<Reservation> findByUserId(Long id, Pageable pageable);
+
+    /**
+     * Finds the reservations of a vehicle, with user, vehicle and slots fetched for the page only.
+     *
+     * @param vehicleId The ID of the vehicle.
+     * @param pageable The pagination and sorting information.
+     * @return A page of reservations.
+     */
+    Page<Reservation> findByVehicleId(Long vehicleId, Pageable pageable);
+}
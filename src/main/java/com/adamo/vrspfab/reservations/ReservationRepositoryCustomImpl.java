@@ -0,0 +1,111 @@
+package com.adamo.vrspfab.reservations;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Two-phase implementation of {@link ReservationRepositoryCustom}.
+ */
+class ReservationRepositoryCustomImpl implements ReservationRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Reservation> findAll(Specification<Reservation> spec, Pageable pageable) {
+        List<Long> ids = findIds(spec, pageable);
+        return PageableExecutionUtils.getPage(fetchGraphs(ids), pageable, () -> count(spec));
+    }
+
+    @Override
+    public Page<Reservation> findByUserId(Long id, Pageable pageable) {
+        return findAll((root, query, cb) -> cb.equal(root.get("user").get("id"), id), pageable);
+    }
+
+    @Override
+    public Page<Reservation> findByVehicleId(Long vehicleId, Pageable pageable) {
+        return findAll((root, query, cb) -> cb.equal(root.get("vehicle").get("id"), vehicleId), pageable);
+    }
+
+    /**
+     * Phase one: the IDs of the requested page, with limit and offset applied by the database.
+     */
+    private List<Long> findIds(Specification<Reservation> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Reservation> root = query.from(Reservation.class);
+        query.select(root.get("id"));
+        applySpecification(spec, root, query, cb);
+
+        Sort sort = pageable.getSort();
+        List<Order> orders = new ArrayList<>(QueryUtils.toOrders(sort, root, cb));
+        if (sort.getOrderFor("id") == null) {
+            // Tie-breaker so that rows with equal sort keys never move between pages
+            orders.add(cb.asc(root.get("id")));
+        }
+        query.orderBy(orders);
+
+        TypedQuery<Long> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery.getResultList();
+    }
+
+    /**
+     * Phase two: the reservations of the page with their graphs, returned in the order of {@code ids}.
+     */
+    private List<Reservation> fetchGraphs(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Reservation> byId = entityManager.createQuery(
+                        "SELECT DISTINCT r FROM Reservation r JOIN FETCH r.user JOIN FETCH r.vehicle " +
+                                "LEFT JOIN FETCH r.slots WHERE r.id IN :ids", Reservation.class)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .collect(Collectors.toMap(Reservation::getId, Function.identity(), (first, second) -> first));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private long count(Specification<Reservation> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Reservation> root = query.from(Reservation.class);
+        query.select(cb.count(root));
+        applySpecification(spec, root, query, cb);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static void applySpecification(Specification<Reservation> spec, Root<Reservation> root,
+                                           CriteriaQuery<?> query, CriteriaBuilder cb) {
+        if (spec == null) {
+            return;
+        }
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
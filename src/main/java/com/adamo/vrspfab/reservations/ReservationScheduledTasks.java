@@ -3,11 +3,17 @@ package com.adamo.vrspfab.reservations;
 import com.adamo.vrspfab.notifications.NotificationService;
 import com.adamo.vrspfab.notifications.NotificationType;
 import com.adamo.vrspfab.slots.SlotRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,52 +22,126 @@ import java.util.List;
  * Contains scheduled tasks related to the reservation lifecycle.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ReservationScheduledTasks {
 
     private final SlotRepository slotRepository;
     private final ReservationRepository reservationRepository;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final Counter completedCounter;
+    private final DistributionSummary completedPerRun;
+    private final Timer runTimer;
+
+    public ReservationScheduledTasks(SlotRepository slotRepository,
+                                     ReservationRepository reservationRepository,
+                                     NotificationService notificationService,
+                                     ApplicationEventPublisher eventPublisher,
+                                     TransactionTemplate transactionTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${reservations.completion.chunk-size:200}") int chunkSize) {
+        this.slotRepository = slotRepository;
+        this.reservationRepository = reservationRepository;
+        this.notificationService = notificationService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.completedCounter = Counter.builder("reservations.completion.processed")
+                .description("Reservations marked as completed by the scheduled job")
+                .register(meterRegistry);
+        this.completedPerRun = DistributionSummary.builder("reservations.completion.run.rows")
+                .description("Reservations completed per run of the scheduled job")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("reservations.completion.run.duration")
+                .description("Duration of a run of the reservation completion job")
+                .register(meterRegistry);
+    }
 
     /**
      * A scheduled task that runs periodically to mark past, confirmed reservations as 'COMPLETED'.
      * This task runs every hour at the top of the hour.
+     * <p>
+     * Reservations are processed in chunks of {@code reservations.completion.chunk-size}, each in its own short
+     * transaction using bulk updates for the status and the slot release. Notifications are sent once the
+     * chunk has committed, so a slow mail provider never holds database locks. Only the reservations the chunk
+     * actually completed are notified and published: one cancelled since it was selected is left alone.
      */
     @Scheduled(cron = "0 0 * * * ?")
-    @Transactional
     public void completeOldReservations() {
         log.info("Running scheduled task to complete old reservations...");
-        List<Reservation> reservationsToComplete = reservationRepository.findAllByStatusAndEndDateBefore(
-                ReservationStatus.CONFIRMED,
-                LocalDateTime.now()
-        );
+        Timer.Sample sample = Timer.start();
+        LocalDateTime cutoff = LocalDateTime.now();
+        int total = 0;
+        try {
+            Chunk chunk;
+            do {
+                chunk = transactionTemplate.execute(status -> completeChunk(cutoff));
+                if (chunk == null || chunk.selected() == 0) {
+                    break;
+                }
+                total += chunk.completed().size();
+                completedCounter.increment(chunk.completed().size());
+                chunk.completed().forEach(this::afterCompletion);
+            } while (chunk.selected() == chunkSize);
+        } finally {
+            sample.stop(runTimer);
+            completedPerRun.record(total);
+        }
 
-        if (reservationsToComplete.isEmpty()) {
+        if (total == 0) {
             log.info("No reservations to complete.");
-            return;
+        } else {
+            log.info("Successfully completed {} reservations.", total);
         }
+    }
 
-        for (Reservation reservation : reservationsToComplete) {
-            reservation.setStatus(ReservationStatus.COMPLETED);
-            // Restore slot availability for all associated slots
-            if (reservation.getSlots() != null && !reservation.getSlots().isEmpty()) {
-                reservation.getSlots().forEach(slot -> {
-                    slot.setAvailable(true);
-                    slot.setReservation(null); // Dissociate from reservation
-                    slotRepository.save(slot);
-                });
-            }
+    /**
+     * A chunk of the completion job.
+     *
+     * @param selected The number of reservations selected for the chunk.
+     * @param completed The reservations the chunk completed, with user and vehicle loaded for notifications.
+     */
+    private record Chunk(int selected, List<Reservation> completed) {
+    }
 
-            // Send notification
+    /**
+     * Completes the next chunk of past, confirmed reservations and releases their slots.
+     * The selected reservations still confirmed are locked first, so a cancellation either committed before
+     * and leaves its reservation out, or waits for the chunk to commit.
+     */
+    private Chunk completeChunk(LocalDateTime cutoff) {
+        List<Long> selected = reservationRepository.findIdsByStatusAndEndDateBefore(
+                ReservationStatus.CONFIRMED, cutoff, PageRequest.of(0, chunkSize));
+        if (selected.isEmpty()) {
+            return new Chunk(0, List.of());
+        }
+        List<Long> ids = reservationRepository.findByIdInAndStatusForUpdate(selected, ReservationStatus.CONFIRMED).stream()
+                .map(Reservation::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return new Chunk(selected.size(), List.of());
+        }
+        List<Reservation> reservations = reservationRepository.findAllWithUserAndVehicleByIdIn(ids);
+        reservationRepository.updateStatusByIdIn(ids, ReservationStatus.CONFIRMED, ReservationStatus.COMPLETED);
+        slotRepository.releaseByReservationIdIn(ids);
+        return new Chunk(selected.size(), reservations);
+    }
+
+    private void afterCompletion(Reservation reservation) {
+        // Detached once the chunk has committed; reflect the bulk update for listeners
+        reservation.setStatus(ReservationStatus.COMPLETED);
+        eventPublisher.publishEvent(new ReservationChangedEvent(this, reservation, ReservationStatus.CONFIRMED));
+        try {
             notificationService.createAndDispatchNotification(
                     reservation.getUser(),
                     NotificationType.RESERVATION_COMPLETED,
-                    "Your reservation for vehicle " + reservation.getVehicle().getBrand() + " " + reservation.getVehicle().getModel() + " has been completed."
+                    "Your reservation for vehicle " + reservation.getVehicle().getBrand().getName() + " " + reservation.getVehicle().getModel().getName() + " has been completed."
             );
+        } catch (Exception e) {
+            log.error("Failed to send completion notification for reservation {}: {}", reservation.getId(), e.getMessage());
         }
-
-        reservationRepository.saveAll(reservationsToComplete);
-        log.info("Successfully completed {} reservations.", reservationsToComplete.size());
     }
-}
\ No newline at end of file
+}
@@ -14,21 +14,25 @@ import com.adamo.vrspfab.users.User;
 import com.adamo.vrspfab.vehicles.mappers.VehicleMapper;
 import com.adamo.vrspfab.vehicles.VehicleService;
 import com.adamo.vrspfab.vehicles.Vehicle;
+import com.adamo.vrspfab.vehicles.VehicleReferenceData;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 /**
@@ -41,6 +45,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ReservationService {
 
+    static final int MAX_CALENDAR_DAYS = 366;
+
     private final ReservationRepository reservationRepository;
     private final VehicleService vehicleService;
     private final VehicleMapper vehicleMapper;
@@ -50,10 +56,13 @@ public class ReservationService {
     private final SlotRepository slotRepository;
     private final DynamicSlotService dynamicSlotService;
     private final SecurityUtilsService securityUtilsService;
-    private final com.adamo.vrspfab.vehicles.VehicleCategoryRepository vehicleCategoryRepository;
-    private final com.adamo.vrspfab.vehicles.VehicleBrandRepository vehicleBrandRepository;
-    private final com.adamo.vrspfab.vehicles.VehicleModelRepository vehicleModelRepository;
+    private final VehicleReferenceData vehicleReferenceData;
     private final ActivityEventListener activityEventListener;
+    private final AvailabilityIndex availabilityIndex;
+    private final BookingAdmission bookingAdmission;
+    private final OccupancyCalendar occupancyCalendar;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AvailabilityCache availabilityCache;
 
     /**
      * Creates a new reservation for the currently authenticated user.
@@ -63,11 +72,21 @@ public class ReservationService {
      * @throws NoAvailableSlotsException if no suitable slots are found for the requested dates.
      * @throws ReservationConflictException if the vehicle is already booked for the selected dates.
      */
-    @Transactional
+    // READ_COMMITTED so the overlap re-check taken under the booking lock sees reservations committed while waiting for it
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public DetailedReservationDto createReservation(CreateReservationRequest request) {
         User currentUser = securityUtils.getCurrentAuthenticatedUser();
         var vehicleDto = vehicleService.getVehicleById(request.getVehicleId());
 
+        // Reject obvious conflicts from the in-memory index before touching the database
+        if (availabilityIndex.covers(request.getStartDate())
+                && availabilityIndex.hasOverlap(request.getVehicleId(), request.getStartDate(), request.getEndDate())) {
+            throw new NoAvailableSlotsException("Vehicle is not available for the requested date range due to existing reservations.");
+        }
+
+        // Serialize bookings of this vehicle until the transaction completes, then re-check authoritatively
+        bookingAdmission.admit(request.getVehicleId());
+
         // Check if vehicle is available for the requested date range
         List<Reservation> conflictingReservations = reservationRepository.findOverlappingReservations(
                 request.getVehicleId(),
@@ -85,22 +104,17 @@ public class ReservationService {
         
         // Create vehicle entity and set relationships manually
         Vehicle vehicleEntity = vehicleMapper.toEntity(vehicleDto);
-        // Set the relationships manually since the mapper ignores them
-        if (vehicleDto.getCategoryId() != null) {
-            vehicleEntity.setCategory(vehicleCategoryRepository.findById(vehicleDto.getCategoryId()).orElse(null));
-        }
-        if (vehicleDto.getBrandId() != null) {
-            vehicleEntity.setBrand(vehicleBrandRepository.findById(vehicleDto.getBrandId()).orElse(null));
-        }
-        if (vehicleDto.getModelId() != null) {
-            vehicleEntity.setModel(vehicleModelRepository.findById(vehicleDto.getModelId()).orElse(null));
-        }
+        // Set the relationships manually since the mapper ignores them, from the in-memory reference data
+        vehicleEntity.setCategory(vehicleReferenceData.categoryReference(vehicleDto.getCategoryId()).orElse(null));
+        vehicleEntity.setBrand(vehicleReferenceData.brandReference(vehicleDto.getBrandId()).orElse(null));
+        vehicleEntity.setModel(vehicleReferenceData.modelReference(vehicleDto.getModelId()).orElse(null));
         
         reservation.setVehicle(vehicleEntity);
         reservation.setStatus(ReservationStatus.PENDING);
         
         // Save reservation
         Reservation savedReservation = reservationRepository.save(reservation);
+        eventPublisher.publishEvent(new ReservationChangedEvent(this, savedReservation, null));
 
         // Record activity
         activityEventListener.recordReservationCreated(savedReservation);
@@ -237,8 +251,10 @@ public class ReservationService {
             });
         }
 
+        ReservationStatus oldStatus = reservation.getStatus();
         reservation.setStatus(ReservationStatus.CANCELLED);
         Reservation savedReservation = reservationRepository.save(reservation);
+        eventPublisher.publishEvent(new ReservationChangedEvent(this, savedReservation, oldStatus));
 
         notificationService.createAndDispatchNotification(
                 currentUser,
@@ -254,29 +270,62 @@ public class ReservationService {
     }
 
     /**
-     * Get blocked dates for a vehicle based on existing reservations
+     * Get blocked dates for a vehicle based on existing reservations.
+     * A day is blocked when any of its hours is reserved; served from the occupancy calendar, or from
+     * the overlapping reservations when the range is reversed or longer than {@value #MAX_CALENDAR_DAYS} days.
      */
+    @Transactional(readOnly = true)
     public List<String> getBlockedDatesForVehicle(Long vehicleId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<Reservation> overlappingReservations = reservationRepository.findOverlappingReservations(
-            vehicleId, startDate, endDate);
-        
-        Set<String> blockedDates = new HashSet<>();
-        
-        for (Reservation reservation : overlappingReservations) {
-            LocalDateTime current = reservation.getStartDate().toLocalDate().atStartOfDay();
-            LocalDateTime reservationEnd = reservation.getEndDate().toLocalDate().atStartOfDay();
-            
-            while (current.isBefore(reservationEnd) || current.isEqual(reservationEnd)) {
-                blockedDates.add(current.toLocalDate().toString());
+        LocalDate from = startDate.toLocalDate();
+        long days = ChronoUnit.DAYS.between(from, endDate.toLocalDate()) + 1;
+        if (days < 1 || days > MAX_CALENDAR_DAYS) {
+            return getBlockedDatesFromReservations(vehicleId, startDate, endDate);
+        }
+        OccupancyCalendarDto calendar = occupancyCalendar.getVehicleCalendar(vehicleId, from, (int) days);
+
+        List<String> blockedDates = new ArrayList<>();
+        for (int day = 0; day < days; day++) {
+            if (calendar.getOccupiedHours()[day] > 0) {
+                blockedDates.add(from.plusDays(day).toString());
+            }
+        }
+        return blockedDates;
+    }
+
+    private List<String> getBlockedDatesFromReservations(Long vehicleId, LocalDateTime startDate, LocalDateTime endDate) {
+        Set<String> blockedDates = new TreeSet<>();
+        for (Reservation reservation : reservationRepository.findOverlappingReservations(vehicleId, startDate, endDate)) {
+            LocalDate current = reservation.getStartDate().toLocalDate();
+            LocalDate reservationEnd = reservation.getEndDate().toLocalDate();
+            while (!current.isAfter(reservationEnd)) {
+                blockedDates.add(current.toString());
                 current = current.plusDays(1);
             }
         }
-        
         return new ArrayList<>(blockedDates);
     }
 
+    /**
+     * Gets the calendar heatmap of a vehicle: the number of reserved hours of each day.
+     *
+     * @param vehicleId The ID of the vehicle.
+     * @param from The first day of the calendar.
+     * @param days The number of days, at most {@value #MAX_CALENDAR_DAYS}.
+     * @return The vehicle's occupancy calendar.
+     */
+    @Transactional(readOnly = true)
+    public OccupancyCalendarDto getVehicleCalendar(Long vehicleId, LocalDate from, int days) {
+        if (days < 1 || days > MAX_CALENDAR_DAYS) {
+            throw new InvalidReservationDateException("Calendar range must be between 1 and " + MAX_CALENDAR_DAYS + " days.");
+        }
+        return occupancyCalendar.getVehicleCalendar(vehicleId, from, days);
+    }
+
     /**
      * Gets available slots for a vehicle within a date range, supporting different booking types.
+     * The slots are computed from the origin of their buckets (the requested start, or its midnight for daily
+     * and weekly slots) to the end widened to a whole hour, cached per vehicle until the vehicle, one of its
+     * reservations or the pricing rules change, then narrowed to the requested range.
      *
      * @param vehicleId The ID of the vehicle
      * @param startDate The start date for slot search
@@ -285,39 +334,49 @@ public class ReservationService {
      * @return List of available slots
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "availableSlots", key = "#vehicleId + '_' + #startDate + '_' + #endDate + '_' + #bookingType")
     public List<SlotDto> getAvailableSlots(Long vehicleId, LocalDateTime startDate, LocalDateTime endDate, String bookingType) {
         log.debug("Getting available slots for vehicle {} from {} to {} with booking type {}", vehicleId, startDate, endDate, bookingType);
-        
-        // Get the vehicle
-        var vehicledto = vehicleService.getVehicleById(vehicleId);
-        Vehicle vehicle = vehicleMapper.toEntity(vehicledto);
-        
-        // Generate slots based on booking type
-        return generateSlotsByBookingType(vehicle, startDate, endDate, bookingType);
+
+        // Slots are bucketed from the requested start, except daily and weekly ones, which start at midnight
+        LocalDateTime origin = isDayBucketed(bookingType) ? startDate.toLocalDate().atStartOfDay() : startDate;
+        List<SlotDto> enclosing = availabilityCache.get(vehicleId, AvailabilityCache.Kind.AVAILABLE, bookingType, origin, endDate,
+                (from, to) -> {
+                    // Get the vehicle
+                    var vehicledto = vehicleService.getVehicleById(vehicleId);
+                    Vehicle vehicle = vehicleMapper.toEntity(vehicledto);
+
+                    // Generate slots based on booking type
+                    return generateSlotsByBookingType(vehicle, from, to, bookingType);
+                });
+        return dynamicSlotService.clipSlots(() -> vehicleMapper.toEntity(vehicleService.getVehicleById(vehicleId)),
+                enclosing, startDate, endDate);
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "unavailableSlots", key = "#vehicleId + '_' + #startDate + '_' + #endDate + '_' + #bookingType")
     public List<SlotDto> getUnavailableSlots(Long vehicleId, LocalDateTime startDate, LocalDateTime endDate, String bookingType) {
         log.debug("Getting unavailable slots for vehicle {} from {} to {} with booking type {}", vehicleId, startDate, endDate, bookingType);
-        
-        // Get existing reservations for the vehicle in the date range
-        List<Reservation> existingReservations = reservationRepository.findByVehicleIdAndDateRange(vehicleId, startDate, endDate);
-        
-        // Convert reservations to unavailable slots
-        return existingReservations.stream()
-                .map(reservation -> {
-                    SlotDto slotDto = new SlotDto();
-                    slotDto.setStartTime(reservation.getStartDate());
-                    slotDto.setEndTime(reservation.getEndDate());
-                    slotDto.setAvailable(false);
-                    slotDto.setVehicleId(vehicleId);
-                    return slotDto;
-                })
+
+        // Cached for the enclosing whole hours, then narrowed to reservations within the requested range
+        List<SlotDto> enclosing = availabilityCache.get(vehicleId, AvailabilityCache.Kind.UNAVAILABLE, bookingType, startDate, endDate,
+                (from, to) -> reservationRepository.findByVehicleIdAndDateRange(vehicleId, from, to).stream()
+                        .map(reservation -> {
+                            SlotDto slotDto = new SlotDto();
+                            slotDto.setStartTime(reservation.getStartDate());
+                            slotDto.setEndTime(reservation.getEndDate());
+                            slotDto.setAvailable(false);
+                            slotDto.setVehicleId(vehicleId);
+                            return slotDto;
+                        })
+                        .collect(Collectors.toList()));
+        return enclosing.stream()
+                .filter(slot -> !slot.getStartTime().isBefore(startDate) && !slot.getEndTime().isAfter(endDate))
                 .collect(Collectors.toList());
     }
 
+    private static boolean isDayBucketed(String bookingType) {
+        return "DAILY".equalsIgnoreCase(bookingType) || "WEEKLY".equalsIgnoreCase(bookingType);
+    }
+
     /**
      * Generates slots based on the booking type.
      */
@@ -348,68 +407,20 @@ public class ReservationService {
      * Generates hourly slots for the vehicle.
      */
     private List<SlotDto> generateHourlySlots(Vehicle vehicle, LocalDateTime startDate, LocalDateTime endDate) {
-        List<SlotDto> slots = new ArrayList<>();
-        LocalDateTime current = startDate;
-        
-        while (current.isBefore(endDate)) {
-            LocalDateTime slotEnd = current.plusHours(1);
-            if (slotEnd.isAfter(endDate)) {
-                slotEnd = endDate;
-            }
-            
-            // Check if this hour slot is available
-            List<SlotDto> hourSlots = dynamicSlotService.generateAvailableSlots(vehicle, current, slotEnd);
-            slots.addAll(hourSlots);
-            
-            current = current.plusHours(1);
-        }
-        
-        return slots;
+        return dynamicSlotService.generateBucketedSlots(vehicle, startDate, endDate, ChronoUnit.HOURS);
     }
 
     /**
      * Generates daily slots for the vehicle.
      */
     private List<SlotDto> generateDailySlots(Vehicle vehicle, LocalDateTime startDate, LocalDateTime endDate) {
-        List<SlotDto> slots = new ArrayList<>();
-        LocalDateTime current = startDate.toLocalDate().atStartOfDay();
-        
-        while (current.isBefore(endDate)) {
-            LocalDateTime slotEnd = current.plusDays(1);
-            if (slotEnd.isAfter(endDate)) {
-                slotEnd = endDate;
-            }
-            
-            // Check if this day is available
-            List<SlotDto> daySlots = dynamicSlotService.generateAvailableSlots(vehicle, current, slotEnd);
-            slots.addAll(daySlots);
-            
-            current = current.plusDays(1);
-        }
-        
-        return slots;
+        return dynamicSlotService.generateBucketedSlots(vehicle, startDate.toLocalDate().atStartOfDay(), endDate, ChronoUnit.DAYS);
     }
 
     /**
      * Generates weekly slots for the vehicle.
      */
     private List<SlotDto> generateWeeklySlots(Vehicle vehicle, LocalDateTime startDate, LocalDateTime endDate) {
-        List<SlotDto> slots = new ArrayList<>();
-        LocalDateTime current = startDate.toLocalDate().atStartOfDay();
-        
-        while (current.isBefore(endDate)) {
-            LocalDateTime slotEnd = current.plusWeeks(1);
-            if (slotEnd.isAfter(endDate)) {
-                slotEnd = endDate;
-            }
-            
-            // Check if this week is available
-            List<SlotDto> weekSlots = dynamicSlotService.generateAvailableSlots(vehicle, current, slotEnd);
-            slots.addAll(weekSlots);
-            
-            current = current.plusWeeks(1);
-        }
-        
-        return slots;
+        return dynamicSlotService.generateBucketedSlots(vehicle, startDate.toLocalDate().atStartOfDay(), endDate, ChronoUnit.WEEKS);
     }
 }
\ No newline at end of file
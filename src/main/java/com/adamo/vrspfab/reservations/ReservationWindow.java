@@ -0,0 +1,18 @@
+package com.adamo.vrspfab.reservations;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight projection of a reservation's time window.
+ * Used by availability computations that only need the booked interval,
+ * so no user, vehicle or slot graph has to be loaded.
+ */
+@Value
+public class ReservationWindow {
+    Long id;
+    Long vehicleId;
+    LocalDateTime startDate;
+    LocalDateTime endDate;
+}
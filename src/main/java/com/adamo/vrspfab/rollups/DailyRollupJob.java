@@ -0,0 +1,157 @@
+package com.adamo.vrspfab.rollups;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Keeps the daily rollup tables in step with payments, reservations and refunds.
+ * <p>
+ * Each run looks up the days of source rows changed since the watermark, through their indexed
+ * {@code updated_at} ({@code processed_at} for refunds), and recomputes those days from the source tables,
+ * so a status change recounts the day the payment was made on. The watermark then moves to the start of the
+ * run. Rows changed up to {@code rollups.overlap-seconds} before the watermark are looked at again, which
+ * picks up transactions that committed after a run but stamped their rows before it; recomputing a day
+ * twice is harmless. Deleted source rows leave no trace to look up, so {@link #rebuild()} recomputes every
+ * day on {@code rollups.rebuild-cron}. Until the first run, which rolls up the whole history, the rollups
+ * are empty.
+ */
+@Component
+@Slf4j
+public class DailyRollupJob {
+
+    static final String WATERMARK = "daily_rollups";
+
+    private static final List<String> TABLES = List.of(
+            "daily_payment_rollups", "daily_reservation_rollups", "daily_refund_rollups", "daily_user_rollups");
+
+    /** Watermark of a full rebuild, before any row. */
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long overlapSeconds;
+
+    public DailyRollupJob(JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${rollups.overlap-seconds:300}") long overlapSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.overlapSeconds = overlapSeconds;
+    }
+
+    /**
+     * Rolls up the days of source rows changed since the last run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${rollups.refresh-interval-ms:60000}", initialDelayString = "${rollups.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        List<LocalDateTime> watermarks = jdbcTemplate.queryForList(
+                "SELECT watermark FROM rollup_watermarks WHERE name = ?", LocalDateTime.class, WATERMARK);
+        run(watermarks.isEmpty() ? EPOCH : watermarks.get(0).minusSeconds(overlapSeconds), false);
+    }
+
+    /**
+     * Recomputes the rollups from scratch, dropping those of deleted source rows.
+     */
+    @Scheduled(cron = "${rollups.rebuild-cron:0 30 3 * * ?}")
+    public synchronized void rebuild() {
+        run(EPOCH, true);
+    }
+
+    private void run(LocalDateTime since, boolean clear) {
+        LocalDateTime started = LocalDateTime.now();
+        try {
+            int days = transactionTemplate.execute(status -> {
+                if (clear) {
+                    TABLES.forEach(table -> jdbcTemplate.update("DELETE FROM " + table));
+                }
+                SortedSet<LocalDate> paymentDays = changedDays(
+                        "SELECT DISTINCT DATE(created_at) FROM payments WHERE updated_at > ?", since);
+                SortedSet<LocalDate> reservationDays = changedDays(
+                        "SELECT DISTINCT DATE(created_at) FROM reservations WHERE updated_at > ?", since);
+                SortedSet<LocalDate> refundDays = changedDays(
+                        "SELECT DISTINCT DATE(processed_at) FROM refunds WHERE processed_at > ?", since);
+                SortedSet<LocalDate> userDays = new TreeSet<>(paymentDays);
+                userDays.addAll(reservationDays);
+
+                DaySpan.of(paymentDays).forEach(this::rollUpPayments);
+                DaySpan.of(reservationDays).forEach(this::rollUpReservations);
+                DaySpan.of(refundDays).forEach(this::rollUpRefunds);
+                DaySpan.of(userDays).forEach(this::rollUpUsers);
+
+                jdbcTemplate.update("INSERT INTO rollup_watermarks (name, watermark) VALUES (?, ?) "
+                        + "ON DUPLICATE KEY UPDATE watermark = ?", WATERMARK, started, started);
+                userDays.addAll(refundDays);
+                return userDays.size();
+            });
+            if (days > 0) {
+                log.debug("Rolled up changes since {} in {} days", since, days);
+            }
+        } catch (Exception e) {
+            log.warn("Could not roll up changes since {}: {}", since, e.getMessage());
+        }
+    }
+
+    private SortedSet<LocalDate> changedDays(String sql, LocalDateTime since) {
+        SortedSet<LocalDate> days = new TreeSet<>();
+        jdbcTemplate.query(sql, rs -> {
+            Date day = rs.getDate(1);
+            if (day != null) {
+                days.add(day.toLocalDate());
+            }
+        }, since);
+        return days;
+    }
+
+    private void rollUpPayments(DaySpan span) {
+        jdbcTemplate.update("DELETE FROM daily_payment_rollups WHERE day BETWEEN ? AND ?", span.from(), span.to());
+        jdbcTemplate.update("INSERT INTO daily_payment_rollups (day, status, payment_count, amount_total) "
+                + "SELECT DATE(created_at), status, COUNT(*), COALESCE(SUM(amount), 0) FROM payments "
+                + "WHERE created_at >= ? AND created_at < ? GROUP BY DATE(created_at), status",
+                span.start(), span.end());
+    }
+
+    private void rollUpReservations(DaySpan span) {
+        jdbcTemplate.update("DELETE FROM daily_reservation_rollups WHERE day BETWEEN ? AND ?", span.from(), span.to());
+        jdbcTemplate.update("INSERT INTO daily_reservation_rollups (day, reservation_count) "
+                + "SELECT DATE(created_at), COUNT(*) FROM reservations "
+                + "WHERE created_at >= ? AND created_at < ? GROUP BY DATE(created_at)",
+                span.start(), span.end());
+    }
+
+    private void rollUpRefunds(DaySpan span) {
+        jdbcTemplate.update("DELETE FROM daily_refund_rollups WHERE day BETWEEN ? AND ?", span.from(), span.to());
+        jdbcTemplate.update("INSERT INTO daily_refund_rollups (day, refund_count) "
+                + "SELECT DATE(processed_at), COUNT(*) FROM refunds "
+                + "WHERE processed_at >= ? AND processed_at < ? GROUP BY DATE(processed_at)",
+                span.start(), span.end());
+    }
+
+    private void rollUpUsers(DaySpan span) {
+        jdbcTemplate.update("DELETE FROM daily_user_rollups WHERE day BETWEEN ? AND ?", span.from(), span.to());
+        jdbcTemplate.update("INSERT INTO daily_user_rollups (user_id, day, reservation_count, completed_amount) "
+                + "SELECT user_id, day, SUM(reservation_count), SUM(completed_amount) FROM ("
+                + "SELECT user_id, DATE(created_at) AS day, COUNT(*) AS reservation_count, 0 AS completed_amount "
+                + "FROM reservations WHERE created_at >= ? AND created_at < ? GROUP BY user_id, DATE(created_at) "
+                + "UNION ALL "
+                + "SELECT r.user_id, DATE(p.created_at), 0, SUM(p.amount) "
+                + "FROM payments p JOIN reservations r ON r.id = p.reservation_id "
+                + "WHERE p.status = 'COMPLETED' AND p.created_at >= ? AND p.created_at < ? "
+                + "GROUP BY r.user_id, DATE(p.created_at)"
+                + ") activity GROUP BY user_id, day",
+                span.start(), span.end(), span.start(), span.end());
+    }
+}
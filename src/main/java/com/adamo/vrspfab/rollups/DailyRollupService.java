@@ -0,0 +1,171 @@
+package com.adamo.vrspfab.rollups;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads payment, reservation and refund figures from the daily rollup tables kept by {@link DailyRollupJob}.
+ * <p>
+ * Series are one indexed range read over the rollups, whatever their length. They reflect the source tables
+ * as of the job's last run, which lags by at most {@code rollups.refresh-interval-ms}.
+ */
+@Service
+@RequiredArgsConstructor
+public class DailyRollupService {
+
+    /**
+     * Payment figures over a period.
+     */
+    public record PaymentTotals(long payments, long completedPayments, BigDecimal completedAmount, long refunds) {
+
+        static final PaymentTotals NONE = new PaymentTotals(0, 0, BigDecimal.ZERO, 0);
+
+        PaymentTotals plus(PaymentTotals other) {
+            return new PaymentTotals(payments + other.payments, completedPayments + other.completedPayments,
+                    completedAmount.add(other.completedAmount), refunds + other.refunds);
+        }
+    }
+
+    /**
+     * Reservations made and completed payments of a user over a period.
+     */
+    public record UserActivity(long reservations, BigDecimal spent) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the amount of completed payments per day.
+     *
+     * @param from The first day.
+     * @param to The last day, inclusive.
+     * @return The amount per day; days without completed payments are omitted.
+     */
+    @Transactional(readOnly = true)
+    public Map<LocalDate, BigDecimal> getCompletedRevenuePerDay(LocalDate from, LocalDate to) {
+        Map<LocalDate, BigDecimal> revenue = new HashMap<>();
+        jdbcTemplate.query("SELECT day, amount_total FROM daily_payment_rollups "
+                        + "WHERE status = 'COMPLETED' AND day BETWEEN ? AND ?",
+                rs -> {
+                    revenue.put(rs.getDate(1).toLocalDate(), rs.getBigDecimal(2));
+                }, from, to);
+        return revenue;
+    }
+
+    /**
+     * Returns the amount of completed payments per month.
+     *
+     * @param from The first month.
+     * @param to The last month, inclusive.
+     * @return The amount per month; months without completed payments are omitted.
+     */
+    @Transactional(readOnly = true)
+    public Map<YearMonth, BigDecimal> getCompletedRevenuePerMonth(YearMonth from, YearMonth to) {
+        Map<YearMonth, BigDecimal> revenue = new HashMap<>();
+        jdbcTemplate.query("SELECT YEAR(day), MONTH(day), SUM(amount_total) FROM daily_payment_rollups "
+                        + "WHERE status = 'COMPLETED' AND day BETWEEN ? AND ? GROUP BY YEAR(day), MONTH(day)",
+                rs -> {
+                    revenue.put(month(rs), rs.getBigDecimal(3));
+                }, from.atDay(1), to.atEndOfMonth());
+        return revenue;
+    }
+
+    /**
+     * Returns the number of reservations made per month.
+     *
+     * @param from The first month.
+     * @param to The last month, inclusive.
+     * @return The count per month; months without reservations are omitted.
+     */
+    @Transactional(readOnly = true)
+    public Map<YearMonth, Long> getReservationsPerMonth(YearMonth from, YearMonth to) {
+        Map<YearMonth, Long> reservations = new HashMap<>();
+        jdbcTemplate.query("SELECT YEAR(day), MONTH(day), SUM(reservation_count) FROM daily_reservation_rollups "
+                        + "WHERE day BETWEEN ? AND ? GROUP BY YEAR(day), MONTH(day)",
+                rs -> {
+                    reservations.put(month(rs), rs.getLong(3));
+                }, from.atDay(1), to.atEndOfMonth());
+        return reservations;
+    }
+
+    /**
+     * Returns a user's reservations and completed payments per month.
+     *
+     * @param userId The user.
+     * @param from The first month.
+     * @param to The last month, inclusive.
+     * @return The activity per month; months without activity are omitted.
+     */
+    @Transactional(readOnly = true)
+    public Map<YearMonth, UserActivity> getUserActivityPerMonth(Long userId, YearMonth from, YearMonth to) {
+        Map<YearMonth, UserActivity> activity = new HashMap<>();
+        jdbcTemplate.query("SELECT YEAR(day), MONTH(day), SUM(reservation_count), SUM(completed_amount) "
+                        + "FROM daily_user_rollups WHERE user_id = ? AND day BETWEEN ? AND ? GROUP BY YEAR(day), MONTH(day)",
+                rs -> {
+                    activity.put(month(rs), new UserActivity(rs.getLong(3), rs.getBigDecimal(4)));
+                }, userId, from.atDay(1), to.atEndOfMonth());
+        return activity;
+    }
+
+    /**
+     * Returns the payment figures of {@code [start, end)}. The whole days in the range are read from the
+     * rollups; the partial days at either end are counted from the source tables.
+     */
+    @Transactional(readOnly = true)
+    public PaymentTotals getPaymentTotals(LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            return PaymentTotals.NONE;
+        }
+        DaySpan days = DaySpan.within(start, end);
+        if (days == null) {
+            return countPaymentTotals(start, end);
+        }
+        PaymentTotals totals = readPaymentTotals(days);
+        if (start.isBefore(days.start())) {
+            totals = totals.plus(countPaymentTotals(start, days.start()));
+        }
+        if (days.end().isBefore(end)) {
+            totals = totals.plus(countPaymentTotals(days.end(), end));
+        }
+        return totals;
+    }
+
+    private PaymentTotals readPaymentTotals(DaySpan days) {
+        PaymentTotals payments = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(payment_count), 0), "
+                        + "COALESCE(SUM(CASE WHEN status = 'COMPLETED' THEN payment_count END), 0), "
+                        + "COALESCE(SUM(CASE WHEN status = 'COMPLETED' THEN amount_total END), 0) "
+                        + "FROM daily_payment_rollups WHERE day BETWEEN ? AND ?",
+                (rs, rowNum) -> new PaymentTotals(rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3), 0),
+                days.from(), days.to());
+        Long refunds = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(refund_count), 0) FROM daily_refund_rollups "
+                + "WHERE day BETWEEN ? AND ?", Long.class, days.from(), days.to());
+        return payments.plus(new PaymentTotals(0, 0, BigDecimal.ZERO, refunds));
+    }
+
+    private PaymentTotals countPaymentTotals(LocalDateTime start, LocalDateTime end) {
+        PaymentTotals payments = jdbcTemplate.queryForObject("SELECT COUNT(*), "
+                        + "COALESCE(SUM(CASE WHEN status = 'COMPLETED' THEN 1 END), 0), "
+                        + "COALESCE(SUM(CASE WHEN status = 'COMPLETED' THEN amount END), 0) "
+                        + "FROM payments WHERE created_at >= ? AND created_at < ?",
+                (rs, rowNum) -> new PaymentTotals(rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3), 0),
+                start, end);
+        Long refunds = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM refunds "
+                + "WHERE processed_at >= ? AND processed_at < ?", Long.class, start, end);
+        return payments.plus(new PaymentTotals(0, 0, BigDecimal.ZERO, refunds));
+    }
+
+    private static YearMonth month(ResultSet rs) throws SQLException {
+        return YearMonth.of(rs.getInt(1), rs.getInt(2));
+    }
+}
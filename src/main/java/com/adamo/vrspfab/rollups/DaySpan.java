@@ -0,0 +1,59 @@
+package com.adamo.vrspfab.rollups;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+
+/**
+ * Consecutive days, both inclusive.
+ */
+record DaySpan(LocalDate from, LocalDate to) {
+
+    LocalDateTime start() {
+        return from.atStartOfDay();
+    }
+
+    /** Start of the day after the span. */
+    LocalDateTime end() {
+        return to.plusDays(1).atStartOfDay();
+    }
+
+    /**
+     * Merges days into spans of consecutive days.
+     */
+    static List<DaySpan> of(SortedSet<LocalDate> days) {
+        List<DaySpan> spans = new ArrayList<>();
+        LocalDate from = null;
+        LocalDate to = null;
+        for (LocalDate day : days) {
+            if (to != null && day.equals(to.plusDays(1))) {
+                to = day;
+                continue;
+            }
+            if (from != null) {
+                spans.add(new DaySpan(from, to));
+            }
+            from = day;
+            to = day;
+        }
+        if (from != null) {
+            spans.add(new DaySpan(from, to));
+        }
+        return spans;
+    }
+
+    /**
+     * Returns the whole days within {@code [start, end)}.
+     *
+     * @return The days, or null if the range does not contain a whole day.
+     */
+    static DaySpan within(LocalDateTime start, LocalDateTime end) {
+        LocalDate from = start.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? start.toLocalDate() : start.toLocalDate().plusDays(1);
+        LocalDate to = end.toLocalDate().minusDays(1);
+        return from.isAfter(to) ? null : new DaySpan(from, to);
+    }
+}
@@ -1,7 +1,11 @@
 package com.adamo.vrspfab.slots;
 
+import com.adamo.vrspfab.pricing.PricingEngine;
+import com.adamo.vrspfab.pricing.RateTable;
+import com.adamo.vrspfab.reservations.AvailabilityIndex;
 import com.adamo.vrspfab.reservations.Reservation;
 import com.adamo.vrspfab.reservations.ReservationRepository;
+import com.adamo.vrspfab.reservations.ReservationWindow;
 import com.adamo.vrspfab.vehicles.Vehicle;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,8 +16,10 @@ import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.TemporalUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Service for dynamically generating slots based on vehicle availability.
@@ -25,6 +31,8 @@ import java.util.List;
 public class DynamicSlotService {
 
     private final ReservationRepository reservationRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final PricingEngine pricingEngine;
 
     /**
      * Generates available slots for a vehicle within a date range.
@@ -34,23 +42,100 @@ public class DynamicSlotService {
     public List<SlotDto> generateAvailableSlots(Vehicle vehicle, LocalDateTime startDate, LocalDateTime endDate) {
         log.debug("Generating available slots for vehicle {} from {} to {}", vehicle.getId(), startDate, endDate);
 
-        // Check for conflicting reservations
-        List<Reservation> conflictingReservations = findConflictingReservations(vehicle.getId(), startDate, endDate);
-        
-        if (!conflictingReservations.isEmpty()) {
-            log.debug("Found {} conflicting reservations for vehicle {}", conflictingReservations.size(), vehicle.getId());
-            return generateSlotsWithConflicts(vehicle, startDate, endDate, conflictingReservations);
+        List<ReservationWindow> conflicts = reservationRepository.findReservationWindows(vehicle.getId(), startDate, endDate);
+        if (!conflicts.isEmpty()) {
+            log.debug("Found {} conflicting reservations for vehicle {}", conflicts.size(), vehicle.getId());
+        }
+
+        List<SlotDto> slots = new ArrayList<>();
+        appendBucketSlots(vehicle, rateTable(vehicle, startDate, endDate, conflicts), startDate, endDate, conflicts, slots);
+        return slots;
+    }
+
+    /**
+     * Generates slots for consecutive buckets of {@code bucketUnit} starting at {@code startDate}, the last
+     * bucket being clipped to {@code endDate}. Each bucket is labelled exactly as
+     * {@link #generateAvailableSlots(Vehicle, LocalDateTime, LocalDateTime)} would label it on its own,
+     * but the vehicle's reservations are fetched once for the whole window and assigned to buckets with a
+     * sorted sweep, so a month of hourly buckets costs one query instead of one per bucket. Prices are read
+     * from one rate table covering every slot.
+     */
+    @Transactional(readOnly = true)
+    public List<SlotDto> generateBucketedSlots(Vehicle vehicle, LocalDateTime startDate, LocalDateTime endDate, TemporalUnit bucketUnit) {
+        log.debug("Generating {} buckets for vehicle {} from {} to {}", bucketUnit, vehicle.getId(), startDate, endDate);
+
+        List<ReservationWindow> windows = reservationRepository.findReservationWindows(vehicle.getId(), startDate, endDate);
+        RateTable rates = rateTable(vehicle, startDate, endDate, windows);
+        List<ReservationWindow> active = new ArrayList<>();
+        List<SlotDto> slots = new ArrayList<>();
+        int next = 0;
+
+        LocalDateTime bucketStart = startDate;
+        while (bucketStart.isBefore(endDate)) {
+            LocalDateTime bucketEnd = bucketStart.plus(1, bucketUnit);
+            if (bucketEnd.isAfter(endDate)) {
+                bucketEnd = endDate;
+            }
+
+            // Admit reservations that start before this bucket ends (windows are sorted by start date)
+            while (next < windows.size() && windows.get(next).getStartDate().isBefore(bucketEnd)) {
+                active.add(windows.get(next++));
+            }
+            // Retire reservations that ended before this bucket starts; bucket starts only move forward
+            LocalDateTime retireBefore = bucketStart;
+            active.removeIf(window -> !window.getEndDate().isAfter(retireBefore));
+
+            appendBucketSlots(vehicle, rates, bucketStart, bucketEnd, active, slots);
+            bucketStart = bucketStart.plus(1, bucketUnit);
         }
 
-        // No conflicts, generate a single available slot
-        return List.of(createAvailableSlot(vehicle, startDate, endDate));
+        return slots;
+    }
+
+    /**
+     * Narrows slots generated for an enclosing range to {@code [startDate, endDate)}. Slots outside the range
+     * are dropped and available slots crossing its bounds are cut at them and repriced; unavailable slots
+     * keep spanning their reservation's full window. The given slots are left unchanged.
+     *
+     * @param vehicle Supplies the vehicle, only called when a slot has to be repriced.
+     * @param slots The slots, in start time order.
+     * @param startDate The start of the range.
+     * @param endDate The end of the range.
+     * @return The slots within the range.
+     */
+    public List<SlotDto> clipSlots(Supplier<Vehicle> vehicle, List<SlotDto> slots, LocalDateTime startDate, LocalDateTime endDate) {
+        List<SlotDto> clipped = new ArrayList<>(slots.size());
+        Vehicle loaded = null;
+        RateTable rates = null;
+        for (SlotDto slot : slots) {
+            if (!slot.getEndTime().isAfter(startDate) || !slot.getStartTime().isBefore(endDate)) {
+                continue;
+            }
+            boolean within = !slot.getStartTime().isBefore(startDate) && !slot.getEndTime().isAfter(endDate);
+            if (within || !slot.isAvailable()) {
+                clipped.add(slot);
+                continue;
+            }
+            if (loaded == null) {
+                loaded = vehicle.get();
+                rates = pricingEngine.rateTable(loaded, startDate, endDate);
+            }
+            clipped.add(createAvailableSlot(loaded, rates,
+                    slot.getStartTime().isBefore(startDate) ? startDate : slot.getStartTime(),
+                    slot.getEndTime().isAfter(endDate) ? endDate : slot.getEndTime()));
+        }
+        return clipped;
     }
 
     /**
      * Checks if a vehicle is available for the specified date range.
+     * Answered from the in-memory availability index when it covers the range.
      */
     @Transactional(readOnly = true)
     public boolean isVehicleAvailable(Vehicle vehicle, LocalDateTime startDate, LocalDateTime endDate) {
+        if (availabilityIndex.covers(startDate)) {
+            return !availabilityIndex.hasOverlap(vehicle.getId(), startDate, endDate);
+        }
         List<Reservation> conflicts = findConflictingReservations(vehicle.getId(), startDate, endDate);
         return conflicts.isEmpty();
     }
@@ -59,21 +144,7 @@ public class DynamicSlotService {
      * Calculates the price for a rental period.
      */
     public BigDecimal calculatePrice(Vehicle vehicle, LocalDateTime startDate, LocalDateTime endDate) {
-        Duration duration = Duration.between(startDate, endDate);
-        long hours = duration.toHours();
-        
-        // Default price if vehicle doesn't have a price set
-        BigDecimal dailyRate = vehicle.getPricePerDay() != null ? BigDecimal.valueOf(vehicle.getPricePerDay()) : BigDecimal.valueOf(100.0);
-        
-        if (hours <= 23) {
-            // Hourly pricing (assuming hourly rate is 1/24 of daily rate)
-            BigDecimal hourlyRate = dailyRate.divide(BigDecimal.valueOf(24), 2, BigDecimal.ROUND_HALF_UP);
-            return hourlyRate.multiply(BigDecimal.valueOf(hours));
-        } else {
-            // Daily pricing with hourly rounding
-            long days = (hours + 23) / 24; // Round up to next day
-            return dailyRate.multiply(BigDecimal.valueOf(days));
-        }
+        return pricingEngine.quote(vehicle, startDate, endDate);
     }
 
     /**
@@ -84,48 +155,66 @@ public class DynamicSlotService {
     }
 
     /**
-     * Generates slots when there are conflicting reservations.
+     * Returns the vehicle's rate table covering the range and the reservation windows overlapping it, which
+     * unavailable slots span in full.
      */
-    private List<SlotDto> generateSlotsWithConflicts(Vehicle vehicle, LocalDateTime startDate, LocalDateTime endDate, 
-                                                     List<Reservation> conflicts) {
-        List<SlotDto> availableSlots = new ArrayList<>();
-        
-        // Sort conflicts by start date
-        conflicts.sort((a, b) -> a.getStartDate().compareTo(b.getStartDate()));
-        
+    private RateTable rateTable(Vehicle vehicle, LocalDateTime startDate, LocalDateTime endDate, List<ReservationWindow> windows) {
+        LocalDateTime from = startDate;
+        LocalDateTime to = endDate;
+        for (ReservationWindow window : windows) {
+            if (window.getStartDate().isBefore(from)) {
+                from = window.getStartDate();
+            }
+            if (window.getEndDate().isAfter(to)) {
+                to = window.getEndDate();
+            }
+        }
+        return pricingEngine.rateTable(vehicle, from, to);
+    }
+
+    /**
+     * Appends the slots for a single bucket given the reservations overlapping it, in start date order.
+     * A bucket without conflicts yields one available slot; otherwise the gaps between reservations are
+     * available and each reservation yields an unavailable slot spanning its full window.
+     */
+    private void appendBucketSlots(Vehicle vehicle, RateTable rates, LocalDateTime startDate, LocalDateTime endDate,
+                                   List<ReservationWindow> conflicts, List<SlotDto> slots) {
+        if (conflicts.isEmpty()) {
+            slots.add(createAvailableSlot(vehicle, rates, startDate, endDate));
+            return;
+        }
+
         LocalDateTime currentTime = startDate;
-        
-        for (Reservation conflict : conflicts) {
+
+        for (ReservationWindow conflict : conflicts) {
             // If there's a gap before this conflict, create an available slot
             if (currentTime.isBefore(conflict.getStartDate())) {
-                availableSlots.add(createAvailableSlot(vehicle, currentTime, conflict.getStartDate()));
+                slots.add(createAvailableSlot(vehicle, rates, currentTime, conflict.getStartDate()));
             }
-            
+
             // Create unavailable slot for the conflict period
-            availableSlots.add(createUnavailableSlot(vehicle, conflict.getStartDate(), conflict.getEndDate()));
-            
+            slots.add(createUnavailableSlot(vehicle, rates, conflict.getStartDate(), conflict.getEndDate()));
+
             currentTime = conflict.getEndDate();
         }
-        
+
         // If there's time remaining after the last conflict, create an available slot
         if (currentTime.isBefore(endDate)) {
-            availableSlots.add(createAvailableSlot(vehicle, currentTime, endDate));
+            slots.add(createAvailableSlot(vehicle, rates, currentTime, endDate));
         }
-        
-        return availableSlots;
     }
 
     /**
      * Creates an available slot.
      */
-    private SlotDto createAvailableSlot(Vehicle vehicle, LocalDateTime startTime, LocalDateTime endTime) {
+    private SlotDto createAvailableSlot(Vehicle vehicle, RateTable rates, LocalDateTime startTime, LocalDateTime endTime) {
         SlotDto slot = new SlotDto();
         slot.setVehicleId(vehicle.getId());
         slot.setStartTime(startTime);
         slot.setEndTime(endTime);
         slot.setAvailable(true);
         slot.setSlotType(determineSlotType(startTime, endTime));
-        slot.setPrice(calculatePrice(vehicle, startTime, endTime));
+        slot.setPrice(rates.price(startTime, endTime));
         slot.setVehicleBrand(vehicle.getBrand() != null ? vehicle.getBrand().getName() : "Unknown");
         slot.setVehicleModel(vehicle.getModel() != null ? vehicle.getModel().getName() : "Unknown");
         slot.setCreatedAt(LocalDateTime.now());
@@ -136,14 +225,14 @@ public class DynamicSlotService {
     /**
      * Creates an unavailable slot.
      */
-    private SlotDto createUnavailableSlot(Vehicle vehicle, LocalDateTime startTime, LocalDateTime endTime) {
+    private SlotDto createUnavailableSlot(Vehicle vehicle, RateTable rates, LocalDateTime startTime, LocalDateTime endTime) {
         SlotDto slot = new SlotDto();
         slot.setVehicleId(vehicle.getId());
         slot.setStartTime(startTime);
         slot.setEndTime(endTime);
         slot.setAvailable(false);
         slot.setSlotType(determineSlotType(startTime, endTime));
-        slot.setPrice(calculatePrice(vehicle, startTime, endTime));
+        slot.setPrice(rates.price(startTime, endTime));
         slot.setVehicleBrand(vehicle.getBrand() != null ? vehicle.getBrand().getName() : "Unknown");
         slot.setVehicleModel(vehicle.getModel() != null ? vehicle.getModel().getName() : "Unknown");
         slot.setCreatedAt(LocalDateTime.now());
@@ -4,12 +4,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.lang.NonNull; // Import NonNull annotation
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // Import JpaSpecificationExecutor
 
 import java.time.LocalDateTime; // Import for LocalDateTime
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -97,4 +99,29 @@ public interface SlotRepository extends JpaRepository<Slot, Long>, JpaSpecificat
     @EntityGraph(attributePaths = {"vehicle", "reservation"}, type = EntityGraph.EntityGraphType.LOAD)
     @Query("SELECT s FROM Slot s WHERE s.vehicle.id = :vehicleId AND s.available = true AND s.startTime < :end AND s.endTime > :start")
     List<Slot> findAvailableSlotsForVehicleAndDateRange(Long vehicleId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Checks whether the vehicle has an available slot covering the whole given range,
+     * without loading the vehicle's slots.
+     *
+     * @param vehicleId The ID of the vehicle.
+     * @param start The start of the date range.
+     * @param end The end of the date range.
+     * @return true if an available slot contains {@code [start, end]}.
+     */
+    @Query("SELECT CASE WHEN COUNT(s) > 0 THEN true ELSE false END FROM Slot s " +
+            "WHERE s.vehicle.id = :vehicleId AND s.available = true AND s.startTime <= :start AND s.endTime >= :end")
+    boolean existsAvailableSlotCovering(Long vehicleId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Makes the slots of the given reservations available again and detaches them, in a single statement.
+     * Bulk updates bypass {@code @UpdateTimestamp}, so the update time is set here.
+     *
+     * @param reservationIds The IDs of the reservations whose slots are released.
+     * @return The number of slots released.
+     */
+    @Modifying
+    @Query("UPDATE Slot s SET s.available = true, s.reservation = null, s.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE s.reservation.id IN :reservationIds")
+    int releaseByReservationIdIn(Collection<Long> reservationIds);
 }
@@ -23,13 +23,14 @@ import com.adamo.vrspfab.payments.RefundRepository;
 import com.adamo.vrspfab.notifications.NotificationRepository;
 import com.adamo.vrspfab.favorites.FavoriteRepository;
 import com.adamo.vrspfab.bookmarks.BookmarkRepository;
+import com.adamo.vrspfab.rollups.DailyRollupService;
 
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -53,6 +54,7 @@ public class UserService {
     private final NotificationRepository notificationRepository;
     private final FavoriteRepository favoriteRepository;
     private final BookmarkRepository bookmarkRepository;
+    private final DailyRollupService dailyRollupService;
 
     public Page<UserDto> getAllUsers(PageRequest pageable, String searchTerm, String role) {
         UserSpecification spec = new UserSpecification(searchTerm, role);
@@ -242,26 +244,20 @@ public class UserService {
     public UserActivitySeriesDto getCurrentUserActivitySeries(User user) {
         Long userId = userRepository.findByEmail(user.getEmail()).orElseThrow(UserNotFoundException::new).getId();
 
-        LocalDate now = LocalDate.now();
+        YearMonth currentMonth = YearMonth.now();
+        YearMonth firstMonth = currentMonth.minusMonths(5);
         List<String> months = new ArrayList<>();
         List<Long> reservationCounts = new ArrayList<>();
         List<BigDecimal> monthlySpending = new ArrayList<>();
 
-        for (int i = 5; i >= 0; i--) {
-            LocalDate monthDate = now.minusMonths(i);
-            LocalDateTime start = monthDate.withDayOfMonth(1).atStartOfDay();
-            LocalDateTime end = monthDate.withDayOfMonth(monthDate.lengthOfMonth()).atTime(23, 59, 59);
-
-            // Reservation count for this user in month - using efficient repository query
-            Long count = reservationRepository.countByUserIdAndCreatedAtBetween(userId, start, end);
-            reservationCounts.add(count);
-
-            // Spending this month - using efficient repository query
-            BigDecimal monthSpent = paymentRepository.sumAmountByReservationUserIdAndStatusAndCreatedAtBetween(
-                    userId, PaymentStatus.COMPLETED, start, end).orElse(BigDecimal.ZERO);
-            monthlySpending.add(monthSpent);
-
-            months.add(monthDate.format(DateTimeFormatter.ofPattern("MMM")));
+        // Reservations and completed payments per month, from the daily rollups
+        Map<YearMonth, DailyRollupService.UserActivity> activity =
+                dailyRollupService.getUserActivityPerMonth(userId, firstMonth, currentMonth);
+        for (YearMonth month = firstMonth; !month.isAfter(currentMonth); month = month.plusMonths(1)) {
+            DailyRollupService.UserActivity monthActivity = activity.get(month);
+            reservationCounts.add(monthActivity != null ? monthActivity.reservations() : 0L);
+            monthlySpending.add(monthActivity != null ? monthActivity.spent() : BigDecimal.ZERO);
+            months.add(month.format(DateTimeFormatter.ofPattern("MMM")));
         }
 
         return UserActivitySeriesDto.builder()
@@ -0,0 +1,89 @@
+package com.adamo.vrspfab.vehicles;
+
+import com.adamo.vrspfab.vehicles.dto.CreatePickupLocationDto;
+import com.adamo.vrspfab.vehicles.dto.PickupLocationResponseDto;
+import com.adamo.vrspfab.vehicles.dto.UpdatePickupLocationDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/pickup-locations")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Admin Pickup Locations", description = "APIs for administrators to manage the depots vehicles are picked up from")
+public class AdminPickupLocationController {
+
+    private final PickupLocationService pickupLocationService;
+
+    @GetMapping
+    @Operation(summary = "Get all pickup locations with pagination",
+               description = "Retrieves a paginated list of all pickup locations. Requires admin privileges.",
+               responses = {
+                       @ApiResponse(responseCode = "200", description = "Successfully retrieved pickup locations"),
+                       @ApiResponse(responseCode = "401", description = "Unauthorized, authentication required"),
+                       @ApiResponse(responseCode = "403", description = "Forbidden, insufficient privileges"),
+                       @ApiResponse(responseCode = "500", description = "Internal server error")
+               })
+    public ResponseEntity<Page<PickupLocationResponseDto>> getAllPickupLocations(Pageable pageable) {
+        log.info("Admin requested all pickup locations with pagination. Page: {}, Size: {}", pageable.getPageNumber(), pageable.getPageSize());
+        return ResponseEntity.ok(pickupLocationService.getAllPickupLocations(pageable));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get pickup location by ID",
+               description = "Retrieves a single pickup location by its ID. Requires admin privileges.",
+               responses = {
+                       @ApiResponse(responseCode = "200", description = "Successfully retrieved pickup location"),
+                       @ApiResponse(responseCode = "401", description = "Unauthorized, authentication required"),
+                       @ApiResponse(responseCode = "403", description = "Forbidden, insufficient privileges"),
+                       @ApiResponse(responseCode = "404", description = "Pickup location not found"),
+                       @ApiResponse(responseCode = "500", description = "Internal server error")
+               })
+    public ResponseEntity<PickupLocationResponseDto> getPickupLocationById(@PathVariable Long id) {
+        log.info("Admin requested pickup location with ID: {}", id);
+        return ResponseEntity.ok(pickupLocationService.getPickupLocationById(id));
+    }
+
+    @PostMapping
+    @Operation(summary = "Create a new pickup location",
+               description = "Creates a new pickup location. Requires admin privileges.",
+               responses = {
+                       @ApiResponse(responseCode = "201", description = "Pickup location created successfully"),
+                       @ApiResponse(responseCode = "400", description = "Invalid pickup location data"),
+                       @ApiResponse(responseCode = "401", description = "Unauthorized, authentication required"),
+                       @ApiResponse(responseCode = "403", description = "Forbidden, insufficient privileges"),
+                       @ApiResponse(responseCode = "409", description = "Pickup location name already exists"),
+                       @ApiResponse(responseCode = "500", description = "Internal server error")
+               })
+    @ResponseStatus(HttpStatus.CREATED)
+    public ResponseEntity<PickupLocationResponseDto> createPickupLocation(@Valid @RequestBody CreatePickupLocationDto createDto) {
+        log.info("Admin creating new pickup location: {}", createDto.getName());
+        return ResponseEntity.status(HttpStatus.CREATED).body(pickupLocationService.createPickupLocation(createDto));
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Update pickup location",
+               description = "Updates an existing pickup location, including moving or deactivating it. Requires admin privileges.",
+               responses = {
+                       @ApiResponse(responseCode = "200", description = "Pickup location updated successfully"),
+                       @ApiResponse(responseCode = "400", description = "Invalid pickup location data"),
+                       @ApiResponse(responseCode = "401", description = "Unauthorized, authentication required"),
+                       @ApiResponse(responseCode = "403", description = "Forbidden, insufficient privileges"),
+                       @ApiResponse(responseCode = "404", description = "Pickup location not found"),
+                       @ApiResponse(responseCode = "409", description = "Pickup location name already exists"),
+                       @ApiResponse(responseCode = "500", description = "Internal server error")
+               })
+    public ResponseEntity<PickupLocationResponseDto> updatePickupLocation(@PathVariable Long id, @Valid @RequestBody UpdatePickupLocationDto updateDto) {
+        log.info("Admin updating pickup location with ID: {}", id);
+        return ResponseEntity.ok(pickupLocationService.updatePickupLocation(id, updateDto));
+    }
+}
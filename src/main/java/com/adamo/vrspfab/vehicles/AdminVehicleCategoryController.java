@@ -97,6 +97,7 @@ public class AdminVehicleCategoryController {
                description = "Deletes a vehicle category by its ID. Requires admin privileges.",
                responses = {
                        @ApiResponse(responseCode = "204", description = "Category deleted successfully"),
+                       @ApiResponse(responseCode = "400", description = "A vehicle of the category has active reservations"),
                        @ApiResponse(responseCode = "401", description = "Unauthorized, authentication required"),
                        @ApiResponse(responseCode = "403", description = "Forbidden, insufficient privileges"),
                        @ApiResponse(responseCode = "404", description = "Category not found"),
@@ -2,10 +2,12 @@ package com.adamo.vrspfab.vehicles;
 
 import com.adamo.vrspfab.vehicles.dto.CreateVehicleDto;
 import com.adamo.vrspfab.vehicles.dto.UpdateVehicleDto;
+import com.adamo.vrspfab.vehicles.dto.VehicleImportResultDto;
 import com.adamo.vrspfab.vehicles.dto.VehicleResponseDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +19,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -29,6 +32,7 @@ import java.util.Map;
 public class AdminVehicleController {
 
     private final EnhancedVehicleService vehicleService;
+    private final VehicleImportService vehicleImportService;
 
     @Operation(summary = "Create a new vehicle",
                description = "Creates a new vehicle in the system. Requires admin privileges.",
@@ -66,6 +70,24 @@ public class AdminVehicleController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdVehicles);
     }
 
+    @Operation(summary = "Import vehicles from a CSV or NDJSON file",
+               description = "Streams the request body and creates its vehicles in batches. The body is either CSV " +
+                           "(Content-Type text/csv) with a header row naming the vehicle fields, or one JSON vehicle per " +
+                           "line (Content-Type application/x-ndjson). Invalid rows are reported and skipped. Requires admin privileges.",
+               responses = {
+                       @ApiResponse(responseCode = "200", description = "Import processed; see the per-row errors"),
+                       @ApiResponse(responseCode = "400", description = "Unsupported content type or invalid CSV header"),
+                       @ApiResponse(responseCode = "401", description = "Unauthorized, authentication required"),
+                       @ApiResponse(responseCode = "403", description = "Forbidden, insufficient privileges"),
+                       @ApiResponse(responseCode = "500", description = "Internal server error")
+               })
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<VehicleImportResultDto> importVehicles(HttpServletRequest request) throws IOException {
+        VehicleImportFormat format = VehicleImportFormat.fromContentType(request.getContentType());
+        log.info("Admin importing vehicles from a {} upload", format);
+        return ResponseEntity.ok(vehicleImportService.importVehicles(request.getInputStream(), format));
+    }
+
     @Operation(summary = "Get vehicle by ID",
                description = "Retrieves a single vehicle by its ID. Requires admin privileges.",
                responses = {
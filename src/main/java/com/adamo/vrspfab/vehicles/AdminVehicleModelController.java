@@ -97,6 +97,7 @@ public class AdminVehicleModelController {
                description = "Deletes a vehicle model by its ID. Requires admin privileges.",
                responses = {
                        @ApiResponse(responseCode = "204", description = "Model deleted successfully"),
+                       @ApiResponse(responseCode = "400", description = "A vehicle of the model has active reservations"),
                        @ApiResponse(responseCode = "401", description = "Unauthorized, authentication required"),
                        @ApiResponse(responseCode = "403", description = "Forbidden, insufficient privileges"),
                        @ApiResponse(responseCode = "404", description = "Model not found"),
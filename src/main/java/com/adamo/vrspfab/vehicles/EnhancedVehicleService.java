@@ -3,6 +3,8 @@ package com.adamo.vrspfab.vehicles;
 import com.adamo.vrspfab.common.ResourceNotFoundException;
 import com.adamo.vrspfab.common.SecurityUtilsService;
 import com.adamo.vrspfab.dashboard.ActivityEventListener;
+import com.adamo.vrspfab.reservations.AvailabilityIndex;
+import com.adamo.vrspfab.reservations.ReservationRepository;
 import com.adamo.vrspfab.vehicles.dto.CreateVehicleDto;
 import com.adamo.vrspfab.vehicles.dto.UpdateVehicleDto;
 import com.adamo.vrspfab.vehicles.dto.VehicleResponseDto;
@@ -14,14 +16,15 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -34,15 +37,21 @@ public class EnhancedVehicleService {
     private final VehicleCategoryRepository vehicleCategoryRepository;
     private final VehicleBrandRepository vehicleBrandRepository;
     private final VehicleModelRepository vehicleModelRepository;
+    private final PickupLocationRepository pickupLocationRepository;
     private final EnhancedVehicleMapper vehicleMapper;
     private final ActivityEventListener activityEventListener;
     private final SecurityUtilsService securityUtilsService;
     private final NotificationService notificationService;
+    private final ReservationRepository reservationRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final VehicleSearchIndex vehicleSearchIndex;
+    private final VehicleReadCache vehicleReadCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Creates a new vehicle with comprehensive validation.
      */
-    @CacheEvict(value = {"vehicles", "vehicleReservations"}, allEntries = true)
+    @CacheEvict(value = "vehicleReservations", allEntries = true)
     public VehicleResponseDto createVehicle(@Valid CreateVehicleDto createDto) {
         log.info("Creating new vehicle with license plate: {}", createDto.getLicensePlate());
         
@@ -62,6 +71,7 @@ public class EnhancedVehicleService {
         
         // Set related entities with proper validation
         setVehicleRelations(vehicle, createDto.getCategoryId(), createDto.getBrandId(), createDto.getModelId());
+        setPickupLocation(vehicle, createDto.getPickupLocationId());
         
         Vehicle savedVehicle = vehicleRepository.save(vehicle);
         log.info("Vehicle created successfully with ID: {}", savedVehicle.getId());
@@ -99,7 +109,7 @@ public class EnhancedVehicleService {
     /**
      * Creates multiple vehicles in bulk with validation.
      */
-    @CacheEvict(value = {"vehicles", "vehicleReservations"}, allEntries = true)
+    @CacheEvict(value = "vehicleReservations", allEntries = true)
     public List<VehicleResponseDto> createVehiclesBulk(@Valid List<CreateVehicleDto> createDtos) {
         log.info("Creating {} vehicles in bulk", createDtos.size());
         
@@ -108,11 +118,11 @@ public class EnhancedVehicleService {
                 .map(CreateVehicleDto::getLicensePlate)
                 .collect(Collectors.toList());
         
-        for (String licensePlate : licensePlates) {
-            if (vehicleRepository.findByLicensePlate(licensePlate).isPresent()) {
-                log.warn("Bulk creation failed: License plate {} already exists", licensePlate);
-                throw new DuplicateLicensePlateException("A vehicle with license plate '" + licensePlate + "' already exists.");
-            }
+        List<String> existingPlates = vehicleRepository.findExistingLicensePlates(licensePlates);
+        if (!existingPlates.isEmpty()) {
+            String licensePlate = existingPlates.get(0);
+            log.warn("Bulk creation failed: License plate {} already exists", licensePlate);
+            throw new DuplicateLicensePlateException("A vehicle with license plate '" + licensePlate + "' already exists.");
         }
         
         // Validate years
@@ -127,6 +137,7 @@ public class EnhancedVehicleService {
                 .map(createDto -> {
                     Vehicle vehicle = vehicleMapper.toEntity(createDto);
                     setVehicleRelations(vehicle, createDto.getCategoryId(), createDto.getBrandId(), createDto.getModelId());
+                    setPickupLocation(vehicle, createDto.getPickupLocationId());
                     return vehicle;
                 })
                 .collect(Collectors.toList());
@@ -159,38 +170,39 @@ public class EnhancedVehicleService {
      * Retrieves a vehicle by its ID.
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "vehicles", key = "#id")
     public VehicleResponseDto getVehicleById(Long id) {
         log.debug("Fetching vehicle with ID: {}", id);
-        Vehicle vehicle = vehicleRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.warn("Vehicle not found with ID: {}", id);
-                    return new ResourceNotFoundException("Vehicle not found with ID: " + id, "Vehicle");
-                });
-        return vehicleMapper.toResponseDto(vehicle);
+        return vehicleReadCache.get(VehicleResponseDto.class, id, vehicleId -> {
+            Vehicle vehicle = vehicleRepository.findById(vehicleId)
+                    .orElseThrow(() -> {
+                        log.warn("Vehicle not found with ID: {}", vehicleId);
+                        return new ResourceNotFoundException("Vehicle not found with ID: " + vehicleId, "Vehicle");
+                    });
+            return vehicleMapper.toResponseDto(vehicle);
+        });
     }
 
     /**
-     * Retrieves all vehicles with pagination and filtering.
+     * Retrieves all vehicles with pagination and filtering, assembled from the {@link VehicleReadCache}.
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "vehicles", key = "#page + '-' + #size + '-' + #sortBy + '-' + #sortDirection + '-' + #filters.hashCode()")
     public Page<VehicleResponseDto> getAllVehicles(
             int page, int size, String sortBy, String sortDirection, VehicleFilter filters
     ) {
         log.debug("Fetching all vehicles: page={}, size={}, sortBy={}, sortDirection={}",
                 page, size, sortBy, sortDirection);
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
-        Pageable pageable = PageRequest.of(page, size, sort);
-        VehicleSpecification spec = new VehicleSpecification(filters);
-        Page<Vehicle> vehicles = vehicleRepository.findAll(spec, pageable);
-        return vehicles.map(vehicleMapper::toResponseDto);
+        return vehicleReadCache.page(VehicleCardRow.class, "customer", filters, PageRequest.of(page, size, sort),
+                pageable -> vehicleSearchIndex.findIds(filters, null, pageable),
+                ids -> vehicleRepository.findCardRowsByIdIn(ids).stream()
+                        .collect(Collectors.toMap(VehicleCardRow::getId, Function.identity())))
+                .map(vehicleMapper::toResponseDto);
     }
 
     /**
      * Updates an existing vehicle.
      */
-    @CacheEvict(value = {"vehicles", "vehicleReservations"}, allEntries = true)
+    @CacheEvict(value = "vehicleReservations", allEntries = true)
     public VehicleResponseDto updateVehicle(Long id, @Valid UpdateVehicleDto updateDto) {
         log.info("Updating vehicle with ID: {}", id);
         Vehicle vehicle = vehicleRepository.findById(id)
@@ -213,6 +225,8 @@ public class EnhancedVehicleService {
             throw new InvalidVehicleDataException("Vehicle year cannot be in the future.");
         }
         
+        VehicleStatusChangedEvent.Placement previous = VehicleStatusChangedEvent.Placement.of(vehicle);
+
         // Update related entities if IDs are provided
         if (updateDto.getCategoryId() != null || updateDto.getBrandId() != null || updateDto.getModelId() != null) {
             setVehicleRelations(vehicle, 
@@ -221,8 +235,11 @@ public class EnhancedVehicleService {
                 updateDto.getModelId());
         }
         
+        setPickupLocation(vehicle, updateDto.getPickupLocationId());
+
         vehicleMapper.updateVehicleFromDto(updateDto, vehicle);
         Vehicle updatedVehicle = vehicleRepository.save(vehicle);
+        publishIfMoved(updatedVehicle, previous);
         log.info("Vehicle with ID {} updated successfully", id);
         
         // Notify admins about vehicle update
@@ -248,7 +265,7 @@ public class EnhancedVehicleService {
     /**
      * Updates the status of a vehicle.
      */
-    @CacheEvict(value = {"vehicles", "vehicleReservations"}, allEntries = true)
+    @CacheEvict(value = "vehicleReservations", allEntries = true)
     public VehicleResponseDto updateVehicleStatus(Long id, VehicleStatus newStatus) {
         log.info("Updating status of vehicle with ID {} to {}", id, newStatus);
         Vehicle vehicle = vehicleRepository.findById(id)
@@ -272,8 +289,10 @@ public class EnhancedVehicleService {
             throw new InvalidVehicleStatusUpdateException("Cannot rent a vehicle that is not available.");
         }
 
+        VehicleStatusChangedEvent.Placement previous = VehicleStatusChangedEvent.Placement.of(vehicle);
         vehicle.setStatus(newStatus);
         Vehicle updatedVehicle = vehicleRepository.save(vehicle);
+        publishIfMoved(updatedVehicle, previous);
         log.info("Status of vehicle with ID {} updated to {} successfully", id, newStatus);
         
         // Notify admins about vehicle status change
@@ -286,7 +305,7 @@ public class EnhancedVehicleService {
                             "licensePlate", updatedVehicle.getLicensePlate(),
                             "brand", updatedVehicle.getBrand().getName(),
                             "model", updatedVehicle.getModel().getName(),
-                            "oldStatus", vehicle.getStatus().name(),
+                            "oldStatus", previous.status().name(),
                             "newStatus", newStatus.name()
                     )
             );
@@ -300,7 +319,7 @@ public class EnhancedVehicleService {
     /**
      * Updates the mileage of a vehicle.
      */
-    @CacheEvict(value = {"vehicles", "vehicleReservations"}, allEntries = true)
+    @CacheEvict(value = "vehicleReservations", allEntries = true)
     public VehicleResponseDto updateVehicleMileage(Long id, Float newMileage) {
         log.info("Updating mileage of vehicle with ID {} to {}", id, newMileage);
         Vehicle vehicle = vehicleRepository.findById(id)
@@ -356,7 +375,7 @@ public class EnhancedVehicleService {
     /**
      * Deletes a vehicle by its ID.
      */
-    @CacheEvict(value = {"vehicles", "vehicleReservations"}, allEntries = true)
+    @CacheEvict(value = "vehicleReservations", allEntries = true)
     public void deleteVehicle(Long id) {
         log.info("Deleting vehicle with ID: {}", id);
         Vehicle vehicle = vehicleRepository.findById(id)
@@ -418,10 +437,9 @@ public class EnhancedVehicleService {
             throw new VehicleNotAvailableException("Vehicle is not available due to status: " + vehicle.getStatus().name());
         }
 
-        boolean hasConflictingReservations = vehicle.getReservations().stream()
-                .anyMatch(reservation ->
-                        !(endDate.isBefore(reservation.getStartDate()) || startDate.isAfter(reservation.getEndDate()))
-                );
+        boolean hasConflictingReservations = availabilityIndex.covers(startDate)
+                ? availabilityIndex.hasOverlap(id, startDate, endDate)
+                : reservationRepository.existsOverlappingReservation(id, startDate, endDate);
 
         if (hasConflictingReservations) {
             log.warn("Vehicle with ID {} is not available due to conflicting reservations", id);
@@ -455,8 +473,25 @@ public class EnhancedVehicleService {
         }
     }
 
+    private void setPickupLocation(Vehicle vehicle, Long pickupLocationId) {
+        if (pickupLocationId != null) {
+            PickupLocation location = pickupLocationRepository.findById(pickupLocationId)
+                    .orElseThrow(() -> new PickupLocationNotFoundException(pickupLocationId));
+            vehicle.setPickupLocation(location);
+        }
+    }
+
     public Long countActiveVehicles() {
         return vehicleRepository.countByStatus(VehicleStatus.AVAILABLE);
     }
-}
 
+    /**
+     * Publishes a {@link VehicleStatusChangedEvent} if the update changed the vehicle's status, category or brand.
+     */
+    private void publishIfMoved(Vehicle vehicle, VehicleStatusChangedEvent.Placement previous) {
+        VehicleStatusChangedEvent.Placement current = VehicleStatusChangedEvent.Placement.of(vehicle);
+        if (!current.equals(previous)) {
+            eventPublisher.publishEvent(new VehicleStatusChangedEvent(this, vehicle.getId(), previous, current));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountDto {
+    /** The value to filter on: an ID, an enum constant or a price band such as {@code 50-100}. */
+    private String value;
+    private String label;
+    private long count;
+}
@@ -0,0 +1,21 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A free vehicle found near a point, with where and how far away it is picked up.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyVehicleDto {
+    private VehicleDto vehicle;
+    /** Great-circle distance from the searched point to the pickup location, in kilometres. */
+    private double distanceKm;
+    private double latitude;
+    private double longitude;
+}
@@ -0,0 +1,112 @@
+package com.adamo.vrspfab.vehicles;
+
+import com.adamo.vrspfab.reservations.AvailabilityIndex;
+import com.adamo.vrspfab.reservations.InvalidReservationDateException;
+import com.adamo.vrspfab.reservations.ReservationRepository;
+import com.adamo.vrspfab.vehicles.exceptions.InvalidVehicleDataException;
+import com.adamo.vrspfab.vehicles.mappers.VehicleMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Answers "free vehicles near me for these dates": the {@link VehicleLocationIndex} orders bookable vehicles
+ * by distance and the reservation check is applied to the nearest candidates only, through the
+ * {@link AvailabilityIndex} when it covers the period and one batched query per candidate batch otherwise.
+ */
+@Service
+@Slf4j
+public class NearbyVehicleService {
+
+    private final VehicleLocationIndex vehicleLocationIndex;
+    private final AvailabilityIndex availabilityIndex;
+    private final ReservationRepository reservationRepository;
+    private final VehicleRepository vehicleRepository;
+    private final VehicleReadCache vehicleReadCache;
+    private final VehicleMapper vehicleMapper;
+    private final int maxResults;
+    private final double maxRadiusKm;
+
+    public NearbyVehicleService(VehicleLocationIndex vehicleLocationIndex,
+                                AvailabilityIndex availabilityIndex,
+                                ReservationRepository reservationRepository,
+                                VehicleRepository vehicleRepository,
+                                VehicleReadCache vehicleReadCache,
+                                VehicleMapper vehicleMapper,
+                                @Value("${vehicles.nearby.max-results:50}") int maxResults,
+                                @Value("${vehicles.nearby.max-radius-km:300}") double maxRadiusKm) {
+        this.vehicleLocationIndex = vehicleLocationIndex;
+        this.availabilityIndex = availabilityIndex;
+        this.reservationRepository = reservationRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.vehicleReadCache = vehicleReadCache;
+        this.vehicleMapper = vehicleMapper;
+        this.maxResults = maxResults;
+        this.maxRadiusKm = maxRadiusKm;
+    }
+
+    /**
+     * Finds the free vehicles nearest to a point for a whole date range.
+     *
+     * @param latitude The latitude of the point, in degrees.
+     * @param longitude The longitude of the point, in degrees.
+     * @param startDate The start of the requested period.
+     * @param endDate The end of the requested period.
+     * @param radiusKm The search radius, capped by {@code vehicles.nearby.max-radius-km}.
+     * @param limit The number of vehicles wanted, capped by {@code vehicles.nearby.max-results}.
+     * @return Up to {@code limit} free vehicles within the radius, nearest first.
+     * @throws InvalidVehicleDataException if the coordinates, the radius or the limit are invalid.
+     * @throws InvalidReservationDateException if the start date is not before the end date.
+     */
+    @Transactional(readOnly = true)
+    public List<NearbyVehicleDto> findNearestAvailableVehicles(double latitude, double longitude,
+                                                               LocalDateTime startDate, LocalDateTime endDate,
+                                                               double radiusKm, int limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            log.warn("Nearby vehicle search failed: Invalid coordinates ({}, {})", latitude, longitude);
+            throw new InvalidVehicleDataException("Latitude must be between -90 and 90 and longitude between -180 and 180.");
+        }
+        if (!startDate.isBefore(endDate)) {
+            log.warn("Nearby vehicle search failed: Start date {} is not before end date {}", startDate, endDate);
+            throw new InvalidReservationDateException("Start date must be before end date.");
+        }
+        if (limit < 1 || radiusKm <= 0) {
+            throw new InvalidVehicleDataException("Limit and radius must be positive.");
+        }
+        int wanted = Math.min(limit, maxResults);
+        double radius = Math.min(radiusKm, maxRadiusKm);
+        log.debug("Searching {} vehicles free from {} to {} within {} km of ({}, {})",
+                wanted, startDate, endDate, radius, latitude, longitude);
+
+        Function<List<Long>, Set<Long>> booked = availabilityIndex.covers(startDate)
+                ? ids -> ids.stream()
+                        .filter(id -> availabilityIndex.hasOverlap(id, startDate, endDate))
+                        .collect(Collectors.toSet())
+                : ids -> new HashSet<>(reservationRepository.findVehicleIdsWithOverlap(ids, startDate, endDate));
+        List<VehicleLocationIndex.Match> matches =
+                vehicleLocationIndex.nearest(latitude, longitude, radius, wanted, booked);
+
+        Map<Long, VehicleCardRow> cards = vehicleReadCache.getAll(VehicleCardRow.class,
+                matches.stream().map(VehicleLocationIndex.Match::vehicleId).toList(),
+                ids -> vehicleRepository.findCardRowsByIdIn(ids).stream()
+                        .collect(Collectors.toMap(VehicleCardRow::getId, Function.identity())));
+        return matches.stream()
+                .filter(match -> cards.containsKey(match.vehicleId()))
+                .map(match -> NearbyVehicleDto.builder()
+                        .vehicle(vehicleMapper.toDto(cards.get(match.vehicleId())))
+                        .distanceKm(Math.round(match.distanceKm() * 100) / 100.0)
+                        .latitude(match.latitude())
+                        .longitude(match.longitude())
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,19 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event fired when a pickup location is created, moved, renamed or (de)activated, which changes where,
+ * and whether, its vehicles are found by the nearest-vehicle search.
+ */
+@Getter
+public class PickupLocationChangedEvent extends ApplicationEvent {
+
+    private final Long pickupLocationId;
+
+    public PickupLocationChangedEvent(Object source, Long pickupLocationId) {
+        super(source);
+        this.pickupLocationId = pickupLocationId;
+    }
+}
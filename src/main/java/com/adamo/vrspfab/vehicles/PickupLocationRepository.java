@@ -0,0 +1,10 @@
+package com.adamo.vrspfab.vehicles;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PickupLocationRepository extends JpaRepository<PickupLocation, Long> {
+
+    boolean existsByName(String name);
+}
@@ -0,0 +1,69 @@
+package com.adamo.vrspfab.vehicles;
+
+import com.adamo.vrspfab.common.DuplicateFieldException;
+import com.adamo.vrspfab.vehicles.dto.CreatePickupLocationDto;
+import com.adamo.vrspfab.vehicles.dto.PickupLocationResponseDto;
+import com.adamo.vrspfab.vehicles.dto.UpdatePickupLocationDto;
+import com.adamo.vrspfab.vehicles.exceptions.PickupLocationNotFoundException;
+import com.adamo.vrspfab.vehicles.mappers.PickupLocationMapper;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class PickupLocationService {
+
+    private final PickupLocationRepository pickupLocationRepository;
+    private final PickupLocationMapper pickupLocationMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public Page<PickupLocationResponseDto> getAllPickupLocations(Pageable pageable) {
+        log.info("Fetching all pickup locations with pagination");
+        return pickupLocationRepository.findAll(pageable).map(pickupLocationMapper::toResponseDto);
+    }
+
+    @Transactional(readOnly = true)
+    public PickupLocationResponseDto getPickupLocationById(Long id) {
+        log.info("Fetching pickup location with ID: {}", id);
+        return pickupLocationRepository.findById(id)
+                .map(pickupLocationMapper::toResponseDto)
+                .orElseThrow(() -> new PickupLocationNotFoundException(id));
+    }
+
+    public PickupLocationResponseDto createPickupLocation(@Valid CreatePickupLocationDto createDto) {
+        log.info("Creating new pickup location: {}", createDto.getName());
+        if (pickupLocationRepository.existsByName(createDto.getName())) {
+            log.warn("Pickup location creation failed: Location with name '{}' already exists", createDto.getName());
+            throw new DuplicateFieldException("Pickup location with name '" + createDto.getName() + "' already exists");
+        }
+        PickupLocation saved = pickupLocationRepository.save(pickupLocationMapper.toEntity(createDto));
+        eventPublisher.publishEvent(new PickupLocationChangedEvent(this, saved.getId()));
+        log.info("Pickup location created successfully with ID: {}", saved.getId());
+        return pickupLocationMapper.toResponseDto(saved);
+    }
+
+    public PickupLocationResponseDto updatePickupLocation(Long id, @Valid UpdatePickupLocationDto updateDto) {
+        log.info("Updating pickup location with ID: {}", id);
+        PickupLocation location = pickupLocationRepository.findById(id)
+                .orElseThrow(() -> new PickupLocationNotFoundException(id));
+        if (updateDto.getName() != null && !location.getName().equals(updateDto.getName())
+                && pickupLocationRepository.existsByName(updateDto.getName())) {
+            log.warn("Pickup location update failed: Location with name '{}' already exists", updateDto.getName());
+            throw new DuplicateFieldException("Pickup location with name '" + updateDto.getName() + "' already exists");
+        }
+        pickupLocationMapper.updateEntity(location, updateDto);
+        PickupLocation saved = pickupLocationRepository.save(location);
+        eventPublisher.publishEvent(new PickupLocationChangedEvent(this, id));
+        log.info("Pickup location with ID {} updated successfully", id);
+        return pickupLocationMapper.toResponseDto(saved);
+    }
+}
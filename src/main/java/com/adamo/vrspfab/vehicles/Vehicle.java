@@ -19,6 +19,7 @@ import java.util.Set;
 @NoArgsConstructor
 @Builder
 @Entity
+@EntityListeners(VehicleCatalogEntityListener.class)
 @Table(name = "vehicles")
 public class Vehicle {
 
@@ -38,6 +39,10 @@ public class Vehicle {
     @JoinColumn(name = "model_id")
     private VehicleModel model;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "pickup_location_id")
+    private PickupLocation pickupLocation;
+
     @Column(name = "year")
     private int year;
 
@@ -0,0 +1,45 @@
+package com.adamo.vrspfab.vehicles;
+
+import com.adamo.vrspfab.reservations.Reservation;
+import com.adamo.vrspfab.reservations.ReservationStatus;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Matches vehicles that can be booked for a whole date range: status {@code AVAILABLE} and no
+ * non-cancelled reservation overlapping {@code [startDate, endDate)}.
+ * <p>
+ * The reservation check is a correlated {@code NOT EXISTS} (anti-join), so it is evaluated by the
+ * database in the same query as the rest of the filters. Combine it with {@link VehicleSpecification}
+ * to apply catalogue filters.
+ */
+@RequiredArgsConstructor
+public class VehicleAvailabilitySpecification implements Specification<Vehicle> {
+
+    private final LocalDateTime startDate;
+    private final LocalDateTime endDate;
+
+    @Override
+    public Predicate toPredicate(Root<Vehicle> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        Subquery<Long> conflicts = query.subquery(Long.class);
+        Root<Reservation> reservation = conflicts.from(Reservation.class);
+        conflicts.select(reservation.get("id")).where(
+                criteriaBuilder.equal(reservation.get("vehicle").get("id"), root.get("id")),
+                criteriaBuilder.notEqual(reservation.get("status"), ReservationStatus.CANCELLED),
+                criteriaBuilder.lessThan(reservation.get("startDate"), endDate),
+                criteriaBuilder.greaterThan(reservation.get("endDate"), startDate)
+        );
+
+        return criteriaBuilder.and(
+                criteriaBuilder.equal(root.get("status"), VehicleStatus.AVAILABLE),
+                criteriaBuilder.not(criteriaBuilder.exists(conflicts))
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.Value;
+
+/**
+ * Average approved testimonial rating of the vehicles of a brand, as grouped by
+ * {@link VehicleRepository#getAverageRatingPerBrand()}.
+ */
+@Value
+public class VehicleBrandRating {
+    Long brandId;
+    Double averageRating;
+}
@@ -16,6 +16,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -31,6 +32,7 @@ public class VehicleBrandService {
     private final VehicleDeletionService deletionService;
     private final VehicleRepository vehicleRepository;
     private final ReservationRepository reservationRepository;
+    private final VehicleReferenceData referenceData;
 
     @Transactional(readOnly = true)
     @Cacheable(value = "vehicleBrands", key = "#pageable.pageNumber + '-' + #pageable.pageSize")
@@ -40,13 +42,11 @@ public class VehicleBrandService {
         return brandsPage.map(brandMapper::toResponseDto);
     }
 
-    @Transactional(readOnly = true)
-    @Cacheable(value = "vehicleBrands", key = "#id")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public VehicleBrandResponseDto getBrandById(Long id) {
         log.info("Fetching vehicle brand with ID: {}", id);
-        VehicleBrand brand = brandRepository.findById(id)
+        return referenceData.snapshot().brand(id)
                 .orElseThrow(() -> new VehicleBrandNotFoundException(id));
-        return brandMapper.toResponseDto(brand);
     }
 
     @CacheEvict(value = "vehicleBrands", allEntries = true)
@@ -85,6 +85,7 @@ public class VehicleBrandService {
     }
 
     @CacheEvict(value = "vehicleBrands", allEntries = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public VehicleDeletionResult deleteBrand(Long id) {
         log.info("Attempting to delete vehicle brand with ID: {}", id);
         if (!brandRepository.existsById(id)) {
@@ -121,14 +122,9 @@ public class VehicleBrandService {
      * Get only active brands for customer-facing dropdowns and filters.
      * This ensures inactive brands don't appear in booking interfaces.
      */
-    @Transactional(readOnly = true)
-    @Cacheable(value = "activeBrands")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<VehicleBrandResponseDto> getActiveBrands() {
-        log.info("Fetching only active vehicle brands for customer interface");
-        List<VehicleBrand> activeBrands = brandRepository.findByIsActiveTrue();
-        return activeBrands.stream()
-                .map(brandMapper::toResponseDto)
-                .collect(java.util.stream.Collectors.toList());
+        return referenceData.snapshot().activeBrands().items();
     }
 
     /**
@@ -0,0 +1,32 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the columns shown by the vehicle listings and cards: the vehicle's own fields except its
+ * description, with the names of its brand, model, category and pickup location. Fetched in one joined query, without
+ * materializing entities or their catalogue proxies.
+ */
+@Value
+public class VehicleCardRow {
+    Long id;
+    Long categoryId;
+    String categoryName;
+    Long brandId;
+    String brandName;
+    Long modelId;
+    String modelName;
+    Long pickupLocationId;
+    String pickupLocationName;
+    Integer year;
+    String licensePlate;
+    FuelType fuelType;
+    VehicleStatus status;
+    Float mileage;
+    Double pricePerDay;
+    String imageUrl;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+}
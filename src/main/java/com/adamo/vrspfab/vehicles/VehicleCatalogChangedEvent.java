@@ -0,0 +1,42 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event fired whenever a vehicle, brand, model or category is created, updated or deleted.
+ * Published by {@link VehicleCatalogEntityListener} for every flushed change, so listeners
+ * keeping derived catalogue state see writes from every service.
+ */
+@Getter
+public class VehicleCatalogChangedEvent extends ApplicationEvent {
+
+    /** The kind of catalogue entity that changed. */
+    public enum Kind {
+        VEHICLE,
+        BRAND,
+        MODEL,
+        CATEGORY
+    }
+
+    private final Kind kind;
+    private final Long id;
+    /** The entity's name after the change; null for vehicles. */
+    private final String name;
+    /** Whether the entity was just persisted, as opposed to updated or removed. */
+    private final boolean created;
+    private final boolean removed;
+
+    public VehicleCatalogChangedEvent(Object source, Kind kind, Long id, String name, boolean removed) {
+        this(source, kind, id, name, false, removed);
+    }
+
+    public VehicleCatalogChangedEvent(Object source, Kind kind, Long id, String name, boolean created, boolean removed) {
+        super(source);
+        this.kind = kind;
+        this.id = id;
+        this.name = name;
+        this.created = created;
+        this.removed = removed;
+    }
+}
@@ -0,0 +1,47 @@
+package com.adamo.vrspfab.vehicles;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener turning flushed writes of vehicles, brands, models and categories into
+ * {@link VehicleCatalogChangedEvent}s. Instantiated by Hibernate through Spring's bean container.
+ */
+public class VehicleCatalogEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public VehicleCatalogEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onCreate(Object entity) {
+        publish(entity, true, false);
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        publish(entity, false, false);
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        publish(entity, false, true);
+    }
+
+    private void publish(Object entity, boolean created, boolean removed) {
+        VehicleCatalogChangedEvent event = switch (entity) {
+            case Vehicle vehicle -> new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.VEHICLE, vehicle.getId(), null, created, removed);
+            case VehicleBrand brand -> new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.BRAND, brand.getId(), brand.getName(), created, removed);
+            case VehicleModel model -> new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.MODEL, model.getId(), model.getName(), created, removed);
+            case VehicleCategory category -> new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.CATEGORY, category.getId(), category.getName(), created, removed);
+            default -> null;
+        };
+        if (event != null) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -31,6 +32,8 @@ public class VehicleCategoryService {
     private final EnhancedVehicleCategoryMapper categoryMapper;
     private final VehicleRepository vehicleRepository;
     private final ReservationRepository reservationRepository;
+    private final VehicleReferenceData referenceData;
+    private final VehicleDeletionService deletionService;
 
     @Transactional(readOnly = true)
     @Cacheable(value = "vehicleCategories", key = "#pageable.pageNumber + '-' + #pageable.pageSize")
@@ -40,13 +43,11 @@ public class VehicleCategoryService {
         return categoriesPage.map(categoryMapper::toResponseDto);
     }
 
-    @Transactional(readOnly = true)
-    @Cacheable(value = "vehicleCategories", key = "#id")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public VehicleCategoryResponseDto getCategoryById(Long id) {
         log.info("Fetching vehicle category with ID: {}", id);
-        VehicleCategory category = categoryRepository.findById(id)
+        return referenceData.snapshot().category(id)
                 .orElseThrow(() -> new VehicleCategoryNotFoundException(id));
-        return categoryMapper.toResponseDto(category);
     }
 
     @CacheEvict(value = "vehicleCategories", allEntries = true)
@@ -85,12 +86,18 @@ public class VehicleCategoryService {
     }
 
     @CacheEvict(value = "vehicleCategories", allEntries = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteCategory(Long id) {
         log.info("Deleting vehicle category with ID: {}", id);
         if (!categoryRepository.existsById(id)) {
             throw new VehicleCategoryNotFoundException(id);
         }
-        categoryRepository.deleteById(id);
+
+        // Use deletion service for chunked cascade delete
+        VehicleDeletionResult result = deletionService.deleteCategory(id);
+        if (!result.isCanDelete()) {
+            throw new IllegalStateException(result.getReason());
+        }
         log.info("Vehicle category with ID {} deleted successfully", id);
     }
 
@@ -120,14 +127,9 @@ public class VehicleCategoryService {
      * Get only active categories for customer-facing dropdowns and filters.
      * This ensures inactive categories don't appear in booking interfaces.
      */
-    @Transactional(readOnly = true)
-    @Cacheable(value = "activeCategories")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public java.util.List<VehicleCategoryResponseDto> getActiveCategories() {
-        log.info("Fetching only active vehicle categories for customer interface");
-        java.util.List<VehicleCategory> activeCategories = categoryRepository.findByIsActiveTrue();
-        return activeCategories.stream()
-                .map(categoryMapper::toResponseDto)
-                .collect(java.util.stream.Collectors.toList());
+        return referenceData.snapshot().activeCategories().items();
     }
 
     /**
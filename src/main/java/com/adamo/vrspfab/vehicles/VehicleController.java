@@ -11,7 +11,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -26,9 +27,9 @@ import java.util.List;
 public class VehicleController {
 
     private final VehicleService vehicleService;
-    private final VehicleBrandService brandService;
-    private final VehicleCategoryService categoryService;
-    private final VehicleModelService modelService;
+    private final VehicleReferenceData referenceData;
+    private final VehicleFacetIndex vehicleFacetIndex;
+    private final NearbyVehicleService nearbyVehicleService;
 
     @Operation(summary = "Get all available vehicles with filters",
                description = "Retrieves paginated list of vehicles that are available for booking. " +
@@ -69,12 +70,119 @@ public class VehicleController {
                 .build();
 
         // Use customer specification that filters by active status
-        Specification<Vehicle> specification = new VehicleSpecification(filter);
-        Page<VehicleDto> vehicles = vehicleService.getAllVehicles(specification, pageable);
+        Page<VehicleDto> vehicles = vehicleService.getAllVehicles(filter, pageable);
         
         return ResponseEntity.ok(vehicles);
     }
 
+    @Operation(summary = "Get facet counts for the vehicle listing",
+               description = "Counts the vehicles of the listing per brand, category, fuel type, status and price band. " +
+                           "Accepts the same filters as the listing; each facet is counted without its own filter.",
+               responses = {
+                       @ApiResponse(responseCode = "200", description = "Successfully retrieved facet counts"),
+                       @ApiResponse(responseCode = "503", description = "Facet counts are still being built after startup"),
+                       @ApiResponse(responseCode = "500", description = "Internal server error")
+               })
+    @GetMapping("/facets")
+    public ResponseEntity<VehicleFacetsDto> getVehicleFacets(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Long brandId,
+            @RequestParam(required = false) Long modelId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String fuelType,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer minYear,
+            @RequestParam(required = false) Integer maxYear,
+            @RequestParam(required = false) Double minMileage,
+            @RequestParam(required = false) Double maxMileage) {
+
+        VehicleFilter filter = VehicleFilter.builder()
+                .search(search)
+                .brandId(brandId)
+                .modelId(modelId)
+                .categoryId(categoryId)
+                .fuelType(fuelType)
+                .status(status)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .minYear(minYear)
+                .maxYear(maxYear)
+                .minMileage(minMileage)
+                .maxMileage(maxMileage)
+                .build();
+
+        return ResponseEntity.ok(vehicleFacetIndex.count(filter));
+    }
+
+    @Operation(summary = "Search vehicles free for a date range",
+               description = "Retrieves a paginated list of vehicles that are available and have no overlapping " +
+                           "reservation for the whole date range. Accepts the same filters as the vehicle listing.",
+               responses = {
+                       @ApiResponse(responseCode = "200", description = "Successfully retrieved free vehicles"),
+                       @ApiResponse(responseCode = "400", description = "Invalid date range"),
+                       @ApiResponse(responseCode = "500", description = "Internal server error")
+               })
+    @GetMapping("/available")
+    public ResponseEntity<Page<VehicleDto>> getAvailableVehicles(
+            Pageable pageable,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Long brandId,
+            @RequestParam(required = false) Long modelId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String fuelType,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer minYear,
+            @RequestParam(required = false) Integer maxYear,
+            @RequestParam(required = false) Double minMileage,
+            @RequestParam(required = false) Double maxMileage) {
+
+        VehicleFilter filter = VehicleFilter.builder()
+                .search(search)
+                .brandId(brandId)
+                .modelId(modelId)
+                .categoryId(categoryId)
+                .fuelType(fuelType)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .minYear(minYear)
+                .maxYear(maxYear)
+                .minMileage(minMileage)
+                .maxMileage(maxMileage)
+                .build();
+
+        Page<VehicleDto> vehicles = vehicleService.getAvailableVehicles(
+                filter, startDate, endDate, pageable);
+
+        return ResponseEntity.ok(vehicles);
+    }
+
+    @Operation(summary = "Find free vehicles near a point",
+               description = "Returns the vehicles free for the whole date range that are picked up nearest to the given coordinates, nearest first.",
+               responses = {
+                       @ApiResponse(responseCode = "200", description = "Successfully retrieved nearby free vehicles"),
+                       @ApiResponse(responseCode = "400", description = "Invalid coordinates, date range or limit"),
+                       @ApiResponse(responseCode = "500", description = "Internal server error")
+               })
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyVehicleDto>> getNearbyAvailableVehicles(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "50") double radiusKm,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<NearbyVehicleDto> vehicles = nearbyVehicleService.findNearestAvailableVehicles(
+                latitude, longitude, startDate, endDate, radiusKm, limit);
+
+        return ResponseEntity.ok(vehicles);
+    }
+
     @Operation(summary = "Get vehicle by ID",
                description = "Retrieves detailed information about a specific vehicle by its ID.",
                responses = {
@@ -93,12 +201,12 @@ public class VehicleController {
                            "Inactive brands are excluded to prevent booking unavailable vehicles.",
                responses = {
                        @ApiResponse(responseCode = "200", description = "Successfully retrieved active brands"),
+                       @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match"),
                        @ApiResponse(responseCode = "500", description = "Internal server error")
                })
     @GetMapping("/brands/active")
     public ResponseEntity<List<VehicleBrandResponseDto>> getActiveBrands() {
-        List<VehicleBrandResponseDto> activeBrands = brandService.getActiveBrands();
-        return ResponseEntity.ok(activeBrands);
+        return listing(referenceData.snapshot().activeBrands());
     }
 
     @Operation(summary = "Get active vehicle categories",
@@ -106,12 +214,12 @@ public class VehicleController {
                            "Inactive categories are excluded to prevent booking unavailable vehicles.",
                responses = {
                        @ApiResponse(responseCode = "200", description = "Successfully retrieved active categories"),
+                       @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match"),
                        @ApiResponse(responseCode = "500", description = "Internal server error")
                })
     @GetMapping("/categories/active")
     public ResponseEntity<List<VehicleCategoryResponseDto>> getActiveCategories() {
-        List<VehicleCategoryResponseDto> activeCategories = categoryService.getActiveCategories();
-        return ResponseEntity.ok(activeCategories);
+        return listing(referenceData.snapshot().activeCategories());
     }
 
     @Operation(summary = "Get active vehicle models",
@@ -119,12 +227,12 @@ public class VehicleController {
                            "Inactive models are excluded to prevent booking unavailable vehicles.",
                responses = {
                        @ApiResponse(responseCode = "200", description = "Successfully retrieved active models"),
+                       @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match"),
                        @ApiResponse(responseCode = "500", description = "Internal server error")
                })
     @GetMapping("/models/active")
     public ResponseEntity<List<VehicleModelResponseDto>> getActiveModels() {
-        List<VehicleModelResponseDto> activeModels = modelService.getActiveModels();
-        return ResponseEntity.ok(activeModels);
+        return listing(referenceData.snapshot().activeModels());
     }
 
     @Operation(summary = "Get active models by brand",
@@ -132,12 +240,22 @@ public class VehicleController {
                            "Only returns models that are active AND belong to an active brand.",
                responses = {
                        @ApiResponse(responseCode = "200", description = "Successfully retrieved active models for brand"),
+                       @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match"),
                        @ApiResponse(responseCode = "500", description = "Internal server error")
                })
     @GetMapping("/models/active/brand/{brandId}")
     public ResponseEntity<List<VehicleModelResponseDto>> getActiveModelsByBrand(@PathVariable Long brandId) {
-        List<VehicleModelResponseDto> activeModels = modelService.getActiveModelsByBrandId(brandId);
-        return ResponseEntity.ok(activeModels);
+        return listing(referenceData.snapshot().activeModelsByBrand(brandId));
+    }
+
+    /**
+     * Serves a reference data listing with its ETag; Spring answers a matching If-None-Match with 304 Not Modified.
+     */
+    private static <T> ResponseEntity<List<T>> listing(VehicleReferenceData.Listing<T> listing) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(listing.etag())
+                .body(listing.items());
     }
 
     @Operation(summary = "Check vehicle availability",
@@ -152,18 +270,15 @@ public class VehicleController {
     @GetMapping("/{id}/availability")
     public ResponseEntity<AvailabilityResponseDto> checkVehicleAvailability(
             @PathVariable Long id,
-            @RequestParam String startDate,
-            @RequestParam String endDate) {
-        
-        LocalDateTime start = LocalDateTime.parse(startDate);
-        LocalDateTime end = LocalDateTime.parse(endDate);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
         
-        boolean isAvailable = vehicleService.isVehicleAvailableForBooking(id, start, end);
+        boolean isAvailable = vehicleService.isVehicleAvailableForBooking(id, startDate, endDate);
         
         AvailabilityResponseDto response = AvailabilityResponseDto.builder()
                 .vehicleId(id)
-                .startDate(start)
-                .endDate(end)
+                .startDate(startDate)
+                .endDate(endDate)
                 .isAvailable(isAvailable)
                 .build();
                 
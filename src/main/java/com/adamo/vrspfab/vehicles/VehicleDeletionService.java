@@ -1,119 +1,156 @@
 package com.adamo.vrspfab.vehicles;
 
-import com.adamo.vrspfab.reservations.ReservationRepository;
 import com.adamo.vrspfab.reservations.ReservationStatus;
 import com.adamo.vrspfab.vehicles.exceptions.VehicleBrandNotFoundException;
 import com.adamo.vrspfab.vehicles.exceptions.VehicleCategoryNotFoundException;
 import com.adamo.vrspfab.vehicles.exceptions.VehicleModelNotFoundException;
 import com.adamo.vrspfab.vehicles.exceptions.VehicleNotFoundException;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 
+/**
+ * Deletes vehicles, brands, categories and models once no vehicle involved has an active reservation.
+ * <p>
+ * Impact analysis and validation use grouped aggregate queries rather than loading the vehicles. The
+ * vehicles of a brand, category or model are deleted with bulk statements in chunks of
+ * {@code vehicles.deletion.chunk-size}, each in its own transaction, with progress logged per chunk; the
+ * brand, category or model itself is deleted last. A chunk re-checks its vehicles for active reservations
+ * before deleting them, so a reservation made during the deletion stops it; the chunks already deleted
+ * stay deleted and the deletion can be run again.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class VehicleDeletionService {
 
+    private static final List<ReservationStatus> ACTIVE_STATUSES = List.of(ReservationStatus.PENDING, ReservationStatus.CONFIRMED);
+
     private final VehicleRepository vehicleRepository;
     private final VehicleBrandRepository brandRepository;
     private final VehicleCategoryRepository categoryRepository;
     private final VehicleModelRepository modelRepository;
-    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public VehicleDeletionService(VehicleRepository vehicleRepository,
+                                  VehicleBrandRepository brandRepository,
+                                  VehicleCategoryRepository categoryRepository,
+                                  VehicleModelRepository modelRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${vehicles.deletion.chunk-size:500}") int chunkSize) {
+        this.vehicleRepository = vehicleRepository;
+        this.brandRepository = brandRepository;
+        this.categoryRepository = categoryRepository;
+        this.modelRepository = modelRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
 
     /**
-     * Safely delete a vehicle brand with cascade validation
+     * Safely delete a vehicle brand, its models and its vehicles.
+     * Must not be called within a transaction, so that each chunk commits on its own.
      */
-    @Transactional
     public VehicleDeletionResult deleteBrand(Long brandId) {
         log.info("Attempting to delete vehicle brand with ID: {}", brandId);
-        
+
         VehicleBrand brand = brandRepository.findById(brandId)
                 .orElseThrow(() -> new VehicleBrandNotFoundException(brandId));
 
-        // Get all vehicles for this brand
-        List<Vehicle> brandVehicles = vehicleRepository.findByBrandId(brandId);
-        
-        // Check for active reservations
-        VehicleDeletionResult validationResult = validateVehicleDeletion(brandVehicles);
+        VehicleDeletionResult validationResult = validate(vehicleRepository.countReservationsByBrandId(brandId, ACTIVE_STATUSES));
         if (!validationResult.isCanDelete()) {
             log.warn("Cannot delete brand '{}': {}", brand.getName(), validationResult.getReason());
             return validationResult;
         }
 
-        // Safe to delete - cascade will handle vehicles and models
-        brandRepository.deleteById(brandId);
-        log.info("Successfully deleted vehicle brand '{}' and {} related vehicles", 
-                brand.getName(), brandVehicles.size());
+        String description = "brand '" + brand.getName() + "'";
+        List<Long> vehicleIds = vehicleRepository.findIdsByBrandId(brandId);
+        VehicleDeletionResult chunksResult = deleteVehicles(description, vehicleIds);
+        if (!chunksResult.isCanDelete()) {
+            return chunksResult;
+        }
+
+        // Only the models remain to cascade to
+        transactionTemplate.executeWithoutResult(status -> brandRepository.deleteById(brandId));
+        log.info("Successfully deleted vehicle brand '{}' and {} related vehicles",
+                brand.getName(), vehicleIds.size());
 
         return VehicleDeletionResult.success(
-                String.format("Brand '%s' and %d related vehicles deleted successfully", 
-                        brand.getName(), brandVehicles.size())
+                String.format("Brand '%s' and %d related vehicles deleted successfully",
+                        brand.getName(), vehicleIds.size())
         );
     }
 
     /**
-     * Safely delete a vehicle category with cascade validation
+     * Safely delete a vehicle category and its vehicles.
+     * Must not be called within a transaction, so that each chunk commits on its own.
      */
-    @Transactional
     public VehicleDeletionResult deleteCategory(Long categoryId) {
         log.info("Attempting to delete vehicle category with ID: {}", categoryId);
-        
+
         VehicleCategory category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new VehicleCategoryNotFoundException(categoryId));
 
-        // Get all vehicles for this category
-        List<Vehicle> categoryVehicles = vehicleRepository.findByCategoryId(categoryId);
-        
-        // Check for active reservations
-        VehicleDeletionResult validationResult = validateVehicleDeletion(categoryVehicles);
+        VehicleDeletionResult validationResult = validate(vehicleRepository.countReservationsByCategoryId(categoryId, ACTIVE_STATUSES));
         if (!validationResult.isCanDelete()) {
             log.warn("Cannot delete category '{}': {}", category.getName(), validationResult.getReason());
             return validationResult;
         }
 
-        // Safe to delete - cascade will handle vehicles
-        categoryRepository.deleteById(categoryId);
-        log.info("Successfully deleted vehicle category '{}' and {} related vehicles", 
-                category.getName(), categoryVehicles.size());
+        String description = "category '" + category.getName() + "'";
+        List<Long> vehicleIds = vehicleRepository.findIdsByCategoryId(categoryId);
+        VehicleDeletionResult chunksResult = deleteVehicles(description, vehicleIds);
+        if (!chunksResult.isCanDelete()) {
+            return chunksResult;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> categoryRepository.deleteById(categoryId));
+        log.info("Successfully deleted vehicle category '{}' and {} related vehicles",
+                category.getName(), vehicleIds.size());
 
         return VehicleDeletionResult.success(
-                String.format("Category '%s' and %d related vehicles deleted successfully", 
-                        category.getName(), categoryVehicles.size())
+                String.format("Category '%s' and %d related vehicles deleted successfully",
+                        category.getName(), vehicleIds.size())
         );
     }
 
     /**
-     * Safely delete a vehicle model with cascade validation
+     * Safely delete a vehicle model and its vehicles.
+     * Must not be called within a transaction, so that each chunk commits on its own.
      */
-    @Transactional
     public VehicleDeletionResult deleteModel(Long modelId) {
         log.info("Attempting to delete vehicle model with ID: {}", modelId);
-        
+
         VehicleModel model = modelRepository.findById(modelId)
                 .orElseThrow(() -> new VehicleModelNotFoundException(modelId));
 
-        // Get all vehicles for this model
-        List<Vehicle> modelVehicles = vehicleRepository.findByModelId(modelId);
-        
-        // Check for active reservations
-        VehicleDeletionResult validationResult = validateVehicleDeletion(modelVehicles);
+        VehicleDeletionResult validationResult = validate(vehicleRepository.countReservationsByModelId(modelId, ACTIVE_STATUSES));
         if (!validationResult.isCanDelete()) {
             log.warn("Cannot delete model '{}': {}", model.getName(), validationResult.getReason());
             return validationResult;
         }
 
-        // Safe to delete - cascade will handle vehicles
-        modelRepository.deleteById(modelId);
-        log.info("Successfully deleted vehicle model '{}' and {} related vehicles", 
-                model.getName(), modelVehicles.size());
+        String description = "model '" + model.getName() + "'";
+        List<Long> vehicleIds = vehicleRepository.findIdsByModelId(modelId);
+        VehicleDeletionResult chunksResult = deleteVehicles(description, vehicleIds);
+        if (!chunksResult.isCanDelete()) {
+            return chunksResult;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> modelRepository.deleteById(modelId));
+        log.info("Successfully deleted vehicle model '{}' and {} related vehicles",
+                model.getName(), vehicleIds.size());
 
         return VehicleDeletionResult.success(
-                String.format("Model '%s' and %d related vehicles deleted successfully", 
-                        model.getName(), modelVehicles.size())
+                String.format("Model '%s' and %d related vehicles deleted successfully",
+                        model.getName(), vehicleIds.size())
         );
     }
 
@@ -124,11 +161,12 @@ public class VehicleDeletionService {
     public VehicleDeletionResult deleteVehicle(Long vehicleId) {
         log.info("Attempting to delete vehicle with ID: {}", vehicleId);
         
-        Vehicle vehicle = vehicleRepository.findById(vehicleId)
+        // Lock the vehicle row as bookings do, so none can commit between the check and the delete
+        Vehicle vehicle = vehicleRepository.findByIdForUpdate(vehicleId)
                 .orElseThrow(() -> new VehicleNotFoundException(vehicleId));
 
         // Check for active reservations on this specific vehicle
-        VehicleDeletionResult validationResult = validateVehicleDeletion(List.of(vehicle));
+        VehicleDeletionResult validationResult = validate(vehicleRepository.countReservationsByVehicleIdIn(List.of(vehicleId), ACTIVE_STATUSES));
         if (!validationResult.isCanDelete()) {
             log.warn("Cannot delete vehicle '{}': {}", vehicle.getLicensePlate(), validationResult.getReason());
             return validationResult;
@@ -143,29 +181,50 @@ public class VehicleDeletionService {
     }
 
     /**
-     * Validate if vehicles can be safely deleted
+     * Deletes vehicles chunk by chunk, each chunk in its own transaction.
      */
-    private VehicleDeletionResult validateVehicleDeletion(List<Vehicle> vehicles) {
-        if (vehicles.isEmpty()) {
-            return VehicleDeletionResult.success("No vehicles to delete");
+    private VehicleDeletionResult deleteVehicles(String description, List<Long> vehicleIds) {
+        int deleted = 0;
+        for (int from = 0; from < vehicleIds.size(); from += chunkSize) {
+            List<Long> chunk = vehicleIds.subList(from, Math.min(from + chunkSize, vehicleIds.size()));
+            VehicleDeletionResult chunkResult = transactionTemplate.execute(status -> {
+                // Re-check within the chunk's transaction, in case a booking was made since the validation, holding
+                // the row locks bookings take so that none can commit before the chunk is deleted
+                vehicleRepository.findByIdInForUpdate(chunk);
+                VehicleDeletionResult validation = validate(vehicleRepository.countReservationsByVehicleIdIn(chunk, ACTIVE_STATUSES));
+                if (validation.isCanDelete()) {
+                    vehicleRepository.deleteWithDependentsByIdIn(chunk);
+                    eventPublisher.publishEvent(new VehiclesDeletedEvent(this, chunk));
+                }
+                return validation;
+            });
+            if (chunkResult == null || !chunkResult.isCanDelete()) {
+                log.warn("Stopped deleting the vehicles of {} after {} of {}: {}", description, deleted, vehicleIds.size(),
+                        chunkResult != null ? chunkResult.getReason() : "no result");
+                return chunkResult != null ? chunkResult : VehicleDeletionResult.failure("Deletion interrupted");
+            }
+            deleted += chunk.size();
+            log.info("Deleted {} of {} vehicles of {}", deleted, vehicleIds.size(), description);
         }
+        return VehicleDeletionResult.success("Deleted " + deleted + " vehicles");
+    }
 
-        // Check for active reservations (PENDING, CONFIRMED)
-        for (Vehicle vehicle : vehicles) {
-            long activeReservations = reservationRepository.countByVehicleIdAndStatusIn(
-                    vehicle.getId(), 
-                    List.of(ReservationStatus.PENDING, ReservationStatus.CONFIRMED)
-            );
-
-            if (activeReservations > 0) {
-                return VehicleDeletionResult.failure(
-                        String.format("Vehicle '%s' has %d active reservation(s). Cannot delete.", 
-                                vehicle.getLicensePlate(), activeReservations)
-                );
-            }
+    /**
+     * Validate if vehicles can be safely deleted, given their counts of active reservations
+     */
+    private static VehicleDeletionResult validate(List<VehicleReservationCount> activeReservations) {
+        if (activeReservations.isEmpty()) {
+            return VehicleDeletionResult.success("Safe to delete");
         }
+        VehicleReservationCount first = activeReservations.get(0);
+        return VehicleDeletionResult.failure(
+                String.format("Vehicle '%s' has %d active reservation(s). Cannot delete.",
+                        first.getLicensePlate(), first.getReservations())
+        );
+    }
 
-        return VehicleDeletionResult.success("Safe to delete");
+    private static int sum(List<VehicleReservationCount> counts) {
+        return (int) counts.stream().mapToLong(VehicleReservationCount::getReservations).sum();
     }
 
     /**
@@ -176,22 +235,14 @@ public class VehicleDeletionService {
         VehicleBrand brand = brandRepository.findById(brandId)
                 .orElseThrow(() -> new VehicleBrandNotFoundException(brandId));
 
-        List<Vehicle> affectedVehicles = vehicleRepository.findByBrandId(brandId);
-        List<VehicleModel> affectedModels = modelRepository.findByBrandId(brandId);
-        
-        long activeReservations = affectedVehicles.stream()
-                .mapToLong(vehicle -> reservationRepository.countByVehicleIdAndStatusIn(
-                        vehicle.getId(), 
-                        List.of(ReservationStatus.PENDING, ReservationStatus.CONFIRMED)
-                ))
-                .sum();
+        int activeReservations = sum(vehicleRepository.countReservationsByBrandId(brandId, ACTIVE_STATUSES));
 
         return VehicleDeletionImpact.builder()
                 .entityName(brand.getName())
                 .entityType("Brand")
-                .vehiclesAffected(affectedVehicles.size())
-                .modelsAffected(affectedModels.size())
-                .activeReservations((int) activeReservations)
+                .vehiclesAffected((int) vehicleRepository.countByBrandId(brandId))
+                .modelsAffected((int) modelRepository.countByBrandId(brandId))
+                .activeReservations(activeReservations)
                 .canDelete(activeReservations == 0)
                 .build();
     }
@@ -201,21 +252,14 @@ public class VehicleDeletionService {
         VehicleCategory category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new VehicleCategoryNotFoundException(categoryId));
 
-        List<Vehicle> affectedVehicles = vehicleRepository.findByCategoryId(categoryId);
-        
-        long activeReservations = affectedVehicles.stream()
-                .mapToLong(vehicle -> reservationRepository.countByVehicleIdAndStatusIn(
-                        vehicle.getId(), 
-                        List.of(ReservationStatus.PENDING, ReservationStatus.CONFIRMED)
-                ))
-                .sum();
+        int activeReservations = sum(vehicleRepository.countReservationsByCategoryId(categoryId, ACTIVE_STATUSES));
 
         return VehicleDeletionImpact.builder()
                 .entityName(category.getName())
                 .entityType("Category")
-                .vehiclesAffected(affectedVehicles.size())
+                .vehiclesAffected((int) vehicleRepository.countByCategoryId(categoryId))
                 .modelsAffected(0)
-                .activeReservations((int) activeReservations)
+                .activeReservations(activeReservations)
                 .canDelete(activeReservations == 0)
                 .build();
     }
@@ -225,21 +269,14 @@ public class VehicleDeletionService {
         VehicleModel model = modelRepository.findById(modelId)
                 .orElseThrow(() -> new VehicleModelNotFoundException(modelId));
 
-        List<Vehicle> affectedVehicles = vehicleRepository.findByModelId(modelId);
-        
-        long activeReservations = affectedVehicles.stream()
-                .mapToLong(vehicle -> reservationRepository.countByVehicleIdAndStatusIn(
-                        vehicle.getId(), 
-                        List.of(ReservationStatus.PENDING, ReservationStatus.CONFIRMED)
-                ))
-                .sum();
+        int activeReservations = sum(vehicleRepository.countReservationsByModelId(modelId, ACTIVE_STATUSES));
 
         return VehicleDeletionImpact.builder()
                 .entityName(model.getName())
                 .entityType("Model")
-                .vehiclesAffected(affectedVehicles.size())
+                .vehiclesAffected((int) vehicleRepository.countByModelId(modelId))
                 .modelsAffected(0)
-                .activeReservations((int) activeReservations)
+                .activeReservations(activeReservations)
                 .canDelete(activeReservations == 0)
                 .build();
     }
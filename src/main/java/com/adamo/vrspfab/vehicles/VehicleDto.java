@@ -16,6 +16,8 @@ public class VehicleDto {
     private String brandName;
     private Long modelId;
     private String modelName;
+    private Long pickupLocationId;
+    private String pickupLocationName;
 
     // Backward compatibility fields (for existing code)
     @NotBlank(message = "Brand cannot be blank")
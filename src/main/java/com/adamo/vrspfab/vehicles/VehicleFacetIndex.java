@@ -0,0 +1,438 @@
+package com.adamo.vrspfab.vehicles;
+
+import com.adamo.vrspfab.vehicles.exceptions.VehicleFacetsUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Columnar in-memory snapshot of the customer-visible fleet used to count the vehicle listing's facets:
+ * brand, category, fuel type, status and price band.
+ * <p>
+ * Every facet is counted in a single pass over the columns. Each facet ignores its own filter (so the
+ * other values of a selected facet keep their counts) while honouring all the others; a row failing
+ * exactly one facet filter therefore only counts towards that facet. Search text is resolved exactly as
+ * the listing resolves it: with the {@link VehicleSearchIndex}, or with the listing's SQL {@code LIKE}
+ * search while that index is not built. Vehicles without a year or mileage never satisfy a bound on it,
+ * as in SQL.
+ * <p>
+ * The snapshot is built on startup and kept current from {@link VehicleCatalogChangedEvent}s once their
+ * transaction has committed: a vehicle change patches that vehicle's row in place, and brand, model and
+ * category changes, which may toggle the visibility of many vehicles, patch the rows of their vehicles.
+ * Removed vehicles leave a free slot for the next addition, and the columns are only copied when they
+ * grow. Readers never lock; a count racing with a patch may see that one row half-updated. A count
+ * arriving before the startup build starts the build in the background instead of running it itself, and
+ * is answered with 503 Service Unavailable.
+ */
+@Component
+@Slf4j
+public class VehicleFacetIndex {
+
+    private static final FuelType[] FUEL_TYPES = FuelType.values();
+    private static final VehicleStatus[] STATUSES = VehicleStatus.values();
+
+    /** Year of a vehicle without one. */
+    private static final int NO_YEAR = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final VehicleRepository vehicleRepository;
+    private final VehicleSearchIndex vehicleSearchIndex;
+    private final Executor taskExecutor;
+    /** Ascending upper bounds of the price bands; the last band is open-ended. */
+    private final double[] priceBands;
+
+    /** Slot of each indexed vehicle in the columns. Guarded by {@code this}. */
+    private final Map<Long, Integer> slots = new HashMap<>();
+    /** Slots of removed vehicles, reused by the next additions. Guarded by {@code this}. */
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    /** Null until the first build succeeds; written again after every patch to publish it. */
+    private volatile Columns columns;
+
+    public VehicleFacetIndex(VehicleRepository vehicleRepository,
+                             VehicleSearchIndex vehicleSearchIndex,
+                             @Qualifier("taskExecutor") Executor taskExecutor,
+                             @Value("${vehicles.facets.price-bands:50,100,200,500}") double[] priceBands) {
+        this.vehicleRepository = vehicleRepository;
+        this.vehicleSearchIndex = vehicleSearchIndex;
+        this.taskExecutor = taskExecutor;
+        this.priceBands = priceBands.clone();
+        Arrays.sort(this.priceBands);
+    }
+
+    /**
+     * Rebuilds the snapshot from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<VehicleFacetRow> fresh;
+        try {
+            fresh = vehicleRepository.findFacetRows();
+        } catch (Exception e) {
+            log.warn("Could not build the vehicle facet index: {}", e.getMessage());
+            return;
+        }
+        Columns rebuilt = new Columns(Math.max(INITIAL_CAPACITY, fresh.size()));
+        slots.clear();
+        freeSlots.clear();
+        for (VehicleFacetRow row : fresh) {
+            slots.put(row.getId(), rebuilt.size);
+            rebuilt.set(rebuilt.size++, row);
+        }
+        columns = rebuilt;
+        log.info("Vehicle facet index built for {} vehicles", slots.size());
+    }
+
+    /**
+     * Applies a catalogue change once its transaction has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(VehicleCatalogChangedEvent event) {
+        if (columns == null || event.getId() == null) {
+            return;
+        }
+        Long id = event.getId();
+        switch (event.getKind()) {
+            case VEHICLE -> {
+                if (event.isRemoved()) {
+                    remove(List.of(id));
+                } else {
+                    reload(List.of(id));
+                }
+            }
+            case BRAND -> reload(vehicleRepository.findIdsByBrandId(id));
+            case MODEL -> reload(vehicleRepository.findIdsByModelId(id));
+            case CATEGORY -> reload(vehicleRepository.findIdsByCategoryId(id));
+        }
+    }
+
+    /**
+     * Adds the vehicles of a committed import chunk, loading their rows in one query.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVehiclesImported(VehiclesImportedEvent event) {
+        if (columns == null) {
+            return;
+        }
+        reload(event.getVehicleIds());
+    }
+
+    /**
+     * Drops the vehicles of a committed deletion chunk.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVehiclesDeleted(VehiclesDeletedEvent event) {
+        if (columns == null) {
+            return;
+        }
+        remove(event.getVehicleIds());
+    }
+
+    /**
+     * Reloads the rows of vehicles, dropping those that are gone or no longer customer-visible.
+     */
+    private void reload(List<Long> ids) {
+        Set<Long> gone = new HashSet<>(ids);
+        for (int from = 0; from < ids.size(); from += VehicleSpecification.MAX_IN_LIST_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + VehicleSpecification.MAX_IN_LIST_SIZE));
+            List<VehicleFacetRow> fresh = chunk.size() == 1
+                    ? vehicleRepository.findFacetRowById(chunk.get(0)).map(List::of).orElse(List.of())
+                    : vehicleRepository.findFacetRowsByIdIn(chunk);
+            for (VehicleFacetRow row : fresh) {
+                put(row);
+                gone.remove(row.getId());
+            }
+        }
+        remove(gone);
+    }
+
+    private void put(VehicleFacetRow row) {
+        Columns current = columns;
+        Integer slot = slots.get(row.getId());
+        if (slot == null) {
+            if (!freeSlots.isEmpty()) {
+                slot = freeSlots.pop();
+            } else {
+                if (current.size == current.capacity()) {
+                    current = current.grow();
+                }
+                slot = current.size++;
+            }
+            slots.put(row.getId(), slot);
+        }
+        current.set(slot, row);
+        columns = current;
+    }
+
+    private void remove(Collection<Long> ids) {
+        Columns current = columns;
+        for (Long id : ids) {
+            Integer slot = slots.remove(id);
+            if (slot != null) {
+                current.present[slot] = false;
+                freeSlots.push(slot);
+            }
+        }
+        columns = current;
+    }
+
+    /**
+     * Counts the customer vehicle listing per facet value.
+     *
+     * @param filter The customer filters, as passed to the listing.
+     * @return The facet counts; values without any matching vehicle are omitted.
+     * @throws VehicleFacetsUnavailableException if the snapshot is not built yet; its build is then started.
+     */
+    public VehicleFacetsDto count(VehicleFilter filter) {
+        Columns current = columns;
+        if (current == null) {
+            // A request arrived before the startup build; start it without holding up the request
+            if (building.compareAndSet(false, true)) {
+                taskExecutor.execute(() -> {
+                    try {
+                        rebuild();
+                    } finally {
+                        building.set(false);
+                    }
+                });
+            }
+            throw new VehicleFacetsUnavailableException("Vehicle facets are not available yet, please retry shortly.");
+        }
+
+        Set<Long> searchMatches = null;
+        if (filter.getSearch() != null && !filter.getSearch().trim().isEmpty()) {
+            List<Long> matches = vehicleSearchIndex.specificationFor(filter).getSearchMatches();
+            if (matches == null) {
+                // The listing searches with LIKE until the search index is built, so count the same vehicles
+                VehicleFilter search = VehicleFilter.builder().search(filter.getSearch()).build();
+                matches = vehicleRepository.findIds(new VehicleSpecification(search), Pageable.unpaged()).getContent();
+            }
+            searchMatches = new HashSet<>(matches);
+        }
+
+        Long brandId = filter.getBrandId();
+        Long categoryId = filter.getCategoryId();
+        Long modelId = filter.getModelId();
+        int fuelType = filter.getFuelType() != null && !filter.getFuelType().trim().isEmpty()
+                ? FuelType.valueOf(filter.getFuelType().toUpperCase()).ordinal() : -1;
+        int status = filter.getStatus() != null && !filter.getStatus().trim().isEmpty()
+                ? VehicleStatus.valueOf(filter.getStatus().toUpperCase()).ordinal() : -1;
+        boolean pricing = filter.getMinPrice() != null || filter.getMaxPrice() != null;
+        double minPrice = filter.getMinPrice() != null ? filter.getMinPrice() : Double.NEGATIVE_INFINITY;
+        double maxPrice = filter.getMaxPrice() != null ? filter.getMaxPrice() : Double.POSITIVE_INFINITY;
+        boolean yearBound = filter.getMinYear() != null || filter.getMaxYear() != null;
+        int minYear = filter.getMinYear() != null ? filter.getMinYear() : Integer.MIN_VALUE;
+        int maxYear = filter.getMaxYear() != null ? filter.getMaxYear() : Integer.MAX_VALUE;
+        boolean mileageBound = filter.getMinMileage() != null || filter.getMaxMileage() != null;
+        double minMileage = filter.getMinMileage() != null ? filter.getMinMileage() : Double.NEGATIVE_INFINITY;
+        double maxMileage = filter.getMaxMileage() != null ? filter.getMaxMileage() : Double.POSITIVE_INFINITY;
+
+        long total = 0;
+        Map<Long, Long> brandCounts = new HashMap<>();
+        Map<Long, Long> categoryCounts = new HashMap<>();
+        long[] fuelCounts = new long[FUEL_TYPES.length];
+        long[] statusCounts = new long[STATUSES.length];
+        long[] bandCounts = new long[priceBands.length + 1];
+
+        for (int i = 0; i < current.size; i++) {
+            if (!current.present[i]) {
+                continue;
+            }
+            // Non-faceted filters exclude the row from every facet
+            if (searchMatches != null && !searchMatches.contains(current.ids[i])) {
+                continue;
+            }
+            if (modelId != null && current.models[i] != modelId) {
+                continue;
+            }
+            // A vehicle without a year or mileage never satisfies a bound on it, as in SQL
+            if (yearBound && (current.years[i] == NO_YEAR || current.years[i] < minYear || current.years[i] > maxYear)) {
+                continue;
+            }
+            if (mileageBound && (Double.isNaN(current.mileages[i])
+                    || current.mileages[i] < minMileage || current.mileages[i] > maxMileage)) {
+                continue;
+            }
+
+            double price = current.prices[i];
+            boolean brandOk = brandId == null || current.brands[i] == brandId;
+            boolean categoryOk = categoryId == null || current.categories[i] == categoryId;
+            boolean fuelOk = fuelType < 0 || current.fuelTypes[i] == fuelType;
+            boolean statusOk = status < 0 || current.statuses[i] == status;
+            // A vehicle without a price never satisfies a price bound, as in SQL
+            boolean priceOk = !pricing || (!Double.isNaN(price) && price >= minPrice && price <= maxPrice);
+            int failed = (brandOk ? 0 : 1) + (categoryOk ? 0 : 1) + (fuelOk ? 0 : 1) + (statusOk ? 0 : 1) + (priceOk ? 0 : 1);
+            if (failed > 1) {
+                continue;
+            }
+            if (failed == 0) {
+                total++;
+            }
+            if (categoryOk && fuelOk && statusOk && priceOk) {
+                brandCounts.merge(current.brands[i], 1L, Long::sum);
+            }
+            if (brandOk && fuelOk && statusOk && priceOk) {
+                categoryCounts.merge(current.categories[i], 1L, Long::sum);
+            }
+            if (brandOk && categoryOk && statusOk && priceOk && current.fuelTypes[i] >= 0) {
+                fuelCounts[current.fuelTypes[i]]++;
+            }
+            if (brandOk && categoryOk && fuelOk && priceOk && current.statuses[i] >= 0) {
+                statusCounts[current.statuses[i]]++;
+            }
+            if (brandOk && categoryOk && fuelOk && statusOk && !Double.isNaN(price)) {
+                bandCounts[band(price)]++;
+            }
+        }
+
+        return VehicleFacetsDto.builder()
+                .total(total)
+                .brands(idCounts(brandCounts, current.brandNames))
+                .categories(idCounts(categoryCounts, current.categoryNames))
+                .fuelTypes(enumCounts(FUEL_TYPES, fuelCounts))
+                .statuses(enumCounts(STATUSES, statusCounts))
+                .priceBands(bandCounts(bandCounts))
+                .build();
+    }
+
+    private int band(double price) {
+        int band = 0;
+        while (band < priceBands.length && price >= priceBands[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    private static List<FacetCountDto> idCounts(Map<Long, Long> counts, Map<Long, String> names) {
+        List<FacetCountDto> facets = new ArrayList<>(counts.size());
+        counts.forEach((id, count) -> facets.add(new FacetCountDto(String.valueOf(id), names.get(id), count)));
+        facets.sort(Comparator.comparingLong(FacetCountDto::getCount).reversed()
+                .thenComparing(FacetCountDto::getLabel, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+        return facets;
+    }
+
+    private static List<FacetCountDto> enumCounts(Enum<?>[] values, long[] counts) {
+        List<FacetCountDto> facets = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            if (counts[i] > 0) {
+                facets.add(new FacetCountDto(values[i].name(), values[i].name(), counts[i]));
+            }
+        }
+        return facets;
+    }
+
+    private List<FacetCountDto> bandCounts(long[] counts) {
+        List<FacetCountDto> facets = new ArrayList<>();
+        for (int band = 0; band < counts.length; band++) {
+            if (counts[band] == 0) {
+                continue;
+            }
+            String from = band == 0 ? "0" : format(priceBands[band - 1]);
+            String value = band == priceBands.length ? from + "+" : from + "-" + format(priceBands[band]);
+            facets.add(new FacetCountDto(value, value, counts[band]));
+        }
+        return facets;
+    }
+
+    private static String format(double bound) {
+        return bound == Math.rint(bound) ? String.valueOf((long) bound) : String.valueOf(bound);
+    }
+
+    /**
+     * The facet rows laid out as parallel arrays over {@code size} slots, of which only the present ones
+     * hold a vehicle; fuel types and statuses hold enum ordinals, -1 for none, a missing price or mileage
+     * is NaN and a missing year {@link #NO_YEAR}. Written under the index's lock only.
+     */
+    private static final class Columns {
+
+        final long[] ids;
+        final boolean[] present;
+        final long[] brands;
+        final long[] categories;
+        final long[] models;
+        final byte[] fuelTypes;
+        final byte[] statuses;
+        final double[] prices;
+        final int[] years;
+        final double[] mileages;
+        final Map<Long, String> brandNames;
+        final Map<Long, String> categoryNames;
+        int size;
+
+        Columns(int capacity) {
+            this(capacity, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+
+        private Columns(int capacity, Map<Long, String> brandNames, Map<Long, String> categoryNames) {
+            ids = new long[capacity];
+            present = new boolean[capacity];
+            brands = new long[capacity];
+            categories = new long[capacity];
+            models = new long[capacity];
+            fuelTypes = new byte[capacity];
+            statuses = new byte[capacity];
+            prices = new double[capacity];
+            years = new int[capacity];
+            mileages = new double[capacity];
+            this.brandNames = brandNames;
+            this.categoryNames = categoryNames;
+        }
+
+        int capacity() {
+            return ids.length;
+        }
+
+        /** Copies the columns into twice the capacity. */
+        Columns grow() {
+            Columns grown = new Columns(capacity() * 2, brandNames, categoryNames);
+            System.arraycopy(ids, 0, grown.ids, 0, size);
+            System.arraycopy(present, 0, grown.present, 0, size);
+            System.arraycopy(brands, 0, grown.brands, 0, size);
+            System.arraycopy(categories, 0, grown.categories, 0, size);
+            System.arraycopy(models, 0, grown.models, 0, size);
+            System.arraycopy(fuelTypes, 0, grown.fuelTypes, 0, size);
+            System.arraycopy(statuses, 0, grown.statuses, 0, size);
+            System.arraycopy(prices, 0, grown.prices, 0, size);
+            System.arraycopy(years, 0, grown.years, 0, size);
+            System.arraycopy(mileages, 0, grown.mileages, 0, size);
+            grown.size = size;
+            return grown;
+        }
+
+        void set(int i, VehicleFacetRow row) {
+            brandNames.put(row.getBrandId(), row.getBrandName());
+            categoryNames.put(row.getCategoryId(), row.getCategoryName());
+            ids[i] = row.getId();
+            brands[i] = row.getBrandId();
+            categories[i] = row.getCategoryId();
+            models[i] = row.getModelId();
+            fuelTypes[i] = (byte) (row.getFuelType() != null ? row.getFuelType().ordinal() : -1);
+            statuses[i] = (byte) (row.getStatus() != null ? row.getStatus().ordinal() : -1);
+            prices[i] = row.getPricePerDay() != null ? row.getPricePerDay() : Double.NaN;
+            years[i] = row.getYear() != null ? row.getYear() : NO_YEAR;
+            mileages[i] = row.getMileage() != null ? row.getMileage() : Double.NaN;
+            present[i] = true;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.Value;
+
+/**
+ * Projection of the faceted attributes of a customer-visible vehicle, i.e. one whose brand, model and
+ * category are all active. Used to build the {@link VehicleFacetIndex} without loading vehicle graphs.
+ */
+@Value
+public class VehicleFacetRow {
+    Long id;
+    Long brandId;
+    String brandName;
+    Long modelId;
+    Long categoryId;
+    String categoryName;
+    FuelType fuelType;
+    VehicleStatus status;
+    Double pricePerDay;
+    Integer year;
+    Float mileage;
+}
@@ -0,0 +1,27 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Counts of the vehicle listing per facet value.
+ * <p>
+ * Each facet is counted with every filter applied except its own, so selecting a brand still shows how
+ * many vehicles the other brands would have. {@code total} applies every filter and matches the listing.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleFacetsDto {
+    private long total;
+    private List<FacetCountDto> brands;
+    private List<FacetCountDto> categories;
+    private List<FacetCountDto> fuelTypes;
+    private List<FacetCountDto> statuses;
+    private List<FacetCountDto> priceBands;
+}
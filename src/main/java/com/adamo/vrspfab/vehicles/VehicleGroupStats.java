@@ -0,0 +1,14 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.Value;
+
+/**
+ * Average daily price and number of distinct models of the vehicles of a category or brand, as grouped by
+ * {@link VehicleRepository#getStatsPerCategory()} and {@link VehicleRepository#getStatsPerBrand()}.
+ */
+@Value
+public class VehicleGroupStats {
+    Long groupId;
+    Double averagePrice;
+    Long modelCount;
+}
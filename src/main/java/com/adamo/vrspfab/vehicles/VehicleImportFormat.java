@@ -0,0 +1,44 @@
+package com.adamo.vrspfab.vehicles;
+
+import com.adamo.vrspfab.vehicles.exceptions.InvalidVehicleDataException;
+import org.springframework.http.MediaType;
+
+/**
+ * Formats accepted by the bulk vehicle import.
+ */
+public enum VehicleImportFormat {
+    /** Comma-separated values with a header row naming the {@code CreateVehicleDto} fields. */
+    CSV("text/csv"),
+    /** One {@code CreateVehicleDto} JSON object per line. */
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    VehicleImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Resolves the format of an upload from its content type.
+     *
+     * @param contentType The Content-Type header of the upload.
+     * @return The matching format.
+     * @throws InvalidVehicleDataException if the content type is missing or not supported.
+     */
+    public static VehicleImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType type = MediaType.parseMediaType(contentType);
+            for (VehicleImportFormat format : values()) {
+                if (type.isCompatibleWith(MediaType.parseMediaType(format.mediaType))) {
+                    return format;
+                }
+            }
+        }
+        throw new InvalidVehicleDataException("Unsupported import content type: " + contentType
+                + ". Use text/csv or application/x-ndjson.");
+    }
+}
@@ -0,0 +1,159 @@
+package com.adamo.vrspfab.vehicles;
+
+import com.adamo.vrspfab.vehicles.dto.CreateVehicleDto;
+import com.adamo.vrspfab.vehicles.exceptions.InvalidVehicleDataException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads an import upload one row at a time, so that files of any size are processed in constant memory.
+ * <p>
+ * CSV uploads start with a header row naming the {@link CreateVehicleDto} fields, in any order and case,
+ * with or without underscores ({@code license_plate} or {@code licensePlate}). Fields may be quoted with
+ * double quotes, but a row must fit on one line. NDJSON uploads hold one JSON object per line. Blank lines
+ * are skipped. A row that cannot be parsed is returned with its error instead of a DTO.
+ */
+class VehicleImportReader implements Closeable {
+
+    /** A parsed row: either {@code vehicle} or {@code error} is set. */
+    record Row(long line, CreateVehicleDto vehicle, String error) {
+    }
+
+    private static final Map<String, BiConsumer<CreateVehicleDto, String>> CSV_FIELDS = new HashMap<>();
+
+    static {
+        CSV_FIELDS.put("categoryid", (dto, value) -> dto.setCategoryId(Long.valueOf(value)));
+        CSV_FIELDS.put("brandid", (dto, value) -> dto.setBrandId(Long.valueOf(value)));
+        CSV_FIELDS.put("modelid", (dto, value) -> dto.setModelId(Long.valueOf(value)));
+        CSV_FIELDS.put("pickuplocationid", (dto, value) -> dto.setPickupLocationId(Long.valueOf(value)));
+        CSV_FIELDS.put("year", (dto, value) -> dto.setYear(Integer.valueOf(value)));
+        CSV_FIELDS.put("licenseplate", CreateVehicleDto::setLicensePlate);
+        CSV_FIELDS.put("fueltype", (dto, value) -> dto.setFuelType(FuelType.valueOf(value.toUpperCase(Locale.ROOT))));
+        CSV_FIELDS.put("status", (dto, value) -> dto.setStatus(VehicleStatus.valueOf(value.toUpperCase(Locale.ROOT))));
+        CSV_FIELDS.put("mileage", (dto, value) -> dto.setMileage(Float.valueOf(value)));
+        CSV_FIELDS.put("priceperday", (dto, value) -> dto.setPricePerDay(Double.valueOf(value)));
+        CSV_FIELDS.put("imageurl", CreateVehicleDto::setImageUrl);
+        CSV_FIELDS.put("description", CreateVehicleDto::setDescription);
+    }
+
+    private final BufferedReader reader;
+    private final VehicleImportFormat format;
+    private final ObjectReader jsonReader;
+    private List<String> header;
+    private long line;
+
+    VehicleImportReader(InputStream input, VehicleImportFormat format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+        this.jsonReader = objectMapper.readerFor(CreateVehicleDto.class);
+    }
+
+    /**
+     * Reads the next row.
+     *
+     * @return The next row, or null at the end of the upload.
+     * @throws InvalidVehicleDataException if the CSV header is missing or names unknown columns.
+     */
+    Row next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        if (format == VehicleImportFormat.NDJSON) {
+            try {
+                return new Row(line, jsonReader.readValue(text), null);
+            } catch (JsonProcessingException e) {
+                return new Row(line, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        if (header == null) {
+            header = parseHeader(text);
+            return next();
+        }
+        List<String> values = splitCsv(text);
+        if (values.size() != header.size()) {
+            return new Row(line, null, "Expected " + header.size() + " columns but found " + values.size());
+        }
+        CreateVehicleDto dto = new CreateVehicleDto();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            try {
+                CSV_FIELDS.get(header.get(i)).accept(dto, value);
+            } catch (IllegalArgumentException e) {
+                return new Row(line, null, "Invalid value '" + value + "' for column " + header.get(i));
+            }
+        }
+        return new Row(line, dto, null);
+    }
+
+    private static List<String> parseHeader(String text) {
+        List<String> columns = new ArrayList<>();
+        for (String column : splitCsv(text.replace("\uFEFF", ""))) {
+            String key = column.trim().replace("_", "").toLowerCase(Locale.ROOT);
+            if (!CSV_FIELDS.containsKey(key)) {
+                throw new InvalidVehicleDataException("Unknown import column: " + column.trim());
+            }
+            columns.add(key);
+        }
+        return columns;
+    }
+
+    /**
+     * Splits a CSV line on commas outside double quotes; a doubled quote inside quotes is a literal quote.
+     */
+    static List<String> splitCsv(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,343 @@
+package com.adamo.vrspfab.vehicles;
+
+import com.adamo.vrspfab.notifications.NotificationService;
+import com.adamo.vrspfab.notifications.NotificationType;
+import com.adamo.vrspfab.vehicles.dto.CreateVehicleDto;
+import com.adamo.vrspfab.vehicles.dto.VehicleImportErrorDto;
+import com.adamo.vrspfab.vehicles.dto.VehicleImportResultDto;
+import com.adamo.vrspfab.vehicles.exceptions.InvalidVehicleDataException;
+import com.adamo.vrspfab.vehicles.exceptions.PickupLocationNotFoundException;
+import com.adamo.vrspfab.vehicles.exceptions.VehicleBrandNotFoundException;
+import com.adamo.vrspfab.vehicles.exceptions.VehicleCategoryNotFoundException;
+import com.adamo.vrspfab.vehicles.exceptions.VehicleModelNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming bulk import of vehicles from CSV or NDJSON uploads.
+ * <p>
+ * The upload is read row by row and processed in chunks of {@code vehicles.import.chunk-size}. For each
+ * chunk, categories, brands, models and pickup locations not seen in earlier chunks are resolved with one {@code IN} query
+ * per table, license plates are checked against the database with a single {@code IN} query, and the valid
+ * rows are inserted with one JDBC batch in their own transaction. Vehicle IDs use {@code IDENTITY}
+ * generation, which keeps Hibernate from batching inserts, so rows are written with {@link JdbcTemplate}
+ * instead (see {@code rewriteBatchedStatements} in the datasource configuration).
+ * <p>
+ * Invalid rows are reported with their line and do not abort the import. If a chunk's batch fails, for
+ * instance because another request registered one of its plates in the meantime, its rows are retried one
+ * by one so that only the offending rows are rejected.
+ */
+@Service
+@Slf4j
+public class VehicleImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO vehicles (category_id, brand_id, model_id, pickup_location_id, "
+            + "year, license_plate, fuel_type, status, mileage, price_per_day, image_url, description, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final VehicleRepository vehicleRepository;
+    private final VehicleCategoryRepository vehicleCategoryRepository;
+    private final VehicleBrandRepository vehicleBrandRepository;
+    private final VehicleModelRepository vehicleModelRepository;
+    private final PickupLocationRepository pickupLocationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NotificationService notificationService;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public VehicleImportService(VehicleRepository vehicleRepository,
+                                VehicleCategoryRepository vehicleCategoryRepository,
+                                VehicleBrandRepository vehicleBrandRepository,
+                                VehicleModelRepository vehicleModelRepository,
+                                PickupLocationRepository pickupLocationRepository,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                ApplicationEventPublisher eventPublisher,
+                                NotificationService notificationService,
+                                @Value("${vehicles.import.chunk-size:500}") int chunkSize,
+                                @Value("${vehicles.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.vehicleRepository = vehicleRepository;
+        this.vehicleCategoryRepository = vehicleCategoryRepository;
+        this.vehicleBrandRepository = vehicleBrandRepository;
+        this.vehicleModelRepository = vehicleModelRepository;
+        this.pickupLocationRepository = pickupLocationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.notificationService = notificationService;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Imports the vehicles of an upload.
+     *
+     * @param input The upload, read incrementally.
+     * @param format The format of the upload.
+     * @return The number of rows read, imported and rejected, with the errors of the rejected rows.
+     * @throws InvalidVehicleDataException if the upload cannot be read or its CSV header is invalid.
+     */
+    public VehicleImportResultDto importVehicles(InputStream input, VehicleImportFormat format) {
+        long started = System.nanoTime();
+        ImportState state = new ImportState();
+        try (VehicleImportReader reader = new VehicleImportReader(input, format, objectMapper)) {
+            List<VehicleImportReader.Row> chunk = new ArrayList<>(chunkSize);
+            VehicleImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                state.totalRows++;
+                if (row.error() != null) {
+                    state.reject(row, row.error());
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, state);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, state);
+            }
+        } catch (IOException e) {
+            throw new InvalidVehicleDataException("Could not read the vehicle import: " + e.getMessage());
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Vehicle import finished in {} ms: {} rows, {} imported, {} rejected",
+                durationMs, state.totalRows, state.imported, state.failed);
+        if (state.imported > 0) {
+            try {
+                notificationService.notifyAllAdmins(
+                        NotificationType.GENERAL_UPDATE,
+                        "Bulk vehicle import completed: " + state.imported + " vehicles added to fleet, " + state.failed + " rows rejected",
+                        Map.of("vehicleCount", state.imported, "rejectedCount", state.failed)
+                );
+            } catch (Exception ignored) {
+                // Do not fail the import on notification issues
+            }
+        }
+        return VehicleImportResultDto.builder()
+                .totalRows(state.totalRows)
+                .imported(state.imported)
+                .failed(state.failed)
+                .errors(state.errors)
+                .durationMs(durationMs)
+                .build();
+    }
+
+    private void importChunk(List<VehicleImportReader.Row> chunk, ImportState state) {
+        List<VehicleImportReader.Row> candidates = new ArrayList<>(chunk.size());
+        for (VehicleImportReader.Row row : chunk) {
+            String error = validate(row.vehicle());
+            if (error == null) {
+                Long firstLine = state.lineByPlate.putIfAbsent(row.vehicle().getLicensePlate(), row.line());
+                if (firstLine != null) {
+                    error = "Duplicate license plate in the import, first seen on line " + firstLine;
+                }
+            }
+            if (error != null) {
+                state.reject(row, error);
+            } else {
+                candidates.add(row);
+            }
+        }
+
+        state.categories.resolve(candidates, CreateVehicleDto::getCategoryId, vehicleCategoryRepository::findAllById, VehicleCategory::getId);
+        state.brands.resolve(candidates, CreateVehicleDto::getBrandId, vehicleBrandRepository::findAllById, VehicleBrand::getId);
+        state.models.resolve(candidates, CreateVehicleDto::getModelId, vehicleModelRepository::findAllById, VehicleModel::getId);
+        state.pickupLocations.resolve(candidates, CreateVehicleDto::getPickupLocationId, pickupLocationRepository::findAllById, PickupLocation::getId);
+
+        Set<String> existingPlates = candidates.isEmpty() ? Set.of() : new HashSet<>(vehicleRepository.findExistingLicensePlates(
+                candidates.stream().map(row -> row.vehicle().getLicensePlate()).toList()));
+
+        List<VehicleImportReader.Row> valid = new ArrayList<>(candidates.size());
+        for (VehicleImportReader.Row row : candidates) {
+            CreateVehicleDto vehicle = row.vehicle();
+            String error;
+            if (state.categories.missing(vehicle.getCategoryId())) {
+                error = new VehicleCategoryNotFoundException(vehicle.getCategoryId()).getMessage();
+            } else if (state.brands.missing(vehicle.getBrandId())) {
+                error = new VehicleBrandNotFoundException(vehicle.getBrandId()).getMessage();
+            } else if (state.models.missing(vehicle.getModelId())) {
+                error = new VehicleModelNotFoundException(vehicle.getModelId()).getMessage();
+            } else if (state.pickupLocations.missing(vehicle.getPickupLocationId())) {
+                error = new PickupLocationNotFoundException(vehicle.getPickupLocationId()).getMessage();
+            } else if (existingPlates.contains(vehicle.getLicensePlate())) {
+                error = duplicatePlate(vehicle);
+            } else {
+                valid.add(row);
+                continue;
+            }
+            state.reject(row, error);
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, valid.stream().map(VehicleImportReader.Row::vehicle).toList(), valid.size(),
+                        (ps, vehicle) -> bind(ps, vehicle, now));
+                return vehicleRepository.findIdsByLicensePlateIn(valid.stream().map(row -> row.vehicle().getLicensePlate()).toList());
+            });
+            state.imported += valid.size();
+        } catch (DataAccessException e) {
+            log.warn("Batch insert of {} imported vehicles failed, retrying row by row: {}", valid.size(), e.getMostSpecificCause().getMessage());
+            ids = insertOneByOne(valid, now, state);
+        }
+        if (ids != null && !ids.isEmpty()) {
+            eventPublisher.publishEvent(new VehiclesImportedEvent(this, ids));
+        }
+    }
+
+    private List<Long> insertOneByOne(List<VehicleImportReader.Row> rows, Timestamp now, ImportState state) {
+        List<String> inserted = new ArrayList<>(rows.size());
+        for (VehicleImportReader.Row row : rows) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, row.vehicle(), now)));
+                inserted.add(row.vehicle().getLicensePlate());
+                state.imported++;
+            } catch (DuplicateKeyException e) {
+                state.reject(row, duplicatePlate(row.vehicle()));
+            } catch (DataAccessException e) {
+                state.reject(row, "Could not insert the vehicle: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+        return inserted.isEmpty() ? List.of() : vehicleRepository.findIdsByLicensePlateIn(inserted);
+    }
+
+    /**
+     * Applies the same bean constraints as the single-vehicle endpoints, including
+     * {@code @NotInFutureYear}, so imported rows cannot carry a year after the current one.
+     */
+    private String validate(CreateVehicleDto vehicle) {
+        if (vehicle == null) {
+            return "Empty row";
+        }
+        Set<ConstraintViolation<CreateVehicleDto>> violations = validator.validate(vehicle);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String duplicatePlate(CreateVehicleDto vehicle) {
+        return "A vehicle with license plate '" + vehicle.getLicensePlate() + "' already exists.";
+    }
+
+    private static void bind(PreparedStatement ps, CreateVehicleDto vehicle, Timestamp now) throws SQLException {
+        ps.setLong(1, vehicle.getCategoryId());
+        ps.setLong(2, vehicle.getBrandId());
+        ps.setLong(3, vehicle.getModelId());
+        if (vehicle.getPickupLocationId() == null) {
+            ps.setNull(4, Types.BIGINT);
+        } else {
+            ps.setLong(4, vehicle.getPickupLocationId());
+        }
+        ps.setInt(5, vehicle.getYear());
+        ps.setString(6, vehicle.getLicensePlate());
+        ps.setString(7, vehicle.getFuelType().name());
+        ps.setString(8, vehicle.getStatus().name());
+        ps.setFloat(9, vehicle.getMileage());
+        ps.setDouble(10, vehicle.getPricePerDay());
+        setNullableString(ps, 11, vehicle.getImageUrl());
+        setNullableString(ps, 12, vehicle.getDescription());
+        ps.setTimestamp(13, now);
+        ps.setTimestamp(14, now);
+    }
+
+    private static void setNullableString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null || value.isEmpty()) {
+            ps.setNull(index, Types.VARCHAR);
+        } else {
+            ps.setString(index, value);
+        }
+    }
+
+    /**
+     * Catalogue IDs resolved so far during an import, so each ID is looked up at most once.
+     */
+    private static final class KnownIds {
+        private final Set<Long> found = new HashSet<>();
+        private final Set<Long> missing = new HashSet<>();
+
+        <E> void resolve(Collection<VehicleImportReader.Row> rows, Function<CreateVehicleDto, Long> id,
+                         Function<Set<Long>, List<E>> finder, Function<E, Long> entityId) {
+            Set<Long> unknown = rows.stream()
+                    .map(row -> id.apply(row.vehicle()))
+                    .filter(Objects::nonNull)
+                    .filter(value -> !found.contains(value) && !missing.contains(value))
+                    .collect(Collectors.toSet());
+            if (unknown.isEmpty()) {
+                return;
+            }
+            finder.apply(unknown).forEach(entity -> found.add(entityId.apply(entity)));
+            unknown.stream().filter(value -> !found.contains(value)).forEach(missing::add);
+        }
+
+        boolean missing(Long id) {
+            return missing.contains(id);
+        }
+    }
+
+    private final class ImportState {
+        private long totalRows;
+        private long imported;
+        private long failed;
+        private final List<VehicleImportErrorDto> errors = new ArrayList<>();
+        private final Map<String, Long> lineByPlate = new HashMap<>();
+        private final KnownIds categories = new KnownIds();
+        private final KnownIds brands = new KnownIds();
+        private final KnownIds models = new KnownIds();
+        private final KnownIds pickupLocations = new KnownIds();
+
+        void reject(VehicleImportReader.Row row, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new VehicleImportErrorDto(row.line(),
+                        row.vehicle() != null ? row.vehicle().getLicensePlate() : null, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * In-memory spatial index of where bookable vehicles are picked up, answering "the K nearest free vehicles"
+ * without scanning the fleet.
+ * <p>
+ * Vehicles are bucketed into a grid of fixed-size latitude/longitude cells, the same partitioning a geohash
+ * of fixed precision gives but with integer cell coordinates, so the cells around a point are found by
+ * arithmetic. A search visits square rings of cells around the searched point, nearest first; after each
+ * ring, the vehicles closer than anything outside the visited square are final in distance order and are
+ * checked for availability, nearest first and in batches, until enough free ones are found. Only the rings
+ * up to the search radius are visited, and once the square spans more cells than are occupied, the occupied
+ * cells left are visited directly in order of their distance, so a sparse fleet of depots does not cost a
+ * walk through empty cells.
+ * <p>
+ * The grid is built on startup and kept current from catalogue events once their transaction has
+ * committed: a vehicle change reloads that vehicle's row, while brand, model, category and {@link PickupLocationChangedEvent pickup
+ * location} changes reload all rows. The grid is replaced copy-on-write so readers never lock.
+ */
+@Component
+@Slf4j
+public class VehicleLocationIndex {
+
+    /** Mean Earth radius. */
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /**
+     * A vehicle found by a search.
+     *
+     * @param distanceKm The great-circle distance from the searched point to the vehicle's pickup location.
+     */
+    public record Match(long vehicleId, long pickupLocationId, double latitude, double longitude, double distanceKm) {
+    }
+
+    private static final Comparator<Match> NEAREST_FIRST =
+            Comparator.comparingDouble(Match::distanceKm).thenComparingLong(Match::vehicleId);
+
+    private final VehicleRepository vehicleRepository;
+    private final double cellDegrees;
+
+    /** Rows by vehicle ID, the source the grid is derived from. Guarded by {@code this}. */
+    private final Map<Long, VehicleLocationRow> rows = new LinkedHashMap<>();
+
+    /** Null until the first build succeeds. */
+    private volatile Grid grid;
+
+    public VehicleLocationIndex(VehicleRepository vehicleRepository,
+                                @Value("${vehicles.locations.cell-degrees:0.05}") double cellDegrees) {
+        if (!(cellDegrees > 0 && cellDegrees <= 90)) {
+            throw new IllegalArgumentException("vehicles.locations.cell-degrees must be in (0, 90]");
+        }
+        this.vehicleRepository = vehicleRepository;
+        this.cellDegrees = cellDegrees;
+    }
+
+    /**
+     * Rebuilds the grid from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<VehicleLocationRow> fresh;
+        try {
+            fresh = vehicleRepository.findLocationRows();
+        } catch (Exception e) {
+            log.warn("Could not build the vehicle location index: {}", e.getMessage());
+            return;
+        }
+        rows.clear();
+        fresh.forEach(row -> rows.put(row.getId(), row));
+        grid = Grid.of(rows.values(), cellDegrees);
+        log.info("Vehicle location index built for {} vehicles in {} cells", rows.size(), grid.cells.size());
+    }
+
+    /**
+     * Applies a catalogue change once its transaction has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(VehicleCatalogChangedEvent event) {
+        if (grid == null || event.getId() == null) {
+            return;
+        }
+        if (event.getKind() != VehicleCatalogChangedEvent.Kind.VEHICLE) {
+            rebuild();
+            return;
+        }
+        Long id = event.getId();
+        if (event.isRemoved()) {
+            rows.remove(id);
+        } else {
+            vehicleRepository.findLocationRowById(id)
+                    .ifPresentOrElse(row -> rows.put(id, row), () -> rows.remove(id));
+        }
+        grid = Grid.of(rows.values(), cellDegrees);
+    }
+
+    /**
+     * Reloads all rows once a pickup location change has committed; it may move or hide many vehicles.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPickupLocationChanged(PickupLocationChangedEvent event) {
+        if (grid != null) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Adds the vehicles of a committed import chunk, loading their rows in one query.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVehiclesImported(VehiclesImportedEvent event) {
+        if (grid == null) {
+            return;
+        }
+        vehicleRepository.findLocationRowsByIdIn(event.getVehicleIds()).forEach(row -> rows.put(row.getId(), row));
+        grid = Grid.of(rows.values(), cellDegrees);
+    }
+
+    /**
+     * Drops the vehicles of a committed deletion chunk.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVehiclesDeleted(VehiclesDeletedEvent event) {
+        if (grid == null) {
+            return;
+        }
+        event.getVehicleIds().forEach(rows::remove);
+        grid = Grid.of(rows.values(), cellDegrees);
+    }
+
+    /**
+     * Finds the bookable vehicles nearest to a point that are free, nearest first.
+     *
+     * @param latitude The latitude of the point, in degrees.
+     * @param longitude The longitude of the point, in degrees.
+     * @param radiusKm Only vehicles at most this far are returned.
+     * @param limit The maximum number of vehicles to return.
+     * @param booked Given candidate vehicle IDs, returns those that are not free; called with the nearest
+     *               candidates first, in batches of about {@code limit} IDs.
+     * @return Up to {@code limit} free vehicles within the radius, by increasing distance then vehicle ID.
+     */
+    public List<Match> nearest(double latitude, double longitude, double radiusKm, int limit,
+                               Function<List<Long>, Set<Long>> booked) {
+        Grid current = grid;
+        if (current == null) {
+            // A request arrived before the startup build; build now rather than fail
+            rebuild();
+            current = grid;
+            if (current == null) {
+                throw new IllegalStateException("Vehicle locations are not available yet");
+            }
+        }
+        return current.search(latitude, longitude, radiusKm, limit, booked);
+    }
+
+    /**
+     * Great-circle distance between two points, by the haversine formula.
+     */
+    static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLat = Math.toRadians(latitude2 - latitude1);
+        double dLon = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * The rows bucketed by cell; cells hold their vehicles as parallel arrays.
+     */
+    static final class Grid {
+
+        private final double cellDegrees;
+        /** Number of cells around a parallel and along a meridian. */
+        private final int columns;
+        private final int rowCount;
+        private final Map<Long, Cell> cells;
+
+        private Grid(double cellDegrees, Map<Long, Cell> cells) {
+            this.cellDegrees = cellDegrees;
+            this.columns = (int) Math.ceil(360 / cellDegrees);
+            this.rowCount = (int) Math.ceil(180 / cellDegrees);
+            this.cells = cells;
+        }
+
+        static Grid of(Collection<VehicleLocationRow> rows, double cellDegrees) {
+            Grid shape = new Grid(cellDegrees, Map.of());
+            Map<Long, List<VehicleLocationRow>> byCell = new HashMap<>();
+            for (VehicleLocationRow row : rows) {
+                if (row.getLatitude() == null || row.getLongitude() == null) {
+                    continue;
+                }
+                long key = shape.key(shape.row(row.getLatitude()), shape.column(row.getLongitude()));
+                byCell.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+            }
+            Map<Long, Cell> cells = new HashMap<>(byCell.size() * 2);
+            byCell.forEach((key, members) -> cells.put(key, Cell.of(members)));
+            return new Grid(cellDegrees, cells);
+        }
+
+        int row(double latitude) {
+            return Math.min(rowCount - 1, Math.max(0, (int) Math.floor((latitude + 90) / cellDegrees)));
+        }
+
+        int column(double longitude) {
+            return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), columns);
+        }
+
+        private long key(int row, int column) {
+            return (long) row * columns + column;
+        }
+
+        List<Match> search(double latitude, double longitude, double radiusKm, int limit,
+                           Function<List<Long>, Set<Long>> booked) {
+            List<Match> found = new ArrayList<>(limit);
+            if (limit <= 0 || cells.isEmpty()) {
+                return found;
+            }
+            int centerRow = row(latitude);
+            int centerColumn = column(longitude);
+            PriorityQueue<Match> pending = new PriorityQueue<>(NEAREST_FIRST);
+            List<Match> ready = new ArrayList<>();
+
+            int ring = 0;
+            for (; (2L * ring + 1) * (2L * ring + 1) <= cells.size(); ring++) {
+                visitRing(ring, centerRow, centerColumn, latitude, longitude, radiusKm, pending);
+                double unvisitedKm = distanceOutside(ring, centerRow, centerColumn, latitude, longitude);
+                if (release(pending, ready, unvisitedKm, booked, found, limit)) {
+                    return found;
+                }
+                if (unvisitedKm > radiusKm) {
+                    keepFree(ready, booked, found, limit);
+                    return found;
+                }
+            }
+
+            // The square now spans more cells than are occupied: visit the occupied cells left, nearest first
+            PriorityQueue<CellBound> remaining = new PriorityQueue<>(Comparator.comparingDouble(CellBound::distanceKm));
+            for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                int cellRow = (int) (entry.getKey() / columns);
+                int cellColumn = (int) (entry.getKey() % columns);
+                if (ringOf(cellRow, cellColumn, centerRow, centerColumn) >= ring) {
+                    remaining.add(new CellBound(entry.getValue(), distanceToCell(cellRow, cellColumn, latitude, longitude)));
+                }
+            }
+            while (true) {
+                double unvisitedKm = remaining.isEmpty() ? Double.POSITIVE_INFINITY : remaining.peek().distanceKm();
+                if (release(pending, ready, unvisitedKm, booked, found, limit)) {
+                    return found;
+                }
+                if (unvisitedKm > radiusKm) {
+                    keepFree(ready, booked, found, limit);
+                    return found;
+                }
+                remaining.poll().cell().collect(latitude, longitude, radiusKm, pending);
+            }
+        }
+
+        /**
+         * Moves the pending vehicles nearer than anything not visited yet to {@code ready}, checking them
+         * whenever a batch is full.
+         *
+         * @return Whether enough free vehicles have been found.
+         */
+        private static boolean release(PriorityQueue<Match> pending, List<Match> ready, double unvisitedKm,
+                                       Function<List<Long>, Set<Long>> booked, List<Match> found, int limit) {
+            while (!pending.isEmpty() && pending.peek().distanceKm() <= unvisitedKm) {
+                ready.add(pending.poll());
+                if (ready.size() >= limit) {
+                    keepFree(ready, booked, found, limit);
+                    if (found.size() >= limit) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /** Moves the free vehicles among {@code ready} to {@code found}, in order, up to the limit. */
+        private static void keepFree(List<Match> ready, Function<List<Long>, Set<Long>> booked,
+                                     List<Match> found, int limit) {
+            if (ready.isEmpty()) {
+                return;
+            }
+            Set<Long> taken = booked.apply(ready.stream().map(Match::vehicleId).toList());
+            for (Match match : ready) {
+                if (found.size() < limit && !taken.contains(match.vehicleId())) {
+                    found.add(match);
+                }
+            }
+            ready.clear();
+        }
+
+        private void visitRing(int ring, int centerRow, int centerColumn, double latitude, double longitude,
+                               double radiusKm, PriorityQueue<Match> pending) {
+            int span = Math.min(2 * ring + 1, columns);
+            for (int dRow = -ring; dRow <= ring; dRow++) {
+                int cellRow = centerRow + dRow;
+                if (cellRow < 0 || cellRow >= rowCount) {
+                    continue;
+                }
+                boolean edgeRow = Math.abs(dRow) == ring;
+                for (int i = 0; i < span; i++) {
+                    int dColumn = i - ring;
+                    if (!edgeRow && Math.abs(dColumn) != ring) {
+                        continue;
+                    }
+                    int cellColumn = Math.floorMod(centerColumn + dColumn, columns);
+                    if (ringOf(cellRow, cellColumn, centerRow, centerColumn) != ring) {
+                        // Already visited from the other side of the antimeridian
+                        continue;
+                    }
+                    Cell cell = cells.get(key(cellRow, cellColumn));
+                    if (cell != null) {
+                        cell.collect(latitude, longitude, radiusKm, pending);
+                    }
+                }
+            }
+        }
+
+        /** The Chebyshev distance, in cells, between two cells, wrapping around the antimeridian. */
+        private int ringOf(int cellRow, int cellColumn, int centerRow, int centerColumn) {
+            int dColumn = Math.abs(cellColumn - centerColumn);
+            return Math.max(Math.abs(cellRow - centerRow), Math.min(dColumn, columns - dColumn));
+        }
+
+        /**
+         * A lower bound of the distance from the point to any location outside the square of cells visited
+         * up to the given ring: the distance to the nearest parallel or meridian bounding the square.
+         */
+        private double distanceOutside(int ring, int centerRow, int centerColumn, double latitude, double longitude) {
+            double south = (centerRow - ring) * cellDegrees - 90;
+            double north = (centerRow + ring + 1) * cellDegrees - 90;
+            double bound = Double.POSITIVE_INFINITY;
+            if (south > -90) {
+                bound = Math.min(bound, Math.toRadians(latitude - south) * EARTH_RADIUS_KM);
+            }
+            if (north < 90) {
+                bound = Math.min(bound, Math.toRadians(north - latitude) * EARTH_RADIUS_KM);
+            }
+            if (2 * ring + 1 < columns) {
+                double west = (centerColumn - ring) * cellDegrees - 180;
+                double east = (centerColumn + ring + 1) * cellDegrees - 180;
+                double degrees = Math.min(Math.min(longitude - west, east - longitude), 90);
+                // Distance from the point to the meridian that far away: sin(d / R) = cos(lat) * sin(dLon)
+                bound = Math.min(bound, EARTH_RADIUS_KM * Math.asin(
+                        Math.cos(Math.toRadians(latitude)) * Math.sin(Math.toRadians(degrees))));
+            }
+            return Math.max(0, bound);
+        }
+
+        /**
+         * A lower bound of the distance from the point to any location in a cell: the larger of the distances
+         * to the cell's nearest bounding parallel and meridian, each zero when the point lies between them.
+         */
+        private double distanceToCell(int cellRow, int cellColumn, double latitude, double longitude) {
+            double south = cellRow * cellDegrees - 90;
+            double north = south + cellDegrees;
+            double latitudeGap = latitude < south ? south - latitude : Math.max(0, latitude - north);
+            // How far east of the cell's west edge the point lies, in [0, 360)
+            double offset = (longitude - (cellColumn * cellDegrees - 180)) % 360;
+            if (offset < 0) {
+                offset += 360;
+            }
+            double longitudeGap = offset <= cellDegrees ? 0 : Math.min(Math.min(360 - offset, offset - cellDegrees), 90);
+            return Math.max(Math.toRadians(latitudeGap) * EARTH_RADIUS_KM, EARTH_RADIUS_KM * Math.asin(
+                    Math.cos(Math.toRadians(latitude)) * Math.sin(Math.toRadians(longitudeGap))));
+        }
+    }
+
+    private record CellBound(Cell cell, double distanceKm) {
+    }
+
+    /**
+     * The vehicles of one cell.
+     */
+    static final class Cell {
+
+        private final long[] vehicleIds;
+        private final long[] pickupLocationIds;
+        private final double[] latitudes;
+        private final double[] longitudes;
+
+        private Cell(int size) {
+            this.vehicleIds = new long[size];
+            this.pickupLocationIds = new long[size];
+            this.latitudes = new double[size];
+            this.longitudes = new double[size];
+        }
+
+        static Cell of(List<VehicleLocationRow> rows) {
+            // Keep the vehicles of a depot next to each other
+            rows.sort(Comparator.comparing(VehicleLocationRow::getLatitude).thenComparing(VehicleLocationRow::getLongitude));
+            Cell cell = new Cell(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                VehicleLocationRow row = rows.get(i);
+                cell.vehicleIds[i] = row.getId();
+                cell.pickupLocationIds[i] = row.getPickupLocationId();
+                cell.latitudes[i] = row.getLatitude();
+                cell.longitudes[i] = row.getLongitude();
+            }
+            return cell;
+        }
+
+        void collect(double latitude, double longitude, double radiusKm, PriorityQueue<Match> pending) {
+            double lastLatitude = Double.NaN;
+            double lastLongitude = Double.NaN;
+            double distance = 0;
+            for (int i = 0; i < vehicleIds.length; i++) {
+                // Vehicles of a depot share its coordinates; compute the distance once per run of them
+                if (latitudes[i] != lastLatitude || longitudes[i] != lastLongitude) {
+                    lastLatitude = latitudes[i];
+                    lastLongitude = longitudes[i];
+                    distance = distanceKm(latitude, longitude, lastLatitude, lastLongitude);
+                }
+                if (distance <= radiusKm) {
+                    pending.add(new Match(vehicleIds[i], pickupLocationIds[i], lastLatitude, lastLongitude, distance));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.Value;
+
+/**
+ * Projection of where a bookable vehicle is picked up: an {@code AVAILABLE} vehicle whose brand, model,
+ * category and pickup location are all active. Used to build the {@link VehicleLocationIndex}.
+ */
+@Value
+public class VehicleLocationRow {
+    Long id;
+    Long pickupLocationId;
+    Double latitude;
+    Double longitude;
+}
@@ -11,6 +11,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
+@EntityListeners(VehicleCatalogEntityListener.class)
 @Table(name = "vehicle_models")
 @Getter
 @Setter
@@ -18,6 +18,11 @@ public interface VehicleModelRepository extends JpaRepository<VehicleModel, Long
      * Find models by brand ID
      */
     List<VehicleModel> findByBrandId(Long brandId);
+
+    /**
+     * Count models by brand ID
+     */
+    long countByBrandId(Long brandId);
     
     /**
      * Find only active models for customer-facing interfaces.
@@ -31,4 +36,16 @@ public interface VehicleModelRepository extends JpaRepository<VehicleModel, Long
      */
     @Query("SELECT m FROM VehicleModel m WHERE m.brand.id = :brandId AND m.isActive = true AND m.brand.isActive = true")
     List<VehicleModel> findActiveModelsByBrandId(Long brandId);
+
+    /**
+     * Find all models with their brand, to map them outside a transaction.
+     */
+    @Query("SELECT m FROM VehicleModel m JOIN FETCH m.brand")
+    List<VehicleModel> findAllWithBrand();
+
+    @Query("SELECT m FROM VehicleModel m JOIN FETCH m.brand WHERE m.id = :id")
+    Optional<VehicleModel> findWithBrandById(Long id);
+
+    @Query("SELECT m FROM VehicleModel m JOIN FETCH m.brand WHERE m.brand.id = :brandId")
+    List<VehicleModel> findWithBrandByBrandId(Long brandId);
 }
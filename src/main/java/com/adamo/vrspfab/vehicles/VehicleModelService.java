@@ -17,6 +17,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -32,6 +33,8 @@ public class VehicleModelService {
     private final EnhancedVehicleModelMapper modelMapper;
     private final VehicleRepository vehicleRepository;
     private final ReservationRepository reservationRepository;
+    private final VehicleReferenceData referenceData;
+    private final VehicleDeletionService deletionService;
 
     @Transactional(readOnly = true)
     @Cacheable(value = "vehicleModels", key = "#pageable.pageNumber + '-' + #pageable.pageSize")
@@ -41,13 +44,11 @@ public class VehicleModelService {
         return modelsPage.map(modelMapper::toResponseDto);
     }
 
-    @Transactional(readOnly = true)
-    @Cacheable(value = "vehicleModels", key = "#id")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public VehicleModelResponseDto getModelById(Long id) {
         log.info("Fetching vehicle model with ID: {}", id);
-        VehicleModel model = modelRepository.findById(id)
+        return referenceData.snapshot().model(id)
                 .orElseThrow(() -> new VehicleModelNotFoundException(id));
-        return modelMapper.toResponseDto(model);
     }
 
     @CacheEvict(value = "vehicleModels", allEntries = true)
@@ -100,12 +101,18 @@ public class VehicleModelService {
     }
 
     @CacheEvict(value = "vehicleModels", allEntries = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteModel(Long id) {
         log.info("Deleting vehicle model with ID: {}", id);
         if (!modelRepository.existsById(id)) {
             throw new VehicleModelNotFoundException(id);
         }
-        modelRepository.deleteById(id);
+
+        // Use deletion service for chunked cascade delete
+        VehicleDeletionResult result = deletionService.deleteModel(id);
+        if (!result.isCanDelete()) {
+            throw new IllegalStateException(result.getReason());
+        }
         log.info("Vehicle model with ID {} deleted successfully", id);
     }
 
@@ -135,28 +142,18 @@ public class VehicleModelService {
      * Get only active models for customer-facing dropdowns and filters.
      * This ensures inactive models don't appear in booking interfaces.
      */
-    @Transactional(readOnly = true)
-    @Cacheable(value = "activeModels")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public java.util.List<VehicleModelResponseDto> getActiveModels() {
-        log.info("Fetching only active vehicle models for customer interface");
-        java.util.List<VehicleModel> activeModels = modelRepository.findByIsActiveTrue();
-        return activeModels.stream()
-                .map(modelMapper::toResponseDto)
-                .collect(java.util.stream.Collectors.toList());
+        return referenceData.snapshot().activeModels().items();
     }
 
     /**
      * Get active models for a specific brand for customer dropdowns.
      * Only returns models that are active AND belong to an active brand.
      */
-    @Transactional(readOnly = true)
-    @Cacheable(value = "activeModelsByBrand", key = "#brandId")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public java.util.List<VehicleModelResponseDto> getActiveModelsByBrandId(Long brandId) {
-        log.info("Fetching active vehicle models for brand ID: {}", brandId);
-        java.util.List<VehicleModel> activeModels = modelRepository.findActiveModelsByBrandId(brandId);
-        return activeModels.stream()
-                .map(modelMapper::toResponseDto)
-                .collect(java.util.stream.Collectors.toList());
+        return referenceData.snapshot().activeModelsByBrand(brandId).items();
     }
 
     /**
@@ -0,0 +1,275 @@
+package com.adamo.vrspfab.vehicles;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Two-level read-through cache of vehicle DTOs.
+ * <p>
+ * The entity level maps a vehicle ID to its DTO, per DTO class, and is invalidated per vehicle. The query
+ * level maps a listing query and page to the IDs of the page and the total, so cached listings are
+ * assembled from the entity level and only the vehicles missing from it are loaded, in one query.
+ * <p>
+ * Invalidation is driven by {@link VehicleCatalogChangedEvent}s once their transaction has committed: an
+ * updated vehicle evicts its DTOs and the cached pages listing it, while a created or removed vehicle, which
+ * changes the membership of every listing, drops all cached pages but keeps the other vehicles' DTOs. An
+ * update can also move a vehicle into a listing it was not part of; the short TTL of the query level bounds
+ * how long such a listing stays stale. Brand, model and category changes, which are rare and alter both
+ * the DTOs and the customer listings, clear both levels.
+ * <p>
+ * A load racing with an invalidation must not put back what was just evicted. Each invalidation first bumps
+ * a generation, per vehicle for the entity level and per cache for the query level; a load reads the
+ * generation before loading and, if it changed by the time the result is cached, evicts the result again.
+ */
+@Component
+public class VehicleReadCache {
+
+    private record EntityKey(Class<?> view, Long id) {
+    }
+
+    private record QueryKey(String query, Object parameters, Pageable pageable) {
+    }
+
+    private record IdPage(List<Long> ids, long total) {
+    }
+
+    private final Cache<EntityKey, Object> entities;
+    private final Cache<QueryKey, IdPage> queries;
+    /** The DTO classes cached so far, to evict every view of a vehicle. */
+    private final Set<Class<?>> views = ConcurrentHashMap.newKeySet();
+    /** Bumped before evicting a vehicle's DTOs. */
+    private final ConcurrentMap<Long, Long> vehicleGenerations = new ConcurrentHashMap<>();
+    /** Bumped before clearing the entity level. */
+    private final AtomicLong entityGeneration = new AtomicLong();
+    /** Bumped before evicting cached pages. */
+    private final AtomicLong queryGeneration = new AtomicLong();
+
+    private final Counter entityHits;
+    private final Counter entityMisses;
+    private final Counter queryHits;
+    private final Counter queryMisses;
+
+    public VehicleReadCache(MeterRegistry meterRegistry,
+                            @Value("${vehicles.cache.entity-ttl-minutes:15}") long entityTtlMinutes,
+                            @Value("${vehicles.cache.max-entities:10000}") long maxEntities,
+                            @Value("${vehicles.cache.query-ttl-seconds:60}") long queryTtlSeconds,
+                            @Value("${vehicles.cache.max-queries:1000}") long maxQueries) {
+        this.entities = Caffeine.newBuilder()
+                .maximumSize(maxEntities)
+                .expireAfterWrite(Duration.ofMinutes(entityTtlMinutes))
+                .build();
+        this.queries = Caffeine.newBuilder()
+                .maximumSize(maxQueries)
+                .expireAfterWrite(Duration.ofSeconds(queryTtlSeconds))
+                .build();
+        this.entityHits = requests(meterRegistry, "entity", "hit");
+        this.entityMisses = requests(meterRegistry, "entity", "miss");
+        this.queryHits = requests(meterRegistry, "query", "hit");
+        this.queryMisses = requests(meterRegistry, "query", "miss");
+        Gauge.builder("vehicles.cache.size", entities, Cache::estimatedSize)
+                .description("Entries of the vehicle read cache")
+                .tag("level", "entity")
+                .register(meterRegistry);
+        Gauge.builder("vehicles.cache.size", queries, Cache::estimatedSize)
+                .description("Entries of the vehicle read cache")
+                .tag("level", "query")
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String level, String result) {
+        return Counter.builder("vehicles.cache.requests")
+                .description("Lookups answered by the vehicle read cache")
+                .tag("level", level)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached DTO of a vehicle, loading it on a miss.
+     *
+     * @param view The DTO class.
+     * @param id The ID of the vehicle.
+     * @param loader Loads the DTO; exceptions such as a missing vehicle propagate and nothing is cached.
+     * @return The DTO of the vehicle.
+     */
+    public <T> T get(Class<T> view, Long id, Function<Long, T> loader) {
+        EntityKey key = new EntityKey(view, id);
+        Object cached = entities.getIfPresent(key);
+        if (cached != null) {
+            entityHits.increment();
+            return view.cast(cached);
+        }
+        entityMisses.increment();
+        long generation = generation(id);
+        T loaded = loader.apply(id);
+        if (loaded != null) {
+            views.add(view);
+            entities.put(key, loaded);
+            if (generation(id) != generation) {
+                entities.invalidate(key);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns a page of a vehicle listing, assembled from the cached IDs of the page and the cached DTOs.
+     *
+     * @param view The DTO class.
+     * @param query The name of the listing; listings with the same name must return the same IDs for the same parameters.
+     * @param parameters The listing's parameters, compared with {@code equals}.
+     * @param pageable The page.
+     * @param idLoader Loads a page of IDs of the listing on a query miss.
+     * @param loader Loads the DTOs of the given vehicles, by ID, on entity misses.
+     * @return The page of DTOs; vehicles removed since the IDs were cached are left out.
+     */
+    public <T> Page<T> page(Class<T> view, String query, Object parameters, Pageable pageable,
+                            Function<Pageable, Page<Long>> idLoader,
+                            Function<Collection<Long>, Map<Long, T>> loader) {
+        QueryKey queryKey = new QueryKey(query, parameters, pageable);
+        IdPage ids = queries.getIfPresent(queryKey);
+        if (ids != null) {
+            queryHits.increment();
+        } else {
+            queryMisses.increment();
+            long generation = queryGeneration.get();
+            Page<Long> loaded = idLoader.apply(pageable);
+            ids = new IdPage(List.copyOf(loaded.getContent()), loaded.getTotalElements());
+            queries.put(queryKey, ids);
+            if (queryGeneration.get() != generation) {
+                queries.invalidate(queryKey);
+            }
+        }
+
+        Map<Long, T> found = getAll(view, ids.ids(), loader);
+        List<T> content = new ArrayList<>(ids.ids().size());
+        for (Long id : ids.ids()) {
+            T dto = found.get(id);
+            if (dto != null) {
+                content.add(dto);
+            }
+        }
+        return new PageImpl<>(content, pageable, ids.total());
+    }
+
+    /**
+     * Returns the cached DTOs of the given vehicles, loading the missing ones in one call.
+     *
+     * @param view The DTO class.
+     * @param ids The IDs of the vehicles.
+     * @param loader Loads the DTOs of the given vehicles, by ID, on entity misses.
+     * @return The DTOs by vehicle ID; vehicles the loader does not return are left out.
+     */
+    public <T> Map<Long, T> getAll(Class<T> view, Collection<Long> ids, Function<Collection<Long>, Map<Long, T>> loader) {
+        Map<Long, T> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Object cached = entities.getIfPresent(new EntityKey(view, id));
+            if (cached != null) {
+                found.put(id, view.cast(cached));
+            } else {
+                missing.add(id);
+            }
+        }
+        entityHits.increment(found.size());
+        entityMisses.increment(missing.size());
+        if (!missing.isEmpty()) {
+            views.add(view);
+            Map<Long, Long> generations = new HashMap<>();
+            missing.forEach(id -> generations.put(id, generation(id)));
+            loader.apply(missing).forEach((id, dto) -> {
+                EntityKey key = new EntityKey(view, id);
+                entities.put(key, dto);
+                if (!generations.get(id).equals(generation(id))) {
+                    entities.invalidate(key);
+                }
+                found.put(id, dto);
+            });
+        }
+        return found;
+    }
+
+    /**
+     * Applies a catalogue change once its transaction has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(VehicleCatalogChangedEvent event) {
+        if (event.getKind() != VehicleCatalogChangedEvent.Kind.VEHICLE) {
+            entityGeneration.incrementAndGet();
+            entities.invalidateAll();
+            invalidateQueries();
+            return;
+        }
+        Long id = event.getId();
+        if (id == null) {
+            return;
+        }
+        invalidate(List.of(id));
+        if (event.isCreated() || event.isRemoved()) {
+            invalidateQueries();
+        } else {
+            queryGeneration.incrementAndGet();
+            queries.asMap().values().removeIf(page -> page.ids().contains(id));
+        }
+    }
+
+    /**
+     * Drops the cached listings once an import chunk has committed; the new vehicles have no cached DTOs yet.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVehiclesImported(VehiclesImportedEvent event) {
+        invalidateQueries();
+    }
+
+    /**
+     * Evicts the vehicles of a committed deletion chunk and drops the cached listings.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVehiclesDeleted(VehiclesDeletedEvent event) {
+        invalidate(event.getVehicleIds());
+        invalidateQueries();
+    }
+
+    /**
+     * The generation of a vehicle's DTOs; it changes whenever they are evicted. Both counters only grow, so
+     * their sum changes whenever either does.
+     */
+    private long generation(Long id) {
+        return entityGeneration.get() + vehicleGenerations.getOrDefault(id, 0L);
+    }
+
+    private void invalidate(Collection<Long> ids) {
+        List<EntityKey> keys = new ArrayList<>();
+        for (Long id : ids) {
+            vehicleGenerations.merge(id, 1L, Long::sum);
+            views.forEach(view -> keys.add(new EntityKey(view, id)));
+        }
+        entities.invalidateAll(keys);
+    }
+
+    private void invalidateQueries() {
+        queryGeneration.incrementAndGet();
+        queries.invalidateAll();
+    }
+}
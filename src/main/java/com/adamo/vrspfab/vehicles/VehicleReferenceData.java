@@ -0,0 +1,362 @@
+package com.adamo.vrspfab.vehicles;
+
+import com.adamo.vrspfab.vehicles.dto.VehicleBrandResponseDto;
+import com.adamo.vrspfab.vehicles.dto.VehicleCategoryResponseDto;
+import com.adamo.vrspfab.vehicles.dto.VehicleModelResponseDto;
+import com.adamo.vrspfab.vehicles.mappers.EnhancedVehicleBrandMapper;
+import com.adamo.vrspfab.vehicles.mappers.EnhancedVehicleCategoryMapper;
+import com.adamo.vrspfab.vehicles.mappers.EnhancedVehicleModelMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory snapshot of the reference data vehicles point to: brands, categories and models.
+ * <p>
+ * Readers take the current {@link Snapshot} without locking; a snapshot is immutable and is replaced as a
+ * whole, so a reader always sees one consistent version. It is built on startup and kept current from
+ * {@link VehicleCatalogChangedEvent}s once their transaction has committed, which covers every write of
+ * {@link VehicleBrandService}, {@link VehicleCategoryService}, {@link VehicleModelService} and the cascades
+ * of {@link VehicleDeletionService}: a removal is applied in memory, a creation or update reloads that row
+ * (a brand also reloads its models, which carry its name).
+ * <p>
+ * Changes made on other instances are picked up by a periodic full reload; until then, a reference to a
+ * brand, category or model the snapshot does not hold is loaded from the database and added to it.
+ * <p>
+ * The DTOs handed out are shared by all readers and must not be modified.
+ */
+@Component
+@Slf4j
+public class VehicleReferenceData {
+
+    /**
+     * A listing with its ETag, derived from the content so that it is stable across restarts and instances.
+     */
+    public record Listing<T>(List<T> items, String etag) {
+
+        static <T> Listing<T> of(List<T> items) {
+            List<T> copy = List.copyOf(items);
+            return new Listing<>(copy, Integer.toHexString(copy.hashCode()) + "-" + copy.size());
+        }
+    }
+
+    /**
+     * An immutable version of the reference data.
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final Map<Long, VehicleBrandResponseDto> brands;
+        private final Map<Long, VehicleCategoryResponseDto> categories;
+        private final Map<Long, VehicleModelResponseDto> models;
+        private final Listing<VehicleBrandResponseDto> activeBrands;
+        private final Listing<VehicleCategoryResponseDto> activeCategories;
+        private final Listing<VehicleModelResponseDto> activeModels;
+        private final Map<Long, Listing<VehicleModelResponseDto>> activeModelsByBrand;
+
+        Snapshot(long version,
+                 Map<Long, VehicleBrandResponseDto> brands,
+                 Map<Long, VehicleCategoryResponseDto> categories,
+                 Map<Long, VehicleModelResponseDto> models) {
+            this.version = version;
+            this.brands = Map.copyOf(brands);
+            this.categories = Map.copyOf(categories);
+            this.models = Map.copyOf(models);
+            this.activeBrands = Listing.of(active(brands, VehicleBrandResponseDto::getIsActive, VehicleBrandResponseDto::getId));
+            this.activeCategories = Listing.of(active(categories, VehicleCategoryResponseDto::getIsActive, VehicleCategoryResponseDto::getId));
+            List<VehicleModelResponseDto> visibleModels = active(models, VehicleModelResponseDto::getIsActive, VehicleModelResponseDto::getId);
+            this.activeModels = Listing.of(visibleModels);
+            // Per brand, only the models of an active brand are listed
+            this.activeModelsByBrand = visibleModels.stream()
+                    .filter(model -> activeBrand(model.getBrandId()))
+                    .collect(Collectors.groupingBy(VehicleModelResponseDto::getBrandId, Collectors.toList()))
+                    .entrySet().stream()
+                    .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> Listing.of(entry.getValue())));
+        }
+
+        private static <T> List<T> active(Map<Long, T> entries, Function<T, Boolean> isActive,
+                                          Function<T, Long> id) {
+            return entries.values().stream()
+                    .filter(entry -> Boolean.TRUE.equals(isActive.apply(entry)))
+                    .sorted(Comparator.comparing(id))
+                    .toList();
+        }
+
+        private boolean activeBrand(Long brandId) {
+            VehicleBrandResponseDto brand = brands.get(brandId);
+            return brand != null && Boolean.TRUE.equals(brand.getIsActive());
+        }
+
+        /** Incremented on every change, starting at 1 for the first build. */
+        public long version() {
+            return version;
+        }
+
+        public Optional<VehicleBrandResponseDto> brand(Long id) {
+            return Optional.ofNullable(id == null ? null : brands.get(id));
+        }
+
+        public Optional<VehicleCategoryResponseDto> category(Long id) {
+            return Optional.ofNullable(id == null ? null : categories.get(id));
+        }
+
+        public Optional<VehicleModelResponseDto> model(Long id) {
+            return Optional.ofNullable(id == null ? null : models.get(id));
+        }
+
+        public Listing<VehicleBrandResponseDto> activeBrands() {
+            return activeBrands;
+        }
+
+        public Listing<VehicleCategoryResponseDto> activeCategories() {
+            return activeCategories;
+        }
+
+        public Listing<VehicleModelResponseDto> activeModels() {
+            return activeModels;
+        }
+
+        /**
+         * The active models of a brand, empty when the brand is inactive or unknown.
+         */
+        public Listing<VehicleModelResponseDto> activeModelsByBrand(Long brandId) {
+            Listing<VehicleModelResponseDto> listing = activeModelsByBrand.get(brandId);
+            return listing != null ? listing : Listing.of(List.of());
+        }
+
+        /**
+         * A detached brand carrying the snapshot's fields, to reference from a vehicle without loading the row.
+         */
+        public Optional<VehicleBrand> brandReference(Long id) {
+            return brand(id).map(brand -> VehicleBrand.builder()
+                    .id(brand.getId())
+                    .name(brand.getName())
+                    .description(brand.getDescription())
+                    .logoUrl(brand.getLogoUrl())
+                    .countryOfOrigin(brand.getCountryOfOrigin())
+                    .isActive(brand.getIsActive())
+                    .build());
+        }
+
+        /**
+         * A detached category carrying the snapshot's fields, to reference from a vehicle without loading the row.
+         */
+        public Optional<VehicleCategory> categoryReference(Long id) {
+            return category(id).map(category -> VehicleCategory.builder()
+                    .id(category.getId())
+                    .name(category.getName())
+                    .description(category.getDescription())
+                    .iconUrl(category.getIconUrl())
+                    .isActive(category.getIsActive())
+                    .build());
+        }
+
+        /**
+         * A detached model carrying the snapshot's fields, to reference from a vehicle without loading the row.
+         */
+        public Optional<VehicleModel> modelReference(Long id) {
+            return model(id).map(model -> VehicleModel.builder()
+                    .id(model.getId())
+                    .name(model.getName())
+                    .brand(brandReference(model.getBrandId()).orElse(null))
+                    .description(model.getDescription())
+                    .isActive(model.getIsActive())
+                    .build());
+        }
+    }
+
+    private final VehicleBrandRepository brandRepository;
+    private final VehicleCategoryRepository categoryRepository;
+    private final VehicleModelRepository modelRepository;
+    private final EnhancedVehicleBrandMapper brandMapper;
+    private final EnhancedVehicleCategoryMapper categoryMapper;
+    private final EnhancedVehicleModelMapper modelMapper;
+
+    /** The source the snapshots are built from. Guarded by {@code this}. */
+    private final Map<Long, VehicleBrandResponseDto> brands = new HashMap<>();
+    private final Map<Long, VehicleCategoryResponseDto> categories = new HashMap<>();
+    private final Map<Long, VehicleModelResponseDto> models = new HashMap<>();
+
+    /** Null until the first build succeeds. */
+    private volatile Snapshot snapshot;
+
+    public VehicleReferenceData(VehicleBrandRepository brandRepository,
+                                VehicleCategoryRepository categoryRepository,
+                                VehicleModelRepository modelRepository,
+                                EnhancedVehicleBrandMapper brandMapper,
+                                EnhancedVehicleCategoryMapper categoryMapper,
+                                EnhancedVehicleModelMapper modelMapper) {
+        this.brandRepository = brandRepository;
+        this.categoryRepository = categoryRepository;
+        this.modelRepository = modelRepository;
+        this.brandMapper = brandMapper;
+        this.categoryMapper = categoryMapper;
+        this.modelMapper = modelMapper;
+    }
+
+    /**
+     * Returns the current snapshot, building it first if the startup build has not happened or failed.
+     *
+     * @throws IllegalStateException if the reference data cannot be loaded.
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+            if (current == null) {
+                throw new IllegalStateException("Vehicle reference data is not available yet");
+            }
+        }
+        return current;
+    }
+
+    /**
+     * A detached brand to reference from a vehicle, from the snapshot or, for a brand the snapshot does not
+     * hold yet (created on another instance, say), from the database, adding it to the snapshot.
+     */
+    public Optional<VehicleBrand> brandReference(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Optional<VehicleBrand> reference = snapshot().brandReference(id);
+        return reference.isPresent() ? reference : loadMissing(() -> {
+            Optional<VehicleBrand> brand = brandRepository.findById(id);
+            brand.ifPresent(found -> brands.put(id, brandMapper.toResponseDto(found)));
+            return brand.isPresent();
+        }).brandReference(id);
+    }
+
+    /**
+     * A detached category to reference from a vehicle, from the snapshot or, on a miss, from the database,
+     * adding it to the snapshot.
+     */
+    public Optional<VehicleCategory> categoryReference(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Optional<VehicleCategory> reference = snapshot().categoryReference(id);
+        return reference.isPresent() ? reference : loadMissing(() -> {
+            Optional<VehicleCategory> category = categoryRepository.findById(id);
+            category.ifPresent(found -> categories.put(id, categoryMapper.toResponseDto(found)));
+            return category.isPresent();
+        }).categoryReference(id);
+    }
+
+    /**
+     * A detached model to reference from a vehicle, from the snapshot or, on a miss, from the database,
+     * adding it and its brand to the snapshot.
+     */
+    public Optional<VehicleModel> modelReference(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Optional<VehicleModel> reference = snapshot().modelReference(id);
+        return reference.isPresent() ? reference : loadMissing(() -> {
+            Optional<VehicleModel> model = modelRepository.findWithBrandById(id);
+            model.ifPresent(found -> {
+                models.put(id, modelMapper.toResponseDto(found));
+                brands.put(found.getBrand().getId(), brandMapper.toResponseDto(found.getBrand()));
+            });
+            return model.isPresent();
+        }).modelReference(id);
+    }
+
+    /**
+     * Runs a loader adding a missing row to the source maps, and publishes a new snapshot if it found one.
+     */
+    private synchronized Snapshot loadMissing(Supplier<Boolean> loader) {
+        if (loader.get()) {
+            publish();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reloads all reference data from the database, on startup and then periodically, to pick up the
+     * changes made on other instances.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${vehicles.reference-data.refresh-interval-ms:300000}",
+               initialDelayString = "${vehicles.reference-data.refresh-interval-ms:300000}")
+    public synchronized void rebuild() {
+        List<VehicleBrand> freshBrands;
+        List<VehicleCategory> freshCategories;
+        List<VehicleModel> freshModels;
+        try {
+            freshBrands = brandRepository.findAll();
+            freshCategories = categoryRepository.findAll();
+            freshModels = modelRepository.findAllWithBrand();
+        } catch (Exception e) {
+            log.warn("Could not load the vehicle reference data: {}", e.getMessage());
+            return;
+        }
+        brands.clear();
+        categories.clear();
+        models.clear();
+        freshBrands.forEach(brand -> brands.put(brand.getId(), brandMapper.toResponseDto(brand)));
+        freshCategories.forEach(category -> categories.put(category.getId(), categoryMapper.toResponseDto(category)));
+        freshModels.forEach(model -> models.put(model.getId(), modelMapper.toResponseDto(model)));
+        publish();
+        log.info("Vehicle reference data loaded: {} brands, {} categories, {} models",
+                brands.size(), categories.size(), models.size());
+    }
+
+    /**
+     * Applies a brand, category or model change once its transaction has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(VehicleCatalogChangedEvent event) {
+        if (snapshot == null || event.getId() == null || event.getKind() == VehicleCatalogChangedEvent.Kind.VEHICLE) {
+            return;
+        }
+        Long id = event.getId();
+        switch (event.getKind()) {
+            case BRAND -> {
+                if (event.isRemoved()) {
+                    brands.remove(id);
+                    models.values().removeIf(model -> id.equals(model.getBrandId()));
+                } else {
+                    brandRepository.findById(id).ifPresentOrElse(
+                            brand -> brands.put(id, brandMapper.toResponseDto(brand)),
+                            () -> brands.remove(id));
+                    models.values().removeIf(model -> id.equals(model.getBrandId()));
+                    modelRepository.findWithBrandByBrandId(id)
+                            .forEach(model -> models.put(model.getId(), modelMapper.toResponseDto(model)));
+                }
+            }
+            case CATEGORY -> reload(categories, id, event.isRemoved(),
+                    () -> categoryRepository.findById(id).map(categoryMapper::toResponseDto));
+            case MODEL -> reload(models, id, event.isRemoved(),
+                    () -> modelRepository.findWithBrandById(id).map(modelMapper::toResponseDto));
+            default -> throw new IllegalArgumentException("Not reference data: " + event.getKind());
+        }
+        publish();
+    }
+
+    private static <T> void reload(Map<Long, T> entries, Long id, boolean removed,
+                                   Supplier<Optional<T>> loader) {
+        if (removed) {
+            entries.remove(id);
+        } else {
+            loader.get().ifPresentOrElse(entry -> entries.put(id, entry), () -> entries.remove(id));
+        }
+    }
+
+    private void publish() {
+        Snapshot previous = snapshot;
+        snapshot = new Snapshot(previous == null ? 1 : previous.version() + 1, brands, categories, models);
+    }
+}
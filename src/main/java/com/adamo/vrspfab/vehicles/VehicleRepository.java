@@ -1,14 +1,19 @@
 package com.adamo.vrspfab.vehicles;
 
+import com.adamo.vrspfab.reservations.ReservationStatus;
+import jakarta.persistence.LockModeType;
 import lombok.NonNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,7 +22,7 @@ import java.util.Optional;
  * Provides advanced searching and filtering capabilities.
  */
 @Repository
-public interface VehicleRepository extends JpaRepository<Vehicle, Long>, JpaSpecificationExecutor<Vehicle> {
+public interface VehicleRepository extends JpaRepository<Vehicle, Long>, JpaSpecificationExecutor<Vehicle>, VehicleRepositoryCustom {
 
     /**
      * Finds a vehicle by its unique license plate.
@@ -27,6 +32,154 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long>, JpaSpec
      */
     Optional<Vehicle> findByLicensePlate(String licensePlate);
 
+    /**
+     * Finds a vehicle by its ID together with its brand, category and model, in a single query.
+     *
+     * @param id The vehicle ID.
+     * @return An Optional containing the vehicle, or empty if not found.
+     */
+    @EntityGraph(attributePaths = {"brand", "category", "model"})
+    Optional<Vehicle> findWithCatalogById(Long id);
+
+    /**
+     * Fetches the listing columns of the given vehicles, joined with their brand, model, category and pickup
+     * location names in a single query.
+     *
+     * @param ids The vehicle IDs.
+     * @return The card rows found, in no particular order.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleCardRow(v.id, c.id, c.name, b.id, b.name, m.id, m.name, p.id, p.name, " +
+            "v.year, v.licensePlate, v.fuelType, v.status, v.mileage, v.pricePerDay, v.imageUrl, v.createdAt, v.updatedAt) " +
+            "FROM Vehicle v LEFT JOIN v.category c LEFT JOIN v.brand b LEFT JOIN v.model m LEFT JOIN v.pickupLocation p " +
+            "WHERE v.id IN :ids")
+    List<VehicleCardRow> findCardRowsByIdIn(Collection<Long> ids);
+
+    /**
+     * Fetches the searchable text of every vehicle with its brand, model and category names.
+     * Used to build the in-memory {@link VehicleSearchIndex}.
+     *
+     * @return One search document per vehicle.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleSearchDocument(v.id, v.licensePlate, v.description, " +
+            "b.id, b.name, m.id, m.name, c.id, c.name) " +
+            "FROM Vehicle v LEFT JOIN v.brand b LEFT JOIN v.model m LEFT JOIN v.category c")
+    List<VehicleSearchDocument> findSearchDocuments();
+
+    /**
+     * Fetches the searchable text of a single vehicle.
+     *
+     * @param id The vehicle ID.
+     * @return An Optional containing the search document, or empty if not found.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleSearchDocument(v.id, v.licensePlate, v.description, " +
+            "b.id, b.name, m.id, m.name, c.id, c.name) " +
+            "FROM Vehicle v LEFT JOIN v.brand b LEFT JOIN v.model m LEFT JOIN v.category c WHERE v.id = :id")
+    Optional<VehicleSearchDocument> findSearchDocumentById(Long id);
+
+    /**
+     * Fetches the searchable text of the given vehicles.
+     *
+     * @param ids The vehicle IDs.
+     * @return The search documents of the vehicles found.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleSearchDocument(v.id, v.licensePlate, v.description, " +
+            "b.id, b.name, m.id, m.name, c.id, c.name) " +
+            "FROM Vehicle v LEFT JOIN v.brand b LEFT JOIN v.model m LEFT JOIN v.category c WHERE v.id IN :ids")
+    List<VehicleSearchDocument> findSearchDocumentsByIdIn(Collection<Long> ids);
+
+    /**
+     * Fetches the faceted attributes of every vehicle whose brand, model and category are active.
+     *
+     * @return The facet rows of all customer-visible vehicles.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleFacetRow(v.id, b.id, b.name, m.id, c.id, c.name, " +
+            "v.fuelType, v.status, v.pricePerDay, v.year, v.mileage) " +
+            "FROM Vehicle v JOIN v.brand b JOIN v.model m JOIN v.category c " +
+            "WHERE b.isActive = true AND m.isActive = true AND c.isActive = true")
+    List<VehicleFacetRow> findFacetRows();
+
+    /**
+     * Fetches the faceted attributes of a single vehicle if it is customer-visible.
+     *
+     * @param id The vehicle ID.
+     * @return An Optional containing the facet row, or empty if not found or not visible to customers.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleFacetRow(v.id, b.id, b.name, m.id, c.id, c.name, " +
+            "v.fuelType, v.status, v.pricePerDay, v.year, v.mileage) " +
+            "FROM Vehicle v JOIN v.brand b JOIN v.model m JOIN v.category c " +
+            "WHERE v.id = :id AND b.isActive = true AND m.isActive = true AND c.isActive = true")
+    Optional<VehicleFacetRow> findFacetRowById(Long id);
+
+    /**
+     * Fetches the faceted attributes of the given vehicles that are customer-visible.
+     *
+     * @param ids The vehicle IDs.
+     * @return The facet rows of the visible vehicles among them.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleFacetRow(v.id, b.id, b.name, m.id, c.id, c.name, " +
+            "v.fuelType, v.status, v.pricePerDay, v.year, v.mileage) " +
+            "FROM Vehicle v JOIN v.brand b JOIN v.model m JOIN v.category c " +
+            "WHERE v.id IN :ids AND b.isActive = true AND m.isActive = true AND c.isActive = true")
+    List<VehicleFacetRow> findFacetRowsByIdIn(Collection<Long> ids);
+
+    /**
+     * Fetches the pickup coordinates of every bookable vehicle: available, at an active pickup location,
+     * and with an active brand, model and category.
+     *
+     * @return The location rows of all bookable vehicles.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleLocationRow(v.id, p.id, p.latitude, p.longitude) " +
+            "FROM Vehicle v JOIN v.pickupLocation p JOIN v.brand b JOIN v.model m JOIN v.category c " +
+            "WHERE v.status = 'AVAILABLE' AND p.isActive = true " +
+            "AND b.isActive = true AND m.isActive = true AND c.isActive = true")
+    List<VehicleLocationRow> findLocationRows();
+
+    /**
+     * Fetches the pickup coordinates of a single vehicle if it is bookable.
+     *
+     * @param id The vehicle ID.
+     * @return The location row, or empty if the vehicle is not bookable or has no pickup location.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleLocationRow(v.id, p.id, p.latitude, p.longitude) " +
+            "FROM Vehicle v JOIN v.pickupLocation p JOIN v.brand b JOIN v.model m JOIN v.category c " +
+            "WHERE v.id = :id AND v.status = 'AVAILABLE' AND p.isActive = true " +
+            "AND b.isActive = true AND m.isActive = true AND c.isActive = true")
+    Optional<VehicleLocationRow> findLocationRowById(Long id);
+
+    /**
+     * Fetches the pickup coordinates of the given vehicles that are bookable.
+     *
+     * @param ids The vehicle IDs.
+     * @return The location rows of the bookable vehicles among them.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleLocationRow(v.id, p.id, p.latitude, p.longitude) " +
+            "FROM Vehicle v JOIN v.pickupLocation p JOIN v.brand b JOIN v.model m JOIN v.category c " +
+            "WHERE v.id IN :ids AND v.status = 'AVAILABLE' AND p.isActive = true " +
+            "AND b.isActive = true AND m.isActive = true AND c.isActive = true")
+    List<VehicleLocationRow> findLocationRowsByIdIn(Collection<Long> ids);
+
+    /**
+     * Loads a vehicle while taking a pessimistic write lock on its row ({@code SELECT ... FOR UPDATE}).
+     * Used to serialize bookings of the same vehicle across application instances.
+     *
+     * @param id The vehicle ID.
+     * @return An Optional containing the locked vehicle, or empty if not found.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Vehicle v WHERE v.id = :id")
+    Optional<Vehicle> findByIdForUpdate(Long id);
+
+    /**
+     * Loads vehicles while taking a pessimistic write lock on their rows, in ID order, the same lock
+     * bookings take through {@link #findByIdForUpdate(Long)}.
+     *
+     * @param ids The vehicle IDs.
+     * @return The locked vehicles that exist.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Vehicle v WHERE v.id IN :ids ORDER BY v.id")
+    List<Vehicle> findByIdInForUpdate(Collection<Long> ids);
+
 
     /**
      * Finds all vehicles with a year within a specified range, with pagination.
@@ -56,6 +209,24 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long>, JpaSpec
 
     boolean existsByLicensePlate(String licensePlate);
 
+    /**
+     * Returns which of the given license plates are already registered, in a single query.
+     *
+     * @param licensePlates The license plates to check.
+     * @return The license plates among them that belong to an existing vehicle.
+     */
+    @Query("SELECT v.licensePlate FROM Vehicle v WHERE v.licensePlate IN :licensePlates")
+    List<String> findExistingLicensePlates(Collection<String> licensePlates);
+
+    /**
+     * Finds the IDs of the vehicles with the given license plates.
+     *
+     * @param licensePlates The license plates.
+     * @return The IDs of the vehicles found.
+     */
+    @Query("SELECT v.id FROM Vehicle v WHERE v.licensePlate IN :licensePlates")
+    List<Long> findIdsByLicensePlateIn(Collection<String> licensePlates);
+
     /**
      * Counts the number of vehicles with a specific status.
      *
@@ -91,6 +262,73 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long>, JpaSpec
      */
     List<Vehicle> findByModelId(Long modelId);
 
+    /**
+     * Finds the IDs of the vehicles of a brand, without loading them.
+     */
+    @Query("SELECT v.id FROM Vehicle v WHERE v.brand.id = :brandId ORDER BY v.id")
+    List<Long> findIdsByBrandId(Long brandId);
+
+    /**
+     * Finds the IDs of the vehicles of a category, without loading them.
+     */
+    @Query("SELECT v.id FROM Vehicle v WHERE v.category.id = :categoryId ORDER BY v.id")
+    List<Long> findIdsByCategoryId(Long categoryId);
+
+    /**
+     * Finds the IDs of the vehicles of a model, without loading them.
+     */
+    @Query("SELECT v.id FROM Vehicle v WHERE v.model.id = :modelId ORDER BY v.id")
+    List<Long> findIdsByModelId(Long modelId);
+
+    /**
+     * Counts, per vehicle of a brand, its reservations in the given statuses, in one grouped query.
+     *
+     * @return One entry per vehicle with at least one such reservation, ordered by vehicle ID.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleReservationCount(v.id, v.licensePlate, COUNT(r)) " +
+           "FROM Reservation r JOIN r.vehicle v " +
+           "WHERE v.brand.id = :brandId AND r.status IN :statuses " +
+           "GROUP BY v.id, v.licensePlate ORDER BY v.id")
+    List<VehicleReservationCount> countReservationsByBrandId(Long brandId, Collection<ReservationStatus> statuses);
+
+    /**
+     * Counts, per vehicle of a category, its reservations in the given statuses, in one grouped query.
+     *
+     * @return One entry per vehicle with at least one such reservation, ordered by vehicle ID.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleReservationCount(v.id, v.licensePlate, COUNT(r)) " +
+           "FROM Reservation r JOIN r.vehicle v " +
+           "WHERE v.category.id = :categoryId AND r.status IN :statuses " +
+           "GROUP BY v.id, v.licensePlate ORDER BY v.id")
+    List<VehicleReservationCount> countReservationsByCategoryId(Long categoryId, Collection<ReservationStatus> statuses);
+
+    /**
+     * Counts, per vehicle of a model, its reservations in the given statuses, in one grouped query.
+     *
+     * @return One entry per vehicle with at least one such reservation, ordered by vehicle ID.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleReservationCount(v.id, v.licensePlate, COUNT(r)) " +
+           "FROM Reservation r JOIN r.vehicle v " +
+           "WHERE v.model.id = :modelId AND r.status IN :statuses " +
+           "GROUP BY v.id, v.licensePlate ORDER BY v.id")
+    List<VehicleReservationCount> countReservationsByModelId(Long modelId, Collection<ReservationStatus> statuses);
+
+    /**
+     * Counts, per vehicle among the given ones, its reservations in the given statuses, in one grouped query.
+     *
+     * @return One entry per vehicle with at least one such reservation, ordered by vehicle ID.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleReservationCount(v.id, v.licensePlate, COUNT(r)) " +
+           "FROM Reservation r JOIN r.vehicle v " +
+           "WHERE v.id IN :vehicleIds AND r.status IN :statuses " +
+           "GROUP BY v.id, v.licensePlate ORDER BY v.id")
+    List<VehicleReservationCount> countReservationsByVehicleIdIn(Collection<Long> vehicleIds, Collection<ReservationStatus> statuses);
+
+    /**
+     * Count vehicles by model ID
+     */
+    long countByModelId(Long modelId);
+
     /**
      * Count vehicles by category ID
      */
@@ -131,6 +369,15 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long>, JpaSpec
     @Query("SELECT AVG(v.pricePerDay) FROM Vehicle v WHERE v.brand.id = :brandId")
     BigDecimal getAveragePriceByBrandId(Long brandId);
 
+    /**
+     * Counts vehicles per category, brand and status in one grouped query.
+     *
+     * @return One entry per combination with at least one vehicle.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleStatusCount(v.category.id, v.brand.id, v.status, COUNT(v)) " +
+           "FROM Vehicle v GROUP BY v.category.id, v.brand.id, v.status")
+    List<VehicleStatusCount> countByCategoryBrandAndStatus();
+
     /**
      * Count distinct models
      */
@@ -143,6 +390,27 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long>, JpaSpec
     @Query("SELECT COUNT(DISTINCT v.model.id) FROM Vehicle v WHERE v.brand.id = :brandId")
     int countDistinctModelsByBrandId(Long brandId);
 
+    /**
+     * Average daily price and distinct model count of the vehicles of every category, in one grouped query.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleGroupStats(v.category.id, AVG(v.pricePerDay), COUNT(DISTINCT v.model.id)) " +
+           "FROM Vehicle v GROUP BY v.category.id")
+    List<VehicleGroupStats> getStatsPerCategory();
+
+    /**
+     * Average daily price and distinct model count of the vehicles of every brand, in one grouped query.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleGroupStats(v.brand.id, AVG(v.pricePerDay), COUNT(DISTINCT v.model.id)) " +
+           "FROM Vehicle v GROUP BY v.brand.id")
+    List<VehicleGroupStats> getStatsPerBrand();
+
+    /**
+     * Average approved testimonial rating of every brand with at least one, in one grouped query.
+     */
+    @Query("SELECT new com.adamo.vrspfab.vehicles.VehicleBrandRating(v.brand.id, AVG(t.rating)) FROM Testimonial t " +
+           "JOIN t.vehicle v WHERE t.approved = true GROUP BY v.brand.id")
+    List<VehicleBrandRating> getAverageRatingPerBrand();
+
     /**
      * Get average rating by brand using testimonials
      */
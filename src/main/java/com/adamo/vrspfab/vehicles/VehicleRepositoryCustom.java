@@ -0,0 +1,33 @@
+package com.adamo.vrspfab.vehicles;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Custom queries of {@link VehicleRepository}.
+ */
+public interface VehicleRepositoryCustom {
+
+    /**
+     * Finds a page of the IDs of the vehicles matching a specification, without loading the vehicles.
+     *
+     * @param spec The specification to match.
+     * @param pageable The page, including its sort; ties are broken by ID.
+     * @return A page of vehicle IDs in the requested order.
+     */
+    Page<Long> findIds(Specification<Vehicle> spec, Pageable pageable);
+
+    /**
+     * Deletes vehicles together with the rows depending on them, with one bulk statement per table instead
+     * of cascading through the entity graph: the bookmarks, payments and slots of their reservations, the
+     * reservations, favorites and testimonials, then the vehicles. Entity listeners are not invoked and the
+     * persistence context is not updated.
+     *
+     * @param vehicleIds The IDs of the vehicles to delete.
+     * @return The number of vehicles deleted.
+     */
+    int deleteWithDependentsByIdIn(Collection<Long> vehicleIds);
+}
@@ -0,0 +1,93 @@
+package com.adamo.vrspfab.vehicles;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Criteria implementation of {@link VehicleRepositoryCustom}.
+ */
+class VehicleRepositoryCustomImpl implements VehicleRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Long> findIds(Specification<Vehicle> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Vehicle> root = query.from(Vehicle.class);
+        query.select(root.get("id"));
+        applySpecification(spec, root, query, cb);
+
+        Sort sort = pageable.getSort();
+        List<Order> orders = new ArrayList<>(QueryUtils.toOrders(sort, root, cb));
+        if (sort.getOrderFor("id") == null) {
+            // Tie-breaker so that rows with equal sort keys never move between pages
+            orders.add(cb.asc(root.get("id")));
+        }
+        query.orderBy(orders);
+
+        TypedQuery<Long> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(spec));
+    }
+
+    @Override
+    public int deleteWithDependentsByIdIn(Collection<Long> vehicleIds) {
+        if (vehicleIds.isEmpty()) {
+            return 0;
+        }
+        // Children first, so that no statement violates a foreign key
+        String reservationIds = "SELECT r.id FROM Reservation r WHERE r.vehicle.id IN :ids";
+        bulk("DELETE FROM Bookmark b WHERE b.reservation.id IN (" + reservationIds + ")", vehicleIds);
+        bulk("DELETE FROM Payment p WHERE p.reservation.id IN (" + reservationIds + ")", vehicleIds);
+        bulk("DELETE FROM Slot s WHERE s.vehicle.id IN :ids OR s.reservation.id IN (" + reservationIds + ")", vehicleIds);
+        bulk("DELETE FROM Reservation r WHERE r.vehicle.id IN :ids", vehicleIds);
+        bulk("DELETE FROM Favorite f WHERE f.vehicle.id IN :ids", vehicleIds);
+        bulk("DELETE FROM Testimonial t WHERE t.vehicle.id IN :ids", vehicleIds);
+        return bulk("DELETE FROM Vehicle v WHERE v.id IN :ids", vehicleIds);
+    }
+
+    private int bulk(String statement, Collection<Long> vehicleIds) {
+        return entityManager.createQuery(statement).setParameter("ids", vehicleIds).executeUpdate();
+    }
+
+    private long count(Specification<Vehicle> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Vehicle> root = query.from(Vehicle.class);
+        query.select(cb.count(root));
+        applySpecification(spec, root, query, cb);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static void applySpecification(Specification<Vehicle> spec, Root<Vehicle> root,
+                                           CriteriaQuery<?> query, CriteriaBuilder cb) {
+        if (spec == null) {
+            return;
+        }
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.Value;
+
+/**
+ * Projection of the number of reservations of a vehicle, as returned by the grouped counts of
+ * {@link VehicleRepository} used to analyse deletions without loading vehicles.
+ */
+@Value
+public class VehicleReservationCount {
+    Long vehicleId;
+    String licensePlate;
+    Long reservations;
+}
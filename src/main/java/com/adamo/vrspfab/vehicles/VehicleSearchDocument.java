@@ -0,0 +1,32 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.Value;
+
+/**
+ * Projection of the searchable text of a vehicle and its catalogue entries.
+ * Used to build the {@link VehicleSearchIndex} without loading vehicle graphs.
+ */
+@Value
+public class VehicleSearchDocument {
+    Long id;
+    String licensePlate;
+    String description;
+    Long brandId;
+    String brandName;
+    Long modelId;
+    String modelName;
+    Long categoryId;
+    String categoryName;
+
+    VehicleSearchDocument withBrandName(String name) {
+        return new VehicleSearchDocument(id, licensePlate, description, brandId, name, modelId, modelName, categoryId, categoryName);
+    }
+
+    VehicleSearchDocument withModelName(String name) {
+        return new VehicleSearchDocument(id, licensePlate, description, brandId, brandName, modelId, name, categoryId, categoryName);
+    }
+
+    VehicleSearchDocument withCategoryName(String name) {
+        return new VehicleSearchDocument(id, licensePlate, description, brandId, brandName, modelId, modelName, categoryId, name);
+    }
+}
@@ -0,0 +1,475 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the searchable text of the fleet: license plate, description and
+ * brand, model and category names.
+ * <p>
+ * Text is folded to lower-case ASCII and split into terms. A query token matches a term exactly, as a
+ * prefix, as an infix (found through the terms' trigrams, which keeps the substring semantics of the
+ * former {@code LIKE %term%} search) or, when nothing else matches, approximately: terms sharing enough
+ * trigrams with the token and within one or two edits of it. Every token of the query must match; a
+ * vehicle's score is the sum over tokens of its best match, weighted by the field the term came from.
+ * <p>
+ * The index is built on startup and kept current from {@link VehicleCatalogChangedEvent}s once their
+ * transaction has committed. Listings list the matches best match first, checking them against the other
+ * filters a page-sized window at a time, unless a sort is requested; sorted listings pass the best matches
+ * to the database in a single ID list. Until the index is built they fall back to the SQL search.
+ */
+@Component
+@Slf4j
+public class VehicleSearchIndex {
+
+    static final int PLATE_WEIGHT = 5;
+    static final int BRAND_WEIGHT = 4;
+    static final int MODEL_WEIGHT = 4;
+    static final int CATEGORY_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final double EXACT = 1.0;
+    private static final double PREFIX = 0.75;
+    private static final double INFIX = 0.5;
+    private static final double FUZZY = 0.4;
+
+    /** Smallest number of ranked matches checked against the other filters per statement. */
+    static final int MIN_MATCH_WINDOW = 50;
+
+    private static final int GRAM = 3;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final double MIN_FUZZY_SIMILARITY = 0.4;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final VehicleRepository vehicleRepository;
+
+    /** Null until the first build succeeds. */
+    private volatile Index index;
+
+    public VehicleSearchIndex(VehicleRepository vehicleRepository) {
+        this.vehicleRepository = vehicleRepository;
+    }
+
+    /**
+     * Rebuilds the index from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<VehicleSearchDocument> documents;
+        try {
+            documents = vehicleRepository.findSearchDocuments();
+        } catch (Exception e) {
+            log.warn("Could not build the vehicle search index: {}", e.getMessage());
+            return;
+        }
+        Index fresh = new Index();
+        documents.forEach(fresh::add);
+        index = fresh;
+        log.info("Vehicle search index built for {} vehicles with {} terms", documents.size(), fresh.postings.size());
+    }
+
+    /**
+     * Applies a catalogue change once its transaction has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(VehicleCatalogChangedEvent event) {
+        Index current = index;
+        if (current == null || event.getId() == null) {
+            return;
+        }
+        Long id = event.getId();
+        String name = event.isRemoved() ? null : event.getName();
+        switch (event.getKind()) {
+            case VEHICLE -> {
+                if (event.isRemoved()) {
+                    current.remove(id);
+                } else {
+                    vehicleRepository.findSearchDocumentById(id)
+                            .ifPresentOrElse(current::add, () -> current.remove(id));
+                }
+            }
+            case BRAND -> current.replaceWhere(doc -> id.equals(doc.getBrandId()), doc -> doc.withBrandName(name));
+            case MODEL -> current.replaceWhere(doc -> id.equals(doc.getModelId()), doc -> doc.withModelName(name));
+            case CATEGORY -> current.replaceWhere(doc -> id.equals(doc.getCategoryId()), doc -> doc.withCategoryName(name));
+        }
+    }
+
+    /**
+     * Adds the vehicles of a committed import chunk, loading their documents in one query.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVehiclesImported(VehiclesImportedEvent event) {
+        Index current = index;
+        if (current == null) {
+            return;
+        }
+        vehicleRepository.findSearchDocumentsByIdIn(event.getVehicleIds()).forEach(current::add);
+    }
+
+    /**
+     * Removes the vehicles of a committed deletion chunk.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVehiclesDeleted(VehiclesDeletedEvent event) {
+        Index current = index;
+        if (current == null) {
+            return;
+        }
+        event.getVehicleIds().forEach(current::remove);
+    }
+
+    /**
+     * Searches the fleet.
+     *
+     * @param text The search text.
+     * @return The IDs of the matching vehicles, best match first; empty if the index is not built yet.
+     */
+    public List<Long> search(String text) {
+        Index current = index;
+        return current != null ? current.search(text) : List.of();
+    }
+
+    /**
+     * Builds the customer vehicle specification for a filter, resolving its search text with the index.
+     *
+     * @param filter The customer filters.
+     * @return The specification.
+     */
+    public VehicleSpecification specificationFor(VehicleFilter filter) {
+        if (filter.getSearch() == null || filter.getSearch().isBlank()) {
+            return new VehicleSpecification(filter);
+        }
+        Index current = index;
+        if (current == null) {
+            return new VehicleSpecification(filter);
+        }
+        return new VehicleSpecification(filter, current.search(filter.getSearch()));
+    }
+
+    /**
+     * Finds a page of the IDs of the vehicles matching the customer filters, resolving the search text with
+     * the index. Without a requested sort, search results come best match first: the ranked matches are
+     * checked against the other filters a window at a time, about a page long, until the page is filled, so
+     * no statement binds more than a window of IDs. The total is then exact once every match has been
+     * checked, and until then counts the matches not checked yet as passing. A requested sort is applied by
+     * the database to the best {@link VehicleSpecification#MAX_IN_LIST_SIZE} matches.
+     *
+     * @param filter The customer filters.
+     * @param constraint A further constraint on the vehicles, or null.
+     * @param pageable The page; its sort, if any, replaces the relevance order.
+     * @return A page of vehicle IDs.
+     */
+    public Page<Long> findIds(VehicleFilter filter, Specification<Vehicle> constraint, Pageable pageable) {
+        VehicleSpecification specification = specificationFor(filter);
+        List<Long> matches = specification.getSearchMatches();
+        if (matches == null || pageable.getSort().isSorted()) {
+            return vehicleRepository.findIds(constrain(specification, constraint), pageable);
+        }
+        if (matches.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        // Relevance order: keep the matches passing the other filters, in the order the index ranked them,
+        // until one past the end of the page shows whether another page follows
+        int window = pageable.isPaged()
+                ? Math.clamp(pageable.getPageSize(), MIN_MATCH_WINDOW, VehicleSpecification.MAX_IN_LIST_SIZE)
+                : VehicleSpecification.MAX_IN_LIST_SIZE;
+        long wanted = pageable.isPaged() ? pageable.getOffset() + pageable.getPageSize() : Long.MAX_VALUE;
+        List<Long> ranked = new ArrayList<>();
+        int checked = 0;
+        while (checked < matches.size() && ranked.size() <= wanted) {
+            List<Long> candidates = matches.subList(checked, Math.min(matches.size(), checked + window));
+            Set<Long> passing = new HashSet<>(vehicleRepository.findIds(
+                    constrain(new VehicleSpecification(filter, candidates), constraint), Pageable.unpaged()).getContent());
+            candidates.stream().filter(passing::contains).forEach(ranked::add);
+            checked += candidates.size();
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(ranked);
+        }
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        return new PageImpl<>(ranked.subList(from, to), pageable, ranked.size() + (matches.size() - checked));
+    }
+
+    private static Specification<Vehicle> constrain(VehicleSpecification specification, Specification<Vehicle> constraint) {
+        return constraint != null ? specification.and(constraint) : specification;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * Trigrams of the term padded with {@code $} on both sides, so that short terms and term boundaries
+     * produce grams too. The unpadded trigrams of any infix are among them.
+     */
+    static Set<String> paddedGrams(String term) {
+        return grams("$" + term + "$");
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * Optimal string alignment distance between two strings, or {@code max + 1} once it exceeds {@code max}.
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    /**
+     * The index structures. Written by a single thread at a time (callers are synchronized) and read
+     * concurrently; a search racing with an update may see the vehicle before or after the update.
+     */
+    static final class Index {
+
+        private final Map<Long, VehicleSearchDocument> documents = new ConcurrentHashMap<>();
+        private final Map<Long, Map<String, Integer>> termsByVehicle = new ConcurrentHashMap<>();
+        /** Term to the vehicles containing it, with the weight of the best field it appears in. */
+        private final Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+        private final NavigableSet<String> dictionary = new ConcurrentSkipListSet<>();
+        private final Map<String, Set<String>> termsByGram = new ConcurrentHashMap<>();
+
+        void add(VehicleSearchDocument document) {
+            remove(document.getId());
+
+            Map<String, Integer> terms = new HashMap<>();
+            addField(terms, document.getDescription(), DESCRIPTION_WEIGHT);
+            addField(terms, document.getCategoryName(), CATEGORY_WEIGHT);
+            addField(terms, document.getModelName(), MODEL_WEIGHT);
+            addField(terms, document.getBrandName(), BRAND_WEIGHT);
+            addField(terms, document.getLicensePlate(), PLATE_WEIGHT);
+            List<String> plateTokens = tokenize(document.getLicensePlate());
+            if (plateTokens.size() > 1) {
+                // "AB-123-CD" is also searchable as "ab123cd"
+                terms.merge(String.join("", plateTokens), PLATE_WEIGHT, Math::max);
+            }
+
+            documents.put(document.getId(), document);
+            termsByVehicle.put(document.getId(), terms);
+            terms.forEach((term, weight) -> {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    posting = new ConcurrentHashMap<>();
+                    postings.put(term, posting);
+                    dictionary.add(term);
+                    for (String gram : paddedGrams(term)) {
+                        termsByGram.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(term);
+                    }
+                }
+                posting.put(document.getId(), weight);
+            });
+        }
+
+        private static void addField(Map<String, Integer> terms, String text, int weight) {
+            for (String token : tokenize(text)) {
+                terms.merge(token, weight, Math::max);
+            }
+        }
+
+        void remove(Long vehicleId) {
+            documents.remove(vehicleId);
+            Map<String, Integer> terms = termsByVehicle.remove(vehicleId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms.keySet()) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                posting.remove(vehicleId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                    dictionary.remove(term);
+                    for (String gram : paddedGrams(term)) {
+                        Set<String> gramTerms = termsByGram.get(gram);
+                        if (gramTerms != null) {
+                            gramTerms.remove(term);
+                            if (gramTerms.isEmpty()) {
+                                termsByGram.remove(gram);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        void replaceWhere(Predicate<VehicleSearchDocument> affected, UnaryOperator<VehicleSearchDocument> update) {
+            List<VehicleSearchDocument> matching = documents.values().stream().filter(affected).toList();
+            matching.forEach(document -> add(update.apply(document)));
+        }
+
+        List<Long> search(String text) {
+            Map<Long, Double> scores = null;
+            for (String token : tokenize(text)) {
+                Map<Long, Double> tokenScores = match(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            if (scores == null) {
+                return List.of();
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+
+        private Map<Long, Double> match(String token) {
+            Map<Long, Double> scores = new HashMap<>();
+            collect(scores, token, EXACT);
+            for (String term : dictionary.subSet(token, false, token + Character.MAX_VALUE, false)) {
+                collect(scores, term, PREFIX);
+            }
+            if (token.length() >= GRAM) {
+                for (String term : infixCandidates(token)) {
+                    if (!term.startsWith(token) && term.contains(token)) {
+                        collect(scores, term, INFIX);
+                    }
+                }
+            }
+            if (scores.isEmpty() && token.length() >= MIN_FUZZY_LENGTH) {
+                for (String term : fuzzyCandidates(token)) {
+                    collect(scores, term, FUZZY);
+                }
+            }
+            return scores;
+        }
+
+        private void collect(Map<Long, Double> scores, String term, double match) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.forEach((id, weight) -> scores.merge(id, match * weight, Math::max));
+            }
+        }
+
+        /**
+         * Terms containing every trigram of the token, intersected from the rarest gram.
+         */
+        private Collection<String> infixCandidates(String token) {
+            List<Set<String>> sets = new ArrayList<>();
+            for (String gram : grams(token)) {
+                Set<String> terms = termsByGram.get(gram);
+                if (terms == null) {
+                    return List.of();
+                }
+                sets.add(terms);
+            }
+            sets.sort(Comparator.comparingInt(Set::size));
+            List<String> candidates = new ArrayList<>();
+            for (String term : sets.get(0)) {
+                boolean inAll = true;
+                for (int i = 1; i < sets.size() && inAll; i++) {
+                    inAll = sets.get(i).contains(term);
+                }
+                if (inAll) {
+                    candidates.add(term);
+                }
+            }
+            return candidates;
+        }
+
+        /**
+         * Terms sharing enough padded trigrams with the token (Dice coefficient) and within one edit
+         * of it, or two for tokens longer than five characters.
+         */
+        private Collection<String> fuzzyCandidates(String token) {
+            Set<String> tokenGrams = paddedGrams(token);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String gram : tokenGrams) {
+                Set<String> terms = termsByGram.get(gram);
+                if (terms != null) {
+                    terms.forEach(term -> shared.merge(term, 1, Integer::sum));
+                }
+            }
+            int maxEdits = token.length() > 5 ? 2 : 1;
+            List<String> candidates = new ArrayList<>();
+            shared.forEach((term, count) -> {
+                double similarity = 2.0 * count / (tokenGrams.size() + term.length());
+                if (similarity >= MIN_FUZZY_SIMILARITY && editDistance(token, term, maxEdits) <= maxEdits) {
+                    candidates.add(term);
+                }
+            });
+            return candidates;
+        }
+    }
+}
@@ -16,6 +16,9 @@ public class VehicleSecurityRules implements SecurityRules {
                 .requestMatchers(HttpMethod.GET, "/vehicles/year/{startYear}/{endYear}").permitAll()
                 .requestMatchers(HttpMethod.GET, "/vehicles/mileage/{minMileage}/{maxMileage}").permitAll()
                 .requestMatchers(HttpMethod.GET, "/vehicles").permitAll()
+                .requestMatchers(HttpMethod.GET, "/vehicles/facets").permitAll()
+                .requestMatchers(HttpMethod.GET, "/vehicles/available").permitAll()
+                .requestMatchers(HttpMethod.GET, "/vehicles/nearby").permitAll()
                 .requestMatchers(HttpMethod.GET, "/vehicles/{id}").permitAll()
                 .requestMatchers(HttpMethod.GET, "/vehicles/{id}/availability").permitAll()
                 
@@ -47,6 +50,9 @@ public class VehicleSecurityRules implements SecurityRules {
                 
                 // Admin-only access for vehicle models
                 .requestMatchers(HttpMethod.GET, "/admin/vehicle-models").permitAll() // Allow public access to view models
-                .requestMatchers("/admin/vehicle-models/**").hasRole("ADMIN");
+                .requestMatchers("/admin/vehicle-models/**").hasRole("ADMIN")
+
+                // Admin-only access for pickup locations
+                .requestMatchers("/admin/pickup-locations/**").hasRole("ADMIN");
     }
 }
\ No newline at end of file
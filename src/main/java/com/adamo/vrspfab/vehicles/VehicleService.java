@@ -2,6 +2,7 @@ package com.adamo.vrspfab.vehicles;
 
 import com.adamo.vrspfab.common.ResourceNotFoundException;
 import com.adamo.vrspfab.reservations.*;
+import com.adamo.vrspfab.slots.SlotRepository;
 import com.adamo.vrspfab.vehicles.exceptions.*;
 import com.adamo.vrspfab.vehicles.mappers.VehicleMapper;
 import com.adamo.vrspfab.notifications.NotificationService;
@@ -11,6 +12,7 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.jpa.domain.Specification;
@@ -18,7 +20,10 @@ import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -35,10 +40,13 @@ public class VehicleService {
     private final VehicleMapper vehicleMapper;
     private final ReservationRepository reservationRepository;
     private final ReservationMapper reservationMapper;
-    private final VehicleCategoryRepository vehicleCategoryRepository;
-    private final VehicleBrandRepository vehicleBrandRepository;
-    private final VehicleModelRepository vehicleModelRepository;
+    private final VehicleReferenceData vehicleReferenceData;
     private final NotificationService notificationService;
+    private final AvailabilityIndex availabilityIndex;
+    private final SlotRepository slotRepository;
+    private final VehicleSearchIndex vehicleSearchIndex;
+    private final VehicleReadCache vehicleReadCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Creates a new vehicle.
@@ -62,21 +70,21 @@ public class VehicleService {
         
         Vehicle vehicle = vehicleMapper.toEntity(vehicleDto);
         
-        // Set the related entities if IDs are provided
+        // Set the related entities if IDs are provided, as detached references built from the in-memory reference data
         if (vehicleDto.getCategoryId() != null) {
-            VehicleCategory category = vehicleCategoryRepository.findById(vehicleDto.getCategoryId())
+            VehicleCategory category = vehicleReferenceData.categoryReference(vehicleDto.getCategoryId())
                     .orElseThrow(() -> new ResourceNotFoundException("Vehicle category not found with ID: " + vehicleDto.getCategoryId(), "VehicleCategory"));
             vehicle.setCategory(category);
         }
         
         if (vehicleDto.getBrandId() != null) {
-            VehicleBrand brand = vehicleBrandRepository.findById(vehicleDto.getBrandId())
+            VehicleBrand brand = vehicleReferenceData.brandReference(vehicleDto.getBrandId())
                     .orElseThrow(() -> new ResourceNotFoundException("Vehicle brand not found with ID: " + vehicleDto.getBrandId(), "VehicleBrand"));
             vehicle.setBrand(brand);
         }
         
         if (vehicleDto.getModelId() != null) {
-            VehicleModel model = vehicleModelRepository.findById(vehicleDto.getModelId())
+            VehicleModel model = vehicleReferenceData.modelReference(vehicleDto.getModelId())
                     .orElseThrow(() -> new ResourceNotFoundException("Vehicle model not found with ID: " + vehicleDto.getModelId(), "VehicleModel"));
             vehicle.setModel(model);
         }
@@ -115,11 +123,13 @@ public class VehicleService {
     @Transactional
     public List<VehicleDto> createVehiclesBulk(@Valid List<VehicleDto> vehicleDtos) {
         log.info("Attempting to create {} vehicles in bulk", vehicleDtos.size());
+        List<String> existingPlates = vehicleRepository.findExistingLicensePlates(
+                vehicleDtos.stream().map(VehicleDto::getLicensePlate).toList());
+        if (!existingPlates.isEmpty()) {
+            log.warn("Bulk vehicle creation failed: A vehicle with license plate {} already exists.", existingPlates.get(0));
+            throw new DuplicateLicensePlateException("A vehicle with license plate '" + existingPlates.get(0) + "' already exists.");
+        }
         vehicleDtos.forEach(dto -> {
-            if (vehicleRepository.findByLicensePlate(dto.getLicensePlate()).isPresent()) {
-                log.warn("Bulk vehicle creation failed: A vehicle with license plate {} already exists.", dto.getLicensePlate());
-                throw new DuplicateLicensePlateException("A vehicle with license plate '" + dto.getLicensePlate() + "' already exists.");
-            }
             if (dto.getYear() > LocalDate.now().getYear()) {
                 log.warn("Bulk vehicle creation failed: Year {} is in the future for license plate {}.", dto.getYear(), dto.getLicensePlate());
                 throw new InvalidVehicleDataException("Vehicle year cannot be in the future for license plate: " + dto.getLicensePlate());
@@ -160,15 +170,16 @@ public class VehicleService {
      * @throws ResourceNotFoundException if the vehicle is not found.
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "vehicles", key = "#id")
     public VehicleDto getVehicleById(Long id) {
         log.debug("Fetching vehicle with ID: {}", id);
-        Vehicle vehicle = vehicleRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.warn("Vehicle not found with ID: {}", id);
-                    return new ResourceNotFoundException("Vehicle not found with ID: " + id, "Vehicle");
-                });
-        return vehicleMapper.toDto(vehicle);
+        return vehicleReadCache.get(VehicleDto.class, id, vehicleId -> {
+            Vehicle vehicle = vehicleRepository.findById(vehicleId)
+                    .orElseThrow(() -> {
+                        log.warn("Vehicle not found with ID: {}", vehicleId);
+                        return new ResourceNotFoundException("Vehicle not found with ID: " + vehicleId, "Vehicle");
+                    });
+            return vehicleMapper.toDto(vehicle);
+        });
     }
 
     /**
@@ -181,17 +192,13 @@ public class VehicleService {
      * @return A page of Vehicle DTOs.
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "vehicles", key = "#page + '-' + #size + '-' + #sortBy + '-' + #sortDirection")
     public Page<VehicleDto> getAllVehicles(
             int page, int size, String sortBy, String sortDirection, VehicleFilter filters
     ) {
         log.debug("Fetching all vehicles: page={}, size={}, sortBy={}, sortDirection={}",
                 page, size, sortBy, sortDirection);
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
-        Pageable pageable = PageRequest.of(page, size, sort);
-        VehicleSpecification spec = new VehicleSpecification(filters);
-        Page<Vehicle> vehicles = vehicleRepository.findAll(spec, pageable);
-        return vehicles.map(vehicleMapper::toDto);
+        return getAllVehicles(filters, PageRequest.of(page, size, sort));
     }
 
     public Long countActiveVehicles() {
@@ -210,7 +217,6 @@ public class VehicleService {
      * @return A page of matching Vehicle DTOs.
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "vehicles", key = "#page + '-' + #size + '-' + #sortBy + '-' + #sortDirection + '-' + #startYear + '-' + #endYear")
     public Page<VehicleDto> getVehiclesByYearRange(
             int page, int size, String sortBy, String sortDirection,
             int startYear, int endYear
@@ -226,9 +232,9 @@ public class VehicleService {
             throw new InvalidVehicleDataException("End year cannot be in the future.");
         }
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
-        Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Vehicle> vehicles = vehicleRepository.findByYearBetween(startYear, endYear, pageable);
-        return vehicles.map(vehicleMapper::toDto);
+        Specification<Vehicle> spec = (root, query, cb) -> cb.between(root.get("year"), startYear, endYear);
+        return vehicleReadCache.page(VehicleCardRow.class, "year", List.of(startYear, endYear), PageRequest.of(page, size, sort),
+                pageable -> vehicleRepository.findIds(spec, pageable), this::loadCardRows).map(vehicleMapper::toDto);
     }
 
     /**
@@ -243,7 +249,6 @@ public class VehicleService {
      * @return A page of matching Vehicle DTOs.
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "vehicles", key = "#page + '-' + #size + '-' + #sortBy + '-' + #sortDirection + '-' + #minMileage + '-' + #maxMileage")
     public Page<VehicleDto> getVehiclesByMileageRange(
             int page, int size, String sortBy, String sortDirection,
             float minMileage, float maxMileage
@@ -259,9 +264,9 @@ public class VehicleService {
             throw new IllegalArgumentException("Mileage cannot be negative.");
         }
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
-        Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Vehicle> vehicles = vehicleRepository.findByMileageBetween(minMileage, maxMileage, pageable);
-        return vehicles.map(vehicleMapper::toDto);
+        Specification<Vehicle> spec = (root, query, cb) -> cb.between(root.get("mileage"), minMileage, maxMileage);
+        return vehicleReadCache.page(VehicleCardRow.class, "mileage", List.of(minMileage, maxMileage), PageRequest.of(page, size, sort),
+                pageable -> vehicleRepository.findIds(spec, pageable), this::loadCardRows).map(vehicleMapper::toDto);
     }
 
     /**
@@ -292,8 +297,10 @@ public class VehicleService {
             log.warn("Vehicle update failed: Year {} is in the future.", vehicleDto.getYear());
             throw new InvalidVehicleDataException("Vehicle year cannot be in the future.");
         }
+        VehicleStatusChangedEvent.Placement previous = VehicleStatusChangedEvent.Placement.of(vehicle);
         vehicleMapper.updateVehicleFromDto(vehicleDto, vehicle);
         Vehicle updatedVehicle = vehicleRepository.save(vehicle);
+        publishIfMoved(updatedVehicle, previous);
         log.info("Vehicle with ID {} updated successfully.", id);
         
         // Notify admins about vehicle update
@@ -350,8 +357,10 @@ public class VehicleService {
             throw new InvalidVehicleStatusUpdateException("Cannot rent a vehicle that is not available.");
         }
 
+        VehicleStatusChangedEvent.Placement previous = VehicleStatusChangedEvent.Placement.of(vehicle);
         vehicle.setStatus(newStatus);
         Vehicle updatedVehicle = vehicleRepository.save(vehicle);
+        publishIfMoved(updatedVehicle, previous);
         log.info("Status of vehicle with ID {} updated to {} successfully.", id, newStatus);
         
         // Notify admins about vehicle status change
@@ -364,7 +373,7 @@ public class VehicleService {
                             "licensePlate", updatedVehicle.getLicensePlate(),
                             "brand", updatedVehicle.getBrand().getName(),
                             "model", updatedVehicle.getModel().getName(),
-                            "oldStatus", vehicle.getStatus().name(),
+                            "oldStatus", previous.status().name(),
                             "newStatus", newStatus.name()
                     )
             );
@@ -495,7 +504,7 @@ public class VehicleService {
     @Transactional(readOnly = true)
     public boolean isVehicleAvailable(Long id, LocalDateTime startDate, LocalDateTime endDate) {
         log.debug("Checking availability for vehicle with ID {} from {} to {}", id, startDate, endDate);
-        Vehicle vehicle = vehicleRepository.findById(id)
+        Vehicle vehicle = vehicleRepository.findWithCatalogById(id)
                 .orElseThrow(() -> {
                     log.warn("Availability check failed: Vehicle not found with ID: {}", id);
                     return new ResourceNotFoundException("Vehicle not found with ID: " + id, "Vehicle");
@@ -532,22 +541,16 @@ public class VehicleService {
             throw new VehicleNotAvailableException("Vehicle is not available - model is inactive");
         }
 
-        boolean hasConflictingReservations = vehicle.getReservations().stream()
-                .anyMatch(reservation ->
-                        !(endDate.isBefore(reservation.getStartDate()) || startDate.isAfter(reservation.getEndDate()))
-                );
+        boolean hasConflictingReservations = availabilityIndex.covers(startDate)
+                ? availabilityIndex.hasOverlap(id, startDate, endDate)
+                : reservationRepository.existsOverlappingReservation(id, startDate, endDate);
 
         if (hasConflictingReservations) {
             log.warn("Vehicle with ID {} is not available due to conflicting reservations.", id);
             throw new VehicleNotAvailableException("Vehicle is not available due to existing reservations.");
         }
 
-        boolean hasAvailableSlots = vehicle.getSlots().stream()
-                .anyMatch(slot ->
-                        slot.isAvailable() &&
-                                !startDate.isBefore(slot.getStartTime()) &&
-                                !endDate.isAfter(slot.getEndTime())
-                );
+        boolean hasAvailableSlots = slotRepository.existsAvailableSlotCovering(id, startDate, endDate);
 
         if (!hasAvailableSlots) {
             log.warn("Vehicle with ID {} has no available slots for the requested period.", id);
@@ -579,13 +582,49 @@ public class VehicleService {
     }
 
     /**
-     * Get all vehicles using a specification (for customer-facing APIs with active filtering).
+     * Get all vehicles matching the customer filters (for customer-facing APIs with active filtering).
+     * Pages are assembled from the {@link VehicleReadCache}.
      */
     @Transactional(readOnly = true)
-    public Page<VehicleDto> getAllVehicles(Specification<Vehicle> specification, Pageable pageable) {
+    public Page<VehicleDto> getAllVehicles(VehicleFilter filter, Pageable pageable) {
         log.info("Fetching vehicles with customer specification (active filtering enabled)");
-        Page<Vehicle> vehiclesPage = vehicleRepository.findAll(specification, pageable);
-        return vehiclesPage.map(vehicleMapper::toDto);
+        return vehicleReadCache.page(VehicleCardRow.class, "customer", filter, pageable,
+                page -> vehicleSearchIndex.findIds(filter, null, page),
+                this::loadCardRows).map(vehicleMapper::toDto);
+    }
+
+    /**
+     * Loads the listing columns of the given vehicles through the card projection; listings leave out the
+     * description, which only the detail view shows.
+     */
+    private Map<Long, VehicleCardRow> loadCardRows(Collection<Long> ids) {
+        return vehicleRepository.findCardRowsByIdIn(ids).stream()
+                .collect(Collectors.toMap(VehicleCardRow::getId, Function.identity()));
+    }
+
+    /**
+     * Finds the vehicles matching the customer filters that are free for the whole date range,
+     * i.e. available and without any overlapping non-cancelled reservation.
+     * The page of IDs is resolved by a single anti-join query (plus its count), then its vehicles are loaded by ID.
+     *
+     * @param filter The catalogue filters to apply.
+     * @param startDate The start of the requested period.
+     * @param endDate The end of the requested period.
+     * @param pageable The pagination and sorting information.
+     * @return A page of free vehicles.
+     * @throws InvalidReservationDateException if the start date is not before the end date.
+     */
+    @Transactional(readOnly = true)
+    public Page<VehicleDto> getAvailableVehicles(VehicleFilter filter, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        if (!startDate.isBefore(endDate)) {
+            log.warn("Fleet availability search failed: Start date {} is not before end date {}", startDate, endDate);
+            throw new InvalidReservationDateException("Start date must be before end date.");
+        }
+        log.debug("Searching vehicles free from {} to {}", startDate, endDate);
+        Page<Long> ids = vehicleSearchIndex.findIds(filter, new VehicleAvailabilitySpecification(startDate, endDate), pageable);
+        Map<Long, Vehicle> vehicles = vehicleRepository.findAllById(ids.getContent()).stream()
+                .collect(Collectors.toMap(Vehicle::getId, Function.identity()));
+        return ids.map(vehicles::get).map(vehicleMapper::toDto);
     }
 
 
@@ -628,4 +667,14 @@ public class VehicleService {
         Page<Reservation> reservations = reservationRepository.findByVehicleId(id, pageable);
         return reservations.map(reservationMapper::toReservationInfoDto);
     }
-}
\ No newline at end of file
+
+    /**
+     * Publishes a {@link VehicleStatusChangedEvent} if the update changed the vehicle's status, category or brand.
+     */
+    private void publishIfMoved(Vehicle vehicle, VehicleStatusChangedEvent.Placement previous) {
+        VehicleStatusChangedEvent.Placement current = VehicleStatusChangedEvent.Placement.of(vehicle);
+        if (!current.equals(previous)) {
+            eventPublisher.publishEvent(new VehicleStatusChangedEvent(this, vehicle.getId(), previous, current));
+        }
+    }
+}
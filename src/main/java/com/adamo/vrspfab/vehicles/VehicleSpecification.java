@@ -4,16 +4,36 @@ import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
-import lombok.RequiredArgsConstructor;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.util.ArrayList;
 import java.util.List;
 
-@RequiredArgsConstructor
 public class VehicleSpecification implements Specification<Vehicle> {
 
+    /** At most this many search matches, the best ones, are passed to the database, in a single IN list. */
+    static final int MAX_IN_LIST_SIZE = 1000;
+
     private final VehicleFilter filter;
+    /** IDs of the vehicles matching the search text according to the {@link VehicleSearchIndex}, or null to search with LIKE. */
+    private final List<Long> searchMatches;
+
+    public VehicleSpecification(VehicleFilter filter) {
+        this(filter, null);
+    }
+
+    public VehicleSpecification(VehicleFilter filter, List<Long> searchMatches) {
+        this.filter = filter;
+        this.searchMatches = searchMatches;
+    }
+
+    /**
+     * The IDs of the vehicles matching the search text according to the {@link VehicleSearchIndex}, best
+     * match first, or null if the search text is matched with LIKE.
+     */
+    public List<Long> getSearchMatches() {
+        return searchMatches;
+    }
 
     @Override
     public Predicate toPredicate(Root<Vehicle> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
@@ -25,7 +45,9 @@ public class VehicleSpecification implements Specification<Vehicle> {
         predicates.add(criteriaBuilder.isTrue(root.join("category").get("isActive")));
         predicates.add(criteriaBuilder.isTrue(root.join("model").get("isActive")));
 
-        if (filter.getSearch() != null && !filter.getSearch().trim().isEmpty()) {
+        if (filter.getSearch() != null && !filter.getSearch().trim().isEmpty() && searchMatches != null) {
+            predicates.add(idIn(root, criteriaBuilder));
+        } else if (filter.getSearch() != null && !filter.getSearch().trim().isEmpty()) {
             String searchPattern = "%" + filter.getSearch().toLowerCase() + "%";
             Predicate searchPredicate = criteriaBuilder.or(
                     criteriaBuilder.like(criteriaBuilder.lower(root.get("licensePlate")), searchPattern),
@@ -83,4 +105,11 @@ public class VehicleSpecification implements Specification<Vehicle> {
 
         return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
     }
+
+    private Predicate idIn(Root<Vehicle> root, CriteriaBuilder criteriaBuilder) {
+        if (searchMatches.isEmpty()) {
+            return criteriaBuilder.disjunction();
+        }
+        return root.get("id").in(searchMatches.subList(0, Math.min(searchMatches.size(), MAX_IN_LIST_SIZE)));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event fired when a vehicle's status changes, or when an update moves it to another category or brand.
+ * Carries the vehicle's placement before and after the change so listeners keeping fleet counts can move
+ * it between buckets without reading it back. Creations and deletions are covered by
+ * {@link VehicleCatalogChangedEvent}, {@link VehiclesImportedEvent} and {@link VehiclesDeletedEvent}.
+ */
+@Getter
+public class VehicleStatusChangedEvent extends ApplicationEvent {
+
+    /** Where a vehicle is counted: its status, category and brand. */
+    public record Placement(VehicleStatus status, Long categoryId, Long brandId) {
+
+        public static Placement of(Vehicle vehicle) {
+            return new Placement(vehicle.getStatus(),
+                    vehicle.getCategory() != null ? vehicle.getCategory().getId() : null,
+                    vehicle.getBrand() != null ? vehicle.getBrand().getId() : null);
+        }
+    }
+
+    private final Long vehicleId;
+    private final Placement previous;
+    private final Placement current;
+
+    public VehicleStatusChangedEvent(Object source, Long vehicleId, Placement previous, Placement current) {
+        super(source);
+        this.vehicleId = vehicleId;
+        this.previous = previous;
+        this.current = current;
+    }
+}
@@ -0,0 +1,15 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.Value;
+
+/**
+ * Number of vehicles of a category and brand in a status, as grouped by
+ * {@link VehicleRepository#countByCategoryBrandAndStatus()}.
+ */
+@Value
+public class VehicleStatusCount {
+    Long categoryId;
+    Long brandId;
+    VehicleStatus status;
+    Long count;
+}
@@ -0,0 +1,23 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Event fired once a chunk of a bulk vehicle deletion has been committed.
+ * The deletion runs as bulk statements, so no {@link VehicleCatalogChangedEvent} is fired for the
+ * vehicles; listeners keeping derived catalogue state drop them from this event in bulk.
+ */
+@Getter
+public class VehiclesDeletedEvent extends ApplicationEvent {
+
+    /** The IDs of the vehicles deleted. */
+    private final List<Long> vehicleIds;
+
+    public VehiclesDeletedEvent(Object source, List<Long> vehicleIds) {
+        super(source);
+        this.vehicleIds = List.copyOf(vehicleIds);
+    }
+}
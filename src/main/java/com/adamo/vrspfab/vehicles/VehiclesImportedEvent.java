@@ -0,0 +1,23 @@
+package com.adamo.vrspfab.vehicles;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Event fired once a chunk of a bulk vehicle import has been committed.
+ * The import inserts rows with plain JDBC batches, so no {@link VehicleCatalogChangedEvent} is fired
+ * for them; listeners keeping derived catalogue state load the new vehicles from this event in bulk.
+ */
+@Getter
+public class VehiclesImportedEvent extends ApplicationEvent {
+
+    /** The IDs of the vehicles created. */
+    private final List<Long> vehicleIds;
+
+    public VehiclesImportedEvent(Object source, List<Long> vehicleIds) {
+        super(source);
+        this.vehicleIds = List.copyOf(vehicleIds);
+    }
+}
@@ -0,0 +1,28 @@
+package com.adamo.vrspfab.vehicles.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+@Data
+public class CreatePickupLocationDto {
+
+    @NotBlank(message = "Pickup location name is required")
+    @Size(min = 2, max = 100, message = "Pickup location name must be between 2 and 100 characters")
+    private String name;
+
+    @Size(max = 255, message = "Address must not exceed 255 characters")
+    private String address;
+
+    @Size(max = 100, message = "City must not exceed 100 characters")
+    private String city;
+
+    @NotNull(message = "Latitude is required")
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @NotNull(message = "Longitude is required")
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+}
@@ -17,6 +17,8 @@ public class CreateVehicleDto {
     
     @NotNull(message = "Model is required")
     private Long modelId;
+
+    private Long pickupLocationId;
     
     @NotNull(message = "Year cannot be null")
     @Positive(message = "Year must be a positive value")
@@ -14,6 +14,8 @@ public class UpdateVehicleDto {
     private Long brandId;
     
     private Long modelId;
+
+    private Long pickupLocationId;
     
     @Positive(message = "Year must be a positive value")
     @Min(value = 1886, message = "Year must be no earlier than 1886")
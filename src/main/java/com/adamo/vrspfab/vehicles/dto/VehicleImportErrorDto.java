@@ -0,0 +1,17 @@
+package com.adamo.vrspfab.vehicles.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleImportErrorDto {
+    /** The 1-based line of the row in the uploaded file. */
+    private long line;
+    private String licensePlate;
+    private String message;
+}
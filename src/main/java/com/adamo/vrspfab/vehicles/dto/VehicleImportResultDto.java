@@ -0,0 +1,21 @@
+package com.adamo.vrspfab.vehicles.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleImportResultDto {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    /** The row errors, capped at {@code vehicles.import.max-reported-errors}; {@code failed} counts them all. */
+    private List<VehicleImportErrorDto> errors;
+    private long durationMs;
+}
@@ -15,6 +15,8 @@ public class VehicleResponseDto {
     private String brandName;
     private Long modelId;
     private String modelName;
+    private Long pickupLocationId;
+    private String pickupLocationName;
     private Integer year;
     private String licensePlate;
     private FuelType fuelType;
@@ -0,0 +1,10 @@
+package com.adamo.vrspfab.vehicles.exceptions;
+
+import com.adamo.vrspfab.common.ResourceNotFoundException;
+
+public class PickupLocationNotFoundException extends ResourceNotFoundException {
+
+    public PickupLocationNotFoundException(Long id) {
+        super("Pickup location not found with ID: " + id, "PickupLocation");
+    }
+}
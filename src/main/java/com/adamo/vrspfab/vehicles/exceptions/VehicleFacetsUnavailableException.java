@@ -0,0 +1,11 @@
+package com.adamo.vrspfab.vehicles.exceptions;
+
+/**
+ * Custom exception to be thrown when the vehicle facet counts are requested before the facet index
+ * has been built (e.g., right after startup).
+ */
+public class VehicleFacetsUnavailableException extends RuntimeException {
+    public VehicleFacetsUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,7 @@
 package com.adamo.vrspfab.vehicles.mappers;
 
 import com.adamo.vrspfab.vehicles.Vehicle;
+import com.adamo.vrspfab.vehicles.VehicleCardRow;
 import com.adamo.vrspfab.vehicles.VehicleSummaryDto;
 import com.adamo.vrspfab.vehicles.dto.CreateVehicleDto;
 import com.adamo.vrspfab.vehicles.dto.UpdateVehicleDto;
@@ -22,12 +23,18 @@ public interface EnhancedVehicleMapper {
     @Mapping(target = "brandName", source = "brand.name")
     @Mapping(target = "modelId", source = "model.id")
     @Mapping(target = "modelName", source = "model.name")
+    @Mapping(target = "pickupLocationId", source = "pickupLocation.id")
+    @Mapping(target = "pickupLocationName", source = "pickupLocation.name")
     VehicleResponseDto toResponseDto(Vehicle vehicle);
 
+    @Mapping(target = "description", ignore = true)
+    VehicleResponseDto toResponseDto(VehicleCardRow row);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "category", ignore = true)
     @Mapping(target = "brand", ignore = true)
     @Mapping(target = "model", ignore = true)
+    @Mapping(target = "pickupLocation", ignore = true)
     @Mapping(target = "slots", ignore = true)
     @Mapping(target = "favorites", ignore = true)
     @Mapping(target = "reservations", ignore = true)
@@ -40,6 +47,7 @@ public interface EnhancedVehicleMapper {
     @Mapping(target = "category", ignore = true)
     @Mapping(target = "brand", ignore = true)
     @Mapping(target = "model", ignore = true)
+    @Mapping(target = "pickupLocation", ignore = true)
     @Mapping(target = "slots", ignore = true)
     @Mapping(target = "favorites", ignore = true)
     @Mapping(target = "reservations", ignore = true)
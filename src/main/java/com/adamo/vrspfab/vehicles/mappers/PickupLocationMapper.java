@@ -0,0 +1,30 @@
+package com.adamo.vrspfab.vehicles.mappers;
+
+import com.adamo.vrspfab.vehicles.PickupLocation;
+import com.adamo.vrspfab.vehicles.dto.CreatePickupLocationDto;
+import com.adamo.vrspfab.vehicles.dto.PickupLocationResponseDto;
+import com.adamo.vrspfab.vehicles.dto.UpdatePickupLocationDto;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+
+@Mapper(
+        componentModel = "spring",
+        nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE
+)
+public interface PickupLocationMapper {
+
+    PickupLocationResponseDto toResponseDto(PickupLocation entity);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "isActive", constant = "true")
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    PickupLocation toEntity(CreatePickupLocationDto createDto);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    void updateEntity(@MappingTarget PickupLocation entity, UpdatePickupLocationDto updateDto);
+}
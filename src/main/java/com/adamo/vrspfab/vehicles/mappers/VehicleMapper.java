@@ -1,5 +1,6 @@
 package com.adamo.vrspfab.vehicles.mappers;
 import com.adamo.vrspfab.vehicles.Vehicle;
+import com.adamo.vrspfab.vehicles.VehicleCardRow;
 import com.adamo.vrspfab.vehicles.VehicleDto;
 import com.adamo.vrspfab.vehicles.VehicleSummaryDto;
 import com.adamo.vrspfab.vehicles.dto.VehicleResponseDto;
@@ -20,13 +21,21 @@ public interface VehicleMapper {
     @Mapping(target = "brandName", source = "brand.name")
     @Mapping(target = "modelId", source = "model.id")
     @Mapping(target = "modelName", source = "model.name")
+    @Mapping(target = "pickupLocationId", source = "pickupLocation.id")
+    @Mapping(target = "pickupLocationName", source = "pickupLocation.name")
     @Mapping(target = "brand", source = "brand.name")
     @Mapping(target = "model", source = "model.name")
     VehicleDto toDto(Vehicle vehicle);
 
+    @Mapping(target = "brand", source = "brandName")
+    @Mapping(target = "model", source = "modelName")
+    @Mapping(target = "description", ignore = true)
+    VehicleDto toDto(VehicleCardRow row);
+
     @Mapping(target = "category", ignore = true)
     @Mapping(target = "brand", ignore = true)
     @Mapping(target = "model", ignore = true)
+    @Mapping(target = "pickupLocation", ignore = true)
     @Mapping(target = "slots", ignore = true)
     @Mapping(target = "favorites", ignore = true)
     @Mapping(target = "reservations", ignore = true)
@@ -39,6 +48,7 @@ public interface VehicleMapper {
     @Mapping(target = "category", ignore = true)
     @Mapping(target = "brand", ignore = true)
     @Mapping(target = "model", ignore = true)
+    @Mapping(target = "pickupLocation", ignore = true)
     @Mapping(target = "slots", ignore = true)
     @Mapping(target = "favorites", ignore = true)
     @Mapping(target = "reservations", ignore = true)
@@ -61,5 +71,7 @@ public interface VehicleMapper {
     @Mapping(target = "brandName", source = "brand.name")
     @Mapping(target = "modelId", source = "model.id")
     @Mapping(target = "modelName", source = "model.name")
+    @Mapping(target = "pickupLocationId", source = "pickupLocation.id")
+    @Mapping(target = "pickupLocationName", source = "pickupLocation.name")
     VehicleResponseDto toResponseDto(Vehicle vehicle);
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.adamo.vrspfab.websocket;
 
 import com.adamo.vrspfab.common.SecurityUtilsService;
+import com.adamo.vrspfab.users.Role;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.Message;
@@ -70,6 +71,19 @@ public class WebSocketChannelInterceptor implements ChannelInterceptor {
                         log.warn("❌ BLOCKING subscription attempt to: {}", destination);
                         return null; // Block the subscription
                     }
+                } else if (destination != null && destination.startsWith("/topic/admin/")) {
+                    // Admin dashboard topics are restricted to admins
+                    try {
+                        var currentUser = securityUtilsService.getCurrentAuthenticatedUser();
+                        if (currentUser.getRole() == Role.ADMIN) {
+                            log.info("✅ Allowing admin subscription to: {}", destination);
+                            return message;
+                        }
+                    } catch (Exception e) {
+                        log.error("❌ Authentication failed for subscription to: {}", destination);
+                    }
+                    log.warn("❌ BLOCKING non-admin subscription attempt to: {}", destination);
+                    return null;
                 } else {
                     log.info("Destination {} doesn't match notification pattern, allowing", destination);
                 }
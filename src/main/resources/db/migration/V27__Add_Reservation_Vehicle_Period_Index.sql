@@ -0,0 +1,4 @@
+-- Composite index backing the per-vehicle overlap probes
+-- (vehicle_id = ? AND start_date < ? AND end_date > ?), including the
+-- fleet-wide NOT EXISTS availability search.
+CREATE INDEX idx_reservation_vehicle_period ON reservations (vehicle_id, start_date, end_date);
@@ -0,0 +1,6 @@
+-- Indexes backing keyset pagination of the admin listings, ordered by
+-- (created_at DESC, id DESC). InnoDB appends the primary key to every
+-- secondary index, so (created_at) also covers the id tie-breaker.
+CREATE INDEX idx_reservation_created_at ON reservations (created_at);
+CREATE INDEX idx_payment_created_at ON payments (created_at);
+CREATE INDEX idx_notification_created_at ON notifications (created_at);
@@ -0,0 +1,19 @@
+-- Depots vehicles are picked up from. Coordinates are WGS84 degrees; the
+-- nearest-vehicle search indexes them in memory, so no SPATIAL index is needed.
+CREATE TABLE pickup_locations (
+  id bigint NOT NULL AUTO_INCREMENT,
+  name varchar(100) NOT NULL,
+  address varchar(255) DEFAULT NULL,
+  city varchar(100) DEFAULT NULL,
+  latitude double NOT NULL,
+  longitude double NOT NULL,
+  is_active tinyint(1) NOT NULL DEFAULT '1',
+  created_at timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_at timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (id),
+  UNIQUE KEY (name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+ALTER TABLE vehicles
+  ADD COLUMN pickup_location_id bigint DEFAULT NULL,
+  ADD CONSTRAINT fk_vehicles_pickup_location FOREIGN KEY (pickup_location_id) REFERENCES pickup_locations (id);
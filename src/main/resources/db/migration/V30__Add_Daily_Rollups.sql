@@ -0,0 +1,45 @@
+-- Daily aggregates of payments, reservations and refunds, kept by the rollup job
+-- so that dashboard and analytics charts read one row per day instead of
+-- rescanning the source tables. Days are the local date of created_at
+-- (processed_at for refunds).
+CREATE TABLE daily_payment_rollups (
+  day date NOT NULL,
+  status varchar(255) NOT NULL,
+  payment_count bigint NOT NULL,
+  amount_total decimal(14,2) NOT NULL,
+  PRIMARY KEY (day, status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE daily_reservation_rollups (
+  day date NOT NULL,
+  reservation_count bigint NOT NULL,
+  PRIMARY KEY (day)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE daily_refund_rollups (
+  day date NOT NULL,
+  refund_count bigint NOT NULL,
+  PRIMARY KEY (day)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- Reservations made and completed payments per user and day, for the
+-- customer activity series.
+CREATE TABLE daily_user_rollups (
+  user_id bigint NOT NULL,
+  day date NOT NULL,
+  reservation_count bigint NOT NULL,
+  completed_amount decimal(14,2) NOT NULL,
+  PRIMARY KEY (user_id, day)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- Source rows changed after the watermark have not been rolled up yet.
+CREATE TABLE rollup_watermarks (
+  name varchar(50) NOT NULL,
+  watermark datetime(6) NOT NULL,
+  PRIMARY KEY (name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- The job looks up changed rows by these columns.
+CREATE INDEX idx_payment_updated_at ON payments (updated_at);
+CREATE INDEX idx_reservation_updated_at ON reservations (updated_at);
+CREATE INDEX idx_refund_processed_at ON refunds (processed_at);
@@ -0,0 +1,58 @@
+package com.adamo.vrspfab.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPaginationTest {
+
+    private record Row(Long id, LocalDateTime createdAt) {
+    }
+
+    @Test
+    void cursor_roundTripsThroughItsTextForm() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_456_000), 42L);
+
+        assertEquals("2025-03-01T10:15:30.123456,42", cursor.toString());
+        assertEquals(cursor, KeysetCursor.parse(cursor.toString()));
+        assertNull(KeysetCursor.parse(""));
+    }
+
+    @Test
+    void cursor_rejectsMalformedValues() {
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.parse("42"));
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.parse("yesterday,42"));
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.parse("2025-03-01T10:15:30,x"));
+    }
+
+    @Test
+    void toPage_usesTheExtraRowOnlyToDetectTheNextPage() {
+        LocalDateTime t = LocalDateTime.of(2025, 3, 1, 10, 0);
+        List<Row> rows = List.of(new Row(9L, t), new Row(8L, t), new Row(5L, t.minusHours(1)));
+
+        CursorPageDto<Long> page = KeysetPagination.toPage(rows, 2, Row::createdAt, Row::id, Row::id);
+
+        assertEquals(List.of(9L, 8L), page.getContent());
+        assertTrue(page.isHasNext());
+        assertEquals(new KeysetCursor(t, 8L), KeysetCursor.parse(page.getNext()));
+
+        CursorPageDto<Long> last = KeysetPagination.toPage(rows.subList(2, 3), 2, Row::createdAt, Row::id, Row::id);
+        assertFalse(last.isHasNext());
+        assertNull(last.getNext());
+    }
+
+    @Test
+    void pageSize_isClampedToOneAndTheMaximum() {
+        assertEquals(1, KeysetPagination.pageSize(0));
+        assertEquals(1, KeysetPagination.pageSize(-5));
+        assertEquals(KeysetPagination.MAX_PAGE_SIZE, KeysetPagination.pageSize(Integer.MAX_VALUE));
+
+        LocalDateTime t = LocalDateTime.of(2025, 3, 1, 10, 0);
+        CursorPageDto<Long> page = KeysetPagination.toPage(List.of(new Row(9L, t), new Row(8L, t)), 0, Row::createdAt, Row::id, Row::id);
+        assertEquals(List.of(9L), page.getContent());
+        assertEquals(1, page.getSize());
+    }
+}
@@ -0,0 +1,83 @@
+package com.adamo.vrspfab.dashboard;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardCacheTest {
+
+    @Mock private DashboardService dashboardService;
+
+    private final AtomicLong nanos = new AtomicLong();
+    /** Background tasks of the cache, recomputations among them, run when the test says so. */
+    private final Queue<Runnable> backgroundTasks = new ArrayDeque<>();
+    private DashboardCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DashboardCache(dashboardService, 10_000, 300_000, 32, nanos::get, backgroundTasks::add);
+    }
+
+    @Test
+    void getDashboardStats_servesTheLastPayloadAndRecomputesOncePerInterval() {
+        given(dashboardService.getDashboardStats()).willReturn(
+                DashboardStatsDto.builder().totalUsers(1L).build(),
+                DashboardStatsDto.builder().totalUsers(2L).build());
+
+        DashboardStatsDto first = cache.getDashboardStats();
+        for (int i = 0; i < 10; i++) {
+            assertSame(first, cache.getDashboardStats());
+        }
+        assertNotNull(first.getGeneratedAt());
+        verify(dashboardService, times(1)).getDashboardStats();
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        for (int i = 0; i < 10; i++) {
+            assertSame(first, cache.getDashboardStats());
+        }
+        runBackgroundTasks();
+
+        DashboardStatsDto second = cache.getDashboardStats();
+        assertEquals(2L, second.getTotalUsers());
+        assertFalse(second.getGeneratedAt().isBefore(first.getGeneratedAt()));
+        verify(dashboardService, times(2)).getDashboardStats();
+    }
+
+    @Test
+    void getDashboardAnalytics_cachesEachRangeAndKeepsThePayloadWhenARecomputationFails() {
+        given(dashboardService.getDashboardAnalytics(7)).willReturn(new DashboardAnalyticsDto());
+        given(dashboardService.getDashboardAnalytics(30)).willReturn(new DashboardAnalyticsDto())
+                .willThrow(new IllegalStateException("database down"));
+
+        DashboardAnalyticsDto week = cache.getDashboardAnalytics(7);
+        DashboardAnalyticsDto month = cache.getDashboardAnalytics(30);
+        assertNotSame(week, month);
+        assertSame(week, cache.getDashboardAnalytics(7));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        assertSame(month, cache.getDashboardAnalytics(30));
+        runBackgroundTasks();
+        assertSame(month, cache.getDashboardAnalytics(30));
+        verify(dashboardService, times(2)).getDashboardAnalytics(30);
+        verify(dashboardService, times(1)).getDashboardAnalytics(7);
+    }
+
+    private void runBackgroundTasks() {
+        while (!backgroundTasks.isEmpty()) {
+            backgroundTasks.remove().run();
+        }
+    }
+}
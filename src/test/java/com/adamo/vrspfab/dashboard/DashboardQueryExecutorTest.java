@@ -0,0 +1,87 @@
+package com.adamo.vrspfab.dashboard;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class DashboardQueryExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DashboardQueryExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new DashboardQueryExecutor(mock(PlatformTransactionManager.class), meterRegistry, 4, 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void submit_runsQueriesConcurrently() {
+        // Each query waits until all three are running, so they only complete if they run side by side
+        CyclicBarrier allRunning = new CyclicBarrier(3);
+        DashboardQueryExecutor patient = new DashboardQueryExecutor(mock(PlatformTransactionManager.class), meterRegistry, 4, 30_000);
+        try {
+            var first = patient.submit("first", () -> awaitAndReturn(allRunning, 1L), 0L);
+            var second = patient.submit("second", () -> awaitAndReturn(allRunning, 2L), 0L);
+            var third = patient.submit("third", () -> awaitAndReturn(allRunning, 3L), 0L);
+
+            assertEquals(6L, first.get() + second.get() + third.get());
+            assertEquals(List.of(), DashboardQueryExecutor.fallbacks(first, second, third));
+            assertEquals(1, meterRegistry.get("dashboard.query.duration").tag("query", "first").tag("outcome", "success").timer().count());
+        } finally {
+            patient.shutdown();
+        }
+    }
+
+    @Test
+    void get_fallsBackOnTimeoutAndFailure() {
+        var slow = executor.submit("slow", () -> sleepAndReturn(5_000, 1L), -1L);
+        var failing = executor.submit("failing", () -> {
+            throw new IllegalStateException("boom");
+        }, -2L);
+        var fine = executor.submit("fine", () -> 3L, 0L);
+
+        assertEquals(-1L, slow.get());
+        assertEquals(-2L, failing.get());
+        assertEquals(3L, fine.get());
+        assertEquals(List.of("slow", "failing"), DashboardQueryExecutor.fallbacks(slow, fine, failing));
+        assertEquals(1.0, meterRegistry.get("dashboard.query.fallbacks").tag("query", "slow").tag("reason", "timeout").counter().count());
+        assertEquals(1.0, meterRegistry.get("dashboard.query.fallbacks").tag("query", "failing").tag("reason", "error").counter().count());
+    }
+
+    private static long awaitAndReturn(CyclicBarrier barrier, long value) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (BrokenBarrierException | TimeoutException e) {
+            throw new IllegalStateException("Queries did not run concurrently", e);
+        }
+        return value;
+    }
+
+    private static long sleepAndReturn(long millis, long value) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,184 @@
+package com.adamo.vrspfab.dashboard;
+
+import com.adamo.vrspfab.payments.PaymentRepository;
+import com.adamo.vrspfab.payments.PaymentService;
+import com.adamo.vrspfab.payments.RevenueByGroup;
+import com.adamo.vrspfab.reservations.FleetOccupancyTimeline;
+import com.adamo.vrspfab.reservations.OccupancyTimelineDto;
+import com.adamo.vrspfab.reservations.ReservationService;
+import com.adamo.vrspfab.rollups.DailyRollupService;
+import com.adamo.vrspfab.users.UserService;
+import com.adamo.vrspfab.vehicles.VehicleBrand;
+import com.adamo.vrspfab.vehicles.VehicleBrandRating;
+import com.adamo.vrspfab.vehicles.VehicleBrandRepository;
+import com.adamo.vrspfab.vehicles.VehicleCategory;
+import com.adamo.vrspfab.vehicles.VehicleCategoryRepository;
+import com.adamo.vrspfab.vehicles.VehicleGroupStats;
+import com.adamo.vrspfab.vehicles.VehicleRepository;
+import com.adamo.vrspfab.vehicles.VehicleService;
+import com.adamo.vrspfab.vehicles.VehicleStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    /** Calls on the mocked repositories per breakdown, whatever the number of categories and brands. */
+    private static final int BREAKDOWN_REPOSITORY_CALLS = 11;
+
+    @Mock private UserService userService;
+    @Mock private VehicleService vehicleService;
+    @Mock private ReservationService reservationService;
+    @Mock private PaymentService paymentService;
+    @Mock private PaymentRepository paymentRepository;
+    @Mock private VehicleRepository vehicleRepository;
+    @Mock private VehicleCategoryRepository vehicleCategoryRepository;
+    @Mock private VehicleBrandRepository vehicleBrandRepository;
+    @Mock private ActivityService activityService;
+    @Mock private FleetStatusCounters fleetStatusCounters;
+    @Mock private DailyRollupService dailyRollupService;
+    @Mock private FleetOccupancyTimeline fleetOccupancyTimeline;
+    @Spy private DashboardQueryExecutor queryExecutor =
+            new DashboardQueryExecutor(mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 4, 2000);
+
+    @InjectMocks
+    private DashboardService dashboardService;
+
+    @AfterEach
+    void tearDown() {
+        queryExecutor.shutdown();
+    }
+
+    @Test
+    void getVehicleBreakdown_mergesGroupedAggregatesPerCategoryAndBrand() {
+        givenFleet(2, 2);
+
+        VehicleBreakdownDto breakdown = dashboardService.getVehicleBreakdown();
+
+        VehicleBreakdownDto.CategoryAnalytics category = breakdown.getCategories().get(0);
+        assertEquals("Category 1", category.getName());
+        assertEquals(3, category.getTotalVehicles());
+        assertEquals(2, category.getAvailableVehicles());
+        assertEquals(1, category.getRentedVehicles());
+        assertEquals(0, new BigDecimal("60.0").compareTo(category.getAveragePrice()));
+        assertEquals(0, new BigDecimal("100").compareTo(category.getTotalRevenue()));
+
+        VehicleBreakdownDto.BrandAnalytics brand = breakdown.getBrands().get(1);
+        assertEquals("Brand 2", brand.getName());
+        assertEquals(3, brand.getTotalVehicles());
+        assertEquals(3, brand.getModelCount());
+        assertEquals(4.0, brand.getAverageRating());
+        assertEquals(0, BigDecimal.ZERO.compareTo(brand.getTotalRevenue()));
+        assertEquals(50.0, brand.getMarketShare());
+        assertEquals(2, breakdown.getOverview().getTotalBrands());
+        assertEquals("09:00", breakdown.getUtilization().getPeakUsageHour());
+        assertEquals(1, breakdown.getUtilization().getHourlyBreakdown().get(9).getReservations());
+        assertEquals(100.0 / 6, breakdown.getUtilization().getHourlyBreakdown().get(9).getUtilizationRate(), 1e-9);
+    }
+
+    @Test
+    void getVehicleBreakdown_makesTheSameNumberOfRepositoryCallsForAnyCatalogSize() {
+        givenFleet(1, 1);
+        dashboardService.getVehicleBreakdown();
+        assertEquals(BREAKDOWN_REPOSITORY_CALLS, repositoryCalls());
+
+        Mockito.clearInvocations(repositories());
+        givenFleet(15, 40);
+        VehicleBreakdownDto breakdown = dashboardService.getVehicleBreakdown();
+        assertEquals(BREAKDOWN_REPOSITORY_CALLS, repositoryCalls());
+        assertEquals(15, breakdown.getCategories().size());
+        assertEquals(40, breakdown.getBrands().size());
+    }
+
+    @Test
+    void getDashboardAnalytics_readsAYearOfRevenueFromTheRollups() {
+        LocalDate today = LocalDate.now();
+        given(dailyRollupService.getCompletedRevenuePerDay(today.minusDays(365), today))
+                .willReturn(Map.of(today.minusDays(1), new BigDecimal("250.00")));
+        given(dailyRollupService.getReservationsPerMonth(YearMonth.now().minusMonths(5), YearMonth.now()))
+                .willReturn(Map.of(YearMonth.now(), 4L));
+
+        DashboardAnalyticsDto analytics = dashboardService.getDashboardAnalytics(365);
+
+        assertEquals(366, analytics.getRevenueData().size());
+        assertEquals(new BigDecimal("250.00"), analytics.getRevenueData().get(364).getAmount());
+        assertEquals(BigDecimal.ZERO, analytics.getRevenueData().get(0).getAmount());
+        assertEquals(4L, analytics.getMonthlyPerformance().get(5).getReservationCount());
+        assertEquals(0L, analytics.getMonthlyPerformance().get(0).getReservationCount());
+        assertEquals(List.of(), analytics.getUnavailable());
+        Mockito.verifyNoInteractions(paymentRepository);
+    }
+
+    private void givenFleet(int categoryCount, int brandCount) {
+        Map<Long, Map<VehicleStatus, Long>> categoryCounts = new TreeMap<>();
+        Map<Long, Map<VehicleStatus, Long>> brandCounts = new TreeMap<>();
+        List<VehicleCategory> categories = new ArrayList<>();
+        List<VehicleBrand> brands = new ArrayList<>();
+        List<VehicleGroupStats> categoryStats = new ArrayList<>();
+        List<VehicleGroupStats> brandStats = new ArrayList<>();
+        for (long id = 1; id <= categoryCount; id++) {
+            categories.add(VehicleCategory.builder().id(id).name("Category " + id).build());
+            categoryCounts.put(id, Map.of(VehicleStatus.AVAILABLE, 2L, VehicleStatus.RENTED, 1L));
+            categoryStats.add(new VehicleGroupStats(id, 60.0, 2L));
+        }
+        for (long id = 1; id <= brandCount; id++) {
+            brands.add(VehicleBrand.builder().id(id).name("Brand " + id).build());
+            brandCounts.put(id, Map.of(VehicleStatus.AVAILABLE, 3L));
+            brandStats.add(new VehicleGroupStats(id, 80.0, 3L));
+        }
+        long totalVehicles = LongStream.rangeClosed(1, brandCount).map(id -> 3).sum();
+
+        given(fleetStatusCounters.snapshot()).willReturn(FleetStatusDto.builder()
+                .totalVehicles(totalVehicles)
+                .statuses(Map.of(VehicleStatus.AVAILABLE, totalVehicles))
+                .categories(categoryCounts)
+                .brands(brandCounts)
+                .build());
+        given(vehicleCategoryRepository.findAll()).willReturn(categories);
+        given(vehicleBrandRepository.findAll()).willReturn(brands);
+        given(vehicleRepository.getStatsPerCategory()).willReturn(categoryStats);
+        given(vehicleRepository.getStatsPerBrand()).willReturn(brandStats);
+        given(vehicleRepository.getAverageRatingPerBrand()).willReturn(List.of(new VehicleBrandRating(2L, 4.0)));
+        given(paymentRepository.getTotalRevenuePerCategory()).willReturn(List.of(new RevenueByGroup(1L, new BigDecimal("100"))));
+        given(paymentRepository.getTotalRevenuePerBrand()).willReturn(List.of(new RevenueByGroup(1L, new BigDecimal("100"))));
+        double[] vehicleHours = new double[30 * 24];
+        vehicleHours[24 + 9] = 30;
+        given(fleetOccupancyTimeline.getTimeline(any(), eq(30), eq(OccupancyTimelineDto.Resolution.HOUR), eq(totalVehicles)))
+                .willReturn(OccupancyTimelineDto.builder().vehicleHours(vehicleHours).build());
+    }
+
+    private Object[] repositories() {
+        return new Object[]{paymentRepository, vehicleRepository,
+                vehicleCategoryRepository, vehicleBrandRepository};
+    }
+
+    private int repositoryCalls() {
+        return Stream.of(repositories())
+                .mapToInt(repository -> Mockito.mockingDetails(repository).getInvocations().size())
+                .sum();
+    }
+}
@@ -0,0 +1,93 @@
+package com.adamo.vrspfab.dashboard;
+
+import com.adamo.vrspfab.vehicles.VehicleRepository;
+import com.adamo.vrspfab.vehicles.VehicleStatus;
+import com.adamo.vrspfab.vehicles.VehicleStatusChangedEvent;
+import com.adamo.vrspfab.vehicles.VehicleStatusCount;
+import com.adamo.vrspfab.vehicles.VehiclesImportedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FleetStatusCountersTest {
+
+    @Mock private VehicleRepository vehicleRepository;
+    @Mock private SimpMessagingTemplate messagingTemplate;
+
+    private FleetStatusCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        given(vehicleRepository.countByCategoryBrandAndStatus()).willReturn(List.of(
+                new VehicleStatusCount(1L, 10L, VehicleStatus.AVAILABLE, 3L),
+                new VehicleStatusCount(1L, 20L, VehicleStatus.RENTED, 2L),
+                new VehicleStatusCount(2L, 10L, VehicleStatus.AVAILABLE, 4L)));
+        counters = new FleetStatusCounters(vehicleRepository, messagingTemplate);
+        counters.reconcile();
+    }
+
+    @Test
+    void reconcile_countsTheFleetPerCategoryAndBrand() {
+        FleetStatusDto status = counters.snapshot();
+
+        assertEquals(9, status.getTotalVehicles());
+        assertEquals(Map.of(VehicleStatus.AVAILABLE, 7L, VehicleStatus.RENTED, 2L), status.getStatuses());
+        assertEquals(Map.of(VehicleStatus.AVAILABLE, 3L, VehicleStatus.RENTED, 2L), status.getCategories().get(1L));
+        assertEquals(Map.of(VehicleStatus.AVAILABLE, 7L), status.getBrands().get(10L));
+    }
+
+    @Test
+    void onStatusChanged_movesTheVehicleAndPushesOnce() {
+        counters.publishChanges();
+        clearInvocations(messagingTemplate);
+
+        counters.onStatusChanged(new VehicleStatusChangedEvent(this, 5L,
+                new VehicleStatusChangedEvent.Placement(VehicleStatus.AVAILABLE, 2L, 10L),
+                new VehicleStatusChangedEvent.Placement(VehicleStatus.IN_MAINTENANCE, 2L, 10L)));
+        counters.onStatusChanged(new VehicleStatusChangedEvent(this, 6L,
+                new VehicleStatusChangedEvent.Placement(VehicleStatus.RENTED, 1L, 20L),
+                new VehicleStatusChangedEvent.Placement(VehicleStatus.AVAILABLE, 2L, 20L)));
+        counters.publishChanges();
+        counters.publishChanges();
+
+        verify(messagingTemplate, times(1)).convertAndSend(eq(FleetStatusCounters.TOPIC), any(FleetStatusDto.class));
+        FleetStatusDto status = counters.snapshot();
+        assertEquals(9, status.getTotalVehicles());
+        assertEquals(Map.of(VehicleStatus.AVAILABLE, 7L, VehicleStatus.RENTED, 1L, VehicleStatus.IN_MAINTENANCE, 1L), status.getStatuses());
+        assertEquals(Map.of(VehicleStatus.AVAILABLE, 3L, VehicleStatus.RENTED, 1L), status.getCategories().get(1L));
+        assertEquals(Map.of(VehicleStatus.AVAILABLE, 4L, VehicleStatus.IN_MAINTENANCE, 1L), status.getCategories().get(2L));
+        assertEquals(Map.of(VehicleStatus.AVAILABLE, 1L, VehicleStatus.RENTED, 1L), status.getBrands().get(20L));
+        verify(vehicleRepository, times(1)).countByCategoryBrandAndStatus();
+    }
+
+    @Test
+    void onVehiclesImported_reconcilesOnTheNextPushAndPushesOnlyWhenCountsChanged() {
+        counters.publishChanges();
+        clearInvocations(messagingTemplate);
+
+        counters.onVehiclesImported(new VehiclesImportedEvent(this, List.of(11L)));
+        counters.publishChanges();
+        verify(vehicleRepository, times(2)).countByCategoryBrandAndStatus();
+        verifyNoInteractions(messagingTemplate);
+
+        given(vehicleRepository.countByCategoryBrandAndStatus()).willReturn(List.of(
+                new VehicleStatusCount(1L, 10L, VehicleStatus.AVAILABLE, 12L)));
+        counters.onVehiclesImported(new VehiclesImportedEvent(this, List.of(12L)));
+        counters.publishChanges();
+        verify(messagingTemplate).convertAndSend(eq(FleetStatusCounters.TOPIC), any(FleetStatusDto.class));
+        assertEquals(12, counters.snapshot().getTotalVehicles());
+    }
+}
@@ -0,0 +1,76 @@
+package com.adamo.vrspfab.pricing;
+
+import com.adamo.vrspfab.vehicles.Vehicle;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares pricing the 720 slots of a 30-day hourly calendar with the former per-slot {@code BigDecimal}
+ * formula against {@link RateTable} lookups, the table being fetched once per calendar as
+ * {@code DynamicSlotService} does. The table path runs with seasonality, weekend and long-rental rules
+ * configured, which the former formula could not express; their cost is paid when the table is compiled.
+ * <p>
+ * Run with: {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args=PricingBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingBenchmark {
+
+    private static final int SLOTS = 720;
+
+    private final Vehicle vehicle = Vehicle.builder().id(1L).pricePerDay(87.5).build();
+    private final LocalDateTime[] slotStarts = new LocalDateTime[SLOTS + 1];
+    private PricingEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDate today = LocalDate.now();
+        engine = new PricingEngine(List.of(
+                new SeasonalityRule(new double[]{1, 1, 1, 1, 1, 1, 1.2, 1.2, 1, 1, 1, 1.1}),
+                new WeekendRule(1.15),
+                new LongRentalDiscountRule(new int[]{7, 28}, new double[]{0.9, 0.8})), event -> { }, 180, 1000);
+        engine.refresh(today);
+        for (int slot = 0; slot <= SLOTS; slot++) {
+            slotStarts[slot] = today.plusDays(1).atStartOfDay().plusHours(slot);
+        }
+    }
+
+    @Benchmark
+    public void formerBigDecimal(Blackhole blackhole) {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            blackhole.consume(formerPrice(vehicle, slotStarts[slot], slotStarts[slot + 1]));
+        }
+    }
+
+    @Benchmark
+    public void rateTable(Blackhole blackhole) {
+        RateTable rates = engine.rateTable(vehicle, slotStarts[0], slotStarts[SLOTS]);
+        for (int slot = 0; slot < SLOTS; slot++) {
+            blackhole.consume(rates.price(slotStarts[slot], slotStarts[slot + 1]));
+        }
+    }
+
+    /** The pricing formerly hard-coded in {@code DynamicSlotService.calculatePrice}. */
+    private static BigDecimal formerPrice(Vehicle vehicle, LocalDateTime startDate, LocalDateTime endDate) {
+        long hours = Duration.between(startDate, endDate).toHours();
+        BigDecimal dailyRate = vehicle.getPricePerDay() != null ? BigDecimal.valueOf(vehicle.getPricePerDay()) : BigDecimal.valueOf(100.0);
+        if (hours <= 23) {
+            BigDecimal hourlyRate = dailyRate.divide(BigDecimal.valueOf(24), 2, RoundingMode.HALF_UP);
+            return hourlyRate.multiply(BigDecimal.valueOf(hours));
+        }
+        long days = (hours + 23) / 24;
+        return dailyRate.multiply(BigDecimal.valueOf(days));
+    }
+}
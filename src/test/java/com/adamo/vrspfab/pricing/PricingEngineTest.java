@@ -0,0 +1,116 @@
+package com.adamo.vrspfab.pricing;
+
+import com.adamo.vrspfab.reservations.OccupancyCalendar;
+import com.adamo.vrspfab.vehicles.Vehicle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class PricingEngineTest {
+
+    /** A Monday. */
+    private static final LocalDate ORIGIN = LocalDate.of(2025, 3, 3);
+
+    @Mock private OccupancyCalendar occupancyCalendar;
+
+    @Test
+    void quote_withNeutralRules_matchesTheFormerHourlyAndDailyPricing() {
+        PricingEngine engine = engine(List.of(new SeasonalityRule(new double[]{1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1}),
+                new WeekendRule(1.0), new LongRentalDiscountRule(new int[0], new double[0])));
+        Random random = new Random(11);
+
+        for (int i = 0; i < 500; i++) {
+            Vehicle vehicle = Vehicle.builder().id(1L).pricePerDay(random.nextInt(30_000) / 100.0).build();
+            // Starts from a week before the horizon to well past it, so both table paths are exercised
+            LocalDateTime start = ORIGIN.atStartOfDay().plusMinutes(random.nextInt(60 * 24 * 60) - 60 * 24 * 7);
+            LocalDateTime end = start.plusMinutes(random.nextInt(60 * 24 * 40));
+
+            BigDecimal expected = formerPrice(vehicle, start, end);
+            BigDecimal actual = engine.quote(vehicle, start, end);
+            assertEquals(0, expected.compareTo(actual), start + " to " + end + ": " + expected + " vs " + actual);
+        }
+        Vehicle noPrice = Vehicle.builder().id(2L).build();
+        assertEquals(new BigDecimal("300.00"), engine.quote(noPrice, ORIGIN.atTime(8, 0), ORIGIN.plusDays(3).atTime(8, 0)));
+    }
+
+    @Test
+    void quote_appliesWeekendSeasonalityAndLongRentalFactors() {
+        double[] months = {1, 1, 1, 2, 1, 1, 1, 1, 1, 1, 1, 1};
+        PricingEngine engine = engine(List.of(new SeasonalityRule(months), new WeekendRule(1.5),
+                new LongRentalDiscountRule(new int[]{7, 28}, new double[]{0.9, 0.8})));
+        Vehicle vehicle = Vehicle.builder().id(1L).pricePerDay(120.0).build();
+        LocalDateTime monday = ORIGIN.atStartOfDay();
+
+        // Saturday hours at 5.00 * 1.5
+        assertEquals(new BigDecimal("22.50"), engine.quote(vehicle, monday.plusDays(5).plusHours(10), monday.plusDays(5).plusHours(13)));
+        // Friday and Saturday
+        assertEquals(new BigDecimal("300.00"), engine.quote(vehicle, monday.plusDays(4), monday.plusDays(6)));
+        // A week: five weekdays and a weekend, discounted by 10%
+        assertEquals(new BigDecimal("864.00"), engine.quote(vehicle, monday, monday.plusDays(7)));
+        // 25 hours round up to two days, Monday and Tuesday
+        assertEquals(new BigDecimal("240.00"), engine.quote(vehicle, monday, monday.plusHours(25)));
+        // Monday 31 March to Wednesday 2 April, April hours at twice the rate
+        LocalDateTime lastOfMarch = LocalDate.of(2025, 3, 31).atStartOfDay();
+        assertEquals(new BigDecimal("360.00"), engine.quote(vehicle, lastOfMarch, lastOfMarch.plusDays(2)));
+    }
+
+    @Test
+    void quote_surgesOnBusyDays() {
+        double[] utilization = new double[180];
+        utilization[1] = 0.9;
+        utilization[2] = 1.0;
+        given(occupancyCalendar.getFleetUtilization(eq(ORIGIN), anyInt())).willReturn(utilization);
+        PricingEngine engine = engine(List.of(new UtilizationSurgeRule(occupancyCalendar, 0.8, 1.5)));
+        Vehicle vehicle = Vehicle.builder().id(1L).pricePerDay(120.0).build();
+        LocalDateTime monday = ORIGIN.atStartOfDay();
+
+        assertEquals(new BigDecimal("10.00"), engine.quote(vehicle, monday.plusHours(22), monday.plusHours(24)));
+        assertEquals(new BigDecimal("11.25"), engine.quote(vehicle, monday.plusHours(23), monday.plusHours(25)));
+        assertEquals(new BigDecimal("450.00"), engine.quote(vehicle, monday, monday.plusDays(3)));
+    }
+
+    @Test
+    void rateTable_isSharedByVehiclesWithTheSameDailyRate() {
+        PricingEngine engine = engine(List.of());
+        LocalDateTime from = ORIGIN.atStartOfDay();
+
+        RateTable first = engine.rateTable(Vehicle.builder().id(1L).pricePerDay(80.0).build(), from, from.plusDays(30));
+        RateTable second = engine.rateTable(Vehicle.builder().id(2L).pricePerDay(80.0).build(), from.plusDays(2), from.plusDays(3));
+
+        assertSame(first, second);
+        assertNotSame(first, engine.rateTable(Vehicle.builder().id(3L).pricePerDay(90.0).build(), from, from.plusDays(1)));
+    }
+
+    private PricingEngine engine(List<PricingRule> rules) {
+        PricingEngine engine = new PricingEngine(rules, event -> { }, 180, 100);
+        engine.refresh(ORIGIN);
+        return engine;
+    }
+
+    /** The pricing formerly hard-coded in {@code DynamicSlotService.calculatePrice}. */
+    private static BigDecimal formerPrice(Vehicle vehicle, LocalDateTime startDate, LocalDateTime endDate) {
+        long hours = Duration.between(startDate, endDate).toHours();
+        BigDecimal dailyRate = vehicle.getPricePerDay() != null ? BigDecimal.valueOf(vehicle.getPricePerDay()) : BigDecimal.valueOf(100.0);
+        if (hours <= 23) {
+            BigDecimal hourlyRate = dailyRate.divide(BigDecimal.valueOf(24), 2, RoundingMode.HALF_UP);
+            return hourlyRate.multiply(BigDecimal.valueOf(hours));
+        }
+        long days = (hours + 23) / 24;
+        return dailyRate.multiply(BigDecimal.valueOf(days));
+    }
+}
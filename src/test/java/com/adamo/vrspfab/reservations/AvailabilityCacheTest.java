@@ -0,0 +1,114 @@
+package com.adamo.vrspfab.reservations;
+
+import com.adamo.vrspfab.pricing.PricingRefreshedEvent;
+import com.adamo.vrspfab.slots.SlotDto;
+import com.adamo.vrspfab.vehicles.VehicleCatalogChangedEvent;
+import com.adamo.vrspfab.vehicles.VehiclesDeletedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<LocalDateTime[]> loadedRanges = new ArrayList<>();
+    private AvailabilityCache cache;
+
+    private final LocalDateTime nine = LocalDateTime.of(2030, 5, 10, 9, 0);
+
+    @BeforeEach
+    void setUp() {
+        cache = new AvailabilityCache(meterRegistry, 60, 100, 8);
+    }
+
+    @Test
+    void get_normalizesRangesToWholeHours() {
+        load(3L, AvailabilityCache.Kind.UNAVAILABLE, nine.plusMinutes(12).plusSeconds(7), nine.plusHours(5).plusMinutes(1));
+        load(3L, AvailabilityCache.Kind.UNAVAILABLE, nine.plusMinutes(48), nine.plusHours(6));
+
+        assertEquals(1, loads.get());
+        assertEquals(nine, loadedRanges.get(0)[0]);
+        assertEquals(nine.plusHours(6), loadedRanges.get(0)[1]);
+        assertEquals(1.0, meterRegistry.counter("reservations.availability.cache.requests", "result", "hit").count());
+    }
+
+    @Test
+    void get_keepsTheStartOfAvailableSlotsAsTheirBucketOrigin() {
+        load(3L, AvailabilityCache.Kind.AVAILABLE, nine.plusMinutes(12), nine.plusHours(5).plusMinutes(1));
+        load(3L, AvailabilityCache.Kind.AVAILABLE, nine.plusMinutes(48), nine.plusHours(6));
+        load(3L, AvailabilityCache.Kind.AVAILABLE, nine.plusMinutes(12), nine.plusHours(5).plusMinutes(30));
+
+        assertEquals(2, loads.get());
+        assertEquals(nine.plusMinutes(12), loadedRanges.get(0)[0]);
+        assertEquals(nine.plusHours(6), loadedRanges.get(0)[1]);
+        assertEquals(nine.plusMinutes(48), loadedRanges.get(1)[0]);
+    }
+
+    @Test
+    void reservationChange_evictsOnlyTheAffectedVehicle() {
+        load(3L, nine, nine.plusDays(1));
+        load(4L, nine, nine.plusDays(1));
+
+        cache.onReservationChanged(new ReservationChangedEvent(this, 1L, 3L,
+                nine.plusHours(2), nine.plusHours(4), null, ReservationStatus.PENDING));
+        load(3L, nine, nine.plusDays(1));
+        load(4L, nine, nine.plusDays(1));
+
+        assertEquals(3, loads.get());
+        assertEquals(1.0, meterRegistry.counter("reservations.availability.cache.evictions").count());
+    }
+
+    @Test
+    void vehicleAndPricingChanges_evictCachedSlots() {
+        load(3L, nine, nine.plusDays(1));
+        load(4L, nine, nine.plusDays(1));
+
+        cache.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.VEHICLE, 3L, null, false));
+        load(3L, nine, nine.plusDays(1));
+        load(4L, nine, nine.plusDays(1));
+        assertEquals(3, loads.get());
+
+        cache.onPricingRefreshed(new PricingRefreshedEvent(this));
+        load(3L, nine, nine.plusDays(1));
+        load(4L, nine, nine.plusDays(1));
+        assertEquals(5, loads.get());
+
+        cache.onVehiclesDeleted(new VehiclesDeletedEvent(this, List.of(4L)));
+        load(3L, nine, nine.plusDays(1));
+        load(4L, nine, nine.plusDays(1));
+        assertEquals(6, loads.get());
+    }
+
+    @Test
+    void resultLoadedDuringEviction_isNotServedAfterwards() {
+        cache.get(3L, AvailabilityCache.Kind.AVAILABLE, "DAILY", nine, nine.plusDays(1), (from, to) -> {
+            // A reservation commits while this result is being computed
+            cache.evict(3L);
+            loads.incrementAndGet();
+            return List.of();
+        });
+        load(3L, nine, nine.plusDays(1));
+
+        assertEquals(2, loads.get());
+    }
+
+    private void load(Long vehicleId, LocalDateTime start, LocalDateTime end) {
+        load(vehicleId, AvailabilityCache.Kind.AVAILABLE, start, end);
+    }
+
+    private void load(Long vehicleId, AvailabilityCache.Kind kind, LocalDateTime start, LocalDateTime end) {
+        cache.get(vehicleId, kind, "daily", start, end, (from, to) -> {
+            loads.incrementAndGet();
+            loadedRanges.add(new LocalDateTime[]{from, to});
+            return List.of(new SlotDto());
+        });
+    }
+}
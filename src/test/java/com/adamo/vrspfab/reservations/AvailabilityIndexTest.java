@@ -0,0 +1,86 @@
+package com.adamo.vrspfab.reservations;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityIndexTest {
+
+    @Mock private ReservationRepository reservationRepository;
+
+    @InjectMocks private AvailabilityIndex availabilityIndex;
+
+    private final LocalDateTime day = LocalDate.now().plusDays(3).atStartOfDay();
+
+    @BeforeEach
+    void warmUp() {
+        given(reservationRepository.findActiveWindowsEndingAfter(any())).willReturn(List.of(
+                new ReservationWindow(1L, 5L, day.plusHours(8), day.plusDays(2)),
+                new ReservationWindow(2L, 5L, day.plusHours(10), day.plusHours(12)),
+                new ReservationWindow(3L, 5L, day.plusDays(4), day.plusDays(5))
+        ));
+        availabilityIndex.warmUp();
+    }
+
+    @Test
+    void hasOverlap_usesHalfOpenWindowsAndLongestPrecedingReservation() {
+        assertTrue(availabilityIndex.covers(day));
+        assertFalse(availabilityIndex.hasOverlap(5L, day, day.plusHours(8)));
+        assertTrue(availabilityIndex.hasOverlap(5L, day.plusDays(1), day.plusDays(1).plusHours(1)));
+        assertFalse(availabilityIndex.hasOverlap(5L, day.plusDays(2), day.plusDays(4)));
+        assertFalse(availabilityIndex.hasOverlap(6L, day, day.plusDays(10)));
+    }
+
+    @Test
+    void onReservationChanged_addsAndRemovesWindows() {
+        availabilityIndex.onReservationChanged(new ReservationChangedEvent(this, 4L, 5L,
+                day.plusDays(2).plusHours(1), day.plusDays(2).plusHours(3), null, ReservationStatus.PENDING));
+        assertTrue(availabilityIndex.hasOverlap(5L, day.plusDays(2), day.plusDays(4)));
+
+        availabilityIndex.onReservationChanged(new ReservationChangedEvent(this, 4L, 5L,
+                day.plusDays(2).plusHours(1), day.plusDays(2).plusHours(3), ReservationStatus.PENDING, ReservationStatus.CANCELLED));
+        availabilityIndex.onReservationChanged(new ReservationChangedEvent(this, 1L, 5L,
+                day.plusHours(8), day.plusDays(2), ReservationStatus.CONFIRMED, null));
+        assertFalse(availabilityIndex.hasOverlap(5L, day.plusDays(2), day.plusDays(4)));
+        assertFalse(availabilityIndex.hasOverlap(5L, day.plusDays(1), day.plusDays(1).plusHours(1)));
+        assertTrue(availabilityIndex.hasOverlap(5L, day.plusHours(11), day.plusHours(11).plusMinutes(30)));
+    }
+
+    @Test
+    void warmUp_afterAFailure_dropsChangesUntilTheRetryWarmsTheIndex() {
+        AvailabilityIndex cold = new AvailabilityIndex(reservationRepository);
+        given(reservationRepository.findActiveWindowsEndingAfter(any())).willThrow(new IllegalStateException("database down"));
+        cold.warmUp();
+        cold.retryWarmUp();
+
+        // Not buffered while cold: the retry reads the reservation's current state from the database
+        cold.onReservationChanged(new ReservationChangedEvent(this, 8L, 7L, day, day.plusDays(1), null, ReservationStatus.PENDING));
+        assertFalse(cold.covers(day));
+
+        willReturn(List.of(new ReservationWindow(9L, 7L, day.plusDays(3), day.plusDays(4))))
+                .given(reservationRepository).findActiveWindowsEndingAfter(any());
+        cold.retryWarmUp();
+        cold.retryWarmUp();
+
+        assertTrue(cold.covers(day));
+        assertFalse(cold.hasOverlap(7L, day, day.plusDays(1)));
+        assertTrue(cold.hasOverlap(7L, day.plusDays(3), day.plusDays(4)));
+        // Two failed attempts, then one successful one; a warm index is not reloaded
+        then(reservationRepository).should(times(4)).findActiveWindowsEndingAfter(any());
+    }
+}
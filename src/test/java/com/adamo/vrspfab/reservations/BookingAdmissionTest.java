@@ -0,0 +1,143 @@
+package com.adamo.vrspfab.reservations;
+
+import com.adamo.vrspfab.vehicles.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Drives {@link BookingAdmission} with the same check-then-insert sequence as
+ * {@code ReservationService.createReservation}, against an in-memory reservation store with an
+ * artificial delay between the check and the insert to widen the race window. The service itself is
+ * exercised against MySQL by {@link ReservationBookingIT}.
+ */
+class BookingAdmissionTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 6, 1, 10, 0);
+
+    private final VehicleRepository vehicleRepository = mock(VehicleRepository.class);
+    private final BookingAdmission admission = new BookingAdmission(vehicleRepository, 64, 30_000);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+    private final Map<Long, List<LocalDateTime[]>> store = new ConcurrentHashMap<>();
+
+    @Test
+    void admit_parallelBookingsOfOneVehicle_admitExactlyOne() throws Exception {
+        int attempts = 300;
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < attempts; i++) {
+                // All windows overlap around START, each slightly shifted
+                LocalDateTime start = START.minusMinutes(i % 30);
+                futures.add(executor.submit(() -> {
+                    ready.await();
+                    if (book(1L, start, start.plusHours(2), 200_000)) {
+                        admitted.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            ready.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, admitted.get());
+        assertEquals(1, store.get(1L).size());
+    }
+
+    @Test
+    void admit_bookingsOfDifferentVehicles_holdTheirGuardsAtTheSameTime() throws Exception {
+        int vehicles = 16;
+        // Each booking waits inside its guards until every other booking is inside its own, which can only
+        // happen if bookings of different vehicles do not wait for each other
+        CyclicBarrier allAdmitted = new CyclicBarrier(vehicles);
+        ExecutorService executor = Executors.newFixedThreadPool(vehicles);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (long vehicleId = 1; vehicleId <= vehicles; vehicleId++) {
+                long id = vehicleId;
+                futures.add(executor.submit(() -> transactionTemplate.execute(status -> {
+                    admission.admit(id);
+                    try {
+                        allAdmitted.await(10, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        throw new AssertionError("Booking of vehicle " + id + " was held up by another vehicle", e);
+                    }
+                    return true;
+                })));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (long vehicleId = 1; vehicleId <= vehicles; vehicleId++) {
+            verify(vehicleRepository).findByIdForUpdate(vehicleId);
+        }
+    }
+
+    private boolean book(Long vehicleId, LocalDateTime start, LocalDateTime end, long insertDelayNanos) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            admission.admit(vehicleId);
+            List<LocalDateTime[]> existing = store.computeIfAbsent(vehicleId, id -> new CopyOnWriteArrayList<>());
+            boolean conflict = existing.stream().anyMatch(w -> w[0].isBefore(end) && w[1].isAfter(start));
+            if (conflict) {
+                return false;
+            }
+            pause(insertDelayNanos);
+            existing.add(new LocalDateTime[]{start, end});
+            return true;
+        }));
+    }
+
+    private static void pause(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(deadline - System.nanoTime());
+        }
+    }
+
+    /**
+     * Transaction manager without a resource; it only drives transaction synchronizations.
+     */
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
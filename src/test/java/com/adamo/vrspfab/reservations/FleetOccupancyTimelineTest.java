@@ -0,0 +1,112 @@
+package com.adamo.vrspfab.reservations;
+
+import com.adamo.vrspfab.vehicles.VehicleCatalogChangedEvent;
+import com.adamo.vrspfab.vehicles.VehiclesDeletedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FleetOccupancyTimelineTest {
+
+    @Mock private ReservationRepository reservationRepository;
+
+    private FleetOccupancyTimeline timeline;
+
+    private final LocalDate today = LocalDate.now();
+    private final LocalDateTime day1 = today.plusDays(1).atStartOfDay();
+
+    @BeforeEach
+    void build() {
+        timeline = new FleetOccupancyTimeline(reservationRepository, 5, 10);
+        given(reservationRepository.findOccupancyWindowsOverlapping(any(), any())).willReturn(List.of(
+                // 08:30 to 10:00, and an overlapping 09:00 to 11:00 on the same vehicle: counted once
+                new OccupancyWindow(1L, 7L, day1.plusHours(8).plusMinutes(30), day1.plusHours(10)),
+                new OccupancyWindow(1L, 7L, day1.plusHours(9), day1.plusHours(11)),
+                // a three-day rental from day 1 at midnight
+                new OccupancyWindow(2L, 8L, day1, day1.plusDays(3))
+        ));
+        timeline.rebuild();
+    }
+
+    @Test
+    void getTimeline_countsVehicleHoursPerHourToTheSecond() {
+        OccupancyTimelineDto dto = timeline.getTimeline(today.plusDays(1), 1, OccupancyTimelineDto.Resolution.HOUR, 4);
+
+        assertEquals(1.0, dto.getVehicleHours()[7]);
+        assertEquals(1.5, dto.getVehicleHours()[8]);
+        assertEquals(2.0, dto.getVehicleHours()[9]);
+        assertEquals(2.0, dto.getVehicleHours()[10]);
+        assertEquals(1.0, dto.getVehicleHours()[11]);
+        assertEquals(50.0, dto.getUtilizationRate()[9]);
+        assertEquals(0.5, dto.getCategories().get(7L)[8]);
+        verify(reservationRepository, times(1)).findOccupancyWindowsOverlapping(any(), any());
+    }
+
+    @Test
+    void getTimeline_totalsDaysAndSweepsRangesOutsideTheWindowFromTheDatabase() {
+        OccupancyTimelineDto dto = timeline.getTimeline(today, 5, OccupancyTimelineDto.Resolution.DAY, 2);
+
+        assertArrayEquals(new double[]{0, 26.5, 24, 24, 0}, dto.getVehicleHours());
+        assertArrayEquals(new double[]{0, 24, 24, 24, 0}, dto.getCategories().get(8L));
+        assertEquals(26.5 / 48 * 100, dto.getUtilizationRate()[1], 1e-9);
+
+        timeline.getTimeline(today.plusDays(20), 3, OccupancyTimelineDto.Resolution.DAY, 2);
+        verify(reservationRepository, times(2)).findOccupancyWindowsOverlapping(any(), any());
+    }
+
+    @Test
+    void onReservationChanged_replacesTheVehiclesHours() {
+        given(reservationRepository.findOccupancyWindows(eq(1L), any(), any())).willReturn(List.of(
+                new OccupancyWindow(1L, 7L, day1.plusHours(14), day1.plusHours(15).plusMinutes(15))));
+
+        timeline.onReservationChanged(new ReservationChangedEvent(this, 3L, 1L,
+                day1.plusHours(8).plusMinutes(30), day1.plusHours(10), ReservationStatus.CONFIRMED, ReservationStatus.CANCELLED));
+
+        double[] hours = timeline.getTimeline(today.plusDays(1), 1, OccupancyTimelineDto.Resolution.HOUR, 2).getCategories().get(7L);
+        assertEquals(0.0, hours[9]);
+        assertEquals(1.0, hours[14]);
+        assertEquals(0.25, hours[15]);
+    }
+
+    @Test
+    void onVehiclesDeleted_dropsTheVehiclesHours() {
+        timeline.onVehiclesDeleted(new VehiclesDeletedEvent(this, List.of(2L)));
+
+        OccupancyTimelineDto dto = timeline.getTimeline(today.plusDays(1), 1, OccupancyTimelineDto.Resolution.HOUR, 4);
+        assertEquals(0.0, dto.getVehicleHours()[7]);
+        assertArrayEquals(new double[24], dto.getCategories().get(8L));
+        verify(reservationRepository, never()).findOccupancyWindows(any(), any(), any());
+    }
+
+    @Test
+    void onCatalogChanged_movesAnUpdatedVehicleToItsNewCategory() {
+        given(reservationRepository.findOccupancyWindows(eq(2L), any(), any())).willReturn(List.of(
+                new OccupancyWindow(2L, 7L, day1, day1.plusDays(3))));
+
+        timeline.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.VEHICLE, 2L, null, false));
+
+        OccupancyTimelineDto dto = timeline.getTimeline(today.plusDays(1), 1, OccupancyTimelineDto.Resolution.HOUR, 4);
+        assertEquals(1.5, dto.getCategories().get(7L)[8]);
+        assertEquals(0.0, dto.getCategories().get(8L)[8]);
+        assertEquals(1.5, dto.getVehicleHours()[8]);
+    }
+
+    @Test
+    void getTimeline_rejectsEmptyRanges() {
+        assertThrows(InvalidReservationDateException.class,
+                () -> timeline.getTimeline(today, 0, OccupancyTimelineDto.Resolution.HOUR, 2));
+    }
+}
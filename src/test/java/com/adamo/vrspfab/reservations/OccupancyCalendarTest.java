@@ -0,0 +1,95 @@
+package com.adamo.vrspfab.reservations;
+
+import com.adamo.vrspfab.dashboard.FleetStatusCounters;
+import com.adamo.vrspfab.dashboard.FleetStatusDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OccupancyCalendarTest {
+
+    @Mock private ReservationRepository reservationRepository;
+    @Mock private FleetStatusCounters fleetStatusCounters;
+
+    private OccupancyCalendar calendar;
+
+    private final LocalDate today = LocalDate.now();
+    private final LocalDateTime day1 = today.plusDays(1).atStartOfDay();
+
+    @BeforeEach
+    void build() {
+        calendar = new OccupancyCalendar(reservationRepository, fleetStatusCounters, 30);
+        given(reservationRepository.findWindowsOverlapping(any(), any())).willReturn(List.of(
+                // 22:30 to 02:00 the next day: hours 22, 23 of day 1 and 0, 1 of day 2
+                new ReservationWindow(1L, 3L, day1.plusHours(22).plusMinutes(30), day1.plusDays(1).plusHours(2)),
+                new ReservationWindow(2L, 4L, day1.plusDays(2), day1.plusDays(4))
+        ));
+        calendar.rebuild();
+    }
+
+    @Test
+    void getVehicleCalendar_countsReservedHoursPerDayFromMemory() {
+        OccupancyCalendarDto dto = calendar.getVehicleCalendar(3L, today, 4);
+
+        assertArrayEquals(new int[]{0, 2, 2, 0}, dto.getOccupiedHours());
+        verify(reservationRepository, never()).findReservationWindows(any(), any(), any());
+    }
+
+    @Test
+    void getFleetCalendar_countsOccupiedVehiclesPerDay() {
+        given(fleetStatusCounters.snapshot()).willReturn(FleetStatusDto.builder().totalVehicles(10L).build());
+
+        FleetOccupancyCalendarDto dto = calendar.getFleetCalendar(today.plusDays(1), 4);
+
+        assertArrayEquals(new int[]{1, 1, 1, 1}, dto.getOccupiedVehicles());
+        assertEquals(List.of(3L, 4L), dto.getVehicles().stream().map(OccupancyCalendarDto::getVehicleId).toList());
+        assertArrayEquals(new int[]{0, 0, 24, 24}, dto.getVehicles().get(1).getOccupiedHours());
+        assertEquals(10L, dto.getFleetSize());
+    }
+
+    @Test
+    void onReservationChanged_addsHoursAndReloadsVehicleOnCancellation() {
+        calendar.onReservationChanged(new ReservationChangedEvent(this, 5L, 3L,
+                day1.plusHours(8), day1.plusHours(10), null, ReservationStatus.PENDING));
+        assertArrayEquals(new int[]{4, 2}, calendar.getVehicleCalendar(3L, today.plusDays(1), 2).getOccupiedHours());
+
+        given(reservationRepository.findReservationWindows(eq(3L), any(), any())).willReturn(List.of(
+                new ReservationWindow(5L, 3L, day1.plusHours(8), day1.plusHours(10))));
+        calendar.onReservationChanged(new ReservationChangedEvent(this, 1L, 3L,
+                day1.plusHours(22).plusMinutes(30), day1.plusDays(1).plusHours(2), ReservationStatus.CONFIRMED, ReservationStatus.CANCELLED));
+
+        assertArrayEquals(new int[]{2, 0}, calendar.getVehicleCalendar(3L, today.plusDays(1), 2).getOccupiedHours());
+    }
+
+    @Test
+    void onReservationChanged_reloadsAgainWhenAnotherChangeLandsDuringTheReload() {
+        ReservationChangedEvent booked = new ReservationChangedEvent(this, 6L, 3L,
+                day1.plusHours(12), day1.plusHours(13), null, ReservationStatus.PENDING);
+        given(reservationRepository.findReservationWindows(eq(3L), any(), any()))
+                .willAnswer(invocation -> {
+                    // A booking commits while the windows of the first reload are read
+                    calendar.onReservationChanged(booked);
+                    return List.of();
+                })
+                .willReturn(List.of(new ReservationWindow(6L, 3L, day1.plusHours(12), day1.plusHours(13))));
+
+        calendar.onReservationChanged(new ReservationChangedEvent(this, 1L, 3L,
+                day1.plusHours(22).plusMinutes(30), day1.plusDays(1).plusHours(2), ReservationStatus.CONFIRMED, ReservationStatus.CANCELLED));
+
+        assertArrayEquals(new int[]{1, 0}, calendar.getVehicleCalendar(3L, today.plusDays(1), 2).getOccupiedHours());
+        verify(reservationRepository, times(2)).findReservationWindows(eq(3L), any(), any());
+    }
+}
@@ -0,0 +1,110 @@
+package com.adamo.vrspfab.reservations;
+
+import com.adamo.vrspfab.common.containers.MySqlTestBaseIT;
+import com.adamo.vrspfab.common.config.TestMailConfig;
+import com.adamo.vrspfab.slots.NoAvailableSlotsException;
+import com.adamo.vrspfab.users.AuthProvider;
+import com.adamo.vrspfab.users.Role;
+import com.adamo.vrspfab.users.User;
+import com.adamo.vrspfab.users.UserRepository;
+import com.adamo.vrspfab.vehicles.Vehicle;
+import com.adamo.vrspfab.vehicles.VehicleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Books one vehicle from several threads at once through {@link ReservationService#createReservation}, so the
+ * booking guard and the overlap re-check run against MySQL with real transactions.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class ReservationBookingIT extends MySqlTestBaseIT {
+
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private VehicleRepository vehicleRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Long> createdReservationIds = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAllById(createdReservationIds);
+    }
+
+    @Test
+    void createReservation_concurrentBookingsOfOneVehicle_acceptExactlyOne() throws Exception {
+        int attempts = 8;
+        User user = userRepository.findAll().stream().findFirst().orElseGet(() -> userRepository.save(User.builder()
+                .email("booking-race@example.com")
+                .password("password123")
+                .role(Role.CUSTOMER)
+                .authProvider(AuthProvider.LOCAL)
+                .build()));
+        Vehicle vehicle = vehicleRepository.findAll().stream().findFirst().orElseThrow(
+                () -> new IllegalStateException("No vehicles found. Ensure Flyway migrations create seed data.")
+        );
+        // Far enough ahead to stay clear of any seeded reservation
+        LocalDateTime start = LocalDateTime.now().plusYears(5).truncatedTo(ChronoUnit.HOURS);
+
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < attempts; i++) {
+                // All windows overlap, each slightly shifted
+                LocalDateTime attemptStart = start.plusMinutes(i * 10L);
+                futures.add(executor.submit(() -> {
+                    SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                            user.getId().toString(), null, List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"))));
+                    try {
+                        ready.await();
+                        CreateReservationRequest request = new CreateReservationRequest();
+                        request.setVehicleId(vehicle.getId());
+                        request.setStartDate(attemptStart);
+                        request.setEndDate(attemptStart.plusDays(1));
+                        createdReservationIds.add(reservationService.createReservation(request).getId());
+                    } catch (NoAvailableSlotsException | ReservationConflictException e) {
+                        rejected.incrementAndGet();
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                    return null;
+                }));
+            }
+            ready.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, createdReservationIds.size());
+        assertEquals(attempts - 1, rejected.get());
+        assertEquals(1, reservationRepository.findOverlappingReservations(
+                vehicle.getId(), start, start.plusDays(2)).size());
+    }
+}
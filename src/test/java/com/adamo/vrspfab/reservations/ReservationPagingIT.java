@@ -0,0 +1,139 @@
+package com.adamo.vrspfab.reservations;
+
+import com.adamo.vrspfab.common.config.TestMailConfig;
+import com.adamo.vrspfab.common.containers.MySqlTestBaseIT;
+import com.adamo.vrspfab.slots.Slot;
+import com.adamo.vrspfab.slots.SlotRepository;
+import com.adamo.vrspfab.slots.SlotType;
+import com.adamo.vrspfab.users.AuthProvider;
+import com.adamo.vrspfab.users.Role;
+import com.adamo.vrspfab.users.User;
+import com.adamo.vrspfab.users.UserRepository;
+import com.adamo.vrspfab.vehicles.Vehicle;
+import com.adamo.vrspfab.vehicles.VehicleRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Paged reservation queries must be limited by the database. The test profile turns Hibernate's
+ * in-memory pagination warning (HHH90003004) into an error, so any paged query that fetch-joins
+ * a collection fails here.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+@Transactional
+class ReservationPagingIT extends MySqlTestBaseIT {
+
+    @Autowired private ReservationRepository reservationRepository;
+    @Autowired private VehicleRepository vehicleRepository;
+    @Autowired private SlotRepository slotRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManager entityManager;
+
+    private User user;
+    private Vehicle vehicle;
+    private final List<Long> newestFirst = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        vehicle = vehicleRepository.findAll().stream().findFirst()
+                .orElseThrow(() -> new IllegalStateException("Seed data should provide a vehicle"));
+        user = userRepository.save(User.builder()
+                .email("paging-it@example.com")
+                .password("password123")
+                .role(Role.CUSTOMER)
+                .authProvider(AuthProvider.LOCAL)
+                .build());
+
+        LocalDateTime start = LocalDate.now().plusYears(5).atTime(9, 0);
+        for (int i = 0; i < 3; i++) {
+            LocalDateTime from = start.plusDays(i * 3L);
+            Reservation reservation = reservationRepository.save(Reservation.builder()
+                    .user(user)
+                    .vehicle(vehicle)
+                    .startDate(from)
+                    .endDate(from.plusDays(2))
+                    .status(ReservationStatus.CONFIRMED)
+                    .build());
+            for (int day = 0; day < 2; day++) {
+                Slot slot = new Slot();
+                slot.setVehicle(vehicle);
+                slot.setStartTime(from.plusDays(day));
+                slot.setEndTime(from.plusDays(day + 1));
+                slot.setAvailable(false);
+                slot.setSlotType(SlotType.DAILY);
+                slot.setReservation(reservation);
+                slotRepository.save(slot);
+            }
+            newestFirst.add(0, reservation.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void paginationOverCollectionFetch_isRejected() {
+        // Guards the guard: without the setting this would only log HHH90003004
+        assertThrows(RuntimeException.class, () -> entityManager
+                .createQuery("SELECT r FROM Reservation r LEFT JOIN FETCH r.slots", Reservation.class)
+                .setMaxResults(2)
+                .getResultList());
+    }
+
+    @Test
+    void findAll_withSpecification_pagesInTheDatabaseAndFetchesGraphs() {
+        ReservationFilter filter = ReservationFilter.builder().userId(user.getId()).build();
+
+        Page<Reservation> page = reservationRepository.findAll(ReservationSpecification.withFilter(filter, null),
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "startDate")));
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(newestFirst.subList(0, 2), page.map(Reservation::getId).getContent());
+        assertGraphsLoaded(page);
+    }
+
+    @Test
+    void findByUserId_returnsRequestedPageInOrder() {
+        Page<Reservation> page = reservationRepository.findByUserId(user.getId(),
+                PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "startDate")));
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(newestFirst.subList(2, 3), page.map(Reservation::getId).getContent());
+        assertGraphsLoaded(page);
+    }
+
+    @Test
+    void findByVehicleId_pagesInTheDatabase() {
+        Page<Reservation> page = reservationRepository.findByVehicleId(vehicle.getId(), PageRequest.of(0, 1));
+
+        assertEquals(1, page.getContent().size());
+        assertTrue(page.getTotalElements() >= 3);
+        assertGraphsLoaded(page);
+    }
+
+    private static void assertGraphsLoaded(Page<Reservation> page) {
+        for (Reservation reservation : page) {
+            assertTrue(Hibernate.isInitialized(reservation.getUser()));
+            assertTrue(Hibernate.isInitialized(reservation.getVehicle()));
+            assertTrue(Hibernate.isInitialized(reservation.getSlots()));
+        }
+    }
+}
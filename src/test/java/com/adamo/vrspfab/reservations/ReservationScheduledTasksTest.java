@@ -0,0 +1,112 @@
+package com.adamo.vrspfab.reservations;
+
+import com.adamo.vrspfab.notifications.NotificationService;
+import com.adamo.vrspfab.notifications.NotificationType;
+import com.adamo.vrspfab.slots.SlotRepository;
+import com.adamo.vrspfab.users.User;
+import com.adamo.vrspfab.vehicles.Vehicle;
+import com.adamo.vrspfab.vehicles.VehicleBrand;
+import com.adamo.vrspfab.vehicles.VehicleModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationScheduledTasksTest {
+
+    @Mock private SlotRepository slotRepository;
+    @Mock private ReservationRepository reservationRepository;
+    @Mock private NotificationService notificationService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReservationScheduledTasks tasks;
+
+    @BeforeEach
+    void setUp() {
+        tasks = new ReservationScheduledTasks(slotRepository, reservationRepository, notificationService,
+                eventPublisher, new TransactionTemplate(transactionManager), meterRegistry, 2);
+    }
+
+    @Test
+    void completeOldReservations_processesChunksWithBulkUpdatesAndNotifiesAfterCommit() {
+        given(reservationRepository.findIdsByStatusAndEndDateBefore(eq(ReservationStatus.CONFIRMED), any(), any(Pageable.class)))
+                .willReturn(List.of(1L, 2L), List.of(3L));
+        givenStillConfirmed(List.of(1L, 2L, 3L));
+
+        tasks.completeOldReservations();
+
+        verify(reservationRepository).updateStatusByIdIn(List.of(1L, 2L), ReservationStatus.CONFIRMED, ReservationStatus.COMPLETED);
+        verify(reservationRepository).updateStatusByIdIn(List.of(3L), ReservationStatus.CONFIRMED, ReservationStatus.COMPLETED);
+        verify(slotRepository).releaseByReservationIdIn(List.of(1L, 2L));
+        verify(slotRepository).releaseByReservationIdIn(List.of(3L));
+        verify(transactionManager, times(2)).commit(any());
+        verify(notificationService, times(3)).createAndDispatchNotification(any(User.class), eq(NotificationType.RESERVATION_COMPLETED), anyString());
+        verify(reservationRepository, never()).save(any());
+
+        assertEquals(3.0, meterRegistry.counter("reservations.completion.processed").count());
+        assertEquals(1, meterRegistry.timer("reservations.completion.run.duration").count());
+        assertEquals(3.0, meterRegistry.summary("reservations.completion.run.rows").totalAmount());
+    }
+
+    @Test
+    void completeOldReservations_skipsReservationsCancelledSinceTheyWereSelected() {
+        given(reservationRepository.findIdsByStatusAndEndDateBefore(eq(ReservationStatus.CONFIRMED), any(), any(Pageable.class)))
+                .willReturn(List.of(1L, 2L), List.of(3L, 4L), List.of());
+        // Reservations 2 and 3 are cancelled between the selection and the lock
+        givenStillConfirmed(List.of(1L, 4L));
+
+        tasks.completeOldReservations();
+
+        verify(reservationRepository).updateStatusByIdIn(List.of(1L), ReservationStatus.CONFIRMED, ReservationStatus.COMPLETED);
+        verify(reservationRepository).updateStatusByIdIn(List.of(4L), ReservationStatus.CONFIRMED, ReservationStatus.COMPLETED);
+        verify(slotRepository).releaseByReservationIdIn(List.of(1L));
+        verify(slotRepository).releaseByReservationIdIn(List.of(4L));
+        verify(eventPublisher, times(2)).publishEvent(any(ReservationChangedEvent.class));
+        verify(notificationService, times(2)).createAndDispatchNotification(any(User.class), eq(NotificationType.RESERVATION_COMPLETED), anyString());
+        assertEquals(2.0, meterRegistry.counter("reservations.completion.processed").count());
+    }
+
+    private void givenStillConfirmed(List<Long> confirmed) {
+        given(reservationRepository.findByIdInAndStatusForUpdate(anyCollection(), eq(ReservationStatus.CONFIRMED))).willAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(confirmed::contains).map(this::reservation).toList();
+        });
+        given(reservationRepository.findAllWithUserAndVehicleByIdIn(anyCollection())).willAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(this::reservation).toList();
+        });
+    }
+
+    private Reservation reservation(Long id) {
+        VehicleBrand brand = new VehicleBrand();
+        brand.setName("Dacia");
+        VehicleModel model = new VehicleModel();
+        model.setName("Logan");
+        return Reservation.builder()
+                .id(id)
+                .user(User.builder().id(id).build())
+                .vehicle(Vehicle.builder().id(10L).brand(brand).model(model).build())
+                .startDate(LocalDateTime.now().minusDays(3))
+                .endDate(LocalDateTime.now().minusDays(1))
+                .status(ReservationStatus.CONFIRMED)
+                .build();
+    }
+}
@@ -6,6 +6,7 @@ import com.adamo.vrspfab.slots.DynamicSlotService;
 import com.adamo.vrspfab.slots.SlotRepository;
 import com.adamo.vrspfab.users.Role;
 import com.adamo.vrspfab.users.User;
+import com.adamo.vrspfab.vehicles.VehicleReferenceData;
 import com.adamo.vrspfab.vehicles.VehicleService;
 import com.adamo.vrspfab.vehicles.mappers.VehicleMapper;
 import org.junit.jupiter.api.Test;
@@ -18,12 +19,16 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.AccessDeniedException;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 @org.mockito.junit.jupiter.MockitoSettings(strictness = org.mockito.quality.Strictness.LENIENT)
@@ -38,10 +43,13 @@ class ReservationServiceTest {
     @Mock private SlotRepository slotRepository;
     @Mock private DynamicSlotService dynamicSlotService;
     @Mock private SecurityUtilsService securityUtilsService; // for methods using this field
-    @Mock private com.adamo.vrspfab.vehicles.VehicleCategoryRepository vehicleCategoryRepository;
-    @Mock private com.adamo.vrspfab.vehicles.VehicleBrandRepository vehicleBrandRepository;
-    @Mock private com.adamo.vrspfab.vehicles.VehicleModelRepository vehicleModelRepository;
+    @Mock private VehicleReferenceData vehicleReferenceData;
     @Mock private com.adamo.vrspfab.dashboard.ActivityEventListener activityEventListener;
+    @Mock private AvailabilityIndex availabilityIndex;
+    @Mock private BookingAdmission bookingAdmission;
+    @Mock private OccupancyCalendar occupancyCalendar;
+    @Mock private org.springframework.context.ApplicationEventPublisher eventPublisher;
+    @Mock private AvailabilityCache availabilityCache;
 
     @InjectMocks private ReservationService reservationService;
 
@@ -82,4 +90,28 @@ class ReservationServiceTest {
         Page<ReservationSummaryDto> page = reservationService.getReservationsForCurrentUser(PageRequest.of(0, 10));
         assertEquals(1, page.getTotalElements());
     }
+
+    @Test
+    void getBlockedDatesForVehicle_rangeBeyondTheCalendar_readsTheOverlappingReservations() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        given(reservationRepository.findOverlappingReservations(3L, start, start.plusYears(2))).willReturn(List.of(
+                Reservation.builder().id(1L).startDate(start.plusDays(400).plusHours(20)).endDate(start.plusDays(401).plusHours(2)).build()));
+
+        List<String> blocked = reservationService.getBlockedDatesForVehicle(3L, start, start.plusYears(2));
+
+        assertEquals(List.of("2031-02-05", "2031-02-06"), blocked);
+        verifyNoInteractions(occupancyCalendar);
+    }
+
+    @Test
+    void getAvailableSlots_bucketsFromTheRequestedStartOrItsMidnight() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 17);
+        LocalDateTime end = start.plusHours(5);
+
+        reservationService.getAvailableSlots(3L, start, end, "HOURLY");
+        reservationService.getAvailableSlots(3L, start, end, "daily");
+
+        verify(availabilityCache).get(eq(3L), eq(AvailabilityCache.Kind.AVAILABLE), eq("HOURLY"), eq(start), eq(end), any());
+        verify(availabilityCache).get(eq(3L), eq(AvailabilityCache.Kind.AVAILABLE), eq("daily"), eq(start.toLocalDate().atStartOfDay()), eq(end), any());
+    }
 }
@@ -0,0 +1,82 @@
+package com.adamo.vrspfab.rollups;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class DailyRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 30);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private DailyRollupService dailyRollupService;
+
+    @Test
+    void getPaymentTotals_readsWholeDaysFromRollupsAndCountsThePartialDays() {
+        LocalDateTime start = DAY.atTime(10, 0);
+        LocalDateTime end = DAY.plusDays(3).atTime(15, 0);
+        LocalDateTime firstWholeDay = DAY.plusDays(1).atStartOfDay();
+        LocalDateTime afterLastWholeDay = DAY.plusDays(3).atStartOfDay();
+        givenRollups(DAY.plusDays(1), DAY.plusDays(2), new DailyRollupService.PaymentTotals(10, 8, BigDecimal.valueOf(800), 0), 2L);
+        givenSourceRows(start, firstWholeDay, new DailyRollupService.PaymentTotals(1, 1, BigDecimal.valueOf(50), 0), 0L);
+        givenSourceRows(afterLastWholeDay, end, new DailyRollupService.PaymentTotals(2, 1, BigDecimal.valueOf(30), 0), 1L);
+
+        DailyRollupService.PaymentTotals totals = dailyRollupService.getPaymentTotals(start, end);
+
+        assertEquals(new DailyRollupService.PaymentTotals(13, 10, BigDecimal.valueOf(880), 3), totals);
+    }
+
+    @Test
+    void getPaymentTotals_whenRangeIsWholeDays_readsOnlyRollups() {
+        givenRollups(DAY, DAY.plusDays(1), new DailyRollupService.PaymentTotals(4, 3, BigDecimal.valueOf(300), 0), 1L);
+
+        DailyRollupService.PaymentTotals totals = dailyRollupService.getPaymentTotals(DAY.atStartOfDay(), DAY.plusDays(2).atStartOfDay());
+
+        assertEquals(new DailyRollupService.PaymentTotals(4, 3, BigDecimal.valueOf(300), 1), totals);
+        verify(jdbcTemplate, never()).queryForObject(contains("FROM payments"), any(RowMapper.class), any(), any());
+    }
+
+    @Test
+    void getPaymentTotals_whenRangeIsWithinOneDay_countsSourceRowsOnly() {
+        LocalDateTime start = DAY.atTime(9, 0);
+        LocalDateTime end = DAY.atTime(17, 0);
+        givenSourceRows(start, end, new DailyRollupService.PaymentTotals(3, 2, BigDecimal.valueOf(120), 0), 1L);
+
+        DailyRollupService.PaymentTotals totals = dailyRollupService.getPaymentTotals(start, end);
+
+        assertEquals(new DailyRollupService.PaymentTotals(3, 2, BigDecimal.valueOf(120), 1), totals);
+        verify(jdbcTemplate, never()).queryForObject(contains("daily_payment_rollups"), any(RowMapper.class), any(), any());
+    }
+
+    private void givenRollups(LocalDate from, LocalDate to, DailyRollupService.PaymentTotals payments, long refunds) {
+        given(jdbcTemplate.queryForObject(contains("daily_payment_rollups"), any(RowMapper.class), eq(from), eq(to)))
+                .willReturn(payments);
+        given(jdbcTemplate.queryForObject(contains("daily_refund_rollups"), eq(Long.class), eq(from), eq(to)))
+                .willReturn(refunds);
+    }
+
+    private void givenSourceRows(LocalDateTime start, LocalDateTime end, DailyRollupService.PaymentTotals payments, long refunds) {
+        given(jdbcTemplate.queryForObject(contains("FROM payments"), any(RowMapper.class), eq(start), eq(end)))
+                .willReturn(payments);
+        given(jdbcTemplate.queryForObject(contains("FROM refunds"), eq(Long.class), eq(start), eq(end)))
+                .willReturn(refunds);
+    }
+}
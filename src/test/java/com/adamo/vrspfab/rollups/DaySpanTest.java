@@ -0,0 +1,34 @@
+package com.adamo.vrspfab.rollups;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DaySpanTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 30);
+
+    @Test
+    void of_mergesConsecutiveDays() {
+        List<DaySpan> spans = DaySpan.of(new TreeSet<>(List.of(
+                DAY.plusDays(5), DAY, DAY.plusDays(1), DAY.plusDays(2), DAY.plusDays(7), DAY.plusDays(6))));
+
+        assertEquals(List.of(new DaySpan(DAY, DAY.plusDays(2)), new DaySpan(DAY.plusDays(5), DAY.plusDays(7))), spans);
+        assertEquals(List.of(), DaySpan.of(new TreeSet<>()));
+    }
+
+    @Test
+    void within_keepsOnlyWholeDays() {
+        assertEquals(new DaySpan(DAY.plusDays(1), DAY.plusDays(29)),
+                DaySpan.within(DAY.atTime(14, 30), DAY.plusDays(30).atTime(9, 0)));
+        assertEquals(new DaySpan(DAY, DAY.plusDays(1)),
+                DaySpan.within(DAY.atStartOfDay(), DAY.plusDays(2).atStartOfDay()));
+        assertNull(DaySpan.within(DAY.atTime(14, 30), DAY.plusDays(1).atTime(9, 0)));
+        assertNull(DaySpan.within(DAY.atTime(12, 0), DAY.atTime(13, 0)));
+    }
+}
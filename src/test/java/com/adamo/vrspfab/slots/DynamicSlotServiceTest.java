@@ -0,0 +1,115 @@
+package com.adamo.vrspfab.slots;
+
+import com.adamo.vrspfab.pricing.PricingEngine;
+import com.adamo.vrspfab.reservations.ReservationRepository;
+import com.adamo.vrspfab.reservations.ReservationWindow;
+import com.adamo.vrspfab.vehicles.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class DynamicSlotServiceTest {
+
+    @Mock private ReservationRepository reservationRepository;
+
+    @Spy private PricingEngine pricingEngine = new PricingEngine(List.of(), event -> { }, 180, 100);
+
+    @InjectMocks private DynamicSlotService dynamicSlotService;
+
+    private final LocalDateTime start = LocalDate.of(2025, 3, 1).atStartOfDay();
+    private final Vehicle vehicle = Vehicle.builder().id(7L).pricePerDay(120.0).build();
+    private final List<ReservationWindow> reservations = List.of(
+            new ReservationWindow(1L, 7L, start.minusHours(5), start.plusHours(2)),
+            new ReservationWindow(2L, 7L, start.plusHours(5).plusMinutes(30), start.plusDays(1).plusHours(3)),
+            new ReservationWindow(3L, 7L, start.plusDays(2).plusHours(8), start.plusDays(2).plusHours(9))
+    );
+
+    @BeforeEach
+    void stubRepository() {
+        given(reservationRepository.findReservationWindows(eq(7L), any(), any())).willAnswer(invocation -> {
+            LocalDateTime from = invocation.getArgument(1);
+            LocalDateTime to = invocation.getArgument(2);
+            return reservations.stream()
+                    .filter(r -> r.getStartDate().isBefore(to) && r.getEndDate().isAfter(from))
+                    .toList();
+        });
+    }
+
+    @Test
+    void generateBucketedSlots_hourly_matchesPerBucketGenerationWithSingleQuery() {
+        LocalDateTime end = start.plusDays(3).plusMinutes(20);
+
+        List<SlotDto> bucketed = dynamicSlotService.generateBucketedSlots(vehicle, start, end, ChronoUnit.HOURS);
+        verify(reservationRepository, times(1)).findReservationWindows(eq(7L), any(), any());
+
+        assertSameSlots(perBucket(end, ChronoUnit.HOURS), bucketed);
+    }
+
+    @Test
+    void generateBucketedSlots_daily_matchesPerBucketGeneration() {
+        LocalDateTime end = start.plusDays(4).plusHours(6);
+
+        List<SlotDto> bucketed = dynamicSlotService.generateBucketedSlots(vehicle, start, end, ChronoUnit.DAYS);
+
+        assertSameSlots(perBucket(end, ChronoUnit.DAYS), bucketed);
+    }
+
+    @Test
+    void clipSlots_dropsSlotsOutsideTheRangeAndCutsAvailableSlotsAtItsBounds() {
+        List<SlotDto> hourly = dynamicSlotService.generateBucketedSlots(vehicle, start, start.plusHours(4), ChronoUnit.HOURS);
+        LocalDateTime from = start.plusHours(2).plusMinutes(30);
+        LocalDateTime to = start.plusHours(3).plusMinutes(30);
+
+        List<SlotDto> clipped = dynamicSlotService.clipSlots(() -> vehicle, hourly, from, to);
+
+        assertEquals(2, clipped.size());
+        assertEquals(from, clipped.get(0).getStartTime());
+        assertEquals(start.plusHours(3), clipped.get(0).getEndTime());
+        assertEquals(start.plusHours(3), clipped.get(1).getStartTime());
+        assertEquals(to, clipped.get(1).getEndTime());
+        assertEquals(pricingEngine.quote(vehicle, from, start.plusHours(3)), clipped.get(0).getPrice());
+        assertEquals(start.plusHours(2), hourly.get(2).getStartTime());
+        // Over the generated range nothing is cut; the reservation spanning its start is kept whole
+        assertEquals(hourly, dynamicSlotService.clipSlots(() -> {
+            throw new AssertionError("no slot to reprice");
+        }, hourly, start, start.plusHours(4)));
+    }
+
+    private List<SlotDto> perBucket(LocalDateTime end, ChronoUnit unit) {
+        List<SlotDto> slots = new ArrayList<>();
+        for (LocalDateTime current = start; current.isBefore(end); current = current.plus(1, unit)) {
+            LocalDateTime bucketEnd = current.plus(1, unit).isAfter(end) ? end : current.plus(1, unit);
+            slots.addAll(dynamicSlotService.generateAvailableSlots(vehicle, current, bucketEnd));
+        }
+        return slots;
+    }
+
+    private void assertSameSlots(List<SlotDto> expected, List<SlotDto> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getStartTime(), actual.get(i).getStartTime(), "start of slot " + i);
+            assertEquals(expected.get(i).getEndTime(), actual.get(i).getEndTime(), "end of slot " + i);
+            assertEquals(expected.get(i).isAvailable(), actual.get(i).isAvailable(), "availability of slot " + i);
+            assertEquals(expected.get(i).getSlotType(), actual.get(i).getSlotType(), "type of slot " + i);
+            assertEquals(expected.get(i).getPrice(), actual.get(i).getPrice(), "price of slot " + i);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.adamo.vrspfab.slots;
+
+import com.adamo.vrspfab.pricing.PricingEngine;
+import com.adamo.vrspfab.reservations.AvailabilityIndex;
+import com.adamo.vrspfab.reservations.ReservationRepository;
+import com.adamo.vrspfab.reservations.ReservationWindow;
+import com.adamo.vrspfab.vehicles.Vehicle;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares hourly calendar generation issuing one reservation query per bucket (the former
+ * {@code ReservationService.generateHourlySlots} loop) against the single-query bucketed sweep.
+ * <p>
+ * The repository is an in-memory stub; {@code roundTripMicros} simulates the latency of each database
+ * round trip so the effect of the query count shows up in the timings. The number of queries per call
+ * is printed once per trial.
+ * <p>
+ * Run with: {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args=SlotGenerationBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SlotGenerationBenchmark {
+
+    @Param({"DAY", "MONTH", "YEAR"})
+    public String window;
+
+    @Param({"0", "250"})
+    public long roundTripMicros;
+
+    private final List<ReservationWindow> reservations = new ArrayList<>();
+    private long queries;
+
+    private DynamicSlotService dynamicSlotService;
+    private Vehicle vehicle;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        start = LocalDate.of(2025, 1, 1).atStartOfDay();
+        end = switch (window) {
+            case "DAY" -> start.plusDays(1);
+            case "MONTH" -> start.plusMonths(1);
+            default -> start.plusYears(1);
+        };
+
+        // A busy car: a 2-day rental starting every 5 days at 10:00, plus a 3-hour rental in between
+        long id = 1;
+        for (LocalDateTime day = start.minusDays(5); day.isBefore(start.plusYears(1)); day = day.plusDays(5)) {
+            reservations.add(new ReservationWindow(id++, 1L, day.plusHours(10), day.plusDays(2).plusHours(10)));
+            reservations.add(new ReservationWindow(id++, 1L, day.plusDays(3).plusHours(9), day.plusDays(3).plusHours(12)));
+        }
+
+        ReservationRepository repository = (ReservationRepository) Proxy.newProxyInstance(
+                ReservationRepository.class.getClassLoader(),
+                new Class<?>[]{ReservationRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findReservationWindows")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    queries++;
+                    simulateRoundTrip();
+                    LocalDateTime from = (LocalDateTime) args[1];
+                    LocalDateTime to = (LocalDateTime) args[2];
+                    return reservations.stream()
+                            .filter(r -> r.getStartDate().isBefore(to) && r.getEndDate().isAfter(from))
+                            .toList();
+                });
+
+        dynamicSlotService = new DynamicSlotService(repository, new AvailabilityIndex(repository),
+                new PricingEngine(List.of(), event -> { }, 180, 100));
+        vehicle = Vehicle.builder().id(1L).pricePerDay(240.0).build();
+
+        queries = 0;
+        perBucketHourly();
+        long perBucket = queries;
+        queries = 0;
+        bucketedHourly();
+        System.out.printf("%n[%s] queries per call: per-bucket=%d, bucketed=%d%n", window, perBucket, queries);
+    }
+
+    @Benchmark
+    public List<SlotDto> perBucketHourly() {
+        List<SlotDto> slots = new ArrayList<>();
+        LocalDateTime current = start;
+        while (current.isBefore(end)) {
+            LocalDateTime slotEnd = current.plusHours(1);
+            if (slotEnd.isAfter(end)) {
+                slotEnd = end;
+            }
+            slots.addAll(dynamicSlotService.generateAvailableSlots(vehicle, current, slotEnd));
+            current = current.plusHours(1);
+        }
+        return slots;
+    }
+
+    @Benchmark
+    public List<SlotDto> bucketedHourly() {
+        return dynamicSlotService.generateBucketedSlots(vehicle, start, end, ChronoUnit.HOURS);
+    }
+
+    private void simulateRoundTrip() {
+        if (roundTripMicros == 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+        while (System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
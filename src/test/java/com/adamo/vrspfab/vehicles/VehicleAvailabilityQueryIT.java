@@ -0,0 +1,123 @@
+package com.adamo.vrspfab.vehicles;
+
+import com.adamo.vrspfab.common.config.TestMailConfig;
+import com.adamo.vrspfab.common.containers.MySqlTestBaseIT;
+import com.adamo.vrspfab.reservations.AvailabilityIndex;
+import com.adamo.vrspfab.reservations.Reservation;
+import com.adamo.vrspfab.reservations.ReservationRepository;
+import com.adamo.vrspfab.reservations.ReservationStatus;
+import com.adamo.vrspfab.slots.Slot;
+import com.adamo.vrspfab.slots.SlotRepository;
+import com.adamo.vrspfab.slots.SlotType;
+import com.adamo.vrspfab.users.AuthProvider;
+import com.adamo.vrspfab.users.Role;
+import com.adamo.vrspfab.users.User;
+import com.adamo.vrspfab.users.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pins the availability check to a constant number of statements, independent of how many
+ * reservations a vehicle has accumulated. The in-memory index is mocked out (cold) so the
+ * database path is exercised.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class VehicleAvailabilityQueryIT extends MySqlTestBaseIT {
+
+    @Autowired private VehicleService vehicleService;
+    @Autowired private VehicleRepository vehicleRepository;
+    @Autowired private ReservationRepository reservationRepository;
+    @Autowired private SlotRepository slotRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @MockBean private AvailabilityIndex availabilityIndex;
+
+    @Test
+    @Transactional
+    void isVehicleAvailable_issuesConstantQueriesRegardlessOfReservationHistory() {
+        List<Vehicle> vehicles = vehicleRepository.findAll().stream().limit(2).toList();
+        assertEquals(2, vehicles.size(), "Seed data should provide at least two vehicles");
+        User user = userRepository.save(User.builder()
+                .email("availability-it@example.com")
+                .password("password123")
+                .role(Role.CUSTOMER)
+                .authProvider(AuthProvider.LOCAL)
+                .build());
+
+        LocalDateTime start = LocalDate.now().plusDays(10).atTime(10, 0);
+        LocalDateTime end = start.plusDays(2);
+        Vehicle fresh = prepare(vehicles.get(0), user, 1, start, end);
+        Vehicle busy = prepare(vehicles.get(1), user, 500, start, end);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        long freshStatements = measure(statistics, fresh.getId(), start, end);
+        long freshEntities = statistics.getEntityLoadCount();
+        long busyStatements = measure(statistics, busy.getId(), start, end);
+        long busyEntities = statistics.getEntityLoadCount();
+
+        assertEquals(freshStatements, busyStatements);
+        assertEquals(freshEntities, busyEntities);
+        // Vehicle with brand, category and model; no reservation or slot is ever materialized
+        assertTrue(busyEntities <= 4, "Loaded " + busyEntities + " entities");
+        assertEquals(0, statistics.getCollectionFetchCount());
+    }
+
+    private Vehicle prepare(Vehicle vehicle, User user, int pastReservations, LocalDateTime start, LocalDateTime end) {
+        vehicle.setStatus(VehicleStatus.AVAILABLE);
+        vehicle.getBrand().setIsActive(true);
+        vehicle.getCategory().setIsActive(true);
+        vehicle.getModel().setIsActive(true);
+
+        List<Reservation> history = new ArrayList<>();
+        LocalDateTime cursor = LocalDate.now().minusYears(3).atTime(9, 0);
+        for (int i = 0; i < pastReservations; i++) {
+            history.add(Reservation.builder()
+                    .user(user)
+                    .vehicle(vehicle)
+                    .startDate(cursor)
+                    .endDate(cursor.plusHours(20))
+                    .status(ReservationStatus.COMPLETED)
+                    .build());
+            cursor = cursor.plusDays(2);
+        }
+        reservationRepository.saveAll(history);
+
+        Slot slot = new Slot();
+        slot.setVehicle(vehicle);
+        slot.setStartTime(start.minusDays(1));
+        slot.setEndTime(end.plusDays(1));
+        slot.setAvailable(true);
+        slot.setSlotType(SlotType.DAILY);
+        slotRepository.save(slot);
+        return vehicle;
+    }
+
+    private long measure(Statistics statistics, Long vehicleId, LocalDateTime start, LocalDateTime end) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        assertTrue(vehicleService.isVehicleAvailableForBooking(vehicleId, start, end));
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,124 @@
+package com.adamo.vrspfab.vehicles;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VehicleDeletionServiceTest {
+
+    @Mock private VehicleRepository vehicleRepository;
+    @Mock private VehicleBrandRepository brandRepository;
+    @Mock private VehicleCategoryRepository categoryRepository;
+    @Mock private VehicleModelRepository modelRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    private VehicleDeletionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new VehicleDeletionService(vehicleRepository, brandRepository, categoryRepository, modelRepository,
+                new TransactionTemplate(transactionManager), eventPublisher, 2);
+    }
+
+    @Test
+    void deleteBrand_deletesVehiclesInChunksThenTheBrand() {
+        given(brandRepository.findById(7L)).willReturn(Optional.of(VehicleBrand.builder().id(7L).name("Dacia").build()));
+        given(vehicleRepository.countReservationsByBrandId(eq(7L), anyCollection())).willReturn(List.of());
+        given(vehicleRepository.findIdsByBrandId(7L)).willReturn(List.of(1L, 2L, 3L, 4L, 5L));
+        given(vehicleRepository.countReservationsByVehicleIdIn(anyCollection(), anyCollection())).willReturn(List.of());
+
+        VehicleDeletionResult result = service.deleteBrand(7L);
+
+        assertTrue(result.isCanDelete());
+        assertEquals("Brand 'Dacia' and 5 related vehicles deleted successfully", result.getMessage());
+        InOrder inOrder = inOrder(vehicleRepository, brandRepository);
+        for (List<Long> chunk : List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L))) {
+            // Each chunk's rows are locked as bookings lock them before the re-check
+            inOrder.verify(vehicleRepository).findByIdInForUpdate(chunk);
+            inOrder.verify(vehicleRepository).countReservationsByVehicleIdIn(eq(chunk), anyCollection());
+            inOrder.verify(vehicleRepository).deleteWithDependentsByIdIn(chunk);
+        }
+        inOrder.verify(brandRepository).deleteById(7L);
+        verify(eventPublisher, times(3)).publishEvent(any(VehiclesDeletedEvent.class));
+        verify(transactionManager, times(4)).commit(any());
+    }
+
+    @Test
+    void deleteVehicle_locksTheVehicleRowBeforeCheckingItsReservations() {
+        given(vehicleRepository.findByIdForUpdate(9L)).willReturn(Optional.of(Vehicle.builder().id(9L).licensePlate("AB-9").build()));
+        given(vehicleRepository.countReservationsByVehicleIdIn(eq(List.of(9L)), anyCollection())).willReturn(List.of());
+
+        assertTrue(service.deleteVehicle(9L).isCanDelete());
+
+        InOrder inOrder = inOrder(vehicleRepository);
+        inOrder.verify(vehicleRepository).findByIdForUpdate(9L);
+        inOrder.verify(vehicleRepository).countReservationsByVehicleIdIn(eq(List.of(9L)), anyCollection());
+        inOrder.verify(vehicleRepository).deleteById(9L);
+    }
+
+    @Test
+    void deleteCategory_withActiveReservations_deletesNothing() {
+        given(categoryRepository.findById(3L)).willReturn(Optional.of(VehicleCategory.builder().id(3L).name("SUV").build()));
+        given(vehicleRepository.countReservationsByCategoryId(eq(3L), anyCollection()))
+                .willReturn(List.of(new VehicleReservationCount(9L, "AB-123", 2L)));
+
+        VehicleDeletionResult result = service.deleteCategory(3L);
+
+        assertFalse(result.isCanDelete());
+        assertEquals("Vehicle 'AB-123' has 2 active reservation(s). Cannot delete.", result.getReason());
+        verify(vehicleRepository, never()).findIdsByCategoryId(any());
+        verify(vehicleRepository, never()).deleteWithDependentsByIdIn(any());
+        verify(categoryRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void deleteModel_stopsWhenAChunkGainedAnActiveReservation() {
+        given(modelRepository.findById(4L)).willReturn(Optional.of(VehicleModel.builder().id(4L).name("Duster").build()));
+        given(vehicleRepository.countReservationsByModelId(eq(4L), anyCollection())).willReturn(List.of());
+        given(vehicleRepository.findIdsByModelId(4L)).willReturn(List.of(1L, 2L, 3L));
+        given(vehicleRepository.countReservationsByVehicleIdIn(eq(List.of(1L, 2L)), anyCollection())).willReturn(List.of());
+        given(vehicleRepository.countReservationsByVehicleIdIn(eq(List.of(3L)), anyCollection()))
+                .willReturn(List.of(new VehicleReservationCount(3L, "CD-456", 1L)));
+
+        VehicleDeletionResult result = service.deleteModel(4L);
+
+        assertFalse(result.isCanDelete());
+        verify(vehicleRepository).deleteWithDependentsByIdIn(List.of(1L, 2L));
+        verify(vehicleRepository, never()).deleteWithDependentsByIdIn(List.of(3L));
+        verify(modelRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void analyzeBrandDeletionImpact_usesAggregateQueries() {
+        given(brandRepository.findById(7L)).willReturn(Optional.of(VehicleBrand.builder().id(7L).name("Dacia").build()));
+        given(vehicleRepository.countReservationsByBrandId(eq(7L), anyCollection())).willReturn(List.of(
+                new VehicleReservationCount(1L, "AB-123", 2L),
+                new VehicleReservationCount(2L, "CD-456", 1L)));
+        given(vehicleRepository.countByBrandId(7L)).willReturn(2000L);
+        given(modelRepository.countByBrandId(7L)).willReturn(12L);
+
+        VehicleDeletionImpact impact = service.analyzeBrandDeletionImpact(7L);
+
+        assertEquals(2000, impact.getVehiclesAffected());
+        assertEquals(12, impact.getModelsAffected());
+        assertEquals(3, impact.getActiveReservations());
+        assertFalse(impact.isCanDelete());
+        verify(vehicleRepository, never()).findByBrandId(any());
+    }
+}
@@ -0,0 +1,140 @@
+package com.adamo.vrspfab.vehicles;
+
+import com.adamo.vrspfab.vehicles.exceptions.VehicleFacetsUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VehicleFacetIndexTest {
+
+    @Mock private VehicleRepository vehicleRepository;
+    @Mock private VehicleSearchIndex vehicleSearchIndex;
+
+    private VehicleFacetIndex index;
+
+    @BeforeEach
+    void build() {
+        index = new VehicleFacetIndex(vehicleRepository, vehicleSearchIndex, Runnable::run, new double[]{100, 50});
+        given(vehicleRepository.findFacetRows()).willReturn(List.of(
+                row(1L, 10L, "Toyota", 100L, "SUV", FuelType.PETROL, VehicleStatus.AVAILABLE, 40.0),
+                row(2L, 10L, "Toyota", 200L, "Sedan", FuelType.HYBRID, VehicleStatus.AVAILABLE, 70.0),
+                row(3L, 20L, "Dacia", 200L, "Sedan", FuelType.DIESEL, VehicleStatus.RENTED, 30.0),
+                row(4L, 20L, "Dacia", 100L, "SUV", FuelType.DIESEL, VehicleStatus.AVAILABLE, 150.0),
+                row(5L, 30L, "Renault", 200L, "Sedan", FuelType.PETROL, VehicleStatus.AVAILABLE, null)
+        ));
+        index.rebuild();
+    }
+
+    @Test
+    void count_withoutFilters_countsEveryVehicleOncePerFacet() {
+        VehicleFacetsDto facets = index.count(VehicleFilter.builder().build());
+
+        assertEquals(5, facets.getTotal());
+        assertEquals(List.of(facet("20", "Dacia", 2), facet("10", "Toyota", 2), facet("30", "Renault", 1)), facets.getBrands());
+        assertEquals(List.of(facet("200", "Sedan", 3), facet("100", "SUV", 2)), facets.getCategories());
+        assertEquals(List.of(facet("PETROL", "PETROL", 2), facet("DIESEL", "DIESEL", 2), facet("HYBRID", "HYBRID", 1)), facets.getFuelTypes());
+        assertEquals(List.of(facet("0-50", "0-50", 2), facet("50-100", "50-100", 1), facet("100+", "100+", 1)), facets.getPriceBands());
+        verify(vehicleSearchIndex, never()).search(anyString());
+    }
+
+    @Test
+    void count_ignoresEachFacetsOwnFilter() {
+        VehicleFacetsDto facets = index.count(VehicleFilter.builder().brandId(20L).status("available").build());
+
+        assertEquals(1, facets.getTotal());
+        // Brands are counted with the status filter only
+        assertEquals(List.of(facet("10", "Toyota", 2), facet("20", "Dacia", 1), facet("30", "Renault", 1)), facets.getBrands());
+        // Statuses are counted with the brand filter only
+        assertEquals(List.of(facet("AVAILABLE", "AVAILABLE", 1), facet("RENTED", "RENTED", 1)), facets.getStatuses());
+        assertEquals(List.of(facet("100", "SUV", 1)), facets.getCategories());
+        assertEquals(List.of(facet("100+", "100+", 1)), facets.getPriceBands());
+    }
+
+    @Test
+    void count_appliesSearchAndPriceFilters() {
+        VehicleFilter filter = VehicleFilter.builder().search("sedan").maxPrice(60.0).build();
+        given(vehicleSearchIndex.specificationFor(filter)).willReturn(new VehicleSpecification(filter, List.of(2L, 3L, 5L)));
+
+        VehicleFacetsDto facets = index.count(filter);
+
+        assertEquals(1, facets.getTotal());
+        assertEquals(List.of(facet("20", "Dacia", 1)), facets.getBrands());
+        // The price bands ignore the price filter but not the search; vehicle 5 has no price
+        assertEquals(List.of(facet("0-50", "0-50", 1), facet("50-100", "50-100", 1)), facets.getPriceBands());
+    }
+
+    @Test
+    void count_searchesWithTheListingsLikeQueryUntilTheSearchIndexIsBuilt() {
+        VehicleFilter filter = VehicleFilter.builder().search("toyota corolla").build();
+        given(vehicleSearchIndex.specificationFor(filter)).willReturn(new VehicleSpecification(filter));
+        given(vehicleRepository.findIds(any(VehicleSpecification.class), eq(Pageable.unpaged()))).willReturn(new PageImpl<>(List.of()));
+
+        assertEquals(0, index.count(filter).getTotal());
+        verify(vehicleSearchIndex, never()).search(anyString());
+    }
+
+    @Test
+    void count_vehiclesWithoutYearOrMileageFailEveryBoundOnIt() {
+        given(vehicleRepository.findFacetRowById(5L)).willReturn(Optional.of(new VehicleFacetRow(
+                5L, 30L, "Renault", 1L, 200L, "Sedan", FuelType.PETROL, VehicleStatus.AVAILABLE, null, null, null)));
+        index.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.VEHICLE, 5L, null, false));
+
+        assertEquals(5, index.count(VehicleFilter.builder().build()).getTotal());
+        assertEquals(4, index.count(VehicleFilter.builder().maxYear(2030).build()).getTotal());
+        assertEquals(4, index.count(VehicleFilter.builder().maxMileage(50_000.0).build()).getTotal());
+    }
+
+    @Test
+    void onCatalogChanged_patchesTheRowsOfTheChangedVehicleOrBrand() {
+        given(vehicleRepository.findFacetRowById(4L)).willReturn(Optional.empty());
+        index.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.VEHICLE, 4L, null, false));
+        assertEquals(4, index.count(VehicleFilter.builder().build()).getTotal());
+
+        // The brand was renamed and its second vehicle is back, reusing the freed slot
+        given(vehicleRepository.findIdsByBrandId(20L)).willReturn(List.of(3L, 4L));
+        given(vehicleRepository.findFacetRowsByIdIn(List.of(3L, 4L))).willReturn(List.of(
+                row(3L, 20L, "Dacia Group", 200L, "Sedan", FuelType.DIESEL, VehicleStatus.RENTED, 30.0),
+                row(4L, 20L, "Dacia Group", 100L, "SUV", FuelType.DIESEL, VehicleStatus.AVAILABLE, 150.0)));
+        index.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.BRAND, 20L, "Dacia Group", false));
+
+        VehicleFacetsDto facets = index.count(VehicleFilter.builder().build());
+        assertEquals(5, facets.getTotal());
+        assertEquals(facet("20", "Dacia Group", 2), facets.getBrands().get(0));
+        verify(vehicleRepository, times(1)).findFacetRows();
+    }
+
+    @Test
+    void count_beforeTheFirstBuild_startsItInTheBackground() {
+        List<Runnable> tasks = new ArrayList<>();
+        VehicleFacetIndex fresh = new VehicleFacetIndex(vehicleRepository, vehicleSearchIndex, tasks::add, new double[]{100});
+
+        assertThrows(VehicleFacetsUnavailableException.class, () -> fresh.count(VehicleFilter.builder().build()));
+        assertThrows(VehicleFacetsUnavailableException.class, () -> fresh.count(VehicleFilter.builder().build()));
+        assertEquals(1, tasks.size());
+
+        tasks.get(0).run();
+        assertEquals(5, fresh.count(VehicleFilter.builder().build()).getTotal());
+    }
+
+    private static VehicleFacetRow row(Long id, Long brandId, String brand, Long categoryId, String category,
+                                       FuelType fuelType, VehicleStatus status, Double price) {
+        return new VehicleFacetRow(id, brandId, brand, 1L, categoryId, category, fuelType, status, price, 2020, 10_000f);
+    }
+
+    private static FacetCountDto facet(String value, String label, long count) {
+        return new FacetCountDto(value, label, count);
+    }
+}
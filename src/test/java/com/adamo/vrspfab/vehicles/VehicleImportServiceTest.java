@@ -0,0 +1,166 @@
+package com.adamo.vrspfab.vehicles;
+
+import com.adamo.vrspfab.notifications.NotificationService;
+import com.adamo.vrspfab.vehicles.dto.CreateVehicleDto;
+import com.adamo.vrspfab.vehicles.dto.VehicleImportErrorDto;
+import com.adamo.vrspfab.vehicles.dto.VehicleImportResultDto;
+import com.adamo.vrspfab.vehicles.exceptions.InvalidVehicleDataException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.time.Year;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VehicleImportServiceTest {
+
+    @Mock private VehicleRepository vehicleRepository;
+    @Mock private VehicleCategoryRepository vehicleCategoryRepository;
+    @Mock private VehicleBrandRepository vehicleBrandRepository;
+    @Mock private VehicleModelRepository vehicleModelRepository;
+    @Mock private PickupLocationRepository pickupLocationRepository;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private NotificationService notificationService;
+
+    private VehicleImportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new VehicleImportService(vehicleRepository, vehicleCategoryRepository, vehicleBrandRepository,
+                vehicleModelRepository, pickupLocationRepository, jdbcTemplate, new TransactionTemplate(transactionManager),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), eventPublisher,
+                notificationService, 2, 100);
+    }
+
+    @Test
+    void importVehicles_csv_insertsValidRowsInBatchesAndReportsRowErrors() {
+        given(vehicleCategoryRepository.findAllById(anySet())).willReturn(List.of(VehicleCategory.builder().id(1L).build()));
+        given(vehicleBrandRepository.findAllById(anySet())).willReturn(List.of(VehicleBrand.builder().id(1L).build()));
+        given(vehicleModelRepository.findAllById(anySet())).willReturn(List.of(VehicleModel.builder().id(1L).build()));
+        given(vehicleRepository.findExistingLicensePlates(anyList())).willAnswer(invocation -> {
+            Collection<String> plates = invocation.getArgument(0);
+            return plates.stream().filter("TAKEN-1"::equals).toList();
+        });
+        given(vehicleRepository.findIdsByLicensePlateIn(anyList())).willReturn(List.of(10L, 11L));
+
+        String csv = """
+                license_plate,brandId,modelId,categoryId,year,fuelType,status,mileage,pricePerDay,description
+                AB-1,1,1,1,2020,petrol,AVAILABLE,1000,50,"Clean, ""as new"" inside"
+                AB-2,1,1,1,2021,DIESEL,AVAILABLE,2000,60,
+                AB-1,1,1,1,2020,PETROL,AVAILABLE,1000,50,
+                AB-3,9,1,1,2020,PETROL,AVAILABLE,1000,50,
+                TAKEN-1,1,1,1,2020,PETROL,AVAILABLE,1000,50,
+                AB-4,1,1,1,20x0,PETROL,AVAILABLE,1000,50,
+                AB-5,1,1,1,%d,PETROL,AVAILABLE,1000,50,
+                """.formatted(Year.now().getValue() + 1);
+
+        VehicleImportResultDto result = service.importVehicles(stream(csv), VehicleImportFormat.CSV);
+
+        assertEquals(7, result.getTotalRows());
+        assertEquals(2, result.getImported());
+        assertEquals(5, result.getFailed());
+        List<VehicleImportErrorDto> errors = result.getErrors().stream()
+                .sorted(Comparator.comparingLong(VehicleImportErrorDto::getLine)).toList();
+        assertEquals(List.of(4L, 5L, 6L, 7L, 8L), errors.stream().map(VehicleImportErrorDto::getLine).toList());
+        assertEquals("Duplicate license plate in the import, first seen on line 2", errors.get(0).getMessage());
+        assertEquals("Vehicle brand not found with ID: 9", errors.get(1).getMessage());
+        assertEquals("A vehicle with license plate 'TAKEN-1' already exists.", errors.get(2).getMessage());
+        assertEquals("Invalid value '20x0' for column year", errors.get(3).getMessage());
+        assertEquals("AB-5", errors.get(4).getLicensePlate());
+        assertEquals("year: Year cannot be in the future", errors.get(4).getMessage());
+
+        // One batch for the only chunk with valid rows, catalogue IDs looked up once each
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Object>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture(), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(2, batch.getValue().size());
+        verify(vehicleBrandRepository).findAllById(Set.of(1L));
+        verify(vehicleBrandRepository).findAllById(Set.of(9L));
+        verify(vehicleCategoryRepository, times(1)).findAllById(anySet());
+        verify(vehicleRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(any(VehiclesImportedEvent.class));
+    }
+
+    @Test
+    void importVehicles_ndjson_reportsMalformedLines() {
+        String ndjson = """
+                {"licensePlate": "AB-1", "brandId": 1, "modelId": 1, "categoryId": 1, "year": 2020, "fuelType": "PETROL", "status": "AVAILABLE", "mileage": 10, "pricePerDay": 40}
+                {"licensePlate": "AB-2",
+                """;
+        given(vehicleCategoryRepository.findAllById(anySet())).willReturn(List.of(VehicleCategory.builder().id(1L).build()));
+        given(vehicleBrandRepository.findAllById(anySet())).willReturn(List.of(VehicleBrand.builder().id(1L).build()));
+        given(vehicleModelRepository.findAllById(anySet())).willReturn(List.of(VehicleModel.builder().id(1L).build()));
+        given(vehicleRepository.findIdsByLicensePlateIn(anyList())).willReturn(List.of(10L));
+
+        VehicleImportResultDto result = service.importVehicles(stream(ndjson), VehicleImportFormat.NDJSON);
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Malformed JSON"));
+    }
+
+    @Test
+    void importVehicles_csv_insertsPickupLocationsAndRejectsUnknownOnes() throws Exception {
+        given(vehicleCategoryRepository.findAllById(anySet())).willReturn(List.of(VehicleCategory.builder().id(1L).build()));
+        given(vehicleBrandRepository.findAllById(anySet())).willReturn(List.of(VehicleBrand.builder().id(1L).build()));
+        given(vehicleModelRepository.findAllById(anySet())).willReturn(List.of(VehicleModel.builder().id(1L).build()));
+        given(pickupLocationRepository.findAllById(Set.of(3L, 4L))).willReturn(List.of(PickupLocation.builder().id(3L).build()));
+        given(vehicleRepository.findIdsByLicensePlateIn(anyList())).willReturn(List.of(10L));
+
+        String csv = """
+                license_plate,brandId,modelId,categoryId,pickup_location_id,year,fuelType,status,mileage,pricePerDay
+                AB-1,1,1,1,3,2020,PETROL,AVAILABLE,1000,50
+                AB-2,1,1,1,4,2020,PETROL,AVAILABLE,1000,50
+                """;
+
+        VehicleImportResultDto result = service.importVehicles(stream(csv), VehicleImportFormat.CSV);
+
+        assertEquals(1, result.getImported());
+        assertEquals("Pickup location not found with ID: 4", result.getErrors().get(0).getMessage());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<CreateVehicleDto>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<CreateVehicleDto>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(contains("pickup_location_id"), batch.capture(), eq(1), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, batch.getValue().iterator().next());
+        verify(ps).setLong(4, 3L);
+    }
+
+    @Test
+    void importVehicles_csvWithUnknownColumn_isRejected() {
+        assertThrows(InvalidVehicleDataException.class,
+                () -> service.importVehicles(stream("license_plate,colour\nAB-1,red\n"), VehicleImportFormat.CSV));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
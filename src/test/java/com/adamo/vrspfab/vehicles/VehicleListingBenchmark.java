@@ -0,0 +1,154 @@
+package com.adamo.vrspfab.vehicles;
+
+import com.adamo.vrspfab.vehicles.mappers.VehicleMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares materializing a page of the vehicle listing through the {@link VehicleCardRow} projection against
+ * the former entity graph path ({@code Vehicle} with its brand, model and category, mapped by
+ * {@link VehicleMapper#toDto(Vehicle)}).
+ * <p>
+ * Both paths start from the same page of raw rows, with text columns as bytes, and decode what their query
+ * selects the way the JDBC driver would: the entity graph reads every column of the four tables, including
+ * the vehicle, brand and model descriptions, and instantiates four entities with their collection fields;
+ * the projection reads the sixteen listing columns into one row. Hibernate's own per-entity bookkeeping is
+ * left out, so the entity path figures are a lower bound.
+ * <p>
+ * Scores are rows per second. Run with {@code -prof gc} to get the allocation per row
+ * ({@code gc.alloc.rate.norm}); multiply by {@value #PAGE_SIZE} for the allocation per page:
+ * {@code mvn -Pbenchmarks test-compile exec:exec "-Djmh.args=VehicleListingBenchmark -prof gc"}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VehicleListingBenchmark {
+
+    static final int PAGE_SIZE = 50;
+
+    private static final String[] BRANDS = {"Toyota", "Renault", "Peugeot", "Dacia", "Volkswagen", "Mercedes"};
+    private static final String[] MODELS = {"Corolla", "Clio", "308", "Duster", "Golf", "Sprinter"};
+    private static final String[] CATEGORIES = {"Sedan", "Hatchback", "SUV", "Van", "Coupe", "Truck"};
+
+    /** One raw row per vehicle of the page: vehicle, category, brand and model columns in that order. */
+    private final List<Object[]> page = new ArrayList<>(PAGE_SIZE);
+    private final VehicleMapper mapper = Mappers.getMapper(VehicleMapper.class);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            int catalogue = random.nextInt(BRANDS.length);
+            page.add(new Object[]{
+                    // vehicles
+                    id, 2015 + random.nextInt(10), bytes(String.format("AB-%03d-CD", id)), bytes("DIESEL"),
+                    bytes("AVAILABLE"), 10_000f + random.nextInt(90_000), 40.0 + random.nextInt(60),
+                    bytes("https://cdn.example.com/vehicles/" + id + ".jpg"), bytes(text(random, 600)), now, now,
+                    // vehicle_categories
+                    (long) catalogue, bytes(CATEGORIES[catalogue]), bytes(text(random, 200)),
+                    bytes("https://cdn.example.com/icons/" + catalogue + ".svg"), true, now, now,
+                    // vehicle_brands
+                    (long) catalogue, bytes(BRANDS[catalogue]), bytes(text(random, 200)),
+                    bytes("https://cdn.example.com/logos/" + catalogue + ".svg"), bytes("Japan"), true, now, now,
+                    // vehicle_models
+                    catalogue * 10L, bytes(MODELS[catalogue]), bytes(text(random, 200)), true, now, now,
+            });
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void entityGraph(Blackhole blackhole) {
+        for (Object[] row : page) {
+            VehicleCategory category = new VehicleCategory();
+            category.setId((Long) row[11]);
+            category.setName(string(row[12]));
+            category.setDescription(string(row[13]));
+            category.setIconUrl(string(row[14]));
+            category.setIsActive((Boolean) row[15]);
+            category.setCreatedAt((LocalDateTime) row[16]);
+            category.setUpdatedAt((LocalDateTime) row[17]);
+
+            VehicleBrand brand = new VehicleBrand();
+            brand.setId((Long) row[18]);
+            brand.setName(string(row[19]));
+            brand.setDescription(string(row[20]));
+            brand.setLogoUrl(string(row[21]));
+            brand.setCountryOfOrigin(string(row[22]));
+            brand.setIsActive((Boolean) row[23]);
+            brand.setCreatedAt((LocalDateTime) row[24]);
+            brand.setUpdatedAt((LocalDateTime) row[25]);
+
+            VehicleModel model = new VehicleModel();
+            model.setId((Long) row[26]);
+            model.setName(string(row[27]));
+            model.setBrand(brand);
+            model.setDescription(string(row[28]));
+            model.setIsActive((Boolean) row[29]);
+            model.setCreatedAt((LocalDateTime) row[30]);
+            model.setUpdatedAt((LocalDateTime) row[31]);
+
+            Vehicle vehicle = new Vehicle();
+            vehicle.setId((Long) row[0]);
+            vehicle.setYear((Integer) row[1]);
+            vehicle.setLicensePlate(string(row[2]));
+            vehicle.setFuelType(FuelType.valueOf(string(row[3])));
+            vehicle.setStatus(VehicleStatus.valueOf(string(row[4])));
+            vehicle.setMileage((Float) row[5]);
+            vehicle.setPricePerDay((Double) row[6]);
+            vehicle.setImageUrl(string(row[7]));
+            vehicle.setDescription(string(row[8]));
+            vehicle.setCreatedAt((LocalDateTime) row[9]);
+            vehicle.setUpdatedAt((LocalDateTime) row[10]);
+            vehicle.setCategory(category);
+            vehicle.setBrand(brand);
+            vehicle.setModel(model);
+
+            blackhole.consume(mapper.toDto(vehicle));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public void cardProjection(Blackhole blackhole) {
+        for (Object[] row : page) {
+            VehicleCardRow card = new VehicleCardRow((Long) row[0], (Long) row[11], string(row[12]),
+                    (Long) row[18], string(row[19]), (Long) row[26], string(row[27]), null, null,
+                    (Integer) row[1], string(row[2]), FuelType.valueOf(string(row[3])),
+                    VehicleStatus.valueOf(string(row[4])), (Float) row[5], (Double) row[6], string(row[7]),
+                    (LocalDateTime) row[9], (LocalDateTime) row[10]);
+            blackhole.consume(mapper.toDto(card));
+        }
+    }
+
+    private static String string(Object column) {
+        return new String((byte[]) column, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            text.append((char) ('a' + random.nextInt(26)));
+            if (random.nextInt(7) == 0) {
+                text.append(' ');
+            }
+        }
+        return text.substring(0, length);
+    }
+}
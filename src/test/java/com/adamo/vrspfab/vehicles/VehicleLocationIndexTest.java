@@ -0,0 +1,109 @@
+package com.adamo.vrspfab.vehicles;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class VehicleLocationIndexTest {
+
+    @Mock private VehicleRepository vehicleRepository;
+
+    @Test
+    void nearest_matchesABruteForceScanOnRandomFleets() {
+        Random random = new Random(7);
+        List<VehicleLocationRow> rows = new ArrayList<>();
+        // 40 depots around Casablanca and Rabat with 50 vehicles each, plus scattered vehicles
+        for (long depot = 1; depot <= 40; depot++) {
+            double latitude = 33.3 + random.nextDouble() * 0.9;
+            double longitude = -7.9 + random.nextDouble() * 1.4;
+            for (int i = 0; i < 50; i++) {
+                rows.add(new VehicleLocationRow(depot * 1000 + i, depot, latitude, longitude));
+            }
+        }
+        for (long id = 1; id <= 300; id++) {
+            rows.add(new VehicleLocationRow(id, 900 + id, 30 + random.nextDouble() * 6, -10 + random.nextDouble() * 6));
+        }
+        Set<Long> booked = rows.stream().map(VehicleLocationRow::getId)
+                .filter(id -> random.nextInt(3) == 0).collect(Collectors.toSet());
+        VehicleLocationIndex index = index(rows, 0.05);
+
+        for (int query = 0; query < 25; query++) {
+            double latitude = 32 + random.nextDouble() * 3;
+            double longitude = -9 + random.nextDouble() * 3;
+            double radius = 5 + random.nextDouble() * 200;
+            int limit = 1 + random.nextInt(30);
+
+            List<Long> expected = rows.stream()
+                    .filter(row -> !booked.contains(row.getId()))
+                    .filter(row -> distance(row, latitude, longitude) <= radius)
+                    .sorted(Comparator.<VehicleLocationRow>comparingDouble(row -> distance(row, latitude, longitude))
+                            .thenComparingLong(VehicleLocationRow::getId))
+                    .limit(limit)
+                    .map(VehicleLocationRow::getId)
+                    .toList();
+            List<Long> actual = index.nearest(latitude, longitude, radius, limit, ids -> ids.stream()
+                            .filter(booked::contains).collect(Collectors.toSet()))
+                    .stream().map(VehicleLocationIndex.Match::vehicleId).toList();
+
+            assertEquals(expected, actual, "query " + query);
+        }
+    }
+
+    @Test
+    void nearest_findsVehiclesAcrossTheAntimeridianAndChecksOnlyTheNearest() {
+        VehicleLocationIndex index = index(List.of(
+                new VehicleLocationRow(1L, 1L, -17.0, 179.95),
+                new VehicleLocationRow(2L, 2L, -17.0, -179.9),
+                new VehicleLocationRow(3L, 3L, -17.0, 178.0)), 0.05);
+        List<List<Long>> checked = new ArrayList<>();
+
+        List<VehicleLocationIndex.Match> found = index.nearest(-17.0, -179.99, 50, 2, ids -> {
+            checked.add(ids);
+            return Set.of();
+        });
+
+        assertEquals(List.of(1L, 2L), found.stream().map(VehicleLocationIndex.Match::vehicleId).toList());
+        assertEquals(6.38, found.get(0).distanceKm(), 0.01);
+        assertEquals(List.of(List.of(1L, 2L)), checked);
+    }
+
+    @Test
+    void onCatalogChanged_movesAndDropsVehicles() {
+        VehicleLocationIndex index = index(List.of(
+                new VehicleLocationRow(1L, 1L, 33.57, -7.59),
+                new VehicleLocationRow(2L, 1L, 33.57, -7.59)), 0.05);
+        given(vehicleRepository.findLocationRowById(1L)).willReturn(Optional.of(new VehicleLocationRow(1L, 2L, 34.02, -6.84)));
+        given(vehicleRepository.findLocationRowById(2L)).willReturn(Optional.empty());
+
+        index.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.VEHICLE, 1L, null, false));
+        index.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.VEHICLE, 2L, null, false));
+
+        assertTrue(index.nearest(33.57, -7.59, 10, 5, ids -> new HashSet<>()).isEmpty());
+        assertEquals(2L, index.nearest(33.57, -7.59, 100, 5, ids -> new HashSet<>()).get(0).pickupLocationId());
+    }
+
+    private VehicleLocationIndex index(List<VehicleLocationRow> rows, double cellDegrees) {
+        given(vehicleRepository.findLocationRows()).willReturn(rows);
+        VehicleLocationIndex index = new VehicleLocationIndex(vehicleRepository, cellDegrees);
+        index.rebuild();
+        return index;
+    }
+
+    private static double distance(VehicleLocationRow row, double latitude, double longitude) {
+        return VehicleLocationIndex.distanceKm(latitude, longitude, row.getLatitude(), row.getLongitude());
+    }
+}
@@ -0,0 +1,79 @@
+package com.adamo.vrspfab.vehicles;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the latency of a top-10 nearest free vehicle search through the {@link VehicleLocationIndex} on
+ * a 50k fleet, a third of which is booked, for two layouts: vehicles parked at 200 depots, and vehicles
+ * spread individually over a 600 x 600 km area. The search radius is 50 km around a random point of the area.
+ * <p>
+ * The availability check is a set lookup standing in for the {@code AvailabilityIndex} probe.
+ * <p>
+ * Run with: {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args=VehicleNearbyBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VehicleNearbyBenchmark {
+
+    private static final int VEHICLES = 50_000;
+
+    @Param({"depots", "scattered"})
+    public String layout;
+
+    private VehicleLocationIndex index;
+    private Set<Long> booked;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<VehicleLocationRow> rows = new ArrayList<>(VEHICLES);
+        double[][] depots = new double[200][];
+        for (int depot = 0; depot < depots.length; depot++) {
+            depots[depot] = new double[]{31 + random.nextDouble() * 5.4, -9 + random.nextDouble() * 6.4};
+        }
+        for (long id = 1; id <= VEHICLES; id++) {
+            if (layout.equals("depots")) {
+                int depot = (int) (id % depots.length);
+                rows.add(new VehicleLocationRow(id, (long) depot, depots[depot][0], depots[depot][1]));
+            } else {
+                rows.add(new VehicleLocationRow(id, id, 31 + random.nextDouble() * 5.4, -9 + random.nextDouble() * 6.4));
+            }
+        }
+        booked = rows.stream().map(VehicleLocationRow::getId)
+                .filter(id -> random.nextInt(3) == 0)
+                .collect(Collectors.toCollection(HashSet::new));
+
+        VehicleRepository repository = (VehicleRepository) Proxy.newProxyInstance(
+                VehicleRepository.class.getClassLoader(),
+                new Class<?>[]{VehicleRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findLocationRows")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return rows;
+                });
+        index = new VehicleLocationIndex(repository, 0.05);
+        index.rebuild();
+    }
+
+    @Benchmark
+    public List<VehicleLocationIndex.Match> nearestTen() {
+        double latitude = 31 + random.nextDouble() * 5.4;
+        double longitude = -9 + random.nextDouble() * 6.4;
+        return index.nearest(latitude, longitude, 50, 10,
+                ids -> ids.stream().filter(booked::contains).collect(Collectors.toSet()));
+    }
+}
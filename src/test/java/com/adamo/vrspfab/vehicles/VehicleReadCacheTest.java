@@ -0,0 +1,121 @@
+package com.adamo.vrspfab.vehicles;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleReadCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Collection<Long>> loads = new ArrayList<>();
+    private VehicleReadCache cache;
+    private int idQueries;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VehicleReadCache(meterRegistry, 15, 100, 60, 100);
+    }
+
+    @Test
+    void page_assemblesCachedListingsFromEntityEntries() {
+        assertEquals(List.of(1L, 2L), ids(page("a", List.of(1L, 2L))));
+        assertEquals(List.of(2L, 3L), ids(page("b", List.of(2L, 3L))));
+        assertEquals(List.of(1L, 2L), ids(page("a", List.of(1L, 2L))));
+
+        assertEquals(2, idQueries);
+        // Vehicle 2 is loaded once and shared by both listings
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L)), loads);
+        assertEquals(1.0, meterRegistry.counter("vehicles.cache.requests", "level", "query", "result", "hit").count());
+    }
+
+    @Test
+    void onCatalogChanged_updateEvictsTheVehicleAndTheListingsContainingIt() {
+        page("a", List.of(1L, 2L));
+        page("b", List.of(3L));
+        loads.clear();
+
+        cache.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.VEHICLE, 2L, null, false));
+        page("a", List.of(1L, 2L));
+        page("b", List.of(3L));
+
+        assertEquals(3, idQueries);
+        assertEquals(List.of(List.of(2L)), loads);
+    }
+
+    @Test
+    void onCatalogChanged_creationDropsListingsButKeepsEntities() {
+        page("a", List.of(1L, 2L));
+        loads.clear();
+
+        cache.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.VEHICLE, 9L, null, true, false));
+        assertEquals(List.of(9L, 1L, 2L), ids(page("a", List.of(9L, 1L, 2L))));
+
+        assertEquals(2, idQueries);
+        assertEquals(List.of(List.of(9L)), loads);
+    }
+
+    @Test
+    void get_cachesPerViewAndDoesNotCacheFailures() {
+        Function<Long, VehicleDto> failing = id -> {
+            throw new IllegalStateException("not found");
+        };
+        assertThrows(IllegalStateException.class, () -> cache.get(VehicleDto.class, 1L, failing));
+
+        VehicleDto dto = dto(1L);
+        assertSame(dto, cache.get(VehicleDto.class, 1L, id -> dto));
+        assertSame(dto, cache.get(VehicleDto.class, 1L, failing));
+
+        cache.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.BRAND, 4L, "Dacia", false));
+        assertThrows(IllegalStateException.class, () -> cache.get(VehicleDto.class, 1L, failing));
+    }
+
+    @Test
+    void get_doesNotKeepADtoLoadedBeforeAConcurrentEviction() {
+        VehicleDto stale = dto(1L);
+        assertSame(stale, cache.get(VehicleDto.class, 1L, id -> {
+            // The vehicle is updated while its previous state is being loaded
+            cache.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.VEHICLE, 1L, null, false));
+            return stale;
+        }));
+
+        VehicleDto fresh = dto(1L);
+        assertSame(fresh, cache.get(VehicleDto.class, 1L, id -> fresh));
+        assertEquals(Map.of(1L, fresh), cache.getAll(VehicleDto.class, List.of(1L), missing -> Map.of()));
+    }
+
+    private Page<VehicleDto> page(String query, List<Long> ids) {
+        Pageable pageable = PageRequest.of(0, 10);
+        return cache.page(VehicleDto.class, query, null, pageable,
+                p -> {
+                    idQueries++;
+                    return new PageImpl<>(ids, p, ids.size());
+                },
+                missing -> {
+                    loads.add(List.copyOf(missing));
+                    return missing.stream().collect(Collectors.toMap(Function.identity(), VehicleReadCacheTest::dto));
+                });
+    }
+
+    private static List<Long> ids(Page<VehicleDto> page) {
+        return page.getContent().stream().map(VehicleDto::getId).toList();
+    }
+
+    private static VehicleDto dto(Long id) {
+        VehicleDto dto = new VehicleDto();
+        dto.setId(id);
+        return dto;
+    }
+}
@@ -0,0 +1,120 @@
+package com.adamo.vrspfab.vehicles;
+
+import com.adamo.vrspfab.vehicles.dto.VehicleBrandResponseDto;
+import com.adamo.vrspfab.vehicles.dto.VehicleModelResponseDto;
+import com.adamo.vrspfab.vehicles.mappers.EnhancedVehicleBrandMapper;
+import com.adamo.vrspfab.vehicles.mappers.EnhancedVehicleCategoryMapper;
+import com.adamo.vrspfab.vehicles.mappers.EnhancedVehicleModelMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VehicleReferenceDataTest {
+
+    @Mock private VehicleBrandRepository brandRepository;
+    @Mock private VehicleCategoryRepository categoryRepository;
+    @Mock private VehicleModelRepository modelRepository;
+
+    private final VehicleBrand toyota = brand(10L, "Toyota", true);
+    private final VehicleBrand dacia = brand(20L, "Dacia", false);
+    private VehicleReferenceData referenceData;
+
+    @BeforeEach
+    void build() {
+        referenceData = new VehicleReferenceData(brandRepository, categoryRepository, modelRepository,
+                Mappers.getMapper(EnhancedVehicleBrandMapper.class),
+                Mappers.getMapper(EnhancedVehicleCategoryMapper.class),
+                Mappers.getMapper(EnhancedVehicleModelMapper.class));
+        given(brandRepository.findAll()).willReturn(List.of(dacia, toyota));
+        given(categoryRepository.findAll()).willReturn(List.of(VehicleCategory.builder().id(1L).name("SUV").build()));
+        given(modelRepository.findAllWithBrand()).willReturn(List.of(
+                model(100L, "Corolla", toyota, true),
+                model(101L, "Yaris", toyota, false),
+                model(200L, "Duster", dacia, true)));
+        referenceData.rebuild();
+    }
+
+    @Test
+    void snapshot_listsOnlyActiveEntriesAndModelsOfActiveBrands() {
+        VehicleReferenceData.Snapshot snapshot = referenceData.snapshot();
+
+        assertEquals(1, snapshot.version());
+        assertEquals(List.of(10L), snapshot.activeBrands().items().stream().map(VehicleBrandResponseDto::getId).toList());
+        assertEquals(List.of(100L, 200L), snapshot.activeModels().items().stream().map(VehicleModelResponseDto::getId).toList());
+        assertEquals(List.of(100L), snapshot.activeModelsByBrand(10L).items().stream().map(VehicleModelResponseDto::getId).toList());
+        assertTrue(snapshot.activeModelsByBrand(20L).items().isEmpty());
+        assertEquals("Dacia", snapshot.brand(20L).orElseThrow().getName());
+        assertEquals("Toyota", snapshot.modelReference(100L).orElseThrow().getBrand().getName());
+        assertTrue(snapshot.category(2L).isEmpty());
+    }
+
+    @Test
+    void onCatalogChanged_brandUpdateSwapsSnapshotAndRenamesItsModels() {
+        VehicleReferenceData.Snapshot before = referenceData.snapshot();
+        VehicleBrand renamed = brand(10L, "Toyota Motor", true);
+        given(brandRepository.findById(10L)).willReturn(Optional.of(renamed));
+        given(modelRepository.findWithBrandByBrandId(10L)).willReturn(List.of(model(100L, "Corolla", renamed, true)));
+
+        referenceData.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.BRAND, 10L, "Toyota Motor", false));
+        VehicleReferenceData.Snapshot after = referenceData.snapshot();
+
+        assertEquals(2, after.version());
+        assertEquals("Toyota Motor", after.model(100L).orElseThrow().getBrandName());
+        // Yaris was removed since the snapshot was built
+        assertTrue(after.model(101L).isEmpty());
+        assertNotEquals(before.activeModels().etag(), after.activeModels().etag());
+        // Readers holding the previous version keep seeing it unchanged
+        assertEquals("Toyota", before.model(100L).orElseThrow().getBrandName());
+    }
+
+    @Test
+    void onCatalogChanged_appliesRemovalsWithoutQueries() {
+        String categoriesEtag = referenceData.snapshot().activeCategories().etag();
+
+        referenceData.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.MODEL, 100L, "Corolla", true));
+        referenceData.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.VEHICLE, 5L, null, false));
+
+        VehicleReferenceData.Snapshot snapshot = referenceData.snapshot();
+        assertEquals(2, snapshot.version());
+        assertTrue(snapshot.activeModelsByBrand(10L).items().isEmpty());
+        assertEquals(categoriesEtag, snapshot.activeCategories().etag());
+        verify(modelRepository, never()).findWithBrandById(any());
+        verify(brandRepository, never()).findById(any());
+    }
+
+    @Test
+    void references_loadRowsMissingFromTheSnapshotAndAddThem() {
+        VehicleBrand kia = brand(30L, "Kia", true);
+        given(modelRepository.findWithBrandById(300L)).willReturn(Optional.of(model(300L, "Picanto", kia, true)));
+        given(categoryRepository.findById(2L)).willReturn(Optional.empty());
+
+        assertEquals("Kia", referenceData.modelReference(300L).orElseThrow().getBrand().getName());
+        assertTrue(referenceData.categoryReference(2L).isEmpty());
+
+        VehicleReferenceData.Snapshot snapshot = referenceData.snapshot();
+        assertEquals(2, snapshot.version());
+        assertEquals(List.of(10L, 30L), snapshot.activeBrands().items().stream().map(VehicleBrandResponseDto::getId).toList());
+        // Held by the snapshot now, so the brand is not looked up
+        assertEquals("Kia", referenceData.brandReference(30L).orElseThrow().getName());
+        verify(brandRepository, never()).findById(any());
+    }
+
+    private static VehicleBrand brand(Long id, String name, boolean active) {
+        return VehicleBrand.builder().id(id).name(name).isActive(active).build();
+    }
+
+    private static VehicleModel model(Long id, String name, VehicleBrand brand, boolean active) {
+        return VehicleModel.builder().id(id).name(name).brand(brand).isActive(active).build();
+    }
+}
@@ -27,6 +27,18 @@ class VehicleRepositoryIT extends MySqlTestBaseIT {
 
         var byMileage = vehicleRepository.findByMileageBetween(0f, 100000f, PageRequest.of(0, 5));
         assertNotNull(byMileage);
+
+        assertNotNull(vehicleRepository.findFacetRows());
+        assertTrue(vehicleRepository.findFacetRowById(-1L).isEmpty());
+        assertTrue(vehicleRepository.findCardRowsByIdIn(java.util.List.of(-1L)).isEmpty());
+        assertNotNull(vehicleRepository.findLocationRows());
+        assertTrue(vehicleRepository.findLocationRowById(-1L).isEmpty());
+
+        var active = java.util.List.of(com.adamo.vrspfab.reservations.ReservationStatus.PENDING);
+        assertTrue(vehicleRepository.countReservationsByBrandId(-1L, active).isEmpty());
+        assertTrue(vehicleRepository.countReservationsByVehicleIdIn(java.util.List.of(-1L), active).isEmpty());
+        assertTrue(vehicleRepository.findIdsByModelId(-1L).isEmpty());
+        assertEquals(0, vehicleRepository.deleteWithDependentsByIdIn(java.util.List.of(-1L)));
     }
 }
 
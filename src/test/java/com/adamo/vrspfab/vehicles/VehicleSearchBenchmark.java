@@ -0,0 +1,115 @@
+package com.adamo.vrspfab.vehicles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares catalogue search through the {@link VehicleSearchIndex} against the former
+ * {@code lower(field) LIKE %term%} search at 10k and 100k vehicles.
+ * <p>
+ * The LIKE path is emulated in memory by evaluating the same predicate on every row, which is what
+ * MySQL does for a leading-wildcard pattern minus the I/O and the three joins, so its timings are a
+ * lower bound for the database path. The index path includes tokenizing and ranking the query.
+ * <p>
+ * Run with: {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.args=VehicleSearchBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VehicleSearchBenchmark {
+
+    private static final String[][] CATALOGUE = {
+            {"Toyota", "Corolla", "Yaris", "RAV4", "Supra"},
+            {"Renault", "Clio", "Megane", "Captur", "Kangoo"},
+            {"Peugeot", "208", "308", "3008", "Partner"},
+            {"Dacia", "Logan", "Sandero", "Duster", "Jogger"},
+            {"Volkswagen", "Golf", "Polo", "Tiguan", "Transporter"},
+            {"Mercedes", "Sprinter", "Vito", "Citan", "Actros"},
+    };
+    private static final String[] CATEGORIES = {"Sedan", "Hatchback", "SUV", "Van", "Coupe", "Truck"};
+    private static final String[] WORDS = {"reliable", "spacious", "economical", "automatic", "manual", "diesel",
+            "hybrid", "family", "city", "comfortable", "navigation", "bluetooth", "cargo", "sporty", "panoramic"};
+
+    @Param({"10000", "100000"})
+    public int vehicles;
+
+    /** Exact brand, model prefix, misspelled model, plate fragment. */
+    @Param({"toyota", "sande", "corrola", "123"})
+    public String query;
+
+    private final List<String[]> rows = new ArrayList<>();
+    private VehicleSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<VehicleSearchDocument> documents = new ArrayList<>(vehicles);
+        for (long id = 1; id <= vehicles; id++) {
+            int brand = random.nextInt(CATALOGUE.length);
+            int model = 1 + random.nextInt(CATALOGUE[brand].length - 1);
+            int category = random.nextInt(CATEGORIES.length);
+            String plate = String.format("%c%c-%03d-%c%c", 'A' + random.nextInt(26), 'A' + random.nextInt(26),
+                    random.nextInt(1000), 'A' + random.nextInt(26), 'A' + random.nextInt(26));
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 8; w++) {
+                description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            documents.add(new VehicleSearchDocument(id, plate, description.toString().trim(),
+                    (long) brand, CATALOGUE[brand][0], brand * 10L + model, CATALOGUE[brand][model],
+                    (long) category, CATEGORIES[category]));
+        }
+
+        VehicleRepository repository = (VehicleRepository) Proxy.newProxyInstance(
+                VehicleRepository.class.getClassLoader(),
+                new Class<?>[]{VehicleRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findSearchDocuments")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return documents;
+                });
+        index = new VehicleSearchIndex(repository);
+        index.rebuild();
+
+        for (VehicleSearchDocument document : documents) {
+            rows.add(new String[]{document.getLicensePlate(), document.getDescription(),
+                    document.getBrandName(), document.getModelName(), document.getCategoryName()});
+        }
+        System.out.printf("%n'%s' matches %d vehicles in the index and %d with LIKE%n",
+                query, index.search(query).size(), like(query).size());
+    }
+
+    @Benchmark
+    public void index(Blackhole blackhole) {
+        blackhole.consume(index.search(query));
+    }
+
+    @Benchmark
+    public void like(Blackhole blackhole) {
+        blackhole.consume(like(query));
+    }
+
+    private List<Long> like(String term) {
+        String pattern = term.toLowerCase(Locale.ROOT);
+        List<Long> matches = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            for (String field : rows.get(i)) {
+                if (field != null && field.toLowerCase(Locale.ROOT).contains(pattern)) {
+                    matches.add(i + 1L);
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,131 @@
+package com.adamo.vrspfab.vehicles;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class VehicleSearchIndexTest {
+
+    @Mock private VehicleRepository vehicleRepository;
+
+    private VehicleSearchIndex index;
+
+    @BeforeEach
+    void build() {
+        index = new VehicleSearchIndex(vehicleRepository);
+        given(vehicleRepository.findSearchDocuments()).willReturn(List.of(
+                document(1L, "AB-123-CD", "Compact city car", 10L, "Toyota", 20L, "Corolla", 30L, "Sedan"),
+                document(2L, "XY-987-ZZ", "Family car with a Toyota roof box", 11L, "Citroën", 21L, "Berlingo", 31L, "Van"),
+                document(3L, "TT-555-AA", "Sporty", 10L, "Toyota", 22L, "Supra", 32L, "Coupe")));
+        index.rebuild();
+    }
+
+    @Test
+    void search_ranksExactFieldMatchesAboveDescriptionMatches() {
+        assertEquals(List.of(1L, 3L, 2L), index.search("toyota"));
+    }
+
+    @Test
+    void search_supportsPrefixInfixTyposAndFoldedAccents() {
+        assertEquals(List.of(1L), index.search("Corol"));
+        assertEquals(List.of(2L), index.search("erlin"));
+        assertEquals(List.of(1L), index.search("corrola"));
+        assertEquals(List.of(2L), index.search("citroen"));
+        assertEquals(List.of(1L), index.search("ab123cd"));
+    }
+
+    @Test
+    void search_requiresEveryToken() {
+        assertEquals(List.of(3L), index.search("toyota supra"));
+        assertEquals(List.of(2L), index.search("toyota berlingo"));
+        assertEquals(List.of(), index.search("supra berlingo"));
+    }
+
+    @Test
+    void catalogChanges_updateTheIndex() {
+        given(vehicleRepository.findSearchDocumentById(3L)).willReturn(Optional.of(
+                document(3L, "TT-555-AA", "Sporty", 10L, "Toyota", 23L, "GR86", 32L, "Coupe")));
+
+        index.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.VEHICLE, 3L, null, false));
+        index.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.BRAND, 10L, "Lexus", false));
+        index.onCatalogChanged(new VehicleCatalogChangedEvent(this, VehicleCatalogChangedEvent.Kind.VEHICLE, 2L, null, true));
+
+        assertEquals(List.of(), index.search("supra"));
+        assertEquals(List.of(1L, 3L), index.search("lexus"));
+        assertEquals(List.of(), index.search("berlingo"));
+        assertEquals(List.of(), index.search("toyota"));
+    }
+
+    @Test
+    void findIds_pagesTheFilteredMatchesBestFirstWithoutASort() {
+        // The database returns the matches passing the other filters in ID order
+        given(vehicleRepository.findIds(any(), eq(Pageable.unpaged()))).willReturn(new PageImpl<>(List.of(2L, 3L)));
+
+        Page<Long> page = index.findIds(VehicleFilter.builder().search("toyota").build(), null, PageRequest.of(0, 1));
+
+        assertEquals(List.of(3L), page.getContent());
+        assertEquals(2, page.getTotalElements());
+        assertEquals(List.of(), index.findIds(VehicleFilter.builder().search("toyota supra berlingo").build(), null, PageRequest.of(0, 1)).getContent());
+    }
+
+    @Test
+    void findIds_checksLargeMatchSetsAPageSizedWindowAtATime() {
+        List<VehicleSearchDocument> fleet = new ArrayList<>();
+        for (long id = 1; id <= 120; id++) {
+            fleet.add(document(id, "PL-" + id, "", 40L, "Dacia", 50L, "Logan", 60L, "Sedan"));
+        }
+        given(vehicleRepository.findSearchDocuments()).willReturn(fleet);
+        index.rebuild();
+        // The database lets the even IDs of each window through
+        given(vehicleRepository.findIds(any(), eq(Pageable.unpaged()))).willAnswer(invocation -> {
+            List<Long> candidates = invocation.<VehicleSpecification>getArgument(0).getSearchMatches();
+            return new PageImpl<>(candidates.stream().filter(id -> id % 2 == 0).toList());
+        });
+
+        Page<Long> page = index.findIds(VehicleFilter.builder().search("dacia").build(), null, PageRequest.of(1, 10));
+
+        assertEquals(LongStream.rangeClosed(11, 20).map(i -> i * 2).boxed().toList(), page.getContent());
+        // One window of 50 filled the page: 25 passing matches plus the 70 not checked yet
+        assertEquals(95, page.getTotalElements());
+        ArgumentCaptor<Specification<Vehicle>> specs = ArgumentCaptor.captor();
+        verify(vehicleRepository).findIds(specs.capture(), eq(Pageable.unpaged()));
+        assertEquals(VehicleSearchIndex.MIN_MATCH_WINDOW, ((VehicleSpecification) specs.getValue()).getSearchMatches().size());
+    }
+
+    @Test
+    void findIds_passesTheMatchesOfTypoQueriesToTheDatabaseForSortedPages() {
+        Pageable byPrice = PageRequest.of(0, 10, Sort.by("pricePerDay"));
+        given(vehicleRepository.findIds(any(), eq(byPrice))).willReturn(new PageImpl<>(List.of(1L), byPrice, 1));
+
+        assertEquals(List.of(1L), index.findIds(VehicleFilter.builder().search("corrola").build(), null, byPrice).getContent());
+
+        assertEquals(List.of(1L), index.specificationFor(VehicleFilter.builder().search("corrola").build()).getSearchMatches());
+        assertNull(index.specificationFor(VehicleFilter.builder().build()).getSearchMatches());
+    }
+
+    private static VehicleSearchDocument document(Long id, String plate, String description, Long brandId, String brand,
+                                                  Long modelId, String model, Long categoryId, String category) {
+        return new VehicleSearchDocument(id, plate, description, brandId, brand, modelId, model, categoryId, category);
+    }
+}
@@ -1,21 +1,38 @@
 package com.adamo.vrspfab.vehicles;
 
 import com.adamo.vrspfab.notifications.NotificationService;
+import com.adamo.vrspfab.reservations.InvalidReservationDateException;
 import com.adamo.vrspfab.vehicles.exceptions.DuplicateLicensePlateException;
 import com.adamo.vrspfab.vehicles.exceptions.InvalidVehicleDataException;
 import com.adamo.vrspfab.vehicles.mappers.VehicleMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class VehicleServiceTest {
@@ -24,10 +41,13 @@ class VehicleServiceTest {
     @Mock private VehicleMapper vehicleMapper;
     @Mock private com.adamo.vrspfab.reservations.ReservationRepository reservationRepository;
     @Mock private com.adamo.vrspfab.reservations.ReservationMapper reservationMapper;
-    @Mock private VehicleCategoryRepository vehicleCategoryRepository;
-    @Mock private VehicleBrandRepository vehicleBrandRepository;
-    @Mock private VehicleModelRepository vehicleModelRepository;
+    @Mock private VehicleReferenceData vehicleReferenceData;
     @Mock private NotificationService notificationService;
+    @Mock private com.adamo.vrspfab.reservations.AvailabilityIndex availabilityIndex;
+    @Mock private com.adamo.vrspfab.slots.SlotRepository slotRepository;
+    @Mock private VehicleSearchIndex vehicleSearchIndex;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Spy private VehicleReadCache vehicleReadCache = new VehicleReadCache(new SimpleMeterRegistry(), 15, 100, 60, 100);
 
     @InjectMocks private VehicleService vehicleService;
 
@@ -59,9 +79,65 @@ class VehicleServiceTest {
         assertThrows(InvalidVehicleDataException.class, () -> vehicleService.updateVehicle(1L, dto));
     }
 
+    @Test
+    void updateVehicleStatus_publishesThePreviousAndNewPlacement() {
+        Vehicle vehicle = Vehicle.builder().id(5L).licensePlate("AB-5").status(VehicleStatus.AVAILABLE)
+                .category(VehicleCategory.builder().id(3L).name("SUV").build())
+                .brand(VehicleBrand.builder().id(7L).name("Dacia").build())
+                .model(VehicleModel.builder().id(9L).name("Duster").build())
+                .build();
+        given(vehicleRepository.findById(5L)).willReturn(Optional.of(vehicle));
+        given(vehicleRepository.save(vehicle)).willReturn(vehicle);
+
+        vehicleService.updateVehicleStatus(5L, VehicleStatus.IN_MAINTENANCE);
+
+        ArgumentCaptor<VehicleStatusChangedEvent> event = ArgumentCaptor.forClass(VehicleStatusChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(5L, event.getValue().getVehicleId());
+        assertEquals(new VehicleStatusChangedEvent.Placement(VehicleStatus.AVAILABLE, 3L, 7L), event.getValue().getPrevious());
+        assertEquals(new VehicleStatusChangedEvent.Placement(VehicleStatus.IN_MAINTENANCE, 3L, 7L), event.getValue().getCurrent());
+    }
+
+    @Test
+    void getAvailableVehicles_whenRangeEmpty_throwsWithoutQuerying() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        VehicleFilter filter = VehicleFilter.builder().build();
+        assertThrows(InvalidReservationDateException.class,
+                () -> vehicleService.getAvailableVehicles(filter, start, start, PageRequest.of(0, 10)));
+        verifyNoInteractions(vehicleRepository);
+    }
+
     @Test
     void getVehicleById_whenNotFound_throws() {
         given(vehicleRepository.findById(42L)).willReturn(Optional.empty());
         assertThrows(com.adamo.vrspfab.common.ResourceNotFoundException.class, () -> vehicleService.getVehicleById(42L));
     }
+
+    @Test
+    void getAllVehicles_mapsCardRowsInPageOrderAndReusesThem() {
+        VehicleFilter filter = VehicleFilter.builder().build();
+        PageRequest pageable = PageRequest.of(0, 2);
+        given(vehicleSearchIndex.findIds(eq(filter), isNull(), any())).willReturn(new PageImpl<>(List.of(2L, 1L), pageable, 5));
+        given(vehicleRepository.findCardRowsByIdIn(anyCollection())).willReturn(List.of(card(1L, "AB-1"), card(2L, "AB-2")));
+        given(vehicleMapper.toDto(any(VehicleCardRow.class))).willAnswer(invocation -> {
+            VehicleCardRow row = invocation.getArgument(0);
+            VehicleDto dto = new VehicleDto();
+            dto.setId(row.getId());
+            dto.setLicensePlate(row.getLicensePlate());
+            return dto;
+        });
+
+        Page<VehicleDto> first = vehicleService.getAllVehicles(filter, pageable);
+        Page<VehicleDto> second = vehicleService.getAllVehicles(filter, pageable);
+
+        assertEquals(List.of("AB-2", "AB-1"), first.getContent().stream().map(VehicleDto::getLicensePlate).toList());
+        assertEquals(5, first.getTotalElements());
+        assertEquals(first.getContent(), second.getContent());
+        verify(vehicleRepository, times(1)).findCardRowsByIdIn(anyCollection());
+    }
+
+    private static VehicleCardRow card(Long id, String licensePlate) {
+        return new VehicleCardRow(id, 1L, "SUV", 1L, "Dacia", 1L, "Duster", null, null, 2022, licensePlate,
+                FuelType.DIESEL, VehicleStatus.AVAILABLE, 1000f, 45.0, null, null, null);
+    }
 }